@@ -0,0 +1,29 @@
+package com.rawedit.immersivesettingsview.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A String field shown as an EditTextSettingsItem
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface EditText {
+    /**
+     * @return the Setting Name Save the content is stored under
+     */
+    String key();
+
+    String message() default "";
+
+    String hint() default "";
+
+    /**
+     * @return the text of the save Button, the Button is hidden if empty
+     */
+    String buttonText() default "";
+
+    String defaultValue() default "";
+}
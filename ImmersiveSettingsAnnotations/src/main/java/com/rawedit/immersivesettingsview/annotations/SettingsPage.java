@@ -0,0 +1,25 @@
+package com.rawedit.immersivesettingsview.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a plain config class as a Page.
+ * For a class Foo the processor generates FooSettings with a key constant, a typed getter and setter
+ * for every annotated field and the code which builds the Page, without any reflection at runtime.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface SettingsPage {
+    /**
+     * @return the short name of the Page, unique within the SettingsView
+     */
+    String title();
+
+    /**
+     * @return the text of the entry on the Main Page, the title if empty
+     */
+    String itemName() default "";
+}
@@ -0,0 +1,35 @@
+package com.rawedit.immersivesettingsview.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A float field shown as a SliderSettingsItem
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Slider {
+    /**
+     * @return the Setting Name Save the value is stored under
+     */
+    String key();
+
+    String message() default "";
+
+    float min() default 0f;
+
+    float max() default 100f;
+
+    float step() default 1f;
+
+    /**
+     * @return the value while nothing is saved, clamped to min and max
+     */
+    float defaultValue() default 0f;
+
+    String minPattern() default "%f";
+
+    String maxPattern() default "%f";
+}
@@ -0,0 +1,22 @@
+package com.rawedit.immersivesettingsview.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A boolean field shown as a SwitchSettingsItem
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Switch {
+    /**
+     * @return the Setting Name Save the state is stored under
+     */
+    String key();
+
+    String text() default "";
+
+    boolean defaultValue() default false;
+}
@@ -0,0 +1,51 @@
+package com.rawedit.immersivesettingsview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The color math which runs for every Item when the colors of a SettingsView change
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ColorMathBenchmark {
+
+    private int[] colors;
+
+    @Setup
+    public void setup() {
+        colors = new int[256];
+        Random random = new Random(42);
+        for(int i = 0; i < colors.length; i++) {
+            colors[i] = random.nextInt();
+        }
+    }
+
+    @Benchmark
+    public int adjustAlpha() {
+        int result = 0;
+        for(int color : colors) {
+            result ^= ColorMath.adjustAlpha(color, 0.3f);
+        }
+        return result;
+    }
+
+    // The thumb and track colors of a Switch for every color
+    @Benchmark
+    public void togglePalette(Blackhole blackhole) {
+        for(int color : colors) {
+            blackhole.consume(ColorMath.toggleThumbColors(color));
+            blackhole.consume(ColorMath.toggleTrackColors(color));
+        }
+    }
+}
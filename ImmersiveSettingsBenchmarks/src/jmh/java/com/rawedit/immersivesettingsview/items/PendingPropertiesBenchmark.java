@@ -0,0 +1,107 @@
+package com.rawedit.immersivesettingsview.items;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The write and read paths of the property store and the mailbox of the Items
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PendingPropertiesBenchmark {
+
+    private static final int PROPERTIES = 16;
+    private static final long ALL = (1L << PROPERTIES) - 1;
+    private static final Runnable NOTHING = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+    private static final Integer[] SLOTS = new Integer[PROPERTIES];
+
+    static {
+        for(int i = 0; i < PROPERTIES; i++) {
+            SLOTS[i] = i;
+        }
+    }
+
+    private final PendingProperties properties = new PendingProperties(PROPERTIES);
+    private final PendingProperties copy = new PendingProperties(PROPERTIES);
+    private final ItemMailbox mailbox = new ItemMailbox();
+    private int counter;
+
+    // A changed value for every property, then one apply pass
+    @Benchmark
+    public long putAndTake() {
+        counter++;
+        for(int i = 0; i < PROPERTIES; i++) {
+            properties.putInt(i, counter + i);
+        }
+        return properties.take(ALL);
+    }
+
+    // Rewriting the same values is the common case while binding, they are dropped
+    @Benchmark
+    public long putUnchanged() {
+        for(int i = 0; i < PROPERTIES; i++) {
+            properties.putInt(i, i);
+        }
+        return properties.take(ALL);
+    }
+
+    @Benchmark
+    public int read() {
+        int sum = 0;
+        for(int i = 0; i < PROPERTIES; i++) {
+            sum += properties.getInt(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int contentHash() {
+        return properties.contentHash(ALL);
+    }
+
+    @Benchmark
+    public long copyFrom() {
+        copy.copyFrom(properties, ALL);
+        return copy.take(ALL);
+    }
+
+    // Two updates per slot, the first one is dropped
+    @Benchmark
+    public void mailboxPostAndDrain() {
+        for(int i = 0; i < PROPERTIES * 2; i++) {
+            mailbox.post(SLOTS[i % PROPERTIES], NOTHING);
+        }
+        mailbox.drain();
+    }
+
+    @State(Scope.Group)
+    public static class Shared {
+        final PendingProperties properties = new PendingProperties(PROPERTIES);
+        int counter;
+    }
+
+    // A background thread writes while the main thread applies
+    @Benchmark
+    @Group("contended")
+    public void writer(Shared shared) {
+        shared.properties.putInt(shared.counter++ & (PROPERTIES - 1), shared.counter);
+    }
+
+    @Benchmark
+    @Group("contended")
+    public long applier(Shared shared) {
+        return shared.properties.take(ALL);
+    }
+}
@@ -0,0 +1,45 @@
+package com.rawedit.immersivesettingsview.items;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting of Slider values, which runs for every frame of a drag
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValuePatternBenchmark {
+
+    @Param({"%f", "%f%", "From %f to %f px"})
+    public String pattern;
+
+    private ValuePattern valuePattern;
+    private final StringBuilder builder = new StringBuilder();
+    private float value;
+
+    @Setup
+    public void setup() {
+        valuePattern = ValuePattern.of(pattern);
+    }
+
+    @Benchmark
+    public StringBuilder format() {
+        value += 0.37f;
+        if(value > 1000) value = -1000;
+        return valuePattern.format(value, 2, builder);
+    }
+
+    @Benchmark
+    public ValuePattern compile() {
+        return new ValuePattern(pattern);
+    }
+}
@@ -0,0 +1,73 @@
+package com.rawedit.immersivesettingsview.pages;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indexing and matching Items by their Stable IDs when a Page gets a new list
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PageDiffBenchmark {
+
+    @Param({"50", "1000"})
+    public int size;
+
+    private String[] oldIds;
+    private int[] oldHashes;
+    private String[] unchangedIds;
+    private String[] shuffledIds;
+    private int[] newHashes;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        oldIds = new String[size];
+        oldHashes = new int[size];
+        for(int i = 0; i < size; i++) {
+            oldIds[i] = "item_" + i;
+            oldHashes[i] = random.nextInt();
+        }
+        unchangedIds = oldIds.clone();
+        // A tenth of the Items moved, removed or inserted
+        ArrayList<String> ids = new ArrayList<>();
+        Collections.addAll(ids, oldIds);
+        for(int i = 0; i < size / 10; i++) {
+            switch(i % 3) {
+                case 0:
+                    ids.add(random.nextInt(ids.size()), ids.remove(random.nextInt(ids.size())));
+                    break;
+                case 1:
+                    ids.remove(random.nextInt(ids.size()));
+                    break;
+                default:
+                    ids.add(random.nextInt(ids.size()), "new_" + i);
+            }
+        }
+        shuffledIds = ids.toArray(new String[0]);
+        newHashes = new int[Math.max(size, shuffledIds.length)];
+        System.arraycopy(oldHashes, 0, newHashes, 0, size);
+    }
+
+    @Benchmark
+    public PageDiff unchanged() {
+        return PageDiff.compute(oldIds, oldHashes, unchangedIds, oldHashes);
+    }
+
+    @Benchmark
+    public PageDiff reordered() {
+        return PageDiff.compute(oldIds, oldHashes, shuffledIds, newHashes);
+    }
+}
@@ -0,0 +1,87 @@
+package com.rawedit.immersivesettingsview.schema;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a schema from its binary cache, assembling it in a SettingsModel and looking up Items by key
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SchemaBenchmark {
+
+    private static final long SOURCE_VERSION = 1;
+
+    @Param({"10", "100"})
+    public int pageCount;
+
+    private List<PageNode> pages;
+    private SettingsSchema schema;
+    private ByteBuffer encoded;
+    private String[] keys;
+
+    @Setup
+    public void setup() {
+        pages = new ArrayList<>();
+        ArrayList<String> allKeys = new ArrayList<>();
+        for(int p = 0; p < pageCount; p++) {
+            ArrayList<ItemNode> items = new ArrayList<>();
+            String toggle = "page" + p + "_enabled";
+            items.add(new ItemNode.Builder(ItemNode.TYPE_SWITCH).set(ItemNode.ATTR_KEY, toggle).set(ItemNode.ATTR_TEXT, "Enabled").set(ItemNode.ATTR_DEFAULT, true).build());
+            items.add(new ItemNode.Builder(ItemNode.TYPE_SLIDER).set(ItemNode.ATTR_KEY, "page" + p + "_size").set(ItemNode.ATTR_DEPENDS_ON, toggle)
+                    .set(ItemNode.ATTR_MESSAGE, "Size").set(ItemNode.ATTR_MIN, 0f).set(ItemNode.ATTR_MAX, 100f).set(ItemNode.ATTR_MIN_PATTERN, "%f%").build());
+            items.add(new ItemNode.Builder(ItemNode.TYPE_CHOICE).set(ItemNode.ATTR_KEY, "page" + p + "_mode").set(ItemNode.ATTR_MESSAGE, "Mode")
+                    .addOption("a", "First").addOption("b", "Second").addOption("c", "Third").build());
+            items.add(new ItemNode.Builder(ItemNode.TYPE_EDITTEXT).set(ItemNode.ATTR_KEY, "page" + p + "_name").set(ItemNode.ATTR_HINT, "Name").build());
+            for(ItemNode item : items) {
+                allKeys.add(item.getString(ItemNode.ATTR_KEY));
+            }
+            pages.add(new PageNode("Page " + p, "Page " + p + " Settings", null, items));
+        }
+        schema = new SettingsSchema(pages, new ArrayList<ItemNode>());
+        encoded = ByteBuffer.wrap(SchemaCodec.encode(schema, SOURCE_VERSION));
+        keys = allKeys.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return SchemaCodec.encode(schema, SOURCE_VERSION);
+    }
+
+    @Benchmark
+    public SettingsSchema decode() throws IOException {
+        return SchemaCodec.decode(encoded.duplicate(), SOURCE_VERSION);
+    }
+
+    // Includes the dependency check of SettingsSchema
+    @Benchmark
+    public SettingsSchema assembleModel() {
+        SettingsModel model = new SettingsModel();
+        for(PageNode page : pages) {
+            model.addPage(page);
+        }
+        return model.snapshot();
+    }
+
+    @Benchmark
+    public int findItems() {
+        int found = 0;
+        for(int i = 0; i < keys.length; i += 7) {
+            if(schema.findItem(keys[i]) != null) found++;
+        }
+        return found;
+    }
+}
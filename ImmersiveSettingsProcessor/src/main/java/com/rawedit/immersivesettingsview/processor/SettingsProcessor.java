@@ -0,0 +1,371 @@
+package com.rawedit.immersivesettingsview.processor;
+
+import com.rawedit.immersivesettingsview.annotations.CheckBox;
+import com.rawedit.immersivesettingsview.annotations.EditText;
+import com.rawedit.immersivesettingsview.annotations.SettingsPage;
+import com.rawedit.immersivesettingsview.annotations.Slider;
+import com.rawedit.immersivesettingsview.annotations.Switch;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates a FooSettings class for every class Foo annotated with @SettingsPage.
+ * It contains a KEY_ constant and a typed getter and setter over the SharedPreferences of the SettingsView
+ * for every annotated field, and the code which creates the Page and its Items.
+ * The Page is created empty and builds its Items when it is shown first, see SettingsPage.ContentProvider.
+ */
+public class SettingsProcessor extends AbstractProcessor {
+
+    private static final String LIBRARY = "com.rawedit.immersivesettingsview";
+    private static final String SUFFIX = "Settings";
+    // The tolerance of the Material Slider for values which have to be a multiple of the step size
+    private static final double STEP_THRESHOLD = .0001;
+
+    // One annotated field, with everything the generated code needs
+    private static final class Setting {
+        final Element field;
+        final String name;
+        final String key;
+        final String itemClass;
+        final String type;
+        final String valueType;
+        // Literals of the annotation values
+        final String text;
+        final String extra;
+
+        Setting(Element field, String key, String itemClass, String type, String valueType, String text, String extra) {
+            this.field = field;
+            this.name = field.getSimpleName().toString();
+            this.key = key;
+            this.itemClass = itemClass;
+            this.type = type;
+            this.valueType = valueType;
+            this.text = text;
+            this.extra = extra;
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new LinkedHashSet<>(Arrays.asList(SettingsPage.class.getCanonicalName(), Switch.class.getCanonicalName(),
+                CheckBox.class.getCanonicalName(), Slider.class.getCanonicalName(), EditText.class.getCanonicalName()));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        // Keys are shared by all Pages, since they are stored in the same SharedPreferences
+        HashMap<String, Element> keys = new HashMap<>();
+        for(Element element : roundEnv.getElementsAnnotatedWith(SettingsPage.class)) {
+            if(element.getKind() != ElementKind.CLASS) {
+                error(element, "@SettingsPage is only allowed on classes");
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            List<Setting> settings = collect(type, keys);
+            if(settings == null) continue;
+            try {
+                write(type, settings);
+            }catch (IOException e) {
+                error(type, "Could not write the settings class: " + e.getMessage());
+            }
+        }
+        for(Class<? extends java.lang.annotation.Annotation> annotation : Arrays.asList(Switch.class, CheckBox.class, Slider.class, EditText.class)) {
+            for(Element field : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if(field.getEnclosingElement().getAnnotation(SettingsPage.class) == null) {
+                    error(field, "@" + annotation.getSimpleName() + " needs a class annotated with @SettingsPage");
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the settings of the class in declaration order or null if there were errors
+     */
+    private List<Setting> collect(TypeElement type, HashMap<String, Element> keys) {
+        ArrayList<Setting> settings = new ArrayList<>();
+        boolean valid = true;
+        for(Element field : type.getEnclosedElements()) {
+            if(field.getKind() != ElementKind.FIELD) continue;
+            Setting setting = null;
+            Switch switchSetting = field.getAnnotation(Switch.class);
+            CheckBox checkBox = field.getAnnotation(CheckBox.class);
+            Slider slider = field.getAnnotation(Slider.class);
+            EditText editText = field.getAnnotation(EditText.class);
+            int count = (switchSetting != null ? 1 : 0) + (checkBox != null ? 1 : 0) + (slider != null ? 1 : 0) + (editText != null ? 1 : 0);
+            if(count == 0) continue;
+            if(count > 1) {
+                error(field, "A field can only be one kind of setting");
+                valid = false;
+                continue;
+            }
+            if(field.getModifiers().contains(Modifier.STATIC)) {
+                error(field, "Settings can not be static fields");
+                valid = false;
+                continue;
+            }
+            TypeMirror fieldType = field.asType();
+            if(switchSetting != null) {
+                if(fieldType.getKind() != TypeKind.BOOLEAN) valid = typeError(field, "@Switch", "boolean");
+                setting = new Setting(field, switchSetting.key(), "SwitchSettingsItem", "SWITCH", "boolean",
+                        literal(switchSetting.text()), String.valueOf(switchSetting.defaultValue()));
+            }else if(checkBox != null) {
+                if(fieldType.getKind() != TypeKind.BOOLEAN) valid = typeError(field, "@CheckBox", "boolean");
+                setting = new Setting(field, checkBox.key(), "CheckBoxSettingsItem", "CHECKBOX", "boolean",
+                        literal(checkBox.text()), String.valueOf(checkBox.defaultValue()));
+            }else if(slider != null) {
+                if(fieldType.getKind() != TypeKind.FLOAT) valid = typeError(field, "@Slider", "float");
+                float defaultValue = Math.max(slider.min(), Math.min(slider.max(), slider.defaultValue()));
+                if(!isFinite(slider.min()) || !isFinite(slider.max()) || !isFinite(slider.step()) || !isFinite(slider.defaultValue())) {
+                    error(field, "@Slider needs finite numbers for min, max, step and defaultValue");
+                    valid = false;
+                }else if(!(slider.min() < slider.max()) || !(slider.step() > 0)) {
+                    error(field, "@Slider needs min < max and a positive step");
+                    valid = false;
+                }else if(!isMultipleOfStep(slider.max() - slider.min(), slider.step())) {
+                    error(field, "@Slider needs max - min to be a multiple of the step " + slider.step());
+                    valid = false;
+                }else if(!isMultipleOfStep(defaultValue - slider.min(), slider.step())) {
+                    error(field, "@Slider needs defaultValue - min to be a multiple of the step " + slider.step());
+                    valid = false;
+                }
+                setting = new Setting(field, slider.key(), "SliderSettingsItem", "SLIDER", "float",
+                        literal(slider.message()), floatLiteral(defaultValue));
+            }else {
+                if(!fieldType.toString().equals(String.class.getName())) valid = typeError(field, "@EditText", "String");
+                setting = new Setting(field, editText.key(), "EditTextSettingsItem", "EDITTEXT", "String",
+                        literal(editText.message()), literal(editText.defaultValue()));
+            }
+            if(setting.key.isEmpty()) {
+                error(field, "The key of a setting can not be empty");
+                valid = false;
+            }else if(keys.containsKey(setting.key)) {
+                error(field, "The key \"" + setting.key + "\" is already used by " + keys.get(setting.key).getEnclosingElement() + "." + keys.get(setting.key));
+                valid = false;
+            }else {
+                keys.put(setting.key, field);
+            }
+            settings.add(setting);
+        }
+        return valid ? settings : null;
+    }
+
+    private void write(TypeElement type, List<Setting> settings) throws IOException {
+        SettingsPage page = type.getAnnotation(SettingsPage.class);
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String className = type.getSimpleName() + SUFFIX;
+        String itemName = page.itemName().isEmpty() ? page.title() : page.itemName();
+
+        StringBuilder sb = new StringBuilder();
+        if(!packageName.isEmpty()) sb.append("package ").append(packageName).append(";\n\n");
+        sb.append("import android.content.Context;\n");
+        sb.append("import android.content.SharedPreferences;\n\n");
+        sb.append("import ").append(LIBRARY).append(".SettingsView;\n");
+        sb.append("import ").append(LIBRARY).append(".items.SettingsItem;\n");
+        LinkedHashSet<String> itemClasses = new LinkedHashSet<>();
+        for(Setting setting : settings) {
+            itemClasses.add(setting.itemClass);
+        }
+        for(String itemClass : itemClasses) {
+            sb.append("import ").append(LIBRARY).append(".items.").append(itemClass).append(";\n");
+        }
+        sb.append("import ").append(LIBRARY).append(".pages.SettingsPage;\n\n");
+        sb.append("import java.util.LinkedHashMap;\n");
+        sb.append("import java.util.Map;\n\n");
+        sb.append("/**\n * Generated from ").append(type.getQualifiedName()).append(", do not edit.\n */\n");
+        sb.append("public final class ").append(className).append(" {\n\n");
+        sb.append("    public static final String TITLE = ").append(literal(page.title())).append(";\n");
+        sb.append("    public static final String ITEM_NAME = ").append(literal(itemName)).append(";\n\n");
+        for(Setting setting : settings) {
+            sb.append("    public static final String ").append(keyConstant(setting)).append(" = ").append(literal(setting.key)).append(";\n");
+        }
+        sb.append("\n    private final SharedPreferences preferences;\n\n");
+        sb.append("    public ").append(className).append("(Context context) {\n");
+        sb.append("        this(context.getSharedPreferences(SettingsView.settingsName, Context.MODE_PRIVATE));\n");
+        sb.append("    }\n\n");
+        sb.append("    public ").append(className).append("(SharedPreferences preferences) {\n");
+        sb.append("        this.preferences = preferences;\n");
+        sb.append("    }\n");
+        for(Setting setting : settings) {
+            writeAccessors(sb, setting);
+        }
+        writePageFactory(sb, settings);
+        sb.append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+        try(Writer writer = file.openWriter()) {
+            writer.write(sb.toString());
+        }
+    }
+
+    private void writeAccessors(StringBuilder sb, Setting setting) {
+        String property = Character.toUpperCase(setting.name.charAt(0)) + setting.name.substring(1);
+        String key = keyConstant(setting);
+        String getter = ("boolean".equals(setting.valueType) ? "is" : "get") + property;
+        String accessor = "boolean".equals(setting.valueType) ? "Boolean" : "float".equals(setting.valueType) ? "Float" : "String";
+        sb.append("\n    public ").append(setting.valueType).append(' ').append(getter).append("() {\n");
+        sb.append("        return preferences.get").append(accessor).append('(').append(key).append(", ").append(setting.extra).append(");\n");
+        sb.append("    }\n\n");
+        sb.append("    public void set").append(property).append('(').append(setting.valueType).append(" value) {\n");
+        sb.append("        preferences.edit().put").append(accessor).append('(').append(key).append(", value).apply();\n");
+        sb.append("    }\n");
+    }
+
+    private void writePageFactory(StringBuilder sb, List<Setting> settings) {
+        sb.append("\n    /**\n     * @return an empty Page which creates its Items when it is shown first\n     */\n");
+        sb.append("    public static SettingsPage createPage(final SettingsView settingsView) {\n");
+        sb.append("        SettingsPage page = settingsView.createSettingsPage();\n");
+        sb.append("        page.setTitle(TITLE);\n");
+        sb.append("        page.setItemName(ITEM_NAME);\n");
+        sb.append("        page.setContentProvider(new SettingsPage.ContentProvider() {\n");
+        sb.append("            @Override\n");
+        sb.append("            public void buildContent(SettingsPage page) {\n");
+        sb.append("                addItems(settingsView, page);\n");
+        sb.append("            }\n\n");
+        sb.append("            @Override\n");
+        sb.append("            public Map<String, String> getSearchText() {\n");
+        sb.append("                LinkedHashMap<String, String> text = new LinkedHashMap<>();\n");
+        for(Setting setting : settings) {
+            sb.append("                text.put(").append(keyConstant(setting)).append(", ").append(searchText(setting)).append(");\n");
+        }
+        sb.append("                return text;\n");
+        sb.append("            }\n");
+        sb.append("        });\n");
+        sb.append("        return page;\n");
+        sb.append("    }\n\n");
+        sb.append("    /**\n     * Adds the Items of all settings to the Page\n     */\n");
+        sb.append("    public static void addItems(SettingsView settingsView, SettingsPage page) {\n");
+        for(Setting setting : settings) {
+            String variable = setting.name + "Item";
+            sb.append("        ").append(setting.itemClass).append(' ').append(variable).append(" = (").append(setting.itemClass)
+                    .append(") settingsView.createSettingsItem(SettingsItem.Type.").append(setting.type).append(");\n");
+            writeItemSetup(sb, setting, variable);
+            // The key is set after the text, since setting the text derives a key if there is none yet
+            sb.append("        ").append(variable).append(".setSettingNameSave(").append(keyConstant(setting)).append(");\n");
+            sb.append("        ").append(variable).append(".setStableId(").append(keyConstant(setting)).append(");\n");
+            sb.append("        page.add(").append(variable).append(");\n");
+        }
+        sb.append("    }\n");
+    }
+
+    private void writeItemSetup(StringBuilder sb, Setting setting, String variable) {
+        String indent = "        " + variable;
+        Element field = setting.field;
+        switch (setting.type) {
+            case "SWITCH":
+            case "CHECKBOX":
+                sb.append(indent).append(".setText(").append(setting.text).append(");\n");
+                sb.append(indent).append(".setDefaultChecked(").append(setting.extra).append(");\n");
+                break;
+            case "SLIDER": {
+                Slider slider = field.getAnnotation(Slider.class);
+                sb.append(indent).append(".setMessage(").append(setting.text).append(");\n");
+                sb.append(indent).append(".setMinimum(").append(floatLiteral(slider.min())).append(", ").append(literal(slider.minPattern())).append(");\n");
+                sb.append(indent).append(".setMaximum(").append(floatLiteral(slider.max())).append(", ").append(literal(slider.maxPattern())).append(");\n");
+                sb.append(indent).append(".setStepSize(").append(floatLiteral(slider.step())).append(");\n");
+                sb.append(indent).append(".setDefaultValue(").append(setting.extra).append(");\n");
+                break;
+            }
+            case "EDITTEXT": {
+                EditText editText = field.getAnnotation(EditText.class);
+                if(editText.message().isEmpty()) {
+                    sb.append(indent).append(".setShowMessage(false);\n");
+                }else {
+                    sb.append(indent).append(".setMessage(").append(setting.text).append(");\n");
+                }
+                sb.append(indent).append(".setEditTextHint(").append(literal(editText.hint())).append(");\n");
+                if(editText.buttonText().isEmpty()) {
+                    sb.append(indent).append(".setShowButton(false);\n");
+                }else {
+                    sb.append(indent).append(".setButtonText(").append(literal(editText.buttonText())).append(");\n");
+                }
+                sb.append(indent).append(".setDefaultContent(").append(setting.extra).append(");\n");
+                break;
+            }
+        }
+    }
+
+    private String searchText(Setting setting) {
+        if("EDITTEXT".equals(setting.type)) {
+            EditText editText = setting.field.getAnnotation(EditText.class);
+            StringBuilder text = new StringBuilder();
+            for(String part : new String[]{editText.message(), editText.hint(), editText.buttonText()}) {
+                if(part.isEmpty()) continue;
+                if(text.length() > 0) text.append('\n');
+                text.append(part);
+            }
+            return literal(text.toString());
+        }
+        return setting.text;
+    }
+
+    // fontScale -> KEY_FONT_SCALE
+    private static String keyConstant(Setting setting) {
+        StringBuilder sb = new StringBuilder("KEY_");
+        String name = setting.name;
+        for(int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if(Character.isUpperCase(c) && i > 0 && !Character.isUpperCase(name.charAt(i - 1))) sb.append('_');
+            sb.append(Character.toUpperCase(c));
+        }
+        return sb.toString();
+    }
+
+    private String literal(String value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    private static String floatLiteral(float value) {
+        return Float.toString(value) + "f";
+    }
+
+    private static boolean isFinite(float value) {
+        return !Float.isNaN(value) && !Float.isInfinite(value);
+    }
+
+    /**
+     * Same check as the Material Slider does at runtime, so an invalid Slider fails the build instead
+     */
+    private static boolean isMultipleOfStep(float value, float step) {
+        double steps = new BigDecimal(Float.toString(value)).divide(new BigDecimal(Float.toString(step)), MathContext.DECIMAL64).doubleValue();
+        return Math.abs(Math.round(steps) - steps) < STEP_THRESHOLD;
+    }
+
+    private boolean typeError(Element field, String annotation, String expected) {
+        error(field, annotation + " needs a " + expected + " field");
+        return false;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,146 @@
+package com.rawedit.immersivesettingsview.processor;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * Runs the processor on small config classes. The generated code is compiled against stubs
+ * of the Android and library classes it uses (src/test/resources/stubs).
+ */
+public class SettingsProcessorTest {
+
+    private static final String[] STUBS = {
+            "android/content/Context.java",
+            "android/content/SharedPreferences.java",
+            "com/rawedit/immersivesettingsview/SettingsView.java",
+            "com/rawedit/immersivesettingsview/items/SettingsItem.java",
+            "com/rawedit/immersivesettingsview/items/SwitchSettingsItem.java",
+            "com/rawedit/immersivesettingsview/items/CheckBoxSettingsItem.java",
+            "com/rawedit/immersivesettingsview/items/SliderSettingsItem.java",
+            "com/rawedit/immersivesettingsview/items/EditTextSettingsItem.java",
+            "com/rawedit/immersivesettingsview/pages/SettingsPage.java",
+    };
+
+    private static Compilation compile(String... configLines) {
+        List<JavaFileObject> files = new ArrayList<>();
+        for(String stub : STUBS) {
+            files.add(JavaFileObjects.forResource("stubs/" + stub));
+        }
+        files.add(JavaFileObjects.forSourceLines("test.DisplayConfig", configLines));
+        return javac().withProcessors(new SettingsProcessor()).compile(files);
+    }
+
+    private static String[] config(String... fieldLines) {
+        List<String> lines = new ArrayList<>(Arrays.asList(
+                "package test;",
+                "import com.rawedit.immersivesettingsview.annotations.*;",
+                "@SettingsPage(title = \"Display\")",
+                "class DisplayConfig {"));
+        lines.addAll(Arrays.asList(fieldLines));
+        lines.add("}");
+        return lines.toArray(new String[0]);
+    }
+
+    @Test
+    public void allSettingTypes_generateCompilingClass() {
+        Compilation compilation = compile(config(
+                "@Switch(key = \"dark_mode\", text = \"Dark mode\", defaultValue = true) boolean darkMode;",
+                "@CheckBox(key = \"big_font\", text = \"Big font\") boolean bigFont;",
+                "@Slider(key = \"font_scale\", message = \"Font size\", min = 80, max = 150, step = 5, defaultValue = 100, minPattern = \"%f%\") float fontScale;",
+                "@Slider(key = \"contrast\", min = 0, max = 1, step = 0.1f, defaultValue = 0.3f) float contrast;",
+                "@EditText(key = \"name\", hint = \"Name\", buttonText = \"Save\", defaultValue = \"me\") String name;"));
+
+        assertThat(compilation).succeededWithoutWarnings();
+        assertThat(compilation).generatedSourceFile("test.DisplayConfigSettings").contentsAsUtf8String()
+                .contains("public static final String KEY_DARK_MODE = \"dark_mode\";");
+        assertThat(compilation).generatedSourceFile("test.DisplayConfigSettings").contentsAsUtf8String()
+                .contains("return preferences.getFloat(KEY_FONT_SCALE, 100.0f);");
+        assertThat(compilation).generatedSourceFile("test.DisplayConfigSettings").contentsAsUtf8String()
+                .contains("nameItem.setShowMessage(false);");
+    }
+
+    @Test
+    public void sliderDefault_isClamped() {
+        Compilation compilation = compile(config(
+                "@Slider(key = \"volume\", min = 0, max = 10, defaultValue = 50) float volume;"));
+
+        assertThat(compilation).succeeded();
+        assertThat(compilation).generatedSourceFile("test.DisplayConfigSettings").contentsAsUtf8String()
+                .contains("volumeItem.setDefaultValue(10.0f);");
+    }
+
+    @Test
+    public void sliderRange_mustBeMultipleOfStep() {
+        Compilation compilation = compile(config(
+                "@Slider(key = \"volume\", min = 0, max = 10, step = 3) float volume;"));
+
+        assertThat(compilation).hadErrorContaining("max - min to be a multiple of the step");
+    }
+
+    @Test
+    public void sliderDefault_mustBeMultipleOfStep() {
+        Compilation compilation = compile(config(
+                "@Slider(key = \"volume\", min = 0, max = 10, step = 2, defaultValue = 3) float volume;"));
+
+        assertThat(compilation).hadErrorContaining("defaultValue - min to be a multiple of the step");
+    }
+
+    @Test
+    public void sliderRange_mustNotBeEmpty() {
+        Compilation compilation = compile(config(
+                "@Slider(key = \"volume\", min = 5, max = 5) float volume;"));
+
+        assertThat(compilation).hadErrorContaining("min < max and a positive step");
+    }
+
+    @Test
+    public void sliderNumbers_mustBeFinite() {
+        Compilation nan = compile(config(
+                "@Slider(key = \"volume\", min = 0, max = 10, defaultValue = Float.NaN) float volume;"));
+        Compilation infinite = compile(config(
+                "@Slider(key = \"volume\", min = 0, max = Float.POSITIVE_INFINITY) float volume;"));
+
+        assertThat(nan).hadErrorContaining("finite numbers for min, max, step and defaultValue");
+        assertThat(infinite).hadErrorContaining("finite numbers for min, max, step and defaultValue");
+    }
+
+    @Test
+    public void wrongFieldType_isRejected() {
+        Compilation compilation = compile(config(
+                "@Switch(key = \"dark_mode\") int darkMode;"));
+
+        assertThat(compilation).hadErrorContaining("@Switch needs a boolean field");
+    }
+
+    @Test
+    public void duplicateKey_isRejected() {
+        Compilation compilation = compile(config(
+                "@Switch(key = \"same\") boolean first;",
+                "@CheckBox(key = \"same\") boolean second;"));
+
+        assertThat(compilation).hadErrorContaining("The key \"same\" is already used");
+    }
+
+    @Test
+    public void settingOutsideOfPage_isRejected() {
+        Compilation compilation = compile(
+                "package test;",
+                "import com.rawedit.immersivesettingsview.annotations.*;",
+                "class DisplayConfig {",
+                "@Switch(key = \"dark_mode\") boolean darkMode;",
+                "}");
+
+        assertThat(compilation).hadErrorContaining("needs a class annotated with @SettingsPage");
+    }
+}
@@ -0,0 +1,21 @@
+package android.content;
+
+public interface SharedPreferences {
+    boolean getBoolean(String key, boolean defValue);
+
+    float getFloat(String key, float defValue);
+
+    String getString(String key, String defValue);
+
+    Editor edit();
+
+    interface Editor {
+        Editor putBoolean(String key, boolean value);
+
+        Editor putFloat(String key, float value);
+
+        Editor putString(String key, String value);
+
+        void apply();
+    }
+}
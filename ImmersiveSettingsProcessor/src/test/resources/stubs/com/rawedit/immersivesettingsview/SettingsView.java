@@ -0,0 +1,16 @@
+package com.rawedit.immersivesettingsview;
+
+import com.rawedit.immersivesettingsview.items.SettingsItem;
+import com.rawedit.immersivesettingsview.pages.SettingsPage;
+
+public class SettingsView {
+    public static String settingsName = "ImmersiveSettingsView";
+
+    public SettingsPage createSettingsPage() {
+        return null;
+    }
+
+    public SettingsItem createSettingsItem(SettingsItem.Type type) {
+        return null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.rawedit.immersivesettingsview.items;
+
+public class EditTextSettingsItem extends SettingsItem {
+    public void setMessage(String msg) {
+    }
+
+    public void setShowMessage(boolean show) {
+    }
+
+    public void setEditTextHint(String hint) {
+    }
+
+    public void setButtonText(String txt) {
+    }
+
+    public void setShowButton(boolean show) {
+    }
+
+    public void setDefaultContent(String defaultContent) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.rawedit.immersivesettingsview.items;
+
+public abstract class SettingsItem {
+    public enum Type {
+        TEXT, SWITCH, CHECKBOX, EDITTEXT, SLIDER, CUSTOM, CHOICE
+    }
+
+    public void setSettingNameSave(String settingNameSave) {
+    }
+
+    public void setStableId(String stableId) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.rawedit.immersivesettingsview.items;
+
+public class SliderSettingsItem extends SettingsItem {
+    public void setMessage(String msg) {
+    }
+
+    public void setMinimum(float min, String pattern) {
+    }
+
+    public void setMaximum(float max, String pattern) {
+    }
+
+    public void setStepSize(float stepSize) {
+    }
+
+    public void setDefaultValue(float defaultValue) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.rawedit.immersivesettingsview.items;
+
+public class SwitchSettingsItem extends SettingsItem {
+    public void setText(String text) {
+    }
+
+    public void setDefaultChecked(boolean defaultChecked) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.rawedit.immersivesettingsview.pages;
+
+import com.rawedit.immersivesettingsview.items.SettingsItem;
+
+import java.util.Map;
+
+public class SettingsPage {
+    public interface ContentProvider {
+        void buildContent(SettingsPage page);
+
+        Map<String, String> getSearchText();
+    }
+
+    public void setTitle(String title) {
+    }
+
+    public void setItemName(String itemName) {
+    }
+
+    public void setContentProvider(ContentProvider contentProvider) {
+    }
+
+    public void add(SettingsItem item) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.rawedit.immersivesettingsview;
+
+/**
+ * Color calculations on packed ARGB ints.
+ * Pure Java with the same results as android.graphics.Color, so it can be benchmarked on the JVM.
+ */
+public final class ColorMath {
+
+    // The unchecked thumb of the Switches
+    public static final int THUMB_OFF = 0xFFF1F1F1;
+    public static final int BLACK = 0xFF000000;
+    public static final float TRACK_ALPHA = 0.3f;
+
+    private ColorMath() {
+    }
+
+    /**
+     * @param color the color
+     * @param factor the alpha is multiplied with this factor
+     * @return the color with the changed alpha
+     */
+    public static int adjustAlpha(int color, float factor) {
+        int alpha = Math.round((color >>> 24) * factor);
+        return (alpha << 24) | (color & 0x00FFFFFF);
+    }
+
+    /**
+     * @param color the color of a checked toggle
+     * @return the thumb colors for the unchecked and checked state
+     */
+    public static int[] toggleThumbColors(int color) {
+        return new int[] {THUMB_OFF, color};
+    }
+
+    /**
+     * @param color the color of a checked toggle
+     * @return the track colors for the unchecked and checked state
+     */
+    public static int[] toggleTrackColors(int color) {
+        return new int[] {adjustAlpha(BLACK, TRACK_ALPHA), adjustAlpha(color, TRACK_ALPHA)};
+    }
+}
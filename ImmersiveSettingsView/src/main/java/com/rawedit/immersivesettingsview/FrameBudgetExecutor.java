@@ -0,0 +1,85 @@
+package com.rawedit.immersivesettingsview;
+
+import android.view.Choreographer;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs tasks on the main thread, at most for the given time budget per frame.
+ * Tasks which do not fit into the current frame are continued in the next frame.
+ * Tasks can be submitted from any thread.
+ */
+public final class FrameBudgetExecutor implements Executor {
+
+    public static final long DEFAULT_BUDGET_NANOS = 8_000_000L;
+    /**
+     * The budget for building Pages, small enough to leave the rest of a 60 Hz frame for layout and drawing
+     */
+    public static final long PAGE_BUILD_BUDGET_NANOS = 4_000_000L;
+
+    private static FrameBudgetExecutor main;
+
+    private final long budgetNanos;
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            runFrame();
+        }
+    };
+
+    private final Runnable postFrameCallback = new Runnable() {
+        @Override
+        public void run() {
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
+    };
+
+    public FrameBudgetExecutor(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * @return the shared Executor with the default budget of 8 ms per frame
+     */
+    public static synchronized FrameBudgetExecutor getMain() {
+        if(main == null) {
+            main = new FrameBudgetExecutor(DEFAULT_BUDGET_NANOS);
+        }
+        return main;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        schedule();
+    }
+
+    public boolean isIdle() {
+        return tasks.isEmpty();
+    }
+
+    private void schedule() {
+        if(!scheduled.compareAndSet(false, true)) return;
+        if(SettingsExecutor.isMainThread()) {
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }else {
+            SettingsExecutor.mainHandler().post(postFrameCallback);
+        }
+    }
+
+    private void runFrame() {
+        long start = System.nanoTime();
+        scheduled.set(false);
+        Runnable task;
+        while((task = tasks.poll()) != null) {
+            task.run();
+            if(System.nanoTime() - start >= budgetNanos) break;
+        }
+        if(!tasks.isEmpty()) schedule();
+    }
+}
@@ -0,0 +1,69 @@
+package com.rawedit.immersivesettingsview;
+
+/**
+ * Timings of a single Page opening, reported by SettingsView.OnPageLifecycleListener.
+ * All values are in nanoseconds, the phase timings only contain the work done on the main Thread
+ * between the tap (or setPage call) and the first frame of the Page.
+ */
+public final class PageMetrics {
+
+    private final String page;
+    private final long tapToFirstFrameNanos;
+    private final long transitionNanos;
+    private final long[] phaseNanos;
+
+    PageMetrics(String page, long tapToFirstFrameNanos, long transitionNanos, long[] phaseNanos) {
+        this.page = page;
+        this.tapToFirstFrameNanos = tapToFirstFrameNanos;
+        this.transitionNanos = transitionNanos;
+        this.phaseNanos = phaseNanos;
+    }
+
+    /**
+     * @return the title of the shown Page
+     */
+    public String getPage() {
+        return page;
+    }
+
+    /**
+     * @return the time from the tap (including the open Page delay) until the first frame of the Page was drawn
+     */
+    public long getTapToFirstFrameNanos() {
+        return tapToFirstFrameNanos;
+    }
+
+    public long getBuildNanos() {
+        return phaseNanos[SettingsMetrics.PAGE_BUILD];
+    }
+
+    public long getInflateNanos() {
+        return phaseNanos[SettingsMetrics.INFLATE];
+    }
+
+    public long getStateLoadNanos() {
+        return phaseNanos[SettingsMetrics.LOAD_STATE];
+    }
+
+    public long getThemeApplyNanos() {
+        return phaseNanos[SettingsMetrics.THEME_APPLY];
+    }
+
+    /**
+     * @return the duration of the page transition or 0 if layout changes are not animated or the transition was cancelled
+     */
+    public long getTransitionNanos() {
+        return transitionNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "PageMetrics{" + page
+                + ", tapToFirstFrame=" + tapToFirstFrameNanos / 1000 + "us"
+                + ", build=" + getBuildNanos() / 1000 + "us"
+                + ", inflate=" + getInflateNanos() / 1000 + "us"
+                + ", stateLoad=" + getStateLoadNanos() / 1000 + "us"
+                + ", themeApply=" + getThemeApplyNanos() / 1000 + "us"
+                + ", transition=" + transitionNanos / 1000 + "us}";
+    }
+}
@@ -0,0 +1,138 @@
+package com.rawedit.immersivesettingsview;
+
+import android.os.Looper;
+import android.transition.Transition;
+import android.view.ViewTreeObserver;
+
+import com.rawedit.immersivesettingsview.pages.SettingsPage;
+
+/**
+ * Measures one Page opening at a time, from the tap until the first frame and the end of the transition.
+ * Only used on the main Thread, except for onPhase which filters out work of other Threads.
+ */
+final class PageOpenTracker implements SettingsMetrics.Listener {
+
+    interface Callback {
+        void onPageShown(SettingsPage page, PageMetrics metrics);
+    }
+
+    private final Callback callback;
+
+    private long tapTime = 0;
+    private boolean active = false;
+    private int generation = 0;
+    private long[] phaseNanos = new long[SettingsMetrics.PHASE_COUNT];
+
+    PageOpenTracker(Callback callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * Starts a new measurement unless one is already running (the tap is earlier than the setPage call)
+     * @param now System.nanoTime() of the tap
+     */
+    void begin(long now) {
+        if(active) return;
+        active = true;
+        tapTime = now;
+        phaseNanos = new long[SettingsMetrics.PHASE_COUNT];
+        SettingsMetrics.addCapture(this);
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    @Override
+    public void onPhase(String page, int phase, long nanos) {
+        if(Looper.myLooper() != Looper.getMainLooper()) return;
+        phaseNanos[phase] += nanos;
+    }
+
+    /**
+     * The Page was added, waits for its first frame and the end of the transition
+     * @param page the shown Page
+     * @param transition the running transition or null if not animated
+     */
+    void shown(SettingsPage page, Transition transition) {
+        if(!active) return;
+        active = false;
+        SettingsMetrics.removeCapture(this);
+        final int current = ++generation;
+        final Measurement measurement = new Measurement(page, tapTime, phaseNanos, transition != null);
+        if(transition != null) {
+            transition.addListener(new Transition.TransitionListener() {
+                @Override
+                public void onTransitionStart(Transition transition) {
+                    measurement.transitionStart = System.nanoTime();
+                }
+
+                @Override
+                public void onTransitionEnd(Transition transition) {
+                    transition.removeListener(this);
+                    if(measurement.transitionStart != 0) measurement.transitionNanos = System.nanoTime() - measurement.transitionStart;
+                    measurement.transitionDone = true;
+                    report(measurement, current);
+                }
+
+                @Override
+                public void onTransitionCancel(Transition transition) {
+                    transition.removeListener(this);
+                    measurement.transitionDone = true;
+                    report(measurement, current);
+                }
+
+                @Override
+                public void onTransitionPause(Transition transition) {
+                }
+
+                @Override
+                public void onTransitionResume(Transition transition) {
+                }
+            });
+        }
+        final ViewTreeObserver observer = page.getViewTreeObserver();
+        observer.addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                if(observer.isAlive()) {
+                    observer.removeOnPreDrawListener(this);
+                }else {
+                    page.getViewTreeObserver().removeOnPreDrawListener(this);
+                }
+                measurement.firstFrame = System.nanoTime();
+                // A transition which did not start with the first frame will not run
+                if(measurement.transitionStart == 0) measurement.transitionDone = true;
+                report(measurement, current);
+                return true;
+            }
+        });
+    }
+
+    private void report(Measurement measurement, int current) {
+        if(measurement.reported || measurement.firstFrame == 0 || !measurement.transitionDone) return;
+        measurement.reported = true;
+        // A newer Page replaced this one before it was fully shown
+        if(current != generation) return;
+        callback.onPageShown(measurement.page, new PageMetrics(measurement.page.getTitle(),
+                measurement.firstFrame - measurement.tapTime, measurement.transitionNanos, measurement.phaseNanos));
+    }
+
+    private static final class Measurement {
+        final SettingsPage page;
+        final long tapTime;
+        final long[] phaseNanos;
+        long firstFrame = 0;
+        long transitionStart = 0;
+        long transitionNanos = 0;
+        boolean transitionDone;
+        boolean reported = false;
+
+        Measurement(SettingsPage page, long tapTime, long[] phaseNanos, boolean animated) {
+            this.page = page;
+            this.tapTime = tapTime;
+            this.phaseNanos = phaseNanos;
+            this.transitionDone = !animated;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.rawedit.immersivesettingsview;
+
+/**
+ * Aggregated timings of one Page, per SettingsMetrics phase.
+ * Instances returned by SettingsMetrics are snapshots and do not change anymore.
+ */
+public final class PageTimings {
+
+    private final String page;
+    private final long[] counts = new long[SettingsMetrics.PHASE_COUNT];
+    private final long[] totalNanos = new long[SettingsMetrics.PHASE_COUNT];
+    private final long[] maxNanos = new long[SettingsMetrics.PHASE_COUNT];
+
+    PageTimings(String page) {
+        this.page = page;
+    }
+
+    void record(int phase, long nanos) {
+        counts[phase]++;
+        totalNanos[phase] += nanos;
+        if(nanos > maxNanos[phase]) maxNanos[phase] = nanos;
+    }
+
+    PageTimings copy() {
+        PageTimings copy = new PageTimings(page);
+        System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+        System.arraycopy(totalNanos, 0, copy.totalNanos, 0, totalNanos.length);
+        System.arraycopy(maxNanos, 0, copy.maxNanos, 0, maxNanos.length);
+        return copy;
+    }
+
+    /**
+     * @return the title of the Page or an empty String for work outside of any Page
+     */
+    public String getPage() {
+        return page;
+    }
+
+    /**
+     * @param phase a SettingsMetrics phase
+     * @return how often the phase was measured
+     */
+    public long getCount(int phase) {
+        return counts[phase];
+    }
+
+    public long getTotalNanos(int phase) {
+        return totalNanos[phase];
+    }
+
+    public long getMaxNanos(int phase) {
+        return maxNanos[phase];
+    }
+
+    public long getAverageNanos(int phase) {
+        return counts[phase] == 0 ? 0 : totalNanos[phase] / counts[phase];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("PageTimings{").append(page);
+        for(int phase = 0; phase < SettingsMetrics.PHASE_COUNT; phase++) {
+            sb.append(", ").append(SettingsMetrics.getPhaseName(phase)).append('=')
+                    .append(counts[phase]).append("x/").append(totalNanos[phase] / 1000).append("us");
+        }
+        return sb.append('}').toString();
+    }
+}
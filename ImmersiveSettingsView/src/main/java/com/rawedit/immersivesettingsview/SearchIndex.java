@@ -0,0 +1,579 @@
+package com.rawedit.immersivesettingsview;
+
+import com.rawedit.immersivesettingsview.items.SettingsItem;
+import com.rawedit.immersivesettingsview.pages.SettingsPage;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Full text index over the searchable text (messages, hints, button texts, page titles) of Pages and Items.
+ * It is built from the Item properties and plain metadata, not from views, so Pages which are not shown
+ * or not built yet (see SettingsPage.ContentProvider) are covered too.
+ * Words are indexed by their first one and two characters, all text by its trigrams.
+ * Queries shorter than three characters only match word starts, longer ones match anywhere in the text.
+ * The index is updated incrementally when Items are added or their text changes, it can be searched from any thread.
+ */
+public final class SearchIndex {
+
+    public static final class Result {
+        private final String[] path;
+        private final String itemId;
+        private final String text;
+        private final int score;
+
+        Result(String[] path, String itemId, String text, int score) {
+            this.path = path;
+            this.itemId = itemId;
+            this.text = text;
+            this.score = score;
+        }
+
+        /**
+         * @return the titles of the Pages leading to the result, starting with SettingsView.MAIN_PAGE_NAME
+         */
+        public String[] getPath() {
+            return path.clone();
+        }
+
+        /**
+         * @return the title of the Page which contains the result
+         */
+        public String getPage() {
+            return path[path.length - 1];
+        }
+
+        /**
+         * @return the Stable ID of the matching Item or null if the Page itself matched
+         */
+        public String getItemId() {
+            return itemId;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * @return the rank of the result, higher is better
+         */
+        public int getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" + Arrays.toString(path) + ", " + itemId + ", " + text + ", " + score + "}";
+        }
+    }
+
+    private static final class Document {
+        final Object owner;
+        final Object group;
+        final String[] path;
+        final String itemId;
+        final String text;
+        final String normalized;
+        // Ids are reused, the generation tells a Document from an earlier one with the same id
+        final long generation;
+
+        Document(Object owner, Object group, String[] path, String itemId, String text, long generation) {
+            this.owner = owner;
+            this.group = group;
+            this.path = path;
+            this.itemId = itemId;
+            this.text = text;
+            this.normalized = normalize(text);
+            this.generation = generation;
+        }
+    }
+
+    // The Documents of one Page (or any other owner of several Documents)
+    private static final class Group {
+        final String[] parentPath;
+        final ArrayList<Object> owners = new ArrayList<>();
+
+        Group(String[] parentPath) {
+            this.parentPath = parentPath;
+        }
+    }
+
+    // Unsorted set of Document ids
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size = 0;
+
+        void add(int id) {
+            if(size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        void remove(int id) {
+            for(int i = 0; i < size; i++) {
+                if(ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final Comparator<Result> RANKING = new Comparator<Result>() {
+        @Override
+        public int compare(Result a, Result b) {
+            if(a.score != b.score) return a.score > b.score ? -1 : 1;
+            return Integer.compare(a.text.length(), b.text.length());
+        }
+    };
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Indexed by Document id, removed Documents leave a null which is reused
+    private final ArrayList<Document> documents = new ArrayList<>();
+    private final ArrayList<Integer> freeIds = new ArrayList<>();
+    // The generation of the last added Document, only changed with the write lock held
+    private long generation = 0;
+    private final IdentityHashMap<Object, Integer> byOwner = new IdentityHashMap<>();
+    private final IdentityHashMap<Object, Group> groups = new IdentityHashMap<>();
+    private final HashMap<Long, Postings> trigrams = new HashMap<>();
+    private final HashMap<String, Postings> prefixes = new HashMap<>();
+
+    /**
+     * Indexes the Page (its title and item name) and all its Items, replaces an earlier index of the Page
+     * @param parentPath the titles of the Pages leading to the Page
+     * @param page the Page
+     */
+    public void addPage(String[] parentPath, SettingsPage page) {
+        lock.writeLock().lock();
+        try {
+            removeGroupLocked(page);
+            Group group = new Group(parentPath.clone());
+            groups.put(page, group);
+            String[] path = append(parentPath, page.getTitle());
+            putLocked(page, page, path, null, joinNonEmpty(page.getItemName(), page.getTitle()));
+            group.owners.add(page);
+            for(SettingsItem item : page.getItems()) {
+                putLocked(item, page, path, item.getStableId(), item.getSearchText());
+                group.owners.add(item);
+            }
+            if(!page.isBuilt()) {
+                // The Items do not exist yet, their text comes from the ContentProvider
+                for(Map.Entry<String, String> entry : page.getContentProvider().getSearchText().entrySet()) {
+                    Object owner = new Object();
+                    putLocked(owner, page, path, entry.getKey(), entry.getValue());
+                    group.owners.add(owner);
+                }
+            }
+        }finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes the Page again, after its title or Items changed
+     * @param page a Page passed to addPage before
+     */
+    public void updatePage(SettingsPage page) {
+        String[] parentPath;
+        lock.readLock().lock();
+        try {
+            Group group = groups.get(page);
+            if(group == null) return;
+            parentPath = group.parentPath;
+        }finally {
+            lock.readLock().unlock();
+        }
+        addPage(parentPath, page);
+    }
+
+    public void removePage(SettingsPage page) {
+        lock.writeLock().lock();
+        try {
+            removeGroupLocked(page);
+        }finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes an Item which was added to an indexed Page
+     * @param page the Page containing the Item
+     * @param item the Item
+     */
+    public void addItem(SettingsPage page, SettingsItem item) {
+        lock.writeLock().lock();
+        try {
+            Group group = groups.get(page);
+            if(group == null) return;
+            putLocked(item, page, append(group.parentPath, page.getTitle()), item.getStableId(), item.getSearchText());
+            group.owners.add(item);
+        }finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes an Item which is not part of an indexed Page (like the Items of the Main Page)
+     * @param path the titles of the Pages leading to the Item, including the Page containing it
+     * @param item the Item
+     */
+    public void addItem(String[] path, SettingsItem item) {
+        put(path, item.getStableId(), item.getSearchText(), item);
+    }
+
+    /**
+     * Indexes plain metadata, for Items which do not exist as views yet
+     * @param path the titles of the Pages leading to the Item, including the Page containing it
+     * @param itemId the Stable ID the Item will have or null for the Page itself
+     * @param text the searchable text
+     * @param owner the key to update or remove the entry with
+     */
+    public void put(String[] path, String itemId, String text, Object owner) {
+        lock.writeLock().lock();
+        try {
+            putLocked(owner, owner, path.clone(), itemId, text);
+        }finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Called when the searchable text of an Item changed, unknown Items are ignored
+     * @param item the Item
+     */
+    public void update(SettingsItem item) {
+        String text = item.getSearchText();
+        lock.writeLock().lock();
+        try {
+            Integer id = byOwner.get(item);
+            if(id == null) return;
+            Document document = documents.get(id);
+            if(document.text.equals(text) && Objects.equals(document.itemId, item.getStableId())) return;
+            removeLocked(item);
+            putLocked(item, document.group, document.path, item.getStableId(), text);
+        }finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Object owner) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(owner);
+        }finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            freeIds.clear();
+            byOwner.clear();
+            groups.clear();
+            trigrams.clear();
+            prefixes.clear();
+        }finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of indexed entries
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byOwner.size();
+        }finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Receives the results of a streamed search, on the searching Thread
+     */
+    public interface ResultCallback {
+        /**
+         * Checked before every batch, a cancelled search stops without a further call of onResults
+         */
+        boolean isCancelled();
+
+        /**
+         * @param results the best results found so far, best first
+         * @param complete true for the final results
+         */
+        void onResults(List<Result> results, boolean complete);
+    }
+
+    /**
+     * Finds all entries which contain every word of the query.
+     * Matches at the start of a word and in Page titles rank higher.
+     * @param query the words to search for
+     * @param limit the maximum number of results
+     * @return the results, best first
+     */
+    public List<Result> search(String query, int limit) {
+        final ArrayList<List<Result>> complete = new ArrayList<>(1);
+        search(query, limit, Integer.MAX_VALUE, new ResultCallback() {
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+
+            @Override
+            public void onResults(List<Result> results, boolean done) {
+                if(done) complete.add(results);
+            }
+        });
+        return complete.get(0);
+    }
+
+    /**
+     * Streamed version of search, meant for a background Thread.
+     * The candidates are scored in batches and the lock is released in between, so updates of the index are not blocked.
+     * After every batch which found something the ranked results so far are handed to the callback.
+     * @param query the words to search for
+     * @param limit the maximum number of results
+     * @param batchSize the number of candidates scored per batch
+     * @param callback receives the results and is asked for cancellation
+     */
+    public void search(String query, int limit, int batchSize, ResultCallback callback) {
+        String[] words = tokenize(normalize(query));
+        if(words.length == 0 || limit <= 0) {
+            callback.onResults(Collections.<Result>emptyList(), true);
+            return;
+        }
+        int[] candidates;
+        long candidateGeneration;
+        lock.readLock().lock();
+        try {
+            candidates = candidatesLocked(words);
+            candidateGeneration = generation;
+        }finally {
+            lock.readLock().unlock();
+        }
+        ArrayList<Result> results = new ArrayList<>();
+        for(int start = 0; start < candidates.length; start += batchSize) {
+            if(callback.isCancelled()) return;
+            int end = (int) Math.min(candidates.length, (long) start + batchSize);
+            int before = results.size();
+            lock.readLock().lock();
+            try {
+                for(int i = start; i < end; i++) {
+                    // Documents removed since the candidates were taken are skipped, like Documents
+                    // added since then which reuse the id of a candidate, they were never checked against the query
+                    Document document = candidates[i] < documents.size() ? documents.get(candidates[i]) : null;
+                    if(document == null || document.generation > candidateGeneration) continue;
+                    int score = score(document, words);
+                    if(score > 0) results.add(new Result(document.path, document.itemId, document.text, score));
+                }
+            }finally {
+                lock.readLock().unlock();
+            }
+            if(results.size() != before) {
+                Collections.sort(results, RANKING);
+                if(results.size() > limit) results.subList(limit, results.size()).clear();
+                if(end < candidates.length) callback.onResults(new ArrayList<>(results), false);
+            }
+        }
+        if(callback.isCancelled()) return;
+        callback.onResults(results, true);
+    }
+
+    /**
+     * @return a copy of the smallest candidate set over all words
+     */
+    private int[] candidatesLocked(String[] words) {
+        Postings candidates = null;
+        for(String word : words) {
+            Postings postings = candidatesLocked(word);
+            if(postings == null) return new int[0];
+            if(candidates == null || postings.size < candidates.size) candidates = postings;
+        }
+        return Arrays.copyOf(candidates.ids, candidates.size);
+    }
+
+    /**
+     * @return the Documents which may contain the word or null if none can
+     */
+    private Postings candidatesLocked(String word) {
+        if(word.length() < 3) {
+            Postings postings = prefixes.get(word);
+            return postings == null || postings.size == 0 ? null : postings;
+        }
+        Postings smallest = null;
+        for(int i = 0; i + 3 <= word.length(); i++) {
+            Postings postings = trigrams.get(trigram(word, i));
+            if(postings == null || postings.size == 0) return null;
+            if(smallest == null || postings.size < smallest.size) smallest = postings;
+        }
+        return smallest;
+    }
+
+    /**
+     * @return the score of the Document or 0 if it does not contain all words
+     */
+    private static int score(Document document, String[] words) {
+        String text = document.normalized;
+        int score = document.itemId == null ? 1 : 0;
+        for(String word : words) {
+            int best = 0;
+            int index = text.indexOf(word);
+            while(index >= 0) {
+                boolean wordStart = index == 0 || !Character.isLetterOrDigit(text.charAt(index - 1));
+                int end = index + word.length();
+                boolean wordEnd = end == text.length() || !Character.isLetterOrDigit(text.charAt(end));
+                int current = wordStart ? (wordEnd ? 6 : 4) : 1;
+                // Short words only match at the start of a word, like their prefix index
+                if(word.length() < 3 && !wordStart) current = 0;
+                if(current > best) best = current;
+                if(best == 6) break;
+                index = text.indexOf(word, index + 1);
+            }
+            if(best == 0) return 0;
+            score += best;
+        }
+        return score;
+    }
+
+    private void putLocked(Object owner, Object group, String[] path, String itemId, String text) {
+        removeLocked(owner);
+        Document document = new Document(owner, group, path, itemId, text == null ? "" : text, ++generation);
+        int id;
+        if(freeIds.isEmpty()) {
+            id = documents.size();
+            documents.add(document);
+        }else {
+            id = freeIds.remove(freeIds.size() - 1);
+            documents.set(id, document);
+        }
+        byOwner.put(owner, id);
+        if(owner instanceof SettingsItem) ((SettingsItem) owner).setSearchIndex(this);
+        for(Long gram : trigramsOf(document.normalized)) {
+            Postings postings = trigrams.get(gram);
+            if(postings == null) {
+                postings = new Postings();
+                trigrams.put(gram, postings);
+            }
+            postings.add(id);
+        }
+        for(String prefix : prefixesOf(document.normalized)) {
+            Postings postings = prefixes.get(prefix);
+            if(postings == null) {
+                postings = new Postings();
+                prefixes.put(prefix, postings);
+            }
+            postings.add(id);
+        }
+    }
+
+    private void removeLocked(Object owner) {
+        Integer id = byOwner.remove(owner);
+        if(id == null) return;
+        if(owner instanceof SettingsItem) ((SettingsItem) owner).setSearchIndex(null);
+        Document document = documents.get(id);
+        for(Long gram : trigramsOf(document.normalized)) {
+            Postings postings = trigrams.get(gram);
+            postings.remove(id);
+            if(postings.size == 0) trigrams.remove(gram);
+        }
+        for(String prefix : prefixesOf(document.normalized)) {
+            Postings postings = prefixes.get(prefix);
+            postings.remove(id);
+            if(postings.size == 0) prefixes.remove(prefix);
+        }
+        documents.set(id, null);
+        freeIds.add(id);
+    }
+
+    private void removeGroupLocked(Object key) {
+        Group group = groups.remove(key);
+        if(group == null) return;
+        for(Object owner : group.owners) {
+            Integer id = byOwner.get(owner);
+            // Items moved to another Page belong to that one now
+            if(id != null && documents.get(id).group == key) removeLocked(owner);
+        }
+    }
+
+    // Distinct trigrams of the text, every Document is only added once per posting list
+    private static ArrayList<Long> trigramsOf(String text) {
+        ArrayList<Long> result = new ArrayList<>();
+        HashSet<Long> seen = new HashSet<>();
+        for(int i = 0; i + 3 <= text.length(); i++) {
+            Long gram = trigram(text, i);
+            if(seen.add(gram)) result.add(gram);
+        }
+        return result;
+    }
+
+    // Distinct one and two character prefixes of the words of the text
+    private static ArrayList<String> prefixesOf(String text) {
+        ArrayList<String> result = new ArrayList<>();
+        for(String word : tokenize(text)) {
+            String one = word.substring(0, 1);
+            if(!result.contains(one)) result.add(one);
+            if(word.length() > 1) {
+                String two = word.substring(0, 2);
+                if(!result.contains(two)) result.add(two);
+            }
+        }
+        return result;
+    }
+
+    private static long trigram(String text, int index) {
+        return ((long) text.charAt(index) << 32) | ((long) text.charAt(index + 1) << 16) | text.charAt(index + 2);
+    }
+
+    static String normalize(String text) {
+        if(text == null) return "";
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        for(int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if(Character.getType(c) == Character.NON_SPACING_MARK) continue;
+            sb.append(Character.isWhitespace(c) ? ' ' : c);
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    static String[] tokenize(String normalized) {
+        ArrayList<String> words = new ArrayList<>();
+        int start = -1;
+        for(int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if(letter && start < 0) {
+                start = i;
+            }else if(!letter && start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    private static String[] append(String[] path, String title) {
+        String[] result = Arrays.copyOf(path, path.length + 1);
+        result[path.length] = title;
+        return result;
+    }
+
+    private static String joinNonEmpty(String first, String second) {
+        if(first == null || first.isEmpty()) return second;
+        if(second == null || second.isEmpty() || second.equals(first)) return first;
+        return first + "\n" + second;
+    }
+}
@@ -0,0 +1,94 @@
+package com.rawedit.immersivesettingsview;
+
+import androidx.annotation.MainThread;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Search as you type over a SearchIndex.
+ * Every query runs on a background thread and cancels the one before, the ranked results
+ * are streamed back to the main thread in batches, so typing never waits for the search.
+ */
+public final class SearchSession {
+
+    // Candidates scored before the results so far are shown
+    private static final int BATCH_SIZE = 512;
+
+    public interface Listener {
+        /**
+         * Called on the main thread, only for the newest query
+         * @param query the query the results belong to
+         * @param results the best results found so far, best first
+         * @param complete true if the search is finished
+         */
+        void onResults(String query, List<SearchIndex.Result> results, boolean complete);
+    }
+
+    private final SearchIndex index;
+    private final int limit;
+    private final Listener listener;
+
+    // Every query and cancel() increments it, searches of older generations stop at their next batch
+    private final AtomicInteger generation = new AtomicInteger(0);
+
+    private String query = null;
+
+    public SearchSession(SearchIndex index, int limit, Listener listener) {
+        this.index = index;
+        this.limit = limit;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts searching for the text, an empty text reports no results immediately
+     * @param text the text of the search field
+     */
+    @MainThread
+    public void query(String text) {
+        final String q = text == null ? "" : text.trim();
+        if(q.equals(query)) return;
+        query = q;
+        final int gen = generation.incrementAndGet();
+        if(q.isEmpty()) {
+            listener.onResults(q, Collections.<SearchIndex.Result>emptyList(), true);
+            return;
+        }
+        SettingsExecutor.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                if(generation.get() != gen) return;
+                index.search(q, limit, BATCH_SIZE, new SearchIndex.ResultCallback() {
+                    @Override
+                    public boolean isCancelled() {
+                        return generation.get() != gen;
+                    }
+
+                    @Override
+                    public void onResults(List<SearchIndex.Result> results, boolean complete) {
+                        SettingsExecutor.mainHandler().post(new Runnable() {
+                            @Override
+                            public void run() {
+                                if(generation.get() == gen) listener.onResults(q, results, complete);
+                            }
+                        });
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Stops the running search, its results are not reported anymore
+     */
+    @MainThread
+    public void cancel() {
+        generation.incrementAndGet();
+        query = null;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+}
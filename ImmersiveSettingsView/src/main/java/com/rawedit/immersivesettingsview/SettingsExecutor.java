@@ -0,0 +1,73 @@
+package com.rawedit.immersivesettingsview;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared Threads of the library.
+ * Background work is done on daemon threads, results are handed back via the main Handler.
+ */
+public final class SettingsExecutor {
+
+    private static ExecutorService background;
+    private static ExecutorService serial;
+    private static Handler mainHandler;
+
+    private SettingsExecutor() {
+    }
+
+    /**
+     * @return a small Thread pool for independent background work
+     */
+    public static synchronized ExecutorService background() {
+        if(background == null) {
+            int threads = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+            background = Executors.newFixedThreadPool(threads, new WorkerFactory("ImmersiveSettings-worker"));
+        }
+        return background;
+    }
+
+    /**
+     * @return a single Thread which runs its tasks in the order they were submitted
+     */
+    public static synchronized ExecutorService serial() {
+        if(serial == null) {
+            serial = Executors.newSingleThreadExecutor(new WorkerFactory("ImmersiveSettings-serial"));
+        }
+        return serial;
+    }
+
+    public static synchronized Handler mainHandler() {
+        if(mainHandler == null) {
+            mainHandler = new Handler(Looper.getMainLooper());
+        }
+        return mainHandler;
+    }
+
+    public static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    private static class WorkerFactory implements ThreadFactory {
+
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        WorkerFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        }
+    }
+}
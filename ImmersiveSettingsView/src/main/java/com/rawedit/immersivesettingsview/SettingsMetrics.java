@@ -0,0 +1,227 @@
+package com.rawedit.immersivesettingsview;
+
+import android.os.Build;
+import android.os.Trace;
+import android.view.View;
+import android.view.ViewParent;
+
+import com.rawedit.immersivesettingsview.pages.SettingsPage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Tracing and timing of the Page and Item lifecycle.
+ * While disabled (the default) every measuring point costs one volatile read.
+ * While enabled the phases are emitted as android.os.Trace sections (and counters on API 29+),
+ * aggregated per Page and handed to the Listener.
+ */
+public final class SettingsMetrics {
+
+    public static final int PAGE_BUILD = 0;
+    public static final int INFLATE = 1;
+    public static final int LOAD_STATE = 2;
+    public static final int SAVE_STATE = 3;
+    public static final int THEME_APPLY = 4;
+    public static final int PHASE_COUNT = 5;
+
+    /**
+     * Returned by begin while the metrics are disabled
+     */
+    public static final long NOT_STARTED = 0;
+
+    private static final String[] PHASE_NAMES = {"pageBuild", "inflate", "loadState", "saveState", "themeApply"};
+    private static final String[] SECTION_NAMES = new String[PHASE_COUNT];
+    private static final String[] COUNTER_NAMES = new String[PHASE_COUNT];
+
+    static {
+        for(int phase = 0; phase < PHASE_COUNT; phase++) {
+            SECTION_NAMES[phase] = "ImmersiveSettings:" + PHASE_NAMES[phase];
+            COUNTER_NAMES[phase] = "ImmersiveSettings:" + PHASE_NAMES[phase] + "Us";
+        }
+    }
+
+    public interface Listener {
+        /**
+         * Called on the Thread which did the work
+         * @param page the title of the Page or an empty String for work outside of any Page
+         * @param phase the measured phase
+         * @param nanos the duration
+         */
+        void onPhase(String page, int phase, long nanos);
+    }
+
+    private static volatile boolean enabled = false;
+    private static volatile Listener listener;
+    // Internal listeners (like the page open measurement) which need the timings while the metrics are disabled
+    private static volatile Listener[] captures = new Listener[0];
+    // enabled or any captures, the only field begin reads
+    private static volatile boolean active = false;
+
+    private static final Object lock = new Object();
+    private static final HashMap<String, PageTimings> timings = new HashMap<>();
+
+    private SettingsMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static synchronized void setEnabled(boolean enabled) {
+        SettingsMetrics.enabled = enabled;
+        active = enabled || captures.length > 0;
+    }
+
+    public static Listener getListener() {
+        return listener;
+    }
+
+    public static void setListener(Listener listener) {
+        SettingsMetrics.listener = listener;
+    }
+
+    static synchronized void addCapture(Listener capture) {
+        Listener[] next = Arrays.copyOf(captures, captures.length + 1);
+        next[captures.length] = capture;
+        captures = next;
+        active = true;
+    }
+
+    static synchronized void removeCapture(Listener capture) {
+        Listener[] current = captures;
+        for(int i = 0; i < current.length; i++) {
+            if(current[i] == capture) {
+                Listener[] next = new Listener[current.length - 1];
+                System.arraycopy(current, 0, next, 0, i);
+                System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                captures = next;
+                active = enabled || next.length > 0;
+                return;
+            }
+        }
+    }
+
+    public static String getPhaseName(int phase) {
+        return PHASE_NAMES[phase];
+    }
+
+    /**
+     * Starts measuring a phase, every begin must be followed by an end on the same Thread
+     * @param phase the phase
+     * @return the start time or NOT_STARTED if the metrics are disabled
+     */
+    public static long begin(int phase) {
+        if(!active) return NOT_STARTED;
+        Trace.beginSection(SECTION_NAMES[phase]);
+        return System.nanoTime();
+    }
+
+    /**
+     * Ends a phase of the Page the View belongs to
+     * @param phase the phase passed to begin
+     * @param view a View of the Page (the Page itself or one of its Items), may be null
+     * @param start the value returned by begin
+     */
+    public static void end(int phase, View view, long start) {
+        if(start == NOT_STARTED) return;
+        String page = findPage(view);
+        end(phase, page == null ? "" : page, start);
+    }
+
+    /**
+     * Ends a phase of the Page with the given title
+     * @param phase the phase passed to begin
+     * @param page the title of the Page
+     * @param start the value returned by begin
+     */
+    public static void end(int phase, String page, long start) {
+        if(start == NOT_STARTED) return;
+        record(phase, page, stop(phase, start));
+    }
+
+    /**
+     * Ends the trace section of a phase without recording it, for work whose Page is not known yet
+     * @param phase the phase passed to begin
+     * @param start the value returned by begin
+     * @return the duration or 0 if the phase was not started
+     */
+    public static long stop(int phase, long start) {
+        if(start == NOT_STARTED) return 0;
+        long nanos = System.nanoTime() - start;
+        Trace.endSection();
+        if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && Trace.isEnabled()) {
+            Trace.setCounter(COUNTER_NAMES[phase], nanos / 1000);
+        }
+        return nanos;
+    }
+
+    /**
+     * Records a duration returned by stop once its Page is known
+     * @param phase the phase
+     * @param page the title of the Page
+     * @param nanos the duration
+     */
+    public static void record(int phase, String page, long nanos) {
+        String key = page == null ? "" : page;
+        synchronized (lock) {
+            PageTimings pageTimings = timings.get(key);
+            if(pageTimings == null) {
+                pageTimings = new PageTimings(key);
+                timings.put(key, pageTimings);
+            }
+            pageTimings.record(phase, nanos);
+        }
+        Listener l = listener;
+        if(l != null) l.onPhase(key, phase, nanos);
+        for(Listener capture : captures) {
+            capture.onPhase(key, phase, nanos);
+        }
+    }
+
+    /**
+     * @param view a View of a Page (the Page itself or one of its Items), may be null
+     * @return the title of the Page or null if the View is not part of a Page
+     */
+    public static String findPage(View view) {
+        ViewParent parent = view == null ? null : view.getParent();
+        if(view instanceof SettingsPage) return ((SettingsPage) view).getTitle();
+        while(parent != null) {
+            if(parent instanceof SettingsPage) return ((SettingsPage) parent).getTitle();
+            parent = parent.getParent();
+        }
+        return null;
+    }
+
+    /**
+     * @param page the title of the Page
+     * @return a snapshot of the timings of the Page or null if nothing was measured for it
+     */
+    public static PageTimings getTimings(String page) {
+        synchronized (lock) {
+            PageTimings pageTimings = timings.get(page);
+            return pageTimings == null ? null : pageTimings.copy();
+        }
+    }
+
+    /**
+     * @return snapshots of the timings of all Pages
+     */
+    public static List<PageTimings> getAllTimings() {
+        synchronized (lock) {
+            ArrayList<PageTimings> result = new ArrayList<>(timings.size());
+            for(PageTimings pageTimings : timings.values()) {
+                result.add(pageTimings.copy());
+            }
+            return result;
+        }
+    }
+
+    public static void reset() {
+        synchronized (lock) {
+            timings.clear();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.rawedit.immersivesettingsview;
+
+import android.os.Parcel;
+import android.view.View;
+
+import com.rawedit.immersivesettingsview.items.SettingsItem;
+import com.rawedit.immersivesettingsview.pages.SettingsPage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A view independent snapshot of a SettingsView: the navigation stack, the current Page,
+ * the scroll positions and the values of all built Items, including edits which are not saved yet.
+ * <p>
+ * It holds no Views or Context, so it can be kept across configuration changes (like in a ViewModel).
+ * Used on the main thread only. Created by SettingsView.retainState and consumed by SettingsView.restoreState,
+ * the values are shown without reading or writing the SharedPreferences.
+ * For process death SettingsView saves a reduced state with only the values which are not saved yet.
+ */
+public final class SettingsState {
+
+    private final ArrayList<String> backStack;
+    private final String currentPage;
+    // The key of the focused Item on the current Page
+    private String focusedItem;
+    private final HashMap<String, PageState> pages = new HashMap<>();
+
+    private static final class PageState {
+        int scrollY;
+        final HashMap<String, Object> values = new HashMap<>();
+    }
+
+    SettingsState(List<String> backStack, String currentPage) {
+        this.backStack = new ArrayList<>(backStack);
+        this.currentPage = currentPage;
+    }
+
+    /**
+     * @return the titles of the Pages to get back to, the last one is opened first
+     */
+    public List<String> getBackStack() {
+        return Collections.unmodifiableList(backStack);
+    }
+
+    /**
+     * @return the title of the shown Page, SettingsView.MAIN_PAGE_NAME for the Main Page
+     */
+    public String getCurrentPage() {
+        return currentPage;
+    }
+
+    /**
+     * @param page the title of a Page
+     * @return true if the Page was built when the state was retained and is not restored yet
+     */
+    public boolean hasPage(String page) {
+        return pages.containsKey(page);
+    }
+
+    /**
+     * @param page a built Page
+     * @param uncommittedOnly true to keep only values which are not saved to the SharedPreferences
+     */
+    void capture(SettingsPage page, boolean uncommittedOnly) {
+        PageState state = new PageState();
+        state.scrollY = page.getScrollY();
+        SettingsItem focused = currentPage.equals(page.getTitle()) ? findFocusedItem(page) : null;
+        List<SettingsItem> items = page.getItems();
+        for(int i = 0; i < items.size(); i++) {
+            SettingsItem item = items.get(i);
+            if(item == focused) focusedItem = itemKey(item, i);
+            if(uncommittedOnly && !item.hasUncommittedValue()) continue;
+            Object value = item.getStateValue();
+            if(value != null) state.values.put(itemKey(item, i), value);
+        }
+        if(state.scrollY != 0 || !state.values.isEmpty() || focused != null) pages.put(page.getTitle(), state);
+    }
+
+    // Focus can only move to the Item once its Page is attached
+    private static void requestFocus(final SettingsItem item) {
+        item.post(new Runnable() {
+            @Override
+            public void run() {
+                item.requestFocus();
+            }
+        });
+    }
+
+    private static SettingsItem findFocusedItem(SettingsPage page) {
+        View view = page.findFocus();
+        while(view != null && view != page) {
+            if(view instanceof SettingsItem) return (SettingsItem) view;
+            view = view.getParent() instanceof View ? (View) view.getParent() : null;
+        }
+        return null;
+    }
+
+    /**
+     * Shows the retained values and scroll position on a Page, every Page is restored once
+     * @param page a built Page
+     * @return false if nothing was retained for the Page
+     */
+    boolean restore(final SettingsPage page) {
+        PageState state = pages.remove(page.getTitle());
+        if(state == null) return false;
+        List<SettingsItem> items = page.getItems();
+        for(int i = 0; i < items.size(); i++) {
+            SettingsItem item = items.get(i);
+            String key = itemKey(item, i);
+            if(state.values.containsKey(key)) item.restoreStateValue(state.values.get(key));
+            if(key.equals(focusedItem) && currentPage.equals(page.getTitle())) requestFocus(item);
+        }
+        final int scrollY = state.scrollY;
+        if(scrollY != 0) {
+            // The Page has no size before its next layout, scrolling right away would be clamped to 0
+            page.post(new Runnable() {
+                @Override
+                public void run() {
+                    page.scrollTo(0, scrollY);
+                }
+            });
+        }
+        return true;
+    }
+
+    void writeToParcel(Parcel out) {
+        out.writeStringList(backStack);
+        out.writeString(currentPage);
+        out.writeString(focusedItem);
+        out.writeInt(pages.size());
+        for(Map.Entry<String, PageState> page : pages.entrySet()) {
+            out.writeString(page.getKey());
+            out.writeInt(page.getValue().scrollY);
+            out.writeInt(page.getValue().values.size());
+            for(Map.Entry<String, Object> value : page.getValue().values.entrySet()) {
+                out.writeString(value.getKey());
+                out.writeValue(value.getValue());
+            }
+        }
+    }
+
+    static SettingsState readFromParcel(Parcel in) {
+        ArrayList<String> backStack = new ArrayList<>();
+        in.readStringList(backStack);
+        SettingsState state = new SettingsState(backStack, in.readString());
+        state.focusedItem = in.readString();
+        ClassLoader loader = SettingsState.class.getClassLoader();
+        int pageCount = in.readInt();
+        for(int p = 0; p < pageCount; p++) {
+            String title = in.readString();
+            PageState page = new PageState();
+            page.scrollY = in.readInt();
+            int valueCount = in.readInt();
+            for(int v = 0; v < valueCount; v++) {
+                String key = in.readString();
+                page.values.put(key, in.readValue(loader));
+            }
+            state.pages.put(title, page);
+        }
+        return state;
+    }
+
+    // Generated Stable IDs differ between View instances, those Items are matched by their position
+    private static String itemKey(SettingsItem item, int index) {
+        return item.hasStableId() ? "id:" + item.getStableId() : "#" + index;
+    }
+}
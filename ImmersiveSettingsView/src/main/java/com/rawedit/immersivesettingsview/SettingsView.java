@@ -5,7 +5,6 @@ import android.content.res.ColorStateList;
 import android.content.res.TypedArray;
 import android.graphics.BlendMode;
 import android.graphics.BlendModeColorFilter;
-import android.graphics.Color;
 import android.graphics.PorterDuff;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.ColorDrawable;
@@ -18,10 +17,14 @@ import android.graphics.drawable.shapes.RoundRectShape;
 import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.transition.Transition;
 import android.transition.TransitionInflater;
 import android.transition.TransitionManager;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.util.SparseArray;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.EditText;
@@ -33,30 +36,32 @@ import androidx.annotation.DrawableRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.rawedit.immersivesettingsview.items.CheckBoxSettingsItem;
 import com.rawedit.immersivesettingsview.items.CustomSettingsItem;
-import com.rawedit.immersivesettingsview.items.EditTextSettingsItem;
 import com.rawedit.immersivesettingsview.items.SettingsItem;
-import com.rawedit.immersivesettingsview.items.SliderSettingsItem;
-import com.rawedit.immersivesettingsview.items.SwitchSettingsItem;
 import com.rawedit.immersivesettingsview.items.TextSettingsItem;
+import com.rawedit.immersivesettingsview.pages.SearchResultsPage;
 import com.rawedit.immersivesettingsview.pages.SettingsPage;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 
 public class SettingsView extends LinearLayout {
 
     private boolean initialized = false;
     private boolean animateLayoutChanges = true;
     private boolean showDividers = true;
+    private boolean lightweightItems = false;
 
     private int drawablePosition = TextSettingsItem.LEFT;
 
     @ColorInt
     private int rippleColor = 0;
+    @ColorInt
+    private int textColor = 0;
+    private boolean textColorSet = false;
     private long openPageDelay = 250;
 
     public static String settingsName = "ImmersiveSettingsView";
@@ -65,11 +70,18 @@ public class SettingsView extends LinearLayout {
     public static final String TAG = SettingsView.class.getSimpleName();
 
     private SettingsPage currentPage;
+    private SettingsPage mainPage;
     private HashMap<String, Object> selectablePages = new HashMap<>();
     private ArrayList<String> lastPages = new ArrayList<>();
 
     private OnPageChanged onPageChangedListener;
 
+    // Retained values of Pages which were not built yet when restoreState was called
+    private SettingsState restoredState;
+
+    private final SearchIndex searchIndex = new SearchIndex();
+    private static final int DEFAULT_SEARCH_LIMIT = 50;
+
     public interface OnPageChanged {
         /**
          * Notifies if the current page changed.
@@ -80,6 +92,29 @@ public class SettingsView extends LinearLayout {
         void pageChanged(String title);
     }
 
+    private OnPageLifecycleListener onPageLifecycleListener;
+    private final PageOpenTracker pageOpenTracker = new PageOpenTracker(new PageOpenTracker.Callback() {
+        @Override
+        public void onPageShown(SettingsPage page, PageMetrics metrics) {
+            if(onPageLifecycleListener != null) onPageLifecycleListener.onPageShown(page, metrics);
+        }
+    });
+
+    public interface OnPageLifecycleListener {
+        /**
+         * Called once the Page drew its first frame and its transition ended
+         * @param page the shown Page
+         * @param metrics the timings of the Page opening
+         */
+        void onPageShown(SettingsPage page, PageMetrics metrics);
+
+        /**
+         * Called when the Page gets removed from the View
+         * @param page the hidden Page
+         */
+        void onPageHidden(SettingsPage page);
+    }
+
     public SettingsView(@NonNull Context context) {
         this(context, null);
     }
@@ -99,6 +134,7 @@ public class SettingsView extends LinearLayout {
             rippleColor = ta.getColor(R.styleable.SettingsView_rippleColor, context.getColor(R.color.defaultRipple));
             openPageDelay = ta.getInt(R.styleable.SettingsView_openPageDelay, 250);
             showDividers = ta.getBoolean(R.styleable.SettingsView_showItemDividers, true);
+            lightweightItems = ta.getBoolean(R.styleable.SettingsView_lightweightItems, false);
         }catch (Exception e) {
             e.printStackTrace();
             // Default Values if getting attributes failed
@@ -116,7 +152,13 @@ public class SettingsView extends LinearLayout {
      * @param page the Page to add
      */
     public void add(SettingsPage page) {
-        selectablePages.put(page.getTitle(), page);
+        Object replaced = selectablePages.put(page.getTitle(), page);
+        if(replaced instanceof SettingsPage && replaced != page) {
+            searchIndex.removePage((SettingsPage) replaced);
+            ((SettingsPage) replaced).setSearchIndex(null);
+        }
+        page.setSearchIndex(searchIndex);
+        searchIndex.addPage(new String[]{MAIN_PAGE_NAME}, page);
         animateLayoutChanges = false;
         if(initialized) initMainPage();
         animateLayoutChanges = true;
@@ -124,29 +166,38 @@ public class SettingsView extends LinearLayout {
 
     public void add(SettingsItem item) {
         if(item instanceof CustomSettingsItem) {
-            CustomSettingsItem customSettingsItem = (CustomSettingsItem) item;
-            customSettingsItem.getSetupViewsListener().setupViews(customSettingsItem.getView());
+            ((CustomSettingsItem) item).setupViews();
         }
         selectablePages.put(String.valueOf(selectablePages.size()), item);
+        searchIndex.addItem(new String[]{MAIN_PAGE_NAME}, item);
         animateLayoutChanges = false;
         if(initialized) initMainPage();
         animateLayoutChanges = true;
     }
 
     /**
-     * Initializes the Main Page which displays all descendant Pages or Items
+     * Initializes the Main Page which displays all descendant Pages or Items.
+     * An existing Main Page is updated with SettingsPage.submit, so unchanged rows are kept.
+     * The saved state is restored and the Main Page shown once the update is applied.
      */
     public void initMainPage() {
-        SettingsPage main = new SettingsPage(getContext());
+        final long start = SettingsMetrics.begin(SettingsMetrics.PAGE_BUILD);
+        boolean update = mainPage != null && mainPage.getContext() == getContext();
+        final SettingsPage main = update ? mainPage : new SettingsPage(getContext());
+        mainPage = main;
         main.setRippleColor(rippleColor);
+        if(textColorSet) main.setTextColor(textColor);
         main.setItemName(MAIN_PAGE_NAME);
         main.setTitle(MAIN_PAGE_NAME);
-        Log.d(TAG, "Page Size " + selectablePages.size());
+        ArrayList<SettingsItem> entries = new ArrayList<>(selectablePages.size());
         for(Object value : selectablePages.values()) {
             if(value instanceof SettingsPage) {
                 SettingsPage page = (SettingsPage) value;
-                TextSettingsItem item = (TextSettingsItem) SettingsItem.createSettingsItem(SettingsItem.Type.TEXT, getContext());
-                main.add(item, page.getTitle());
+                // A replaced Page with the same title gets a new row
+                String stableId = "page:" + page.getTitle() + "@" + System.identityHashCode(page);
+                SettingsItem existing = update ? main.findItem(stableId) : null;
+                TextSettingsItem item = existing instanceof TextSettingsItem && existing.isLightweight() == lightweightItems
+                        ? (TextSettingsItem) existing : createPageEntry(page, stableId);
                 if(item != null) {
                     if(page.getItemDrawable() != null) {
                         item.setDrawable(page.getItemDrawable(), drawablePosition);
@@ -154,33 +205,69 @@ public class SettingsView extends LinearLayout {
                         item.setDrawable(page.getItemDrawableResource(), drawablePosition);
                     }
                     item.setText(page.getItemName());
-                    item.setOnClickListener(new OnClickListener() {
-                        @Override
-                        public void onClick(View v) {
-                            new Handler(Looper.getMainLooper()).postDelayed(new Runnable() {
-                                @Override
-                                public void run() {
-                                    Log.d(TAG, "Opening Page " + page.getTitle());
-                                    setPage(page, true);
-                                }
-                            }, openPageDelay);
-                        }
-                    });
-                    Log.d(TAG, "Inflated item " + page.getItemName());
+                    if(update) {
+                        entries.add(item);
+                    }else {
+                        main.add(item, page.getTitle());
+                    }
                 }else {
                     Log.d(TAG, "Item could not be inflated because its null: Unknown Item Type");
                 }
             }else if(value instanceof SettingsItem) {
                 SettingsItem item = (SettingsItem) value;
-                if(item.getParent() != null) {
-                    ViewGroup vg = (ViewGroup) item.getParent();
-                    vg.removeView(item);
+                if(update) {
+                    entries.add(item);
+                }else {
+                    if(item.getParent() != null) {
+                        ViewGroup vg = (ViewGroup) item.getParent();
+                        vg.removeView(item);
+                    }
+                    main.add(item);
                 }
-                main.add(item);
             }
         }
+        if(update) {
+            // The rows are diffed in the background, the state belongs to the rows after the update
+            main.submit(entries, new Runnable() {
+                @Override
+                public void run() {
+                    showMainPage(main, start);
+                }
+            });
+        }else {
+            showMainPage(main, start);
+        }
+    }
+
+    private void showMainPage(SettingsPage main, long start) {
+        if(restoredState != null) restoredState.restore(main);
+        SettingsMetrics.end(SettingsMetrics.PAGE_BUILD, MAIN_PAGE_NAME, start);
         setPage(main, false);
-        Log.d(TAG, "Main Page set");
+    }
+
+    /**
+     * @return the row of the Main Page which opens the Page or null if it could not be inflated
+     */
+    private TextSettingsItem createPageEntry(final SettingsPage page, String stableId) {
+        TextSettingsItem item = (TextSettingsItem) SettingsItem.createSettingsItem(SettingsItem.Type.TEXT, getContext(), lightweightItems);
+        if(item == null) return null;
+        item.setStableId(stableId);
+        item.setOnClickListener(new OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                if(onPageLifecycleListener != null) pageOpenTracker.begin(System.nanoTime());
+                // Built during the open delay
+                page.ensureBuilt();
+                new Handler(Looper.getMainLooper()).postDelayed(new Runnable() {
+                    @Override
+                    public void run() {
+                        Log.d(TAG, "Opening Page " + page.getTitle());
+                        setPage(page, true);
+                    }
+                }, openPageDelay);
+            }
+        });
+        return item;
     }
 
     /**
@@ -188,30 +275,48 @@ public class SettingsView extends LinearLayout {
      * @param page the page to show
      * @param saveLastPage should the current page be saved, as a page to get back to later
      */
-    public void setPage(SettingsPage page, boolean saveLastPage) {
+    public void setPage(final SettingsPage page, boolean saveLastPage) {
         if(currentPage != null && saveLastPage) {
-            Log.d(TAG, "Removing Page " + currentPage.getTitle());
             lastPages.add(currentPage.getTitle());
         }
-        if(animateLayoutChanges) TransitionManager.beginDelayedTransition(this, TransitionInflater.from(getContext()).inflateTransition(R.transition.fade_transition));
+        if(onPageLifecycleListener != null) pageOpenTracker.begin(System.nanoTime());
+        page.ensureBuilt();
+        if(restoredState != null) {
+            final SettingsState state = restoredState;
+            page.whenBuilt(new Runnable() {
+                @Override
+                public void run() {
+                    state.restore(page);
+                }
+            });
+        }
+        // Only the first delayed transition of a frame runs, it covers removing and adding the Page
+        Transition transition = null;
+        if(animateLayoutChanges) {
+            transition = TransitionInflater.from(getContext()).inflateTransition(R.transition.fade_transition);
+            TransitionManager.beginDelayedTransition(this, transition);
+        }
+        SettingsPage lastPage = currentPage;
         removeView(currentPage);
         currentPage = page;
-        if(animateLayoutChanges) TransitionManager.beginDelayedTransition(this, TransitionInflater.from(getContext()).inflateTransition(R.transition.fade_transition));
+        if(lastPage != null && lastPage != page && onPageLifecycleListener != null) onPageLifecycleListener.onPageHidden(lastPage);
         addView(page, ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT);
         if(onPageChangedListener != null) onPageChangedListener.pageChanged(page.getTitle());
-        Log.d(TAG, "Set new Page " + currentPage.getTitle());
         page.updateLayout();
         page.resetStates();
         page.setRippleColor(rippleColor);
+        if(pageOpenTracker.isActive()) pageOpenTracker.shown(page, transition);
     }
 
     /**
      * Sets the Ripple Color for the Current Page and all its descendants
      * Any Incoming Pages or Items will automatically get the Ripple Color
+     * Pages and Items which are not shown only record the color and apply it once they are shown
      * @param rippleColor the Ripple Color as @ColorInt
      */
     public void setRippleColor(@ColorInt int rippleColor) {
         this.rippleColor = rippleColor;
+        if(currentPage != null && selectablePages.get(currentPage.getTitle()) != currentPage) currentPage.setRippleColor(rippleColor);
         for(Object o : selectablePages.values()) {
             if(o instanceof SettingsPage) {
                 SettingsPage p = (SettingsPage) o;
@@ -223,25 +328,39 @@ public class SettingsView extends LinearLayout {
         }
     }
 
+    /**
+     * Sets the Alternative Color (Switch, CheckBox, Stroke or Slider color) for all Pages and Items
+     * Pages and Items which are not shown only record the color and apply it once they are shown
+     * @param alternativeColor the Alternative Color as @ColorInt
+     */
     public void setAlternativeColor(@ColorInt int alternativeColor) {
         for(Object o : selectablePages.values()) {
             if(o instanceof SettingsPage) {
                 SettingsPage p = (SettingsPage) o;
                 p.setAlternativeColor(alternativeColor);
             }else if(o instanceof SettingsItem) {
-                if(o instanceof SwitchSettingsItem) {
-                    SwitchSettingsItem i = (SwitchSettingsItem) o;
-                    i.setSwitchColor(alternativeColor);
-                }else if(o instanceof CheckBoxSettingsItem) {
-                    CheckBoxSettingsItem i = (CheckBoxSettingsItem) o;
-                    i.setCheckBoxColor(alternativeColor);
-                }else if(o instanceof EditTextSettingsItem) {
-                    EditTextSettingsItem i = (EditTextSettingsItem) o;
-                    i.setStrokeColor(alternativeColor);
-                }else if(o instanceof SliderSettingsItem) {
-                    SliderSettingsItem i = (SliderSettingsItem) o;
-                    i.setRippleColor(alternativeColor);
-                }
+                SettingsItem i = (SettingsItem) o;
+                i.setAlternativeColor(alternativeColor);
+            }
+        }
+    }
+
+    /**
+     * Sets the Text Color for all Pages and Items
+     * Pages and Items which are not shown only record the color and apply it once they are shown
+     * @param textColor the Text Color as @ColorInt
+     */
+    public void setTextColor(@ColorInt int textColor) {
+        this.textColor = textColor;
+        textColorSet = true;
+        if(currentPage != null && selectablePages.get(currentPage.getTitle()) != currentPage) currentPage.setTextColor(textColor);
+        for(Object o : selectablePages.values()) {
+            if(o instanceof SettingsPage) {
+                SettingsPage p = (SettingsPage) o;
+                p.setTextColor(textColor);
+            }else if(o instanceof SettingsItem) {
+                SettingsItem i = (SettingsItem) o;
+                i.setTextColor(textColor);
             }
         }
     }
@@ -251,6 +370,7 @@ public class SettingsView extends LinearLayout {
      * @return if there are any pages to get back to
      */
     public boolean back() {
+        if(onPageLifecycleListener != null && lastPages.size() > 0) pageOpenTracker.begin(System.nanoTime());
         if(lastPages.size() > 0) {
             Object o = selectablePages.get(lastPages.get(lastPages.size() - 1));
             if(o instanceof SettingsPage) {
@@ -267,6 +387,170 @@ public class SettingsView extends LinearLayout {
         }
     }
 
+    /**
+     * Captures the navigation stack, the scroll positions and the values of all built Pages,
+     * including edits which are not saved yet.
+     * Keep the result across a configuration change (like in a ViewModel) and pass it to restoreState of the new View.
+     * @return a snapshot without any View or Context references
+     */
+    public SettingsState retainState() {
+        SettingsState state = new SettingsState(lastPages, currentPage != null ? currentPage.getTitle() : MAIN_PAGE_NAME);
+        captureState(state, false);
+        return state;
+    }
+
+    private void captureState(SettingsState state, boolean uncommittedOnly) {
+        if(mainPage != null) state.capture(mainPage, uncommittedOnly);
+        for(Object o : selectablePages.values()) {
+            if(o instanceof SettingsPage && ((SettingsPage) o).isBuilt()) state.capture((SettingsPage) o, uncommittedOnly);
+        }
+    }
+
+    /**
+     * Shows a retained state, call it after all Pages and Items were added again.
+     * The values are shown without reading or writing the SharedPreferences,
+     * Pages which are not built yet get their values once they are opened.
+     * @param state the result of retainState of the previous View
+     */
+    public void restoreState(SettingsState state) {
+        restoredState = state;
+        if(mainPage != null) state.restore(mainPage);
+        for(Object o : selectablePages.values()) {
+            if(o instanceof SettingsPage && ((SettingsPage) o).isBuilt()) state.restore((SettingsPage) o);
+        }
+        lastPages.clear();
+        Object current = selectablePages.get(state.getCurrentPage());
+        if(current instanceof SettingsPage) {
+            lastPages.addAll(state.getBackStack());
+            if(current == currentPage) return;
+            boolean animate = animateLayoutChanges;
+            animateLayoutChanges = false;
+            setPage((SettingsPage) current, false);
+            animateLayoutChanges = animate;
+        }
+    }
+
+    /**
+     * Saves the navigation stack, the scroll positions, the focused Item and EditText contents which are not saved yet,
+     * all other values are restored from the SharedPreferences
+     */
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState savedState = new SavedState(super.onSaveInstanceState());
+        savedState.state = new SettingsState(lastPages, currentPage != null ? currentPage.getTitle() : MAIN_PAGE_NAME);
+        captureState(savedState.state, true);
+        return savedState;
+    }
+
+    /**
+     * Only the shown Page is built, the other Pages get their state once they are opened
+     */
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if(!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        restoreState(savedState.state);
+    }
+
+    // The Items share view IDs, so their views would restore each others state, SavedState covers them instead
+    @Override
+    protected void dispatchSaveInstanceState(SparseArray<Parcelable> container) {
+        dispatchFreezeSelfOnly(container);
+    }
+
+    @Override
+    protected void dispatchRestoreInstanceState(SparseArray<Parcelable> container) {
+        dispatchThawSelfOnly(container);
+    }
+
+    static class SavedState extends BaseSavedState {
+        SettingsState state;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            state = SettingsState.readFromParcel(in);
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            state.writeToParcel(out);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
+    /**
+     * Searches the messages, hints, button texts and titles of all Pages and Items, also of Pages which were never shown
+     * @param query the words to search for
+     * @return the best results, at most 50
+     */
+    public List<SearchIndex.Result> search(String query) {
+        return searchIndex.search(query, DEFAULT_SEARCH_LIMIT);
+    }
+
+    public List<SearchIndex.Result> search(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    public SearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * Opens the Page of the result, scrolls to its Item and highlights it
+     * @param result a result of search
+     * @return false if the Page or Item does not exist anymore
+     */
+    public boolean showSearchResult(SearchIndex.Result result) {
+        SettingsPage page;
+        if(MAIN_PAGE_NAME.equals(result.getPage())) {
+            if(currentPage == null || currentPage != mainPage) initMainPage();
+            page = mainPage;
+        }else {
+            Object o = selectablePages.get(result.getPage());
+            if(!(o instanceof SettingsPage)) return false;
+            page = (SettingsPage) o;
+            if(page != currentPage) setPage(page, currentPage != null);
+        }
+        if(result.getItemId() == null) return true;
+        final String itemId = result.getItemId();
+        if(!page.isBuilt()) {
+            // Large Pages are still adding their Items
+            final SettingsPage building = page;
+            page.whenBuilt(new Runnable() {
+                @Override
+                public void run() {
+                    SettingsItem item = building.findItem(itemId);
+                    if(item != null) building.highlightItem(item);
+                }
+            });
+            return true;
+        }
+        SettingsItem item = page.findItem(itemId);
+        if(item == null) return false;
+        page.highlightItem(item);
+        return true;
+    }
+
     public boolean isShowDividers() {
         return showDividers;
     }
@@ -294,6 +578,19 @@ public class SettingsView extends LinearLayout {
         this.onPageChangedListener = onPageChangedListener;
     }
 
+    public OnPageLifecycleListener getOnPageLifecycleListener() {
+        return onPageLifecycleListener;
+    }
+
+    /**
+     * This sets the Listener which gets called when a Page is hidden and once a new Page is fully shown,
+     * together with the timings of the opening (tap to first frame, build, inflate, state load and transition)
+     * @param onPageLifecycleListener the new Listener or null
+     */
+    public void setOnPageLifecycleListener(OnPageLifecycleListener onPageLifecycleListener) {
+        this.onPageLifecycleListener = onPageLifecycleListener;
+    }
+
     /**
      * Use this Method to create a new SettingsPage instead of the Constructor
      * if you have no Theme Specific Context (do not use the Application Context)
@@ -303,14 +600,58 @@ public class SettingsView extends LinearLayout {
         return new SettingsPage(getContext());
     }
 
+    /**
+     * Creates a search field with a result list which searches this View in the background while typing,
+     * a click on a result opens its Page and highlights the Item
+     * @return a new SearchResultsPage bound to this View
+     */
+    public SearchResultsPage createSearchResultsPage() {
+        SearchResultsPage page = new SearchResultsPage(getContext());
+        page.bind(this);
+        return page;
+    }
+
+    /**
+     * Creates a new Item, in the lightweight render mode if it is enabled for this View
+     * @param type the Type of the Item
+     * @return a new Settings Item
+     */
     public SettingsItem createSettingsItem(SettingsItem.Type type) {
-        return SettingsItem.createSettingsItem(type, getContext());
+        return SettingsItem.createSettingsItem(type, getContext(), lightweightItems);
     }
 
     public SettingsItem createSettingsItem(SettingsItem.Type type, int layout) {
         return SettingsItem.createSettingsItem(type, getContext(), layout);
     }
 
+    public boolean isLightweightItems() {
+        return lightweightItems;
+    }
+
+    /**
+     * Sets if Text, Switch and CheckBox Items created by this View should be lightweight.
+     * Lightweight Items are single Views which draw their content themselves.
+     * Only affects Items created after this call, the Main Page is rebuilt.
+     * @param lightweightItems true for the lightweight render mode
+     */
+    public void setLightweightItems(boolean lightweightItems) {
+        this.lightweightItems = lightweightItems;
+        if(initialized) initMainPage();
+    }
+
+    /**
+     * Creates a new Item on a worker thread, see SettingsItem.createAsync
+     * @param type the Type of the Item
+     * @param callback gets the new Item on the main thread
+     */
+    public void createSettingsItemAsync(SettingsItem.Type type, SettingsItem.OnItemCreated callback) {
+        SettingsItem.createAsync(type, getContext(), lightweightItems, callback);
+    }
+
+    public void createSettingsItemAsync(SettingsItem.Type type, int layout, SettingsItem.OnItemCreated callback) {
+        SettingsItem.createAsync(type, getContext(), layout, callback);
+    }
+
     public long getOpenPageDelay() {
         return openPageDelay;
     }
@@ -395,11 +736,7 @@ public class SettingsView extends LinearLayout {
 
     @ColorInt
     public static int adjustAlpha(@ColorInt int color, float factor) {
-        int alpha = Math.round(Color.alpha(color) * factor);
-        int red = Color.red(color);
-        int green = Color.green(color);
-        int blue = Color.blue(color);
-        return Color.argb(alpha, red, green, blue);
+        return ColorMath.adjustAlpha(color, factor);
     }
 
     public static void setCursorColor(EditText editText, @ColorInt int color) {
@@ -0,0 +1,57 @@
+package com.rawedit.immersivesettingsview.items;
+
+import java.util.HashMap;
+
+/**
+ * ChoiceDataSource for options which are already in memory.
+ * The keys default to the labels.
+ */
+public class ArrayChoiceDataSource implements ChoiceDataSource {
+
+    private final String[] labels;
+    private final String[] keys;
+
+    // Built on the first lookup
+    private HashMap<String, Integer> indices;
+
+    public ArrayChoiceDataSource(String[] labels) {
+        this(labels, null);
+    }
+
+    /**
+     * @param labels the displayed labels
+     * @param keys the stable keys of the options (same length as labels) or null to use the labels
+     */
+    public ArrayChoiceDataSource(String[] labels, String[] keys) {
+        if(keys != null && keys.length != labels.length) throw new IllegalArgumentException("Every option needs a key");
+        this.labels = labels;
+        this.keys = keys == null ? labels : keys;
+    }
+
+    @Override
+    public int getCount() {
+        return labels.length;
+    }
+
+    @Override
+    public void loadPage(int start, int count, String[] labels) {
+        System.arraycopy(this.labels, start, labels, 0, count);
+    }
+
+    @Override
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    @Override
+    public synchronized int indexOf(String key) {
+        if(indices == null) {
+            indices = new HashMap<>(keys.length * 2);
+            for(int i = 0; i < keys.length; i++) {
+                indices.put(keys[i], i);
+            }
+        }
+        Integer index = indices.get(key);
+        return index == null ? -1 : index;
+    }
+}
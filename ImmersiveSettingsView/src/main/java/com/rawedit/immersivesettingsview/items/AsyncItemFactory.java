@@ -0,0 +1,72 @@
+package com.rawedit.immersivesettingsview.items;
+
+import android.content.Context;
+import android.util.Log;
+import android.view.LayoutInflater;
+
+import com.rawedit.immersivesettingsview.FrameBudgetExecutor;
+import com.rawedit.immersivesettingsview.SettingsExecutor;
+
+/**
+ * Creates Items on the serial worker thread and hands them to the main thread in frame sized batches.
+ * Every Item gets its own clone of the LayoutInflater, because LayoutInflater is not thread safe.
+ */
+final class AsyncItemFactory {
+
+    private static final String TAG = AsyncItemFactory.class.getSimpleName();
+
+    private static final ThreadLocal<LayoutInflater> workerInflater = new ThreadLocal<>();
+
+    private AsyncItemFactory() {
+    }
+
+    /**
+     * @return the cloned inflater while an Item is created on the worker thread, else the inflater of the context
+     */
+    static LayoutInflater getInflater(Context context) {
+        LayoutInflater inflater = workerInflater.get();
+        if(inflater != null && inflater.getContext() == context) return inflater;
+        return LayoutInflater.from(context);
+    }
+
+    static void create(SettingsItem.Type type, Context context, boolean lightweight, int layout, SettingsItem.OnItemCreated callback) {
+        // The base inflater is obtained on the calling thread, only the clone is used by the worker
+        LayoutInflater base = LayoutInflater.from(context);
+        SettingsExecutor.serial().execute(new Runnable() {
+            @Override
+            public void run() {
+                SettingsItem item = null;
+                boolean failed = false;
+                try {
+                    workerInflater.set(base.cloneInContext(context));
+                    item = build(type, context, lightweight, layout);
+                }catch (RuntimeException e) {
+                    // Some Views need a Looper while they are constructed, those Items are created on the main thread
+                    Log.d(TAG, "Creating " + type + " in the background failed, falling back to the main thread");
+                    failed = true;
+                }finally {
+                    workerInflater.remove();
+                }
+                deliver(item, failed, type, context, lightweight, layout, callback);
+            }
+        });
+    }
+
+    private static void deliver(SettingsItem item, boolean failed, SettingsItem.Type type, Context context, boolean lightweight, int layout, SettingsItem.OnItemCreated callback) {
+        FrameBudgetExecutor.getMain().execute(new Runnable() {
+            @Override
+            public void run() {
+                SettingsItem result = failed ? build(type, context, lightweight, layout) : item;
+                if(result != null) result.claimForMainThread();
+                callback.itemCreated(result);
+            }
+        });
+    }
+
+    private static SettingsItem build(SettingsItem.Type type, Context context, boolean lightweight, int layout) {
+        if(type == SettingsItem.Type.CUSTOM) {
+            return SettingsItem.createSettingsItem(type, context, layout);
+        }
+        return SettingsItem.createSettingsItem(type, context, lightweight);
+    }
+}
@@ -6,7 +6,6 @@ import android.util.AttributeSet;
 import android.view.View;
 import android.widget.CompoundButton;
 
-import androidx.annotation.ColorInt;
 import androidx.annotation.Nullable;
 
 import com.google.android.material.checkbox.MaterialCheckBox;
@@ -15,16 +14,25 @@ import com.rawedit.immersivesettingsview.SettingsView;
 
 public class CheckBoxSettingsItem extends SettingsItem {
 
-    private boolean checkBoxColorChanged = false;
+    // Buffered properties, applied in this order
+    private static final int PROPERTY_TEXT = 0;
+    private static final int PROPERTY_LAYOUT_DIRECTION = 1;
+    private static final int PROPERTY_CHECKBOX_COLOR = 2;
+    private static final int PROPERTY_TEXT_COLOR = 3;
+    private static final int PROPERTY_RIPPLE_COLOR = 4;
+    private static final int PROPERTY_COUNT = 5;
 
-    @ColorInt
-    int rippleColor = 0;
-    @ColorInt
-    int checkBoxColor = 0;
+    private static final long THEME_PROPERTIES = PendingProperties.bit(PROPERTY_CHECKBOX_COLOR) | PendingProperties.bit(PROPERTY_TEXT_COLOR) | PendingProperties.bit(PROPERTY_RIPPLE_COLOR);
+
+    private volatile boolean checkBoxColorChanged = false;
 
     private MaterialCheckBox checkBox;
 
     private CompoundButton.OnCheckedChangeListener onCheckedChangeListener;
+    private OnItemCheckedChangeListener onItemCheckedChangeListener;
+
+    // The state while nothing is saved yet
+    private boolean defaultChecked = false;
 
     public CheckBoxSettingsItem(Context context) {
         this(context, null);
@@ -38,57 +46,165 @@ public class CheckBoxSettingsItem extends SettingsItem {
         this(context, attrs, defStyleAttr, 0);
     }
 
+    /**
+     * Creates a CheckBoxSettingsItem
+     * @param context a Theme specific Context
+     * @param lightweight if true the Item draws the message and the CheckBox itself instead of inflating a MaterialCheckBox
+     */
+    public CheckBoxSettingsItem(Context context, boolean lightweight) {
+        this(context, null, 0, 0, lightweight);
+    }
+
     public CheckBoxSettingsItem(Context context, @Nullable AttributeSet attrs, int defStyleAttr, int defStyleRes) {
-        super(context, attrs, defStyleAttr, defStyleRes);
+        this(context, attrs, defStyleAttr, defStyleRes, false);
+    }
+
+    public CheckBoxSettingsItem(Context context, @Nullable AttributeSet attrs, int defStyleAttr, int defStyleRes, boolean lightweight) {
+        super(context, attrs, defStyleAttr, defStyleRes, PROPERTY_COUNT, 0);
         type = Type.CHECKBOX;
-        View v = inflate(context, R.layout.setting_checkbox, this);
-        checkBox = v.findViewById(R.id.materialCheckBox);
-        checkBox.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
-            @Override
-            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
-                saveCurrentState();
-                if(onCheckedChangeListener != null) onCheckedChangeListener.onCheckedChanged(buttonView, isChecked);
-            }
-        });
-        executeQueue();
+        if(lightweight) {
+            flatRenderer = new FlatItemRenderer(this, FlatItemRenderer.TOGGLE_CHECKBOX);
+            super.setOnClickListener(new OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    setChecked(!isChecked());
+                }
+            });
+        }else {
+            View v = inflateLayout(R.layout.setting_checkbox);
+            checkBox = v.findViewById(R.id.materialCheckBox);
+            checkBox.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+                @Override
+                public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                    persistState();
+                    if(onCheckedChangeListener != null) onCheckedChangeListener.onCheckedChanged(buttonView, isChecked);
+                    if(onItemCheckedChangeListener != null) onItemCheckedChangeListener.onCheckedChanged(CheckBoxSettingsItem.this, isChecked);
+                }
+            });
+        }
         initialized = true;
-        loadSavedState();
+        applyPending();
+        restoreState();
         settingNameSave = "";
     }
 
-    @Override
-    public void setRippleColor(int color) {
-        rippleColor = color;
-        if(initialized) {
-            checkBox.setBackground(SettingsView.getAdaptiveRippleDrawable(getContext().getColor(R.color.white), rippleColor, 0));
-            if(!checkBoxColorChanged) {
-                setCheckBoxColor(rippleColor);
-            }
-        }else {
-            queue.add(new Runnable() {
+    /**
+     * Changes the state of the CheckBox, which saves the state and notifies the OnCheckedChangeListener
+     * (Lightweight Items only notify the OnItemCheckedChangeListener)
+     * @param checked the new state
+     */
+    public void setChecked(final boolean checked) {
+        if(mustDefer()) {
+            defer("checked", new Runnable() {
                 @Override
                 public void run() {
-                    checkBox.setBackground(SettingsView.getAdaptiveRippleDrawable(getContext().getColor(R.color.white), rippleColor, 0));
-                    if(!checkBoxColorChanged) {
-                        setCheckBoxColor(rippleColor);
-                    }
+                    setChecked(checked);
                 }
             });
+            return;
+        }
+        if(flatRenderer != null) {
+            if(flatRenderer.setChecked(checked)) {
+                persistState();
+                if(onItemCheckedChangeListener != null) onItemCheckedChangeListener.onCheckedChanged(this, checked);
+            }
+        }else {
+            checkBox.setChecked(checked);
         }
     }
 
+    public boolean isChecked() {
+        if(flatRenderer != null) {
+            return flatRenderer.isChecked();
+        }
+        return checkBox.isChecked();
+    }
+
+    @Override
+    protected long getThemeProperties() {
+        return THEME_PROPERTIES;
+    }
+
+    @Override
+    protected long getSearchableProperties() {
+        return PendingProperties.bit(PROPERTY_TEXT);
+    }
+
+    @Override
+    protected void applyProperty(int property) {
+        switch (property) {
+            case PROPERTY_TEXT:
+                String text = pending.getObject(PROPERTY_TEXT);
+                if(flatRenderer != null) {
+                    flatRenderer.setText(text);
+                }else {
+                    PrecomputedMessages.setMessage(checkBox, text);
+                }
+                break;
+            case PROPERTY_LAYOUT_DIRECTION:
+                int dir = pending.getInt(PROPERTY_LAYOUT_DIRECTION);
+                if(flatRenderer != null) {
+                    flatRenderer.setToggleAtEnd(dir == LAYOUT_DIRECTION_RTL);
+                }else {
+                    checkBox.setLayoutDirection(dir);
+                }
+                break;
+            case PROPERTY_CHECKBOX_COLOR:
+                applyColorToCheckBox();
+                break;
+            case PROPERTY_TEXT_COLOR:
+                int textColor = pending.getInt(PROPERTY_TEXT_COLOR);
+                if(flatRenderer != null) {
+                    flatRenderer.setTextColor(textColor);
+                }else {
+                    checkBox.setTextColor(textColor);
+                }
+                break;
+            case PROPERTY_RIPPLE_COLOR:
+                int rippleColor = pending.getInt(PROPERTY_RIPPLE_COLOR);
+                if(flatRenderer != null) {
+                    flatRenderer.setRippleColor(rippleColor);
+                }else {
+                    checkBox.setBackground(SettingsView.getAdaptiveRippleDrawable(getContext().getColor(R.color.white), rippleColor, 0));
+                }
+                break;
+        }
+    }
+
+    @Override
+    public void setRippleColor(int color) {
+        pending.putInt(PROPERTY_RIPPLE_COLOR, color);
+        if(!checkBoxColorChanged) {
+            setCheckBoxColor(color);
+        }
+        applyPending();
+    }
+
+    /**
+     * @return the MaterialCheckBox or null for lightweight Items
+     */
     @Override
     public MaterialCheckBox getView() {
         return checkBox;
     }
 
+    @Override
+    public Object getStateValue() {
+        return isChecked();
+    }
+
+    @Override
+    protected void setStateValue(Object value) {
+        if(value instanceof Boolean) setChecked((Boolean) value);
+    }
+
     @Override
     public void loadSavedState() {
         super.loadSavedState();
         if(initialized) {
             try {
-                boolean state = sharedPreferences.getBoolean(settingNameSave, false);
-                checkBox.setChecked(state);
+                boolean state = sharedPreferences.getBoolean(settingNameSave, defaultChecked);
+                setChecked(state);
             }catch (Exception e) {
                 e.printStackTrace();
             }
@@ -100,7 +216,7 @@ public class CheckBoxSettingsItem extends SettingsItem {
         super.saveCurrentState();
         if(initialized) {
             try {
-                boolean state = checkBox.isChecked();
+                boolean state = isChecked();
                 sharedPreferences.edit().putBoolean(settingNameSave, state).apply();
             }catch (Exception e) {
                 e.printStackTrace();
@@ -113,53 +229,28 @@ public class CheckBoxSettingsItem extends SettingsItem {
      * @param color the color in @ColorInt format
      */
     public void setCheckBoxColor(int color) {
-        if(initialized) {
-            if(!checkBoxColorChanged && color != 0) checkBoxColorChanged = true;
-            checkBoxColor = color;
-            applyColorToCheckBox();
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    if(!checkBoxColorChanged && color != 0) checkBoxColorChanged = true;
-                    checkBoxColor = color;
-                    applyColorToCheckBox();
-                }
-            });
-        }
+        if(!checkBoxColorChanged && color != 0) checkBoxColorChanged = true;
+        pending.putInt(PROPERTY_CHECKBOX_COLOR, color);
+        applyPending();
     }
 
     private void applyColorToCheckBox() {
-        if(initialized) {
-            ColorStateList colorStateList = new ColorStateList(
-                    new int[][] {
-                            new int[] { -android.R.attr.state_checked }, // unchecked
-                            new int[] {  android.R.attr.state_checked }  // checked
-                    },
-                    new int[] {
-                            getContext().getColor(R.color.defaultRipple),
-                            checkBoxColor
-                    }
-            );
-            checkBox.setButtonTintList(colorStateList);
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    ColorStateList colorStateList = new ColorStateList(
-                            new int[][] {
-                                    new int[] { -android.R.attr.state_checked }, // unchecked
-                                    new int[] {  android.R.attr.state_checked }  // checked
-                            },
-                            new int[] {
-                                    getContext().getColor(R.color.defaultRipple),
-                                    checkBoxColor
-                            }
-                    );
-                    checkBox.setButtonTintList(colorStateList);
-                }
-            });
+        int checkBoxColor = pending.getInt(PROPERTY_CHECKBOX_COLOR);
+        if(flatRenderer != null) {
+            flatRenderer.setToggleColor(checkBoxColor);
+            return;
         }
+        ColorStateList colorStateList = new ColorStateList(
+                new int[][] {
+                        new int[] { -android.R.attr.state_checked }, // unchecked
+                        new int[] {  android.R.attr.state_checked }  // checked
+                },
+                new int[] {
+                        getContext().getColor(R.color.defaultRipple),
+                        checkBoxColor
+                }
+        );
+        checkBox.setButtonTintList(colorStateList);
     }
 
     /**
@@ -167,35 +258,24 @@ public class CheckBoxSettingsItem extends SettingsItem {
      * @param text the message
      */
     public void setText(String text) {
-        if(initialized) {
-            checkBox.setText(text);
-            if(!settingsNameSaveChanged) setSettingNameSave(String.valueOf(text.hashCode()));
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    checkBox.setText(text);
-                    if(!settingsNameSaveChanged) setSettingNameSave(String.valueOf(text.hashCode()));
-                }
-            });
-        }
+        pending.putObject(PROPERTY_TEXT, text);
+        if(initialized && !settingsNameSaveChanged) setSettingNameSave(String.valueOf(text.hashCode()));
+        applyPending();
+    }
+
+    @Override
+    public void setAlternativeColor(int color) {
+        setCheckBoxColor(color);
     }
 
     /**
      * Sets the color of the message text
      * @param color the Color in @ColorInt format
      */
+    @Override
     public void setTextColor(int color) {
-        if(initialized) {
-            checkBox.setTextColor(color);
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    checkBox.setTextColor(color);
-                }
-            });
-        }
+        pending.putInt(PROPERTY_TEXT_COLOR, color);
+        applyPending();
     }
 
     /**
@@ -203,31 +283,57 @@ public class CheckBoxSettingsItem extends SettingsItem {
      * @param dir LayoutDirection.LTR or LayoutDirection.RTL
      */
     public void setLayoutDirection(int dir) {
-        if(initialized) {
-            checkBox.setLayoutDirection(dir);
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    checkBox.setLayoutDirection(dir);
-                }
-            });
-        }
+        pending.putInt(PROPERTY_LAYOUT_DIRECTION, dir);
+        applyPending();
     }
 
     public int getRippleColor() {
-        return rippleColor;
+        return pending.getInt(PROPERTY_RIPPLE_COLOR);
     }
 
     public int getCheckBoxColor() {
-        return checkBoxColor;
+        return pending.getInt(PROPERTY_CHECKBOX_COLOR);
+    }
+
+    @Override
+    public boolean rebind(SettingsItem from) {
+        if(!super.rebind(from)) return false;
+        onCheckedChangeListener = ((CheckBoxSettingsItem) from).onCheckedChangeListener;
+        onItemCheckedChangeListener = ((CheckBoxSettingsItem) from).onItemCheckedChangeListener;
+        defaultChecked = ((CheckBoxSettingsItem) from).defaultChecked;
+        return true;
+    }
+
+    public boolean isDefaultChecked() {
+        return defaultChecked;
+    }
+
+    /**
+     * @param defaultChecked the state of the CheckBox while no state is saved for the Setting Name Save
+     */
+    public void setDefaultChecked(boolean defaultChecked) {
+        this.defaultChecked = defaultChecked;
     }
 
     public CompoundButton.OnCheckedChangeListener getOnCheckedChangeListener() {
         return onCheckedChangeListener;
     }
 
+    /**
+     * Not called for lightweight Items, since they have no CompoundButton, see setOnItemCheckedChangeListener
+     */
     public void setOnCheckedChangeListener(CompoundButton.OnCheckedChangeListener onCheckedChangeListener) {
         this.onCheckedChangeListener = onCheckedChangeListener;
     }
+
+    public OnItemCheckedChangeListener getOnItemCheckedChangeListener() {
+        return onItemCheckedChangeListener;
+    }
+
+    /**
+     * @param onItemCheckedChangeListener notified of every change of the state, for full and lightweight Items
+     */
+    public void setOnItemCheckedChangeListener(OnItemCheckedChangeListener onItemCheckedChangeListener) {
+        this.onItemCheckedChangeListener = onItemCheckedChangeListener;
+    }
 }
@@ -0,0 +1,265 @@
+package com.rawedit.immersivesettingsview.items;
+
+import android.util.LruCache;
+import android.util.SparseBooleanArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.CheckedTextView;
+
+import com.rawedit.immersivesettingsview.SettingsExecutor;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adapter for the options of a ChoiceSettingsItem.
+ * Labels are loaded page by page on a background thread and only the recently used pages are kept.
+ * Filtering runs on a background thread too, newer queries cancel older runs and a query which
+ * extends the last one only scans the options which matched before.
+ */
+final class ChoiceAdapter extends BaseAdapter {
+
+    static final int PAGE_SIZE = 64;
+    private static final int MAX_CACHED_PAGES = 32;
+    // Matches found so far are shown after this many scanned options
+    private static final int FILTER_BATCH = 1024;
+
+    interface Selection {
+        boolean isSelected(int index);
+    }
+
+    private final ChoiceDataSource dataSource;
+    private final Selection selection;
+    private final LayoutInflater inflater;
+    private final int rowLayout;
+
+    // LruCache is thread safe, pages loaded by the filter are reused for the rows and the other way round
+    private final LruCache<Integer, String[]> pages = new LruCache<>(MAX_CACHED_PAGES);
+    private final SparseBooleanArray loadingPages = new SparseBooleanArray();
+
+    // Every query change and release() increments it, background work of older generations is dropped
+    private final AtomicInteger generation = new AtomicInteger(0);
+
+    private int count = 0;
+    private String query = "";
+    // Option indices matching the query in ascending order, null if there is no query
+    private int[] matches = null;
+    private int matchCount = 0;
+
+    // The last query which was scanned completely
+    private String completeQuery = null;
+    private int[] completeMatches = null;
+    private int completeCount = 0;
+
+    ChoiceAdapter(LayoutInflater inflater, ChoiceDataSource dataSource, boolean multiChoice, Selection selection) {
+        this.inflater = inflater;
+        this.dataSource = dataSource;
+        this.selection = selection;
+        rowLayout = multiChoice ? android.R.layout.simple_list_item_multiple_choice : android.R.layout.simple_list_item_single_choice;
+        final int gen = generation.get();
+        SettingsExecutor.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                int total = dataSource.getCount();
+                SettingsExecutor.mainHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if(generation.get() != gen) return;
+                        count = total;
+                        notifyDataSetChanged();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Stops all background work, called when the popup is closed
+     */
+    void release() {
+        generation.incrementAndGet();
+        pages.evictAll();
+    }
+
+    @Override
+    public int getCount() {
+        return matches == null ? count : matchCount;
+    }
+
+    /**
+     * @param position the position in the (filtered) list
+     * @return the index of the option in the data source
+     */
+    int getOptionIndex(int position) {
+        return matches == null ? position : matches[position];
+    }
+
+    /**
+     * @return the label or null if its page is not loaded yet
+     */
+    @Override
+    public String getItem(int position) {
+        int index = getOptionIndex(position);
+        String[] page = pages.get(index / PAGE_SIZE);
+        if(page == null) {
+            requestPage(index / PAGE_SIZE);
+            return null;
+        }
+        return page[index % PAGE_SIZE];
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getOptionIndex(position);
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        CheckedTextView row = (CheckedTextView) (convertView != null ? convertView : inflater.inflate(rowLayout, parent, false));
+        String label = getItem(position);
+        row.setText(label == null ? "" : label);
+        row.setChecked(selection.isSelected(getOptionIndex(position)));
+        return row;
+    }
+
+    private void requestPage(int page) {
+        if(loadingPages.get(page)) return;
+        loadingPages.put(page, true);
+        final int gen = generation.get();
+        SettingsExecutor.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                if(generation.get() != gen) return;
+                loadPage(page, dataSource.getCount());
+                SettingsExecutor.mainHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        loadingPages.delete(page);
+                        if(generation.get() == gen) notifyDataSetChanged();
+                    }
+                });
+            }
+        });
+    }
+
+    private String[] loadPage(int page, int total) {
+        String[] labels = pages.get(page);
+        if(labels == null) {
+            int start = page * PAGE_SIZE;
+            labels = new String[Math.min(PAGE_SIZE, total - start)];
+            dataSource.loadPage(start, labels.length, labels);
+            pages.put(page, labels);
+        }
+        return labels;
+    }
+
+    // Filtering
+
+    /**
+     * Filters the options by a case insensitive search, the result is shown incrementally
+     * @param text the search text
+     */
+    void filter(String text) {
+        String q = text == null ? "" : text.trim();
+        if(q.equals(query)) return;
+        query = q;
+        final int gen = generation.incrementAndGet();
+        // Pages requested by the old generation are loaded again if they are still needed
+        loadingPages.clear();
+        if(q.isEmpty()) {
+            matches = null;
+            notifyDataSetChanged();
+            return;
+        }
+        // Every option containing q also contains a query which is part of q
+        final int[] base;
+        final int baseCount;
+        if(completeQuery != null && q.contains(completeQuery)) {
+            base = completeMatches;
+            baseCount = completeCount;
+        }else {
+            base = null;
+            baseCount = 0;
+        }
+        SettingsExecutor.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                runFilter(gen, q, base, baseCount);
+            }
+        });
+    }
+
+    private void runFilter(int gen, String q, int[] base, int baseCount) {
+        int total = dataSource.getCount();
+        int pageCount = (total + PAGE_SIZE - 1) / PAGE_SIZE;
+        int[] found = new int[Math.min(base == null ? total : baseCount, PAGE_SIZE)];
+        int n = 0;
+        int k = 0;
+        int scanned = 0;
+        int published = 0;
+        for(int p = 0; p < pageCount; p++) {
+            if(generation.get() != gen) return;
+            if(base != null) {
+                if(k >= baseCount) break;
+                p = base[k] / PAGE_SIZE;
+            }
+            String[] labels = loadPage(p, total);
+            int start = p * PAGE_SIZE;
+            int end = start + labels.length;
+            int index = base == null ? start : base[k];
+            while(index < end) {
+                if(containsIgnoreCase(labels[index - start], q)) {
+                    if(n == found.length) found = Arrays.copyOf(found, Math.max(found.length * 2, 1));
+                    found[n++] = index;
+                }
+                scanned++;
+                if(base == null) {
+                    index++;
+                }else {
+                    if(++k >= baseCount) break;
+                    index = base[k];
+                }
+            }
+            if(scanned >= FILTER_BATCH && n != published) {
+                // Entries below n are never written again, so the array can be shown while the scan goes on
+                publish(gen, q, found, n, false);
+                published = n;
+                scanned = 0;
+            }
+        }
+        publish(gen, q, found, n, true);
+    }
+
+    private void publish(int gen, String q, int[] found, int n, boolean complete) {
+        SettingsExecutor.mainHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                if(generation.get() != gen) return;
+                matches = found;
+                matchCount = n;
+                if(complete) {
+                    completeQuery = q;
+                    completeMatches = found;
+                    completeCount = n;
+                }
+                notifyDataSetChanged();
+            }
+        });
+    }
+
+    static boolean containsIgnoreCase(String label, String q) {
+        if(label == null) return false;
+        int max = label.length() - q.length();
+        for(int i = 0; i <= max; i++) {
+            if(label.regionMatches(true, i, q, 0, q.length())) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,42 @@
+package com.rawedit.immersivesettingsview.items;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.WorkerThread;
+
+/**
+ * Provides the options of a ChoiceSettingsItem page by page.
+ * All methods but getKey are called on a background thread, so large option sets
+ * (like time zones or locales) are never loaded on the main thread.
+ */
+public interface ChoiceDataSource {
+
+    /**
+     * @return the number of options, it must not change while an Item uses the source
+     */
+    @WorkerThread
+    int getCount();
+
+    /**
+     * Loads the labels of consecutive options
+     * @param start the index of the first option
+     * @param count the number of options to load
+     * @param labels the array to fill from index 0
+     */
+    @WorkerThread
+    void loadPage(int start, int count, String[] labels);
+
+    /**
+     * Called on the main thread when an option is selected, so it must not load anything
+     * @param index the index of an option
+     * @return a stable key of the option, single choice Items save it instead of the index
+     */
+    @AnyThread
+    String getKey(int index);
+
+    /**
+     * @param key a key returned by getKey
+     * @return the index of the option or -1 if the option does not exist anymore
+     */
+    @WorkerThread
+    int indexOf(String key);
+}
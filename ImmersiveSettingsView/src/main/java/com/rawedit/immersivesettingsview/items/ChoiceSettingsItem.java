@@ -0,0 +1,552 @@
+package com.rawedit.immersivesettingsview.items;
+
+import android.app.Dialog;
+import android.content.Context;
+import android.content.DialogInterface;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.util.AttributeSet;
+import android.view.View;
+import android.widget.AdapterView;
+import android.widget.CheckedTextView;
+import android.widget.EditText;
+import android.widget.ListView;
+import android.widget.TextView;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+import com.rawedit.immersivesettingsview.R;
+import com.rawedit.immersivesettingsview.SettingsExecutor;
+import com.rawedit.immersivesettingsview.SettingsView;
+
+import java.util.BitSet;
+
+public class ChoiceSettingsItem extends SettingsItem {
+
+    public static final String TAG = ChoiceSettingsItem.class.getSimpleName();
+
+    // Buffered properties, applied in this order
+    private static final int PROPERTY_MESSAGE = 0;
+    private static final int PROPERTY_SUMMARY = 1;
+    private static final int PROPERTY_TEXT_COLOR = 2;
+    private static final int PROPERTY_RIPPLE_COLOR = 3;
+    private static final int PROPERTY_COUNT = 4;
+
+    private static final long THEME_PROPERTIES = PendingProperties.bit(PROPERTY_TEXT_COLOR) | PendingProperties.bit(PROPERTY_RIPPLE_COLOR);
+
+    private boolean multiChoice = false;
+    private ChoiceDataSource dataSource;
+
+    // Multi choice: the indices of the selected options
+    private final BitSet selection = new BitSet();
+    // Single choice: the key is saved, the index and label are resolved from the data source
+    private String selectedKey = null;
+    private int selectedIndex = -1;
+    private String selectedLabel = null;
+
+    private String message = "";
+
+    // Single choice: the key which is selected while nothing is saved yet
+    private String defaultKey = null;
+
+    private final View v;
+    private TextView textView;
+    private TextView summary;
+
+    private Dialog dialog;
+    private ChoiceAdapter adapter;
+
+    private OnChoiceChangedListener onChoiceChangedListener;
+
+    public interface OnChoiceChangedListener {
+        /**
+         * @param item the Item
+         * @param index the index of the option in the data source
+         * @param selected true if the option was selected, false if it was deselected
+         */
+        void choiceChanged(ChoiceSettingsItem item, int index, boolean selected);
+    }
+
+    public ChoiceSettingsItem(Context context) {
+        this(context, null);
+    }
+
+    public ChoiceSettingsItem(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public ChoiceSettingsItem(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        this(context, attrs, defStyleAttr, 0);
+    }
+
+    public ChoiceSettingsItem(Context context, @Nullable AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        super(context, attrs, defStyleAttr, defStyleRes, PROPERTY_COUNT, 0);
+        type = Type.CHOICE;
+        v = inflateLayout(R.layout.setting_choice);
+        textView = v.findViewById(R.id.message);
+        summary = v.findViewById(R.id.choiceSummary);
+        v.setOnClickListener(new OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                showChoices();
+            }
+        });
+        pending.putInt(PROPERTY_RIPPLE_COLOR, context.getColor(R.color.defaultRipple));
+        initialized = true;
+        applyPending();
+        restoreState();
+        settingNameSave = "";
+    }
+
+    @Override
+    protected long getThemeProperties() {
+        return THEME_PROPERTIES;
+    }
+
+    @Override
+    protected long getSearchableProperties() {
+        return PendingProperties.bit(PROPERTY_MESSAGE);
+    }
+
+    @Override
+    protected void applyProperty(int property) {
+        switch (property) {
+            case PROPERTY_MESSAGE:
+                PrecomputedMessages.setMessage(textView, pending.getObject(PROPERTY_MESSAGE));
+                break;
+            case PROPERTY_SUMMARY:
+                summary.setText(pending.<String>getObject(PROPERTY_SUMMARY));
+                break;
+            case PROPERTY_TEXT_COLOR:
+                int textColor = pending.getInt(PROPERTY_TEXT_COLOR);
+                textView.setTextColor(textColor);
+                summary.setTextColor(SettingsView.adjustAlpha(textColor, 0.6f));
+                break;
+            case PROPERTY_RIPPLE_COLOR:
+                v.setBackground(SettingsView.getAdaptiveRippleDrawable(getContext().getColor(R.color.white), pending.getInt(PROPERTY_RIPPLE_COLOR), 0));
+                break;
+        }
+    }
+
+    @Override
+    public void setRippleColor(int color) {
+        pending.putInt(PROPERTY_RIPPLE_COLOR, color);
+        applyPending();
+    }
+
+    @Override
+    public void setTextColor(int color) {
+        pending.putInt(PROPERTY_TEXT_COLOR, color);
+        applyPending();
+    }
+
+    @Override
+    public View getView() {
+        return v;
+    }
+
+    /**
+     * @return the key of the selected option for single choice Items, a copy of the selected indices for multi choice Items
+     */
+    @Override
+    public Object getStateValue() {
+        return multiChoice ? selection.clone() : selectedKey;
+    }
+
+    @Override
+    protected void setStateValue(Object value) {
+        if(multiChoice) {
+            if(!(value instanceof BitSet)) return;
+            selection.clear();
+            selection.or((BitSet) value);
+        }else {
+            if(!(value instanceof String)) return;
+            selectedKey = (String) value;
+            selectedIndex = -1;
+            selectedLabel = null;
+            resolveSelectedKey();
+        }
+        updateSummary();
+    }
+
+    /**
+     * Single choice Items save the key of the option, multi choice Items the indices as a bit set
+     */
+    @Override
+    public void loadSavedState() {
+        super.loadSavedState();
+        if(initialized && settingNameSave != null && !settingNameSave.isEmpty()) {
+            try {
+                if(multiChoice) {
+                    selection.clear();
+                    selection.or(decode(sharedPreferences.getString(settingNameSave, "")));
+                }else {
+                    selectedKey = sharedPreferences.getString(settingNameSave, defaultKey);
+                    selectedIndex = -1;
+                    selectedLabel = null;
+                    resolveSelectedKey();
+                }
+                updateSummary();
+            }catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public void saveCurrentState() {
+        super.saveCurrentState();
+        if(initialized && settingNameSave != null && !settingNameSave.isEmpty()) {
+            try {
+                String value = multiChoice ? encode(selection) : selectedKey;
+                sharedPreferences.edit().putString(settingNameSave, value).apply();
+            }catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Class Specific
+
+    private String getSummary() {
+        if(multiChoice) {
+            int count = selection.cardinality();
+            if(count == 0) return getContext().getString(R.string.choice_nothing_selected);
+            return getContext().getString(R.string.choice_selected_count, count);
+        }
+        if(selectedLabel != null) return selectedLabel;
+        return selectedKey == null ? getContext().getString(R.string.choice_nothing_selected) : "";
+    }
+
+    /**
+     * Buffers the summary of the current selection
+     */
+    private void updateSummary() {
+        pending.putObject(PROPERTY_SUMMARY, getSummary());
+        applyPending();
+    }
+
+    /**
+     * Looks up the index and label of the saved key on a background thread
+     */
+    private void resolveSelectedKey() {
+        if(dataSource == null || selectedKey == null) return;
+        final ChoiceDataSource source = dataSource;
+        final String key = selectedKey;
+        SettingsExecutor.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                int index = source.indexOf(key);
+                String[] label = new String[1];
+                if(index >= 0) source.loadPage(index, 1, label);
+                SettingsExecutor.mainHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if(source != dataSource || !key.equals(selectedKey)) return;
+                        selectedIndex = index;
+                        selectedLabel = label[0];
+                        updateSummary();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Opens the popup with the (filterable) options
+     */
+    public void showChoices() {
+        if(dataSource == null || dialog != null) return;
+        View content = AsyncItemFactory.getInflater(getContext()).inflate(R.layout.dialog_choice, null);
+        EditText search = content.findViewById(R.id.choiceSearch);
+        ListView list = content.findViewById(R.id.choiceList);
+        adapter = new ChoiceAdapter(AsyncItemFactory.getInflater(getContext()), dataSource, multiChoice, new ChoiceAdapter.Selection() {
+            @Override
+            public boolean isSelected(int index) {
+                return multiChoice ? selection.get(index) : index == selectedIndex;
+            }
+        });
+        list.setAdapter(adapter);
+        list.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+            @Override
+            public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
+                int index = adapter.getOptionIndex(position);
+                if(multiChoice) {
+                    boolean selected = !selection.get(index);
+                    ((CheckedTextView) view).setChecked(selected);
+                    setSelected(index, selected);
+                }else {
+                    String label = adapter.getItem(position);
+                    selectOption(index, label);
+                    dialog.dismiss();
+                }
+            }
+        });
+        search.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                adapter.filter(s.toString());
+            }
+        });
+        dialog = new MaterialAlertDialogBuilder(getContext())
+                .setTitle(message)
+                .setView(content)
+                .setPositiveButton(android.R.string.ok, null)
+                .setOnDismissListener(new DialogInterface.OnDismissListener() {
+                    @Override
+                    public void onDismiss(DialogInterface d) {
+                        adapter.release();
+                        adapter = null;
+                        dialog = null;
+                    }
+                })
+                .create();
+        dialog.show();
+    }
+
+    private void selectOption(int index, String label) {
+        int previous = selectedIndex;
+        if(previous == index) return;
+        final ChoiceDataSource source = dataSource;
+        final String key = source.getKey(index);
+        selectedIndex = index;
+        selectedLabel = label;
+        selectedKey = key;
+        persistState();
+        if(label == null) {
+            // Only the label comes from the data source, the summary shows it once the background thread returns it
+            SettingsExecutor.background().execute(new Runnable() {
+                @Override
+                public void run() {
+                    String[] loaded = new String[1];
+                    source.loadPage(index, 1, loaded);
+                    SettingsExecutor.mainHandler().post(new Runnable() {
+                        @Override
+                        public void run() {
+                            if(source != dataSource || !key.equals(selectedKey)) return;
+                            selectedLabel = loaded[0];
+                            updateSummary();
+                        }
+                    });
+                }
+            });
+        }
+        updateSummary();
+        if(onChoiceChangedListener != null) {
+            if(previous >= 0) onChoiceChangedListener.choiceChanged(this, previous, false);
+            onChoiceChangedListener.choiceChanged(this, index, true);
+        }
+    }
+
+    static String encode(BitSet bits) {
+        long[] words = bits.toLongArray();
+        StringBuilder sb = new StringBuilder(words.length * 8);
+        for(int i = 0; i < words.length; i++) {
+            if(i > 0) sb.append(',');
+            sb.append(Long.toString(words[i], Character.MAX_RADIX));
+        }
+        return sb.toString();
+    }
+
+    static BitSet decode(String value) {
+        if(value == null || value.isEmpty()) return new BitSet();
+        String[] parts = value.split(",");
+        long[] words = new long[parts.length];
+        for(int i = 0; i < parts.length; i++) {
+            words[i] = Long.parseLong(parts[i], Character.MAX_RADIX);
+        }
+        return BitSet.valueOf(words);
+    }
+
+    // Getter and Setter
+
+    /**
+     * Set the message, it is also the title of the popup
+     * @param msg the Message
+     */
+    public void setMessage(String msg) {
+        message = msg == null ? "" : msg;
+        pending.putObject(PROPERTY_MESSAGE, message);
+        if(initialized && !settingsNameSaveChanged) setSettingNameSave(String.valueOf(message.hashCode()));
+        applyPending();
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public ChoiceDataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * Set the options of the Item, large option sets should use their own paged ChoiceDataSource
+     * @param dataSource the options
+     */
+    public void setDataSource(final ChoiceDataSource dataSource) {
+        if(mustDefer()) {
+            defer("dataSource", new Runnable() {
+                @Override
+                public void run() {
+                    setDataSource(dataSource);
+                }
+            });
+            return;
+        }
+        this.dataSource = dataSource;
+        if(dialog != null) dialog.dismiss();
+        selectedIndex = -1;
+        selectedLabel = null;
+        resolveSelectedKey();
+        updateSummary();
+    }
+
+    /**
+     * Shortcut for setDataSource(new ArrayChoiceDataSource(labels, keys))
+     */
+    public void setOptions(String[] labels, String[] keys) {
+        setDataSource(new ArrayChoiceDataSource(labels, keys));
+    }
+
+    public boolean isMultiChoice() {
+        return multiChoice;
+    }
+
+    /**
+     * Switch between single and multi choice, this clears the selection
+     * @param multiChoice true for multi choice
+     */
+    public void setMultiChoice(final boolean multiChoice) {
+        if(mustDefer()) {
+            defer("multiChoice", new Runnable() {
+                @Override
+                public void run() {
+                    setMultiChoice(multiChoice);
+                }
+            });
+            return;
+        }
+        if(this.multiChoice == multiChoice) return;
+        this.multiChoice = multiChoice;
+        if(dialog != null) dialog.dismiss();
+        selection.clear();
+        selectedKey = null;
+        selectedIndex = -1;
+        selectedLabel = null;
+        restoreState();
+    }
+
+    /**
+     * @return the index of the selected option for single choice Items or -1 if the index is not resolved (yet)
+     */
+    public int getSelectedIndex() {
+        return selectedIndex;
+    }
+
+    /**
+     * @return the key of the selected option for single choice Items
+     */
+    public String getSelectedKey() {
+        return selectedKey;
+    }
+
+    /**
+     * @return a copy of the selected indices for multi choice Items
+     */
+    public BitSet getSelection() {
+        return (BitSet) selection.clone();
+    }
+
+    public boolean isSelected(int index) {
+        return multiChoice ? selection.get(index) : index == selectedIndex;
+    }
+
+    /**
+     * Selects or deselects an option, for single choice Items the option replaces the current selection
+     * @param index the index of the option in the data source
+     * @param selected true to select
+     */
+    public void setSelected(final int index, final boolean selected) {
+        if(mustDefer()) {
+            defer("selected" + index, new Runnable() {
+                @Override
+                public void run() {
+                    setSelected(index, selected);
+                }
+            });
+            return;
+        }
+        if(!multiChoice) {
+            if(selected) {
+                selectOption(index, null);
+            }else if(index == selectedIndex) {
+                clearSelection();
+            }
+            return;
+        }
+        if(selection.get(index) == selected) return;
+        selection.set(index, selected);
+        persistState();
+        updateSummary();
+        if(onChoiceChangedListener != null) onChoiceChangedListener.choiceChanged(this, index, selected);
+    }
+
+    public void clearSelection() {
+        if(mustDefer()) {
+            defer("clearSelection", new Runnable() {
+                @Override
+                public void run() {
+                    clearSelection();
+                }
+            });
+            return;
+        }
+        selection.clear();
+        selectedKey = null;
+        selectedIndex = -1;
+        selectedLabel = null;
+        persistState();
+        updateSummary();
+    }
+
+    @Override
+    public boolean rebind(SettingsItem from) {
+        if(!super.rebind(from)) return false;
+        ChoiceSettingsItem item = (ChoiceSettingsItem) from;
+        message = item.message;
+        onChoiceChangedListener = item.onChoiceChangedListener;
+        defaultKey = item.defaultKey;
+        if(multiChoice != item.multiChoice) setMultiChoice(item.multiChoice);
+        if(dataSource != item.dataSource) setDataSource(item.dataSource);
+        return true;
+    }
+
+    public String getDefaultKey() {
+        return defaultKey;
+    }
+
+    /**
+     * Only used for single choice
+     * @param defaultKey the key of the option which is selected while nothing is saved for the Setting Name Save
+     */
+    public void setDefaultKey(String defaultKey) {
+        this.defaultKey = defaultKey;
+    }
+
+    public OnChoiceChangedListener getOnChoiceChangedListener() {
+        return onChoiceChangedListener;
+    }
+
+    public void setOnChoiceChangedListener(OnChoiceChangedListener onChoiceChangedListener) {
+        this.onChoiceChangedListener = onChoiceChangedListener;
+    }
+}
@@ -1,20 +1,33 @@
 package com.rawedit.immersivesettingsview.items;
 
 import android.content.Context;
+import android.content.res.Resources;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.View;
 
 import androidx.annotation.ColorInt;
+import androidx.annotation.IdRes;
+import androidx.annotation.LayoutRes;
 import androidx.annotation.Nullable;
 
 import java.util.HashMap;
 
 public class CustomSettingsItem extends SettingsItem {
 
+    // Buffered properties
+    private static final int PROPERTY_RIPPLE_COLOR = 0;
+    private static final int PROPERTY_COUNT = 1;
+
     private View view;
 
-    private HashMap<String, View> views = new HashMap<>();
+    // The views of the ids passed to setViewIds, in the same order
+    private int[] viewIds = new int[0];
+    private View[] boundViews = new View[0];
+
+    private HashMap<String, View> views;
+
+    private boolean viewsSetUp = false;
 
     private ChangeRippleColor changeRippleColor;
     private SetupViews setupViews;
@@ -40,22 +53,62 @@ public class CustomSettingsItem extends SettingsItem {
     }
 
     public CustomSettingsItem(Context context, @Nullable AttributeSet attrs, int defStyleAttr, int defStyleRes, int layout) {
-        super(context, attrs, defStyleAttr, defStyleRes);
+        super(context, attrs, defStyleAttr, defStyleRes, PROPERTY_COUNT, 0);
         type = Type.CUSTOM;
         // Inflating Custom Layout
-        if(context.getResources().getIdentifier(String.valueOf(layout), "layout", context.getPackageName()) != 0) {
-            view = inflate(context, layout, this);
-            if(setupViews != null) setupViews.setupViews(view);
+        if(isLayoutResource(context.getResources(), layout)) {
+            view = inflateLayout(layout);
         }else {
             Log.d(TAG, "Passed invalid layout " + layout);
         }
-        loadSavedState();
+        restoreState();
         initialized = true;
+        applyPending();
+    }
+
+    private static boolean isLayoutResource(Resources res, @LayoutRes int layout) {
+        if(layout == 0) return false;
+        try {
+            return "layout".equals(res.getResourceTypeName(layout));
+        }catch (Resources.NotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        // The views are set up before the pending ripple color reaches them
+        setupViews();
+        super.onAttachedToWindow();
+    }
+
+    /**
+     * Calls the SetupViews Listener with the root view.
+     * It runs only once per Item, no matter how often the Item is added or attached.
+     * Called automatically when the Item is added to the SettingsView or attached to a Page.
+     */
+    public void setupViews() {
+        if(viewsSetUp || view == null || setupViews == null) return;
+        viewsSetUp = true;
+        setupViews.setupViews(view);
+    }
+
+    @Override
+    protected long getThemeProperties() {
+        return PendingProperties.bit(PROPERTY_RIPPLE_COLOR);
+    }
+
+    @Override
+    protected void applyProperty(int property) {
+        if(property == PROPERTY_RIPPLE_COLOR && changeRippleColor != null) {
+            changeRippleColor.changeRippleColor(pending.getInt(PROPERTY_RIPPLE_COLOR));
+        }
     }
 
     @Override
     public void setRippleColor(int color) {
-        if(changeRippleColor != null) changeRippleColor.changeRippleColor(color);
+        pending.putInt(PROPERTY_RIPPLE_COLOR, color);
+        applyPending();
     }
 
     @Override
@@ -63,6 +116,14 @@ public class CustomSettingsItem extends SettingsItem {
         return view;
     }
 
+    /**
+     * Custom layouts can not be rebound, the Item is always replaced
+     */
+    @Override
+    public boolean rebind(SettingsItem from) {
+        return from == this;
+    }
+
     public ChangeRippleColor getChangeRippleColorListener() {
         return changeRippleColor;
     }
@@ -79,27 +140,86 @@ public class CustomSettingsItem extends SettingsItem {
      * This Listener notifies once when the item is added to the View
      * @param setupViews the Listener
      */
-    public void setSetupViewsListener(SetupViews setupViews) {
+    public void setSetupViewsListener(final SetupViews setupViews) {
+        if(mustDefer()) {
+            defer("setupViews", new Runnable() {
+                @Override
+                public void run() {
+                    setSetupViewsListener(setupViews);
+                }
+            });
+            return;
+        }
         this.setupViews = setupViews;
+        if(isAttachedToWindow()) setupViews();
+    }
+
+    /**
+     * Finds the views of the layout once and keeps them by index,
+     * so listeners like ChangeRippleColor get them with getBoundView(index) without any lookup.
+     * @param ids the view ids, their position is the index for getBoundView
+     */
+    public void setViewIds(@IdRes final int... ids) {
+        if(mustDefer()) {
+            defer("viewIds", new Runnable() {
+                @Override
+                public void run() {
+                    setViewIds(ids);
+                }
+            });
+            return;
+        }
+        viewIds = ids.clone();
+        boundViews = new View[ids.length];
+        if(view == null) return;
+        for(int i = 0; i < ids.length; i++) {
+            boundViews[i] = view.findViewById(ids[i]);
+            if(boundViews[i] == null) Log.d(TAG, "No view found for id " + ids[i]);
+        }
+    }
+
+    /**
+     * @param index the position of the id in setViewIds
+     * @return the view or null if the layout has no view with that id
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends View> T getBoundView(int index) {
+        return (T) boundViews[index];
+    }
+
+    public int getBoundViewCount() {
+        return boundViews.length;
+    }
+
+    /**
+     * @param index the position of the id in setViewIds
+     * @return the id at the index
+     */
+    @IdRes
+    public int getViewId(int index) {
+        return viewIds[index];
     }
 
     /**
      * Save the View with a key in the CustomSettingsItem.
-     * Use this Method to save Views in the SetupViews listener.
      * @param name the unique key
      * @param v the view
+     * @deprecated use setViewIds and getBoundView, they avoid the String lookup
      */
+    @Deprecated
     public void saveViewReference(String name, View v) {
+        if(views == null) views = new HashMap<>();
         views.put(name, v);
     }
 
     /**
      * Get a View via a unique key.
-     * Use this method for getting the views in any other case then the SetupViews Listener
      * @param name the key for the saved view
      * @return the view saved before or null if not found
+     * @deprecated use setViewIds and getBoundView, they avoid the String lookup
      */
+    @Deprecated
     public View getViewReference(String name) {
-        return views.get(name);
+        return views == null ? null : views.get(name);
     }
 }
@@ -8,7 +8,6 @@ import android.util.AttributeSet;
 import android.view.View;
 import android.widget.TextView;
 
-import androidx.annotation.ColorInt;
 import androidx.annotation.Nullable;
 
 import com.airbnb.paris.Paris;
@@ -20,17 +19,31 @@ import com.rawedit.immersivesettingsview.SettingsView;
 
 public class EditTextSettingsItem extends SettingsItem {
 
-    private boolean strokeColorChanged = false;
-    private boolean showMessage = true;
-    private boolean showButton = true;
-
-    @ColorInt
-    private int rippleColor = 0;
-    @ColorInt
-    private int strokeColor = 0;
-
-    private int editTextStyle = com.google.android.material.R.style.Widget_MaterialComponents_TextInputEditText_FilledBox;
-    private int buttonStyle = com.google.android.material.R.style.Widget_Material3_Button;
+    // Buffered properties, applied in this order
+    private static final int PROPERTY_EDITTEXT_STYLE = 0;
+    private static final int PROPERTY_BUTTON_STYLE = 1;
+    private static final int PROPERTY_INPUT_TYPE = 2;
+    private static final int PROPERTY_MESSAGE = 3;
+    private static final int PROPERTY_HINT = 4;
+    private static final int PROPERTY_CONTENT = 5;
+    private static final int PROPERTY_BUTTON_TEXT = 6;
+    private static final int PROPERTY_SHOW_MESSAGE = 7;
+    private static final int PROPERTY_SHOW_BUTTON = 8;
+    private static final int PROPERTY_STROKE_COLOR = 9;
+    private static final int PROPERTY_RIPPLE_COLOR = 10;
+    private static final int PROPERTY_MESSAGE_TEXT_COLOR = 11;
+    private static final int PROPERTY_EDITTEXT_TEXT_COLOR = 12;
+    private static final int PROPERTY_BUTTON_TEXT_COLOR = 13;
+    private static final int PROPERTY_COUNT = 14;
+
+    private static final long THEME_PROPERTIES = PendingProperties.bit(PROPERTY_STROKE_COLOR) | PendingProperties.bit(PROPERTY_RIPPLE_COLOR)
+            | PendingProperties.bit(PROPERTY_MESSAGE_TEXT_COLOR) | PendingProperties.bit(PROPERTY_EDITTEXT_TEXT_COLOR) | PendingProperties.bit(PROPERTY_BUTTON_TEXT_COLOR);
+    private static final long USER_EDITABLE_PROPERTIES = PendingProperties.bit(PROPERTY_CONTENT);
+
+    private static final int DEFAULT_EDITTEXT_STYLE = com.google.android.material.R.style.Widget_MaterialComponents_TextInputEditText_FilledBox;
+    private static final int DEFAULT_BUTTON_STYLE = com.google.android.material.R.style.Widget_Material3_Button;
+
+    private volatile boolean strokeColorChanged = false;
 
     private final View v;
     private TextView textView;
@@ -41,6 +54,11 @@ public class EditTextSettingsItem extends SettingsItem {
     private OnClickListener onClickListener;
     private TextWatcher onTextChangeListener;
 
+    // The content while nothing is saved yet
+    private String defaultContent = "";
+    // The content which was last loaded or saved
+    private String committedContent = null;
+
     public EditTextSettingsItem(Context context) {
         this(context, null);
     }
@@ -54,28 +72,28 @@ public class EditTextSettingsItem extends SettingsItem {
     }
 
     public EditTextSettingsItem(Context context, @Nullable AttributeSet attrs, int defStyleAttr, int defStyleRes) {
-        super(context, attrs, defStyleAttr, defStyleRes);
+        super(context, attrs, defStyleAttr, defStyleRes, PROPERTY_COUNT, USER_EDITABLE_PROPERTIES);
         type = Type.EDITTEXT;
-        v = inflate(context, R.layout.setting_edittext, this);
+        v = inflateLayout(R.layout.setting_edittext);
         textView = v.findViewById(R.id.message);
         inputLayout = v.findViewById(R.id.editTextLayout);
         editText = v.findViewById(R.id.editText);
         editText.addTextChangedListener(new TextWatcher() {
             @Override
             public void beforeTextChanged(CharSequence s, int start, int count, int after) {
-                if(!showButton) saveCurrentState();
+                if(!isShowButton()) persistState();
                 if(onTextChangeListener != null) onTextChangeListener.beforeTextChanged(s, start, count, after);
             }
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                if(!showButton) saveCurrentState();
+                if(!isShowButton()) persistState();
                 if(onTextChangeListener != null) onTextChangeListener.onTextChanged(s, start, before, count);
             }
 
             @Override
             public void afterTextChanged(Editable s) {
-                if(!showButton) saveCurrentState();
+                if(!isShowButton()) persistState();
                 if(onTextChangeListener != null) onTextChangeListener.afterTextChanged(s);
             }
         });
@@ -83,44 +101,24 @@ public class EditTextSettingsItem extends SettingsItem {
         button.setOnClickListener(new OnClickListener() {
             @Override
             public void onClick(View v) {
-                if(showButton) saveCurrentState();
+                if(isShowButton()) persistState();
                 if(onClickListener != null) onClickListener.onClick(v);
             }
         });
-        applyColor();
-        executeQueue();
+        pending.putInt(PROPERTY_STROKE_COLOR, 0);
         initialized = true;
-        loadSavedState();
+        applyPending();
+        restoreState();
         settingNameSave = "";
     }
 
     @Override
     public void setRippleColor(int color) {
-        rippleColor = color;
-        if(initialized) {
-            if(rippleColor == strokeColor) {
-                button.setRippleColor(ColorStateList.valueOf(getContext().getColor(R.color.white)));
-            }else {
-                button.setRippleColor(ColorStateList.valueOf(rippleColor));
-            }
-            if(!strokeColorChanged) {
-                setStrokeColor(color);
-            }
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    if(rippleColor == strokeColor) {
-                        button.setRippleColor(ColorStateList.valueOf(getContext().getColor(R.color.white)));
-                    }else {
-                        button.setRippleColor(ColorStateList.valueOf(rippleColor));
-                    }
-                    if(!strokeColorChanged) {
-                        setStrokeColor(color);
-                    }
-                }
-            });
+        pending.putInt(PROPERTY_RIPPLE_COLOR, color);
+        if(!strokeColorChanged) {
+            setStrokeColor(color);
         }
+        applyPending();
     }
 
     @Override
@@ -128,13 +126,90 @@ public class EditTextSettingsItem extends SettingsItem {
         return v;
     }
 
+    @Override
+    protected long getThemeProperties() {
+        return THEME_PROPERTIES;
+    }
+
+    @Override
+    protected long getSearchableProperties() {
+        return PendingProperties.bit(PROPERTY_MESSAGE) | PendingProperties.bit(PROPERTY_HINT) | PendingProperties.bit(PROPERTY_BUTTON_TEXT);
+    }
+
+    @Override
+    protected void applyProperty(int property) {
+        switch (property) {
+            case PROPERTY_EDITTEXT_STYLE:
+                Paris.style(inputLayout).apply(pending.getInt(PROPERTY_EDITTEXT_STYLE));
+                break;
+            case PROPERTY_BUTTON_STYLE:
+                Paris.style(button).apply(pending.getInt(PROPERTY_BUTTON_STYLE));
+                break;
+            case PROPERTY_INPUT_TYPE:
+                editText.setInputType(pending.getInt(PROPERTY_INPUT_TYPE));
+                break;
+            case PROPERTY_MESSAGE:
+                PrecomputedMessages.setMessage(textView, pending.getObject(PROPERTY_MESSAGE));
+                break;
+            case PROPERTY_HINT:
+                inputLayout.setHint(pending.getObject(PROPERTY_HINT));
+                break;
+            case PROPERTY_CONTENT:
+                editText.setText(pending.getObject(PROPERTY_CONTENT));
+                break;
+            case PROPERTY_BUTTON_TEXT:
+                button.setText(pending.getObject(PROPERTY_BUTTON_TEXT));
+                break;
+            case PROPERTY_SHOW_MESSAGE:
+                textView.setVisibility(pending.getBoolean(PROPERTY_SHOW_MESSAGE) ? VISIBLE : GONE);
+                break;
+            case PROPERTY_SHOW_BUTTON:
+                button.setVisibility(pending.getBoolean(PROPERTY_SHOW_BUTTON) ? VISIBLE : GONE);
+                break;
+            case PROPERTY_STROKE_COLOR:
+            case PROPERTY_RIPPLE_COLOR:
+                applyColor();
+                break;
+            case PROPERTY_MESSAGE_TEXT_COLOR:
+                textView.setTextColor(pending.getInt(PROPERTY_MESSAGE_TEXT_COLOR));
+                break;
+            case PROPERTY_EDITTEXT_TEXT_COLOR:
+                editText.setTextColor(pending.getInt(PROPERTY_EDITTEXT_TEXT_COLOR));
+                break;
+            case PROPERTY_BUTTON_TEXT_COLOR:
+                button.setTextColor(pending.getInt(PROPERTY_BUTTON_TEXT_COLOR));
+                break;
+        }
+    }
+
+    /**
+     * @return the content of the EditText, also if it is not saved yet because the Button was not clicked
+     */
+    @Override
+    public Object getStateValue() {
+        Editable e = editText.getText();
+        return e != null ? e.toString() : null;
+    }
+
+    @Override
+    protected void setStateValue(Object value) {
+        if(value instanceof String) setEditTextContent((String) value);
+    }
+
+    @Override
+    public boolean hasUncommittedValue() {
+        Object content = getStateValue();
+        return content != null && !content.equals(committedContent);
+    }
+
     @Override
     public void loadSavedState() {
         super.loadSavedState();
         if(initialized) {
             try {
-                String s = sharedPreferences.getString(settingNameSave, "");
+                String s = sharedPreferences.getString(settingNameSave, defaultContent);
                 editText.setText(s);
+                committedContent = s;
             }catch (Exception e) {
                 e.printStackTrace();
             }
@@ -147,7 +222,10 @@ public class EditTextSettingsItem extends SettingsItem {
         if(initialized) {
             try {
                 Editable e = editText.getText();
-                if(e != null) sharedPreferences.edit().putString(settingNameSave, e.toString()).apply();
+                if(e != null) {
+                    committedContent = e.toString();
+                    sharedPreferences.edit().putString(settingNameSave, committedContent).apply();
+                }
             }catch (Exception e) {
                 e.printStackTrace();
             }
@@ -155,32 +233,17 @@ public class EditTextSettingsItem extends SettingsItem {
     }
 
     private void applyColor() {
-        if(initialized) {
-            inputLayout.setBoxStrokeColor(strokeColor);
-            inputLayout.setHintTextColor(ColorStateList.valueOf(strokeColor));
-            SettingsView.setCursorColor(editText, strokeColor);
-            if(rippleColor == strokeColor) {
-                button.setRippleColor(ColorStateList.valueOf(getContext().getColor(R.color.white)));
-            }else {
-                button.setRippleColor(ColorStateList.valueOf(rippleColor));
-            }
-            button.setBackgroundTintList(ColorStateList.valueOf(strokeColor));
+        int strokeColor = pending.getInt(PROPERTY_STROKE_COLOR);
+        int rippleColor = pending.getInt(PROPERTY_RIPPLE_COLOR);
+        inputLayout.setBoxStrokeColor(strokeColor);
+        inputLayout.setHintTextColor(ColorStateList.valueOf(strokeColor));
+        SettingsView.setCursorColor(editText, strokeColor);
+        if(rippleColor == strokeColor) {
+            button.setRippleColor(ColorStateList.valueOf(getContext().getColor(R.color.white)));
         }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    inputLayout.setBoxStrokeColor(strokeColor);
-                    inputLayout.setHintTextColor(ColorStateList.valueOf(strokeColor));
-                    SettingsView.setCursorColor(editText, strokeColor);
-                    if(rippleColor == strokeColor) {
-                        button.setRippleColor(ColorStateList.valueOf(getContext().getColor(R.color.white)));
-                    }else {
-                        button.setRippleColor(ColorStateList.valueOf(rippleColor));
-                    }
-                    button.setBackgroundTintList(ColorStateList.valueOf(strokeColor));
-                }
-            });
+            button.setRippleColor(ColorStateList.valueOf(rippleColor));
         }
+        button.setBackgroundTintList(ColorStateList.valueOf(strokeColor));
     }
 
     /**
@@ -188,15 +251,14 @@ public class EditTextSettingsItem extends SettingsItem {
      * @param inputType Use InputType.xxx
      */
     public void setInputType(int inputType) {
-        if(initialized) {
-            editText.setInputType(inputType);
-        }
+        pending.putInt(PROPERTY_INPUT_TYPE, inputType);
+        applyPending();
     }
 
     // Getter and Setter
 
     public int getStrokeColor() {
-        return this.strokeColor;
+        return pending.getInt(PROPERTY_STROKE_COLOR);
     }
 
     /**
@@ -204,26 +266,21 @@ public class EditTextSettingsItem extends SettingsItem {
      * @param color the stroke color in @ColorInt format
      */
     public void setStrokeColor(int color) {
-        if(initialized) {
-            if(!strokeColorChanged && color != 0) strokeColorChanged = true;
-            strokeColor = color;
-            applyColor();
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    if(!strokeColorChanged && color != 0) strokeColorChanged = true;
-                    strokeColor = color;
-                    applyColor();
-                }
-            });
-        }
+        if(!strokeColorChanged && color != 0) strokeColorChanged = true;
+        pending.putInt(PROPERTY_STROKE_COLOR, color);
+        applyPending();
+    }
+
+    @Override
+    public void setAlternativeColor(int color) {
+        setStrokeColor(color);
     }
 
     /**
      * Sets the Text Color for all Components (Message, EditText, Button)
      * @param color a color in @ColorInt format
      */
+    @Override
     public void setTextColor(int color) {
         setTextColor(color, true, true, true);
     }
@@ -236,20 +293,10 @@ public class EditTextSettingsItem extends SettingsItem {
      * @param toButton should the Button Text Color be changed
      */
     public void setTextColor(int color, boolean toMessage, boolean toEditText, boolean toButton) {
-        if(initialized) {
-            if(toMessage) textView.setTextColor(color);
-            if(toEditText) editText.setTextColor(color);
-            if(toButton) button.setTextColor(color);
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    if(toMessage) textView.setTextColor(color);
-                    if(toEditText) editText.setTextColor(color);
-                    if(toButton) button.setTextColor(color);
-                }
-            });
-        }
+        if(toMessage) pending.putInt(PROPERTY_MESSAGE_TEXT_COLOR, color);
+        if(toEditText) pending.putInt(PROPERTY_EDITTEXT_TEXT_COLOR, color);
+        if(toButton) pending.putInt(PROPERTY_BUTTON_TEXT_COLOR, color);
+        applyPending();
     }
 
     /**
@@ -257,18 +304,9 @@ public class EditTextSettingsItem extends SettingsItem {
      * @param msg the Message
      */
     public void setMessage(String msg) {
-        if(initialized) {
-            textView.setText(msg);
-            if(!settingsNameSaveChanged && showMessage) setSettingNameSave(String.valueOf(msg.hashCode()));
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    textView.setText(msg);
-                    if(!settingsNameSaveChanged && showMessage) setSettingNameSave(String.valueOf(msg.hashCode()));
-                }
-            });
-        }
+        pending.putObject(PROPERTY_MESSAGE, msg);
+        if(initialized && !settingsNameSaveChanged && isShowMessage()) setSettingNameSave(String.valueOf(msg.hashCode()));
+        applyPending();
     }
 
     /**
@@ -276,18 +314,9 @@ public class EditTextSettingsItem extends SettingsItem {
      * @param hint the Hint Text
      */
     public void setEditTextHint(String hint) {
-        if(initialized) {
-            inputLayout.setHint(hint);
-            if(!settingsNameSaveChanged) setSettingNameSave(String.valueOf(hint.hashCode()));
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    inputLayout.setHint(hint);
-                    if(!settingsNameSaveChanged) setSettingNameSave(String.valueOf(hint.hashCode()));
-                }
-            });
-        }
+        pending.putObject(PROPERTY_HINT, hint);
+        if(initialized && !settingsNameSaveChanged) setSettingNameSave(String.valueOf(hint.hashCode()));
+        applyPending();
     }
 
     /**
@@ -295,16 +324,8 @@ public class EditTextSettingsItem extends SettingsItem {
      * @param content the content
      */
     public void setEditTextContent(String content) {
-        if(initialized) {
-            editText.setText(content);
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    editText.setText(content);
-                }
-            });
-        }
+        pending.putObject(PROPERTY_CONTENT, content);
+        applyPending();
     }
 
     /**
@@ -312,18 +333,9 @@ public class EditTextSettingsItem extends SettingsItem {
      * @param txt Button text
      */
     public void setButtonText(String txt) {
-        if(initialized) {
-            button.setText(txt);
-            if(!settingsNameSaveChanged && showButton) setSettingNameSave(String.valueOf(txt.hashCode()));
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    button.setText(txt);
-                    if(!settingsNameSaveChanged && showButton) setSettingNameSave(String.valueOf(txt.hashCode()));
-                }
-            });
-        }
+        pending.putObject(PROPERTY_BUTTON_TEXT, txt);
+        if(initialized && !settingsNameSaveChanged && isShowButton()) setSettingNameSave(String.valueOf(txt.hashCode()));
+        applyPending();
     }
 
     /**
@@ -331,18 +343,8 @@ public class EditTextSettingsItem extends SettingsItem {
      * @param style the style resource (Example: R.style.my_edittext_style)
      */
     public void setEditTextStyle(int style) {
-        if(initialized) {
-            editTextStyle = style;
-            Paris.style(inputLayout).apply(style);
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    editTextStyle = style;
-                    Paris.style(inputLayout).apply(style);
-                }
-            });
-        }
+        pending.putInt(PROPERTY_EDITTEXT_STYLE, style);
+        applyPending();
     }
 
     /**
@@ -350,18 +352,8 @@ public class EditTextSettingsItem extends SettingsItem {
      * @param style the style resource (Example: R.style.my_button_style)
      */
     public void setButtonStyle(int style) {
-        if(initialized) {
-            buttonStyle = style;
-            Paris.style(button).apply(style);
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    buttonStyle = style;
-                    Paris.style(button).apply(style);
-                }
-            });
-        }
+        pending.putInt(PROPERTY_BUTTON_STYLE, style);
+        applyPending();
     }
 
     /**
@@ -369,26 +361,8 @@ public class EditTextSettingsItem extends SettingsItem {
      * @param show true = show -or- false = hide
      */
     public void setShowMessage(boolean show) {
-        if(initialized) {
-            showMessage = show;
-            if(show) {
-                textView.setVisibility(VISIBLE);
-            }else {
-                textView.setVisibility(GONE);
-            }
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    showMessage = show;
-                    if(show) {
-                        textView.setVisibility(VISIBLE);
-                    }else {
-                        textView.setVisibility(GONE);
-                    }
-                }
-            });
-        }
+        pending.putBoolean(PROPERTY_SHOW_MESSAGE, show);
+        applyPending();
     }
 
     /**
@@ -396,42 +370,45 @@ public class EditTextSettingsItem extends SettingsItem {
      * @param show true = show -or- false = hide
      */
     public void setShowButton(boolean show) {
-        if(initialized) {
-            showButton = show;
-            if(show) {
-                button.setVisibility(VISIBLE);
-            }else {
-                button.setVisibility(GONE);
-            }
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    showButton = show;
-                    if(show) {
-                        button.setVisibility(VISIBLE);
-                    }else {
-                        button.setVisibility(GONE);
-                    }
-                }
-            });
-        }
+        pending.putBoolean(PROPERTY_SHOW_BUTTON, show);
+        applyPending();
     }
 
     public boolean isShowMessage() {
-        return showMessage;
+        return !pending.isWritten(PROPERTY_SHOW_MESSAGE) || pending.getBoolean(PROPERTY_SHOW_MESSAGE);
     }
 
     public boolean isShowButton() {
-        return showButton;
+        return !pending.isWritten(PROPERTY_SHOW_BUTTON) || pending.getBoolean(PROPERTY_SHOW_BUTTON);
     }
 
     public int getEditTextStyle() {
-        return editTextStyle;
+        return pending.isWritten(PROPERTY_EDITTEXT_STYLE) ? pending.getInt(PROPERTY_EDITTEXT_STYLE) : DEFAULT_EDITTEXT_STYLE;
     }
 
     public int getButtonStyle() {
-        return buttonStyle;
+        return pending.isWritten(PROPERTY_BUTTON_STYLE) ? pending.getInt(PROPERTY_BUTTON_STYLE) : DEFAULT_BUTTON_STYLE;
+    }
+
+    @Override
+    public boolean rebind(SettingsItem from) {
+        if(!super.rebind(from)) return false;
+        EditTextSettingsItem item = (EditTextSettingsItem) from;
+        onClickListener = item.onClickListener;
+        onTextChangeListener = item.onTextChangeListener;
+        defaultContent = item.defaultContent;
+        return true;
+    }
+
+    public String getDefaultContent() {
+        return defaultContent;
+    }
+
+    /**
+     * @param defaultContent the content of the EditText while nothing is saved for the Setting Name Save
+     */
+    public void setDefaultContent(String defaultContent) {
+        this.defaultContent = defaultContent == null ? "" : defaultContent;
     }
 
     public OnClickListener getOnClickListener() {
@@ -0,0 +1,344 @@
+package com.rawedit.immersivesettingsview.items;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.RippleDrawable;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.TypedValue;
+import android.view.View;
+import android.widget.Button;
+import android.widget.CheckBox;
+import android.widget.Switch;
+
+import androidx.annotation.ColorInt;
+import androidx.core.text.PrecomputedTextCompat;
+
+import com.rawedit.immersivesettingsview.R;
+import com.rawedit.immersivesettingsview.SettingsView;
+
+import java.util.concurrent.Future;
+
+/**
+ * Draws a Text, Switch or CheckBox Item directly into its SettingsItem,
+ * so the Item is a single View without any inflated children.
+ * The text is drawn with a StaticLayout which is only rebuilt if the text or the width changes.
+ */
+final class FlatItemRenderer {
+
+    static final int TOGGLE_NONE = 0;
+    static final int TOGGLE_SWITCH = 1;
+    static final int TOGGLE_CHECKBOX = 2;
+
+    @ColorInt
+    private static final int THUMB_OFF_COLOR = 0xFFF1F1F1;
+    // Text size of the full Item layouts if the text appearance has none
+    private static final int DEFAULT_TEXT_SIZE_SP = 14;
+
+    private final SettingsItem host;
+    private final int toggle;
+
+    private final TextPaint textPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint togglePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF toggleRect = new RectF();
+    private final Path checkPath = new Path();
+
+    private final int padding;
+    private final int minHeight;
+    private final int gap;
+    private final int trackWidth;
+    private final int trackHeight;
+    private final int thumbRadius;
+    private final int boxSize;
+    private final float strokeWidth;
+
+    // The message as it was set, text may be its precomputed version
+    private CharSequence source = "";
+    private CharSequence text = "";
+    // The precomputed text, only waited for when the text is laid out
+    private Future<PrecomputedTextCompat> textFuture;
+    private StaticLayout textLayout;
+    private int textLayoutWidth = -1;
+
+    private Drawable drawable;
+    private int drawablePosition = TextSettingsItem.LEFT;
+
+    private boolean checked = false;
+    private boolean toggleAtEnd = true;
+
+    @ColorInt
+    private int toggleColor = Color.BLACK;
+    @ColorInt
+    private int uncheckedColor;
+
+    FlatItemRenderer(SettingsItem host, int toggle) {
+        this.host = host;
+        this.toggle = toggle;
+        Context c = host.getContext();
+        padding = dp(c, 16);
+        minHeight = dp(c, 48);
+        gap = dp(c, 8);
+        trackWidth = dp(c, 36);
+        trackHeight = dp(c, 14);
+        thumbRadius = dp(c, 10);
+        boxSize = dp(c, 18);
+        strokeWidth = dp(c, 2);
+        // The same text appearance as the full Item layouts
+        TypedArray appearance = c.obtainStyledAttributes(android.R.style.TextAppearance_Material, new int[]{android.R.attr.textSize});
+        textPaint.setTextSize(appearance.getDimension(0, TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, DEFAULT_TEXT_SIZE_SP, c.getResources().getDisplayMetrics())));
+        appearance.recycle();
+        textPaint.setColor(c.getColor(R.color.black));
+        uncheckedColor = c.getColor(R.color.defaultRipple);
+        host.setWillNotDraw(false);
+        host.setClickable(true);
+        host.setFocusable(true);
+        host.setMinimumHeight(minHeight);
+        host.setBackground(new RippleDrawable(ColorStateList.valueOf(uncheckedColor), null, new ColorDrawable(c.getColor(R.color.white))));
+    }
+
+    private static int dp(Context c, int dp) {
+        return Math.round(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dp, c.getResources().getDisplayMetrics()));
+    }
+
+    // Content
+
+    void setText(CharSequence text) {
+        source = text == null ? "" : text;
+        this.text = source;
+        if(source.length() >= PrecomputedMessages.MIN_LENGTH) {
+            PrecomputedTextCompat.Params params = new PrecomputedTextCompat.Params.Builder(new TextPaint(textPaint))
+                    .setBreakStrategy(Layout.BREAK_STRATEGY_SIMPLE)
+                    .setHyphenationFrequency(Layout.HYPHENATION_FREQUENCY_NONE)
+                    .build();
+            textFuture = PrecomputedMessages.precompute(source, params);
+        }else {
+            textFuture = null;
+        }
+        textLayout = null;
+        host.requestLayout();
+        host.invalidate();
+    }
+
+    CharSequence getText() {
+        return source;
+    }
+
+    void setTextColor(@ColorInt int color) {
+        textPaint.setColor(color);
+        host.invalidate();
+    }
+
+    void setDrawable(Drawable d, int position) {
+        drawable = d;
+        drawablePosition = position;
+        if(drawable != null) drawable.setBounds(0, 0, drawable.getIntrinsicWidth(), drawable.getIntrinsicHeight());
+        textLayout = null;
+        host.requestLayout();
+        host.invalidate();
+    }
+
+    void setRippleColor(@ColorInt int color) {
+        if(host.getBackground() instanceof RippleDrawable) {
+            ((RippleDrawable) host.getBackground()).setColor(ColorStateList.valueOf(color));
+        }
+    }
+
+    void setToggleColor(@ColorInt int color) {
+        toggleColor = color;
+        host.invalidate();
+    }
+
+    void setToggleAtEnd(boolean atEnd) {
+        toggleAtEnd = atEnd;
+        host.invalidate();
+    }
+
+    boolean isChecked() {
+        return checked;
+    }
+
+    /**
+     * @return true if the checked state changed
+     */
+    boolean setChecked(boolean checked) {
+        if(this.checked == checked) return false;
+        this.checked = checked;
+        host.invalidate();
+        return true;
+    }
+
+    CharSequence getAccessibilityClassName() {
+        switch (toggle) {
+            case TOGGLE_SWITCH:
+                return Switch.class.getName();
+            case TOGGLE_CHECKBOX:
+                return CheckBox.class.getName();
+            default:
+                return Button.class.getName();
+        }
+    }
+
+    boolean isCheckable() {
+        return toggle != TOGGLE_NONE;
+    }
+
+    // Measuring and Drawing
+
+    private int toggleWidth() {
+        switch (toggle) {
+            case TOGGLE_SWITCH:
+                return trackWidth + gap;
+            case TOGGLE_CHECKBOX:
+                return boxSize + gap;
+            default:
+                return 0;
+        }
+    }
+
+    private int toggleHeight() {
+        switch (toggle) {
+            case TOGGLE_SWITCH:
+                return thumbRadius * 2;
+            case TOGGLE_CHECKBOX:
+                return boxSize;
+            default:
+                return 0;
+        }
+    }
+
+    private boolean isDrawableHorizontal() {
+        return drawablePosition == TextSettingsItem.LEFT || drawablePosition == TextSettingsItem.RIGHT;
+    }
+
+    private StaticLayout obtainTextLayout(int textWidth) {
+        if(textLayout == null || textLayoutWidth != textWidth) {
+            if(textFuture != null) {
+                text = PrecomputedMessages.await(textFuture, source);
+                textFuture = null;
+            }
+            textLayout = StaticLayout.Builder.obtain(text, 0, text.length(), textPaint, textWidth)
+                    .setAlignment(Layout.Alignment.ALIGN_CENTER)
+                    .setIncludePad(true)
+                    .build();
+            textLayoutWidth = textWidth;
+        }
+        return textLayout;
+    }
+
+    private int textWidthFor(int width) {
+        int textWidth = width - host.getPaddingLeft() - host.getPaddingRight() - 2 * padding - toggleWidth();
+        if(drawable != null && isDrawableHorizontal()) textWidth -= drawable.getBounds().width() + gap;
+        return Math.max(textWidth, 0);
+    }
+
+    void measure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = View.MeasureSpec.getSize(widthMeasureSpec);
+        StaticLayout layout = obtainTextLayout(textWidthFor(width));
+        int content = layout.getHeight();
+        if(drawable != null) {
+            if(isDrawableHorizontal()) {
+                content = Math.max(content, drawable.getBounds().height());
+            }else {
+                content += drawable.getBounds().height() + gap;
+            }
+        }
+        content = Math.max(content, toggleHeight());
+        int height = Math.max(minHeight, content + 2 * padding + host.getPaddingTop() + host.getPaddingBottom());
+        host.setFlatMeasuredDimension(width, View.resolveSize(height, heightMeasureSpec));
+    }
+
+    void draw(Canvas canvas) {
+        int width = host.getWidth();
+        int height = host.getHeight();
+        int left = host.getPaddingLeft() + padding;
+        int right = width - host.getPaddingRight() - padding;
+        int centerY = height / 2;
+        // Toggle
+        if(toggle != TOGGLE_NONE) {
+            int tw = toggleWidth() - gap;
+            if(toggleAtEnd) {
+                drawToggle(canvas, right - tw, centerY);
+                right -= tw + gap;
+            }else {
+                drawToggle(canvas, left, centerY);
+                left += tw + gap;
+            }
+        }
+        StaticLayout layout = obtainTextLayout(textWidthFor(width));
+        int textHeight = layout.getHeight();
+        // Drawable
+        if(drawable != null) {
+            int dw = drawable.getBounds().width();
+            int dh = drawable.getBounds().height();
+            int blockHeight = isDrawableHorizontal() ? Math.max(textHeight, dh) : textHeight + dh + gap;
+            int top = centerY - blockHeight / 2;
+            canvas.save();
+            switch (drawablePosition) {
+                case TextSettingsItem.LEFT:
+                    canvas.translate(left, centerY - dh / 2f);
+                    left += dw + gap;
+                    break;
+                case TextSettingsItem.RIGHT:
+                    canvas.translate(right - dw, centerY - dh / 2f);
+                    right -= dw + gap;
+                    break;
+                case TextSettingsItem.TOP:
+                    canvas.translate((left + right - dw) / 2f, top);
+                    centerY = top + dh + gap + textHeight / 2;
+                    break;
+                case TextSettingsItem.BOTTOM:
+                    canvas.translate((left + right - dw) / 2f, top + textHeight + gap);
+                    centerY = top + textHeight / 2;
+                    break;
+            }
+            drawable.draw(canvas);
+            canvas.restore();
+        }
+        // Text
+        canvas.save();
+        canvas.translate(left, centerY - textHeight / 2f);
+        layout.draw(canvas);
+        canvas.restore();
+    }
+
+    private void drawToggle(Canvas canvas, int left, int centerY) {
+        if(toggle == TOGGLE_SWITCH) {
+            togglePaint.setStyle(Paint.Style.FILL);
+            togglePaint.setColor(checked ? SettingsView.adjustAlpha(toggleColor, 0.3f) : SettingsView.adjustAlpha(Color.BLACK, 0.3f));
+            toggleRect.set(left, centerY - trackHeight / 2f, left + trackWidth, centerY + trackHeight / 2f);
+            canvas.drawRoundRect(toggleRect, trackHeight / 2f, trackHeight / 2f, togglePaint);
+            float thumbX = checked ? left + trackWidth - thumbRadius : left + thumbRadius;
+            togglePaint.setColor(checked ? toggleColor : THUMB_OFF_COLOR);
+            canvas.drawCircle(thumbX, centerY, thumbRadius, togglePaint);
+        }else if(toggle == TOGGLE_CHECKBOX) {
+            float inset = strokeWidth / 2f;
+            toggleRect.set(left + inset, centerY - boxSize / 2f + inset, left + boxSize - inset, centerY + boxSize / 2f - inset);
+            togglePaint.setStrokeWidth(strokeWidth);
+            if(checked) {
+                togglePaint.setStyle(Paint.Style.FILL_AND_STROKE);
+                togglePaint.setColor(toggleColor);
+                canvas.drawRoundRect(toggleRect, strokeWidth, strokeWidth, togglePaint);
+                checkPath.rewind();
+                checkPath.moveTo(toggleRect.left + boxSize * 0.2f, toggleRect.centerY());
+                checkPath.lineTo(toggleRect.left + boxSize * 0.4f, toggleRect.centerY() + boxSize * 0.2f);
+                checkPath.lineTo(toggleRect.right - boxSize * 0.2f, toggleRect.centerY() - boxSize * 0.2f);
+                togglePaint.setStyle(Paint.Style.STROKE);
+                togglePaint.setColor(Color.WHITE);
+                canvas.drawPath(checkPath, togglePaint);
+            }else {
+                togglePaint.setStyle(Paint.Style.STROKE);
+                togglePaint.setColor(uncheckedColor);
+                canvas.drawRoundRect(toggleRect, strokeWidth, strokeWidth, togglePaint);
+            }
+        }
+    }
+}
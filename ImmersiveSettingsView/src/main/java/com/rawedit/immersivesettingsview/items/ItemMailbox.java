@@ -0,0 +1,56 @@
+package com.rawedit.immersivesettingsview.items;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock free inbox for the updates other threads make to an Item which belongs to the main thread.
+ * Every update has a slot, like the setter it comes from, only the last update of a slot is run.
+ */
+final class ItemMailbox {
+
+    private static final class Update {
+        final Object slot;
+        final Runnable action;
+        Update next;
+
+        Update(Object slot, Runnable action) {
+            this.slot = slot;
+            this.action = action;
+        }
+    }
+
+    // The newest update first
+    private final AtomicReference<Update> head = new AtomicReference<>();
+
+    /**
+     * Can be called from any thread
+     * @param slot identifies what the update changes, compared with equals
+     * @param action the update
+     */
+    void post(Object slot, Runnable action) {
+        Update update = new Update(slot, action);
+        Update current;
+        do {
+            current = head.get();
+            update.next = current;
+        }while(!head.compareAndSet(current, update));
+    }
+
+    /**
+     * Runs the last update of every slot, in the order those updates were posted
+     */
+    void drain() {
+        Update update = head.getAndSet(null);
+        if(update == null) return;
+        ArrayList<Update> latest = new ArrayList<>();
+        HashSet<Object> slots = new HashSet<>();
+        for(; update != null; update = update.next) {
+            if(slots.add(update.slot)) latest.add(update);
+        }
+        for(int i = latest.size() - 1; i >= 0; i--) {
+            latest.get(i).action.run();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.rawedit.immersivesettingsview.items;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Buffer for property writes of a SettingsItem which are not applied to its views yet.
+ * Every property has one int and one Object slot, a write overrides the last write to the same property.
+ * The properties are numbered by the Item (at most 64) and marked in a bit mask until they are applied.
+ * A write of the value which is already applied is dropped, except for properties the user can change
+ * through the views, since their applied value could be outdated.
+ * <p>
+ * Writes are lock free and allowed from any thread, the properties are only taken and applied on one thread.
+ * A write stores the value before it marks the property, so the taking thread sees the value once it sees the mark.
+ * The int and Object slot of put are stored one after the other, a concurrent take may see them mixed,
+ * the property stays marked then and is applied again with both values.
+ */
+final class PendingProperties {
+
+    static final int MAX_PROPERTIES = 64;
+
+    private final AtomicLong dirty = new AtomicLong(0);
+    // Properties whose slots hold the value applied to the views, only changed by the applying thread
+    private volatile long applied = 0;
+    private final long alwaysApplied;
+    private final AtomicIntegerArray ints;
+    private final AtomicReferenceArray<Object> objects;
+
+    PendingProperties(int count) {
+        this(count, 0);
+    }
+
+    /**
+     * @param count the number of properties
+     * @param alwaysApplied the properties which are applied even if the value did not change
+     */
+    PendingProperties(int count, long alwaysApplied) {
+        if(count > MAX_PROPERTIES) throw new IllegalArgumentException("At most " + MAX_PROPERTIES + " properties are supported");
+        this.alwaysApplied = alwaysApplied;
+        ints = new AtomicIntegerArray(count);
+        objects = new AtomicReferenceArray<>(count);
+    }
+
+    static long bit(int property) {
+        return 1L << property;
+    }
+
+    void putInt(int property, int value) {
+        if(isApplied(property) && ints.get(property) == value) return;
+        ints.set(property, value);
+        markDirty(bit(property));
+    }
+
+    void putFloat(int property, float value) {
+        putInt(property, Float.floatToRawIntBits(value));
+    }
+
+    void putBoolean(int property, boolean value) {
+        putInt(property, value ? 1 : 0);
+    }
+
+    void putObject(int property, Object value) {
+        if(isApplied(property) && Objects.equals(objects.get(property), value)) return;
+        objects.set(property, value);
+        markDirty(bit(property));
+    }
+
+    void put(int property, int value, Object object) {
+        if(isApplied(property) && ints.get(property) == value && Objects.equals(objects.get(property), object)) return;
+        ints.set(property, value);
+        objects.set(property, object);
+        markDirty(bit(property));
+    }
+
+    /**
+     * Marks a property whose value is kept by the Item itself
+     */
+    void mark(int property) {
+        markDirty(bit(property));
+    }
+
+    private void markDirty(long bits) {
+        long current;
+        do {
+            current = dirty.get();
+            if((current & bits) == bits) return;
+        }while(!dirty.compareAndSet(current, current | bits));
+    }
+
+    int getInt(int property) {
+        return ints.get(property);
+    }
+
+    float getFloat(int property) {
+        return Float.intBitsToFloat(ints.get(property));
+    }
+
+    boolean getBoolean(int property) {
+        return ints.get(property) != 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T getObject(int property) {
+        return (T) objects.get(property);
+    }
+
+    // True if the slot still holds the applied value and the property may be skipped
+    private boolean isApplied(int property) {
+        long bit = bit(property);
+        return (applied & bit) != 0 && (dirty.get() & bit) == 0 && (alwaysApplied & bit) == 0;
+    }
+
+    /**
+     * @return true if the property was written at least once
+     */
+    boolean isWritten(int property) {
+        return ((applied | dirty.get()) & bit(property)) != 0;
+    }
+
+    boolean isPending(int property) {
+        return (dirty.get() & bit(property)) != 0;
+    }
+
+    boolean hasPending(long mask) {
+        return (dirty.get() & mask) != 0;
+    }
+
+    /**
+     * @param mask the properties to hash
+     * @return a hash over the last written values of the properties
+     */
+    int contentHash(long mask) {
+        int hash = 1;
+        long written = (applied | dirty.get()) & mask;
+        while(written != 0) {
+            int property = Long.numberOfTrailingZeros(written);
+            written &= written - 1;
+            Object object = objects.get(property);
+            hash = 31 * hash + property;
+            hash = 31 * hash + ints.get(property);
+            hash = 31 * hash + (object == null ? 0 : object.hashCode());
+        }
+        return hash;
+    }
+
+    /**
+     * Writes the last written values of another buffer, unchanged values are dropped as usual
+     * @param other a buffer with the same property numbers
+     * @param mask the properties to copy
+     */
+    void copyFrom(PendingProperties other, long mask) {
+        long written = (other.applied | other.dirty.get()) & mask;
+        while(written != 0) {
+            int property = Long.numberOfTrailingZeros(written);
+            written &= written - 1;
+            put(property, other.ints.get(property), other.objects.get(property));
+        }
+    }
+
+    /**
+     * Removes the given properties from the pending ones
+     * @param mask the properties to take
+     * @return the properties which were pending
+     */
+    long take(long mask) {
+        long current;
+        do {
+            current = dirty.get();
+            if((current & mask) == 0) return 0;
+        }while(!dirty.compareAndSet(current, current & ~mask));
+        long taken = current & mask;
+        applied |= taken;
+        return taken;
+    }
+}
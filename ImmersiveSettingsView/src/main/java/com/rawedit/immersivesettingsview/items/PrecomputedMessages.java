@@ -0,0 +1,145 @@
+package com.rawedit.immersivesettingsview.items;
+
+import android.util.LruCache;
+import android.widget.TextView;
+
+import androidx.appcompat.widget.AppCompatTextView;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+
+import com.rawedit.immersivesettingsview.SettingsExecutor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Measures long Item messages on a background thread with PrecomputedTextCompat.
+ * The TextView gets a future of the measured text (AppCompatTextView.setTextFuture) and only waits for it
+ * in its next measure pass, so the text is measured once and never on the main thread.
+ * Precomputed messages are cached by text and text appearance, so rebuilt Items
+ * (for example the Main Page entries) get them without measuring again.
+ */
+public final class PrecomputedMessages {
+
+    /**
+     * Messages shorter than this are cheap to measure and are set directly
+     */
+    public static final int MIN_LENGTH = 32;
+
+    // The cache size is counted in characters
+    private static final LruCache<Key, PrecomputedTextCompat> cache = new LruCache<Key, PrecomputedTextCompat>(256 * 1024) {
+        @Override
+        protected int sizeOf(Key key, PrecomputedTextCompat value) {
+            return key.text.length();
+        }
+    };
+
+    private PrecomputedMessages() {
+    }
+
+    /**
+     * Sets the message to the TextView, a long one is precomputed if the TextView is an AppCompatTextView.
+     * The text appearance must not change after this call until the TextView was measured,
+     * the precomputed text only fits the appearance it was measured with.
+     * @param view the TextView showing the message
+     * @param text the message
+     */
+    public static void setMessage(TextView view, CharSequence text) {
+        AppCompatTextView compatView = view instanceof AppCompatTextView ? (AppCompatTextView) view : null;
+        // A future which is still pending would replace this text in the next measure pass
+        if(compatView != null) compatView.setTextFuture(null);
+        if(text == null || text.length() < MIN_LENGTH || compatView == null) {
+            view.setText(text);
+            return;
+        }
+        PrecomputedTextCompat.Params params = TextViewCompat.getTextMetricsParams(view);
+        PrecomputedTextCompat cached = get(text, params);
+        if(cached != null) {
+            // Cached with the same params, so it fits the TextView
+            TextViewCompat.setPrecomputedText(view, cached);
+            return;
+        }
+        compatView.setTextFuture(precompute(text, params));
+    }
+
+    /**
+     * Precomputes the text on a background thread, a cached text is returned as a completed future
+     * @param text the text to measure
+     * @param params the text appearance used for measuring
+     * @return the precomputed text
+     */
+    public static Future<PrecomputedTextCompat> precompute(final CharSequence text, final PrecomputedTextCompat.Params params) {
+        final PrecomputedTextCompat cached = get(text, params);
+        if(cached != null) {
+            FutureTask<PrecomputedTextCompat> done = new FutureTask<>(new Callable<PrecomputedTextCompat>() {
+                @Override
+                public PrecomputedTextCompat call() {
+                    return cached;
+                }
+            });
+            done.run();
+            return done;
+        }
+        return SettingsExecutor.background().submit(new Callable<PrecomputedTextCompat>() {
+            @Override
+            public PrecomputedTextCompat call() {
+                PrecomputedTextCompat precomputed = PrecomputedTextCompat.create(text, params);
+                cache.put(new Key(text.toString(), params), precomputed);
+                return precomputed;
+            }
+        });
+    }
+
+    /**
+     * Waits for a text returned by precompute, like AppCompatTextView does in its measure pass
+     * @param future the precomputed text
+     * @param fallback the original text, returned if the text could not be precomputed
+     * @return the precomputed text or the fallback
+     */
+    public static CharSequence await(Future<PrecomputedTextCompat> future, CharSequence fallback) {
+        try {
+            return future.get();
+        }catch (ExecutionException e) {
+            return fallback;
+        }catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback;
+        }
+    }
+
+    public static PrecomputedTextCompat get(CharSequence text, PrecomputedTextCompat.Params params) {
+        return cache.get(new Key(text.toString(), params));
+    }
+
+    public static void clearCache() {
+        cache.evictAll();
+    }
+
+    private static final class Key {
+
+        private final String text;
+        private final PrecomputedTextCompat.Params params;
+        private final int hash;
+
+        Key(String text, PrecomputedTextCompat.Params params) {
+            this.text = text;
+            this.params = params;
+            this.hash = 31 * text.hashCode() + params.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) return true;
+            if(!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return hash == key.hash && text.equals(key.text) && params.equals(key.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -2,24 +2,33 @@ package com.rawedit.immersivesettingsview.items;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.os.Handler;
-import android.os.Looper;
+import android.graphics.Canvas;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.View;
+import android.view.ViewGroup;
+import android.view.accessibility.AccessibilityNodeInfo;
 import android.widget.FrameLayout;
 
 import androidx.annotation.ColorInt;
+import androidx.annotation.LayoutRes;
 import androidx.annotation.Nullable;
 
+import com.rawedit.immersivesettingsview.FrameBudgetExecutor;
+import com.rawedit.immersivesettingsview.SearchIndex;
+import com.rawedit.immersivesettingsview.SettingsExecutor;
+import com.rawedit.immersivesettingsview.SettingsMetrics;
 import com.rawedit.immersivesettingsview.SettingsView;
 
-import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class SettingsItem extends FrameLayout {
 
     public static final String TAG = SettingsItem.class.getSimpleName();
 
+    private static final float DISABLED_ALPHA = 0.38f;
+
     protected boolean initialized = false;
     protected boolean settingsNameSaveChanged = false;
 
@@ -27,13 +36,49 @@ public abstract class SettingsItem extends FrameLayout {
 
     protected String settingNameSave = null;
 
-    protected ArrayList<Runnable> queue = new ArrayList<>();
-
     protected OnStateLoad onStateLoad;
     protected OnStateSave onStateSave;
 
     protected SharedPreferences sharedPreferences;
 
+    // Only set for Items created in the lightweight render mode
+    FlatItemRenderer flatRenderer;
+
+    // Property writes which are not applied to the views yet, only the last write per property is kept
+    final PendingProperties pending;
+    private final long userEditableProperties;
+
+    // True while a change since the last layout pass could affect the size of the Item
+    private boolean layoutDirty = true;
+
+    private String stableId = null;
+    private String searchKeywords = null;
+    // Set while the Item is part of a SearchIndex, which is updated when the searchable text changes
+    private volatile SearchIndex searchIndex = null;
+    private String generatedId = null;
+    // True while a retained value is shown, which must not be saved again
+    private boolean restoringValue = false;
+    // Durations of metric phases measured before the Item was part of a Page, by phase
+    private long[] unattributedNanos = null;
+
+    // Observes the layout requests of all Items, used by the performance tests
+    private static volatile LayoutRequestListener layoutRequestListener = null;
+
+    // Set once the main thread owns the Item, from then on other threads only record their updates
+    private volatile boolean ownedByMain = false;
+    private final ItemMailbox mailbox = new ItemMailbox();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final Runnable flushUpdates = new Runnable() {
+        @Override
+        public void run() {
+            flushUpdates();
+        }
+    };
+    // Runs all flushes of a frame in one pass, the budget is unlimited
+    private static FrameBudgetExecutor updateExecutor;
+
+    private static final AtomicLong nextGeneratedId = new AtomicLong(0);
+
     // Enums
 
     public enum Type {
@@ -73,12 +118,20 @@ public abstract class SettingsItem extends FrameLayout {
          * The Message should not be hidden.
          */
         SLIDER,
+        /**
+         * Parameter for initializing a ChoiceSettingsItem.
+         * Shows a Message and the current selection, a click opens a searchable popup with the options.
+         * The options come page by page from a ChoiceDataSource, so large sets (time zones, locales) stay cheap.
+         * Single choice saves the key of the option, multi choice the selected indices as a bit set.
+         * The State Saving is handled automatically but can be modified by setting the OnStateSave or OnStateLoad Listeners.
+         */
+        CHOICE,
         /**
          * Parameter for initializing a CustomSettingsItem
          * It must get a own layout resource in the Constructor.
          * The View shows exactly the layout you defined in the Constructor.
-         * For initializing all the self defined views us the onSetupViews Listeners which will be called automatically after adding the View to a parent.
-         * For saving/loading the views use the saveViewReference and getViewReference methods.
+         * For initializing all the self defined views us the onSetupViews Listeners which will be called once after adding the View to a parent.
+         * For keeping the views register their ids with setViewIds and get them by index with getBoundView.
          * For the ripple color to work the RippleColorChangeListener must be set and the change must be handled in it.
          * The State Handling must be completely handled by yourself using the OnStateSave and OnStateLoad Listeners.
          */
@@ -95,33 +148,204 @@ public abstract class SettingsItem extends FrameLayout {
         void savingState(SharedPreferences prefs, String option);
     }
 
-    // Constructor
-
-    public SettingsItem(Context context) {
-        this(context, null);
+    public interface OnItemCreated {
+        /**
+         * Called on the main thread once an asynchronously created Item is ready
+         * @param item the new Item or null for an unknown Type
+         */
+        void itemCreated(SettingsItem item);
     }
 
-    public SettingsItem(Context context, @Nullable AttributeSet attrs) {
-        this(context, attrs, 0);
+    public interface OnItemCheckedChangeListener {
+        /**
+         * Called by Switch and CheckBox Items, also by lightweight Items which have no CompoundButton
+         * @param item the Item whose state changed
+         * @param isChecked the new state
+         */
+        void onCheckedChanged(SettingsItem item, boolean isChecked);
     }
 
-    public SettingsItem(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
-        this(context, attrs, defStyleAttr, 0);
+    public interface LayoutRequestListener {
+        /**
+         * Called on every requestLayout of an Item, before it is passed to the parent
+         * @param item the Item which requested a layout pass
+         */
+        void onLayoutRequested(SettingsItem item);
     }
 
-    public SettingsItem(Context context, @Nullable AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+    // Constructor
+
+    /**
+     * The properties are passed in, so the buffer exists before any subclass code runs
+     * @param propertyCount the number of properties the Item buffers in pending (at most 64)
+     * @param userEditableProperties the bit mask of the properties the user can change through the views (like the Slider value),
+     *                               they are applied on every write, even if the same value was applied before
+     */
+    protected SettingsItem(Context context, @Nullable AttributeSet attrs, int defStyleAttr, int defStyleRes, int propertyCount, long userEditableProperties) {
         super(context, attrs, defStyleAttr, defStyleRes);
+        this.userEditableProperties = userEditableProperties;
+        pending = new PendingProperties(propertyCount, userEditableProperties);
+        // Items created by AsyncItemFactory belong to the worker until they are handed over
+        ownedByMain = SettingsExecutor.isMainThread();
         sharedPreferences = getContext().getSharedPreferences(SettingsView.settingsName, Context.MODE_PRIVATE);
     }
 
+    // Thread Safety
+
+    /**
+     * Hands the Item over to the main thread, updates from other threads are deferred from now on
+     */
+    void claimForMainThread() {
+        ownedByMain = true;
+    }
+
+    /**
+     * Setters which do more than writing properties (like changing views or saving the state) ask this first
+     * @return true if the caller is not the main thread but the Item belongs to it, the setter has to defer the update then
+     */
+    protected final boolean mustDefer() {
+        return ownedByMain && !SettingsExecutor.isMainThread();
+    }
+
+    /**
+     * Records an update for the main thread, it runs with the next frame.
+     * A later update with the same slot replaces it.
+     * @param slot identifies what the update changes, like the name of the setter
+     * @param update calls the setter again on the main thread
+     */
+    protected final void defer(Object slot, Runnable update) {
+        mailbox.post(slot, update);
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if(flushScheduled.compareAndSet(false, true)) getUpdateExecutor().execute(flushUpdates);
+    }
+
+    private void flushUpdates() {
+        // Cleared first, so an update recorded during the flush schedules the next one
+        flushScheduled.set(false);
+        mailbox.drain();
+        applyPending();
+    }
+
+    private static synchronized FrameBudgetExecutor getUpdateExecutor() {
+        if(updateExecutor == null) updateExecutor = new FrameBudgetExecutor(Long.MAX_VALUE);
+        return updateExecutor;
+    }
+
     // Class specific Methods
 
-    protected void executeQueue() {
-        for(Runnable r : queue) {
-            new Handler(Looper.getMainLooper()).post(r);
+    /**
+     * Inflates the layout into this Item.
+     * Uses a thread safe inflater if the Item is created asynchronously.
+     * @param layout the layout resource
+     * @return this Item
+     */
+    protected View inflateLayout(@LayoutRes int layout) {
+        long start = SettingsMetrics.begin(SettingsMetrics.INFLATE);
+        View v = AsyncItemFactory.getInflater(getContext()).inflate(layout, this, true);
+        endPhase(SettingsMetrics.INFLATE, start);
+        return v;
+    }
+
+    /**
+     * Theme properties (colors) are only applied while the Item is attached and visible,
+     * so Items on hidden Pages only record them.
+     * @return the bit mask of the theme properties
+     */
+    protected long getThemeProperties() {
+        return 0;
+    }
+
+    /**
+     * Properties holding text the user can search for (messages, hints, button texts).
+     * @return the bit mask of the searchable properties
+     */
+    protected long getSearchableProperties() {
+        return 0;
+    }
+
+    /**
+     * Applies the pending value of one property to the views.
+     * Called on the main thread, in the order of the property numbers.
+     * @param property the property number
+     */
+    protected abstract void applyProperty(int property);
+
+    /**
+     * Applies all pending properties in one pass.
+     * Before the Item is initialized nothing is applied, theme properties wait until the Item is shown.
+     * Called from another thread than the main thread which owns the Item, the properties are applied with the next frame,
+     * so setters which only write properties can be called from any thread.
+     */
+    protected void applyPending() {
+        SearchIndex index = searchIndex;
+        if(index != null && pending.hasPending(getSearchableProperties())) index.update(this);
+        if(!initialized) return;
+        if(mustDefer()) {
+            scheduleFlush();
+            return;
+        }
+        long mask = isAttachedToWindow() && isShown() ? -1L : ~getThemeProperties();
+        long properties = pending.take(mask);
+        if(properties == 0) return;
+        // Theme properties are colors and never change the size of the Item
+        if((properties & ~getThemeProperties()) != 0) layoutDirty = true;
+        long start = (properties & getThemeProperties()) != 0 ? SettingsMetrics.begin(SettingsMetrics.THEME_APPLY) : SettingsMetrics.NOT_STARTED;
+        while(properties != 0) {
+            int property = Long.numberOfTrailingZeros(properties);
+            properties &= properties - 1;
+            applyProperty(property);
+        }
+        SettingsMetrics.end(SettingsMetrics.THEME_APPLY, this, start);
+    }
+
+    /**
+     * Calls loadSavedState and measures it for SettingsMetrics
+     */
+    protected final void restoreState() {
+        long start = SettingsMetrics.begin(SettingsMetrics.LOAD_STATE);
+        loadSavedState();
+        endPhase(SettingsMetrics.LOAD_STATE, start);
+    }
+
+    /**
+     * Ends a phase of SettingsMetrics, phases measured before the Item is part of a Page (like in the constructor)
+     * are recorded for the Page once the Item is attached
+     */
+    private void endPhase(int phase, long start) {
+        if(start == SettingsMetrics.NOT_STARTED) return;
+        String page = SettingsMetrics.findPage(this);
+        if(page != null) {
+            SettingsMetrics.end(phase, page, start);
+            return;
+        }
+        if(unattributedNanos == null) unattributedNanos = new long[SettingsMetrics.PHASE_COUNT];
+        unattributedNanos[phase] += SettingsMetrics.stop(phase, start);
+    }
+
+    private void recordUnattributedPhases() {
+        long[] nanos = unattributedNanos;
+        if(nanos == null) return;
+        String page = SettingsMetrics.findPage(this);
+        if(page == null) return;
+        unattributedNanos = null;
+        for(int phase = 0; phase < nanos.length; phase++) {
+            if(nanos[phase] > 0) SettingsMetrics.record(phase, page, nanos[phase]);
         }
     }
 
+    /**
+     * Calls saveCurrentState and measures it for SettingsMetrics
+     */
+    protected final void persistState() {
+        if(restoringValue) return;
+        long start = SettingsMetrics.begin(SettingsMetrics.SAVE_STATE);
+        saveCurrentState();
+        SettingsMetrics.end(SettingsMetrics.SAVE_STATE, this, start);
+    }
+
     /**
      * Load the last saved state of the Item.
      * Must have a valid SettingNameSave to work.
@@ -158,12 +382,253 @@ public abstract class SettingsItem extends FrameLayout {
         if(onStateSave != null) onStateSave.savingState(sharedPreferences, settingNameSave);
     }
 
-    public void updateLayout() {
-        requestLayout();
-        for(int i = 0; i < getChildCount(); i++) {
-            View v = getChildAt(i);
-            v.requestLayout();
+    /**
+     * The value the user sees, kept by a SettingsState across configuration changes.
+     * Includes edits which are not saved yet.
+     * @return the value or null if the Item has no value of its own
+     */
+    public Object getStateValue() {
+        return null;
+    }
+
+    /**
+     * @return true if the value differs from the saved one, like an EditText content before its Button was clicked
+     */
+    public boolean hasUncommittedValue() {
+        return false;
+    }
+
+    /**
+     * Shows a value of getStateValue, only called through restoreStateValue
+     * @param value the value of an Item of the same class
+     */
+    protected void setStateValue(Object value) {
+    }
+
+    /**
+     * Shows a retained value without saving it, neither the SharedPreferences nor the OnStateSave listener are used
+     * @param value a value returned by getStateValue of an Item of the same class
+     */
+    public final void restoreStateValue(Object value) {
+        restoringValue = true;
+        try {
+            setStateValue(value);
+        }finally {
+            restoringValue = false;
+        }
+    }
+
+    /**
+     * Enables or disables the Item with all its views, a disabled Item is dimmed
+     * @param enabled false to disable
+     */
+    @Override
+    public void setEnabled(final boolean enabled) {
+        if(mustDefer()) {
+            defer("enabled", new Runnable() {
+                @Override
+                public void run() {
+                    setEnabled(enabled);
+                }
+            });
+            return;
+        }
+        super.setEnabled(enabled);
+        setEnabled(this, enabled);
+        setAlpha(enabled ? 1f : DISABLED_ALPHA);
+    }
+
+    private static void setEnabled(ViewGroup group, boolean enabled) {
+        for(int i = 0; i < group.getChildCount(); i++) {
+            View child = group.getChildAt(i);
+            child.setEnabled(enabled);
+            if(child instanceof ViewGroup) setEnabled((ViewGroup) child, enabled);
+        }
+    }
+
+    public boolean hasPendingTheme() {
+        return pending.hasPending(getThemeProperties());
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        ownedByMain = true;
+        recordUnattributedPhases();
+        applyPending();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        if(visibility == VISIBLE) applyPending();
+    }
+
+    /**
+     * Lightweight Items draw their content themselves and have no child views.
+     * Only available for TextSettingsItem, SwitchSettingsItem and CheckBoxSettingsItem.
+     * @return true if the Item was created in the lightweight render mode
+     */
+    public boolean isLightweight() {
+        return flatRenderer != null;
+    }
+
+    void setFlatMeasuredDimension(int width, int height) {
+        setMeasuredDimension(width, height);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if(flatRenderer != null) {
+            flatRenderer.measure(widthMeasureSpec, heightMeasureSpec);
+        }else {
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if(flatRenderer != null) flatRenderer.draw(canvas);
+    }
+
+    @Override
+    public CharSequence getAccessibilityClassName() {
+        if(flatRenderer != null) return flatRenderer.getAccessibilityClassName();
+        return super.getAccessibilityClassName();
+    }
+
+    @Override
+    public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+        super.onInitializeAccessibilityNodeInfo(info);
+        if(flatRenderer != null) {
+            info.setText(flatRenderer.getText());
+            info.setCheckable(flatRenderer.isCheckable());
+            info.setChecked(flatRenderer.isChecked());
+        }
+    }
+
+    @Override
+    public void requestLayout() {
+        LayoutRequestListener listener = layoutRequestListener;
+        if(listener != null) listener.onLayoutRequested(this);
+        super.requestLayout();
+    }
+
+    /**
+     * Counts layout requests where they happen, a parent which already requested a layout
+     * does not pass further requests of its children on to the root
+     * @param listener notified of the requestLayout calls of all Items or null
+     */
+    public static void setLayoutRequestListener(LayoutRequestListener listener) {
+        layoutRequestListener = listener;
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        super.onLayout(changed, left, top, right, bottom);
+        layoutDirty = false;
+    }
+
+    /**
+     * @return true if a property which affects the size of the Item changed since the last layout pass
+     */
+    public boolean isLayoutDirty() {
+        return layoutDirty;
+    }
+
+    /**
+     * Requests a new layout pass if a size relevant property changed since the last one.
+     * Unchanged Items keep their cached measurements.
+     * @return true if a layout pass was requested
+     */
+    public boolean updateLayout() {
+        if(!layoutDirty) return false;
+        if(!isLayoutRequested()) requestLayout();
+        return true;
+    }
+
+    /**
+     * Properties which make up the content of the Item, they are hashed by getContentHash and copied by rebind.
+     * @return all properties except the theme and user editable ones
+     */
+    protected long getContentProperties() {
+        return ~(getThemeProperties() | userEditableProperties);
+    }
+
+    /**
+     * @return a hash of the content, Items with the same Stable ID and hash do not need a rebind
+     */
+    public int getContentHash() {
+        int hash = getClass().hashCode();
+        hash = 31 * hash + (isLightweight() ? 1 : 0);
+        hash = 31 * hash + pending.contentHash(getContentProperties());
+        return 31 * hash + (settingNameSave == null ? 0 : settingNameSave.hashCode());
+    }
+
+    /**
+     * Copies the content and listeners of another Item of the same class into this one,
+     * so this Item keeps its views (and their state) while showing the new content.
+     * @param from the Item with the new content
+     * @return false if the Item can not be rebound, it has to be replaced by the other Item then
+     */
+    public boolean rebind(SettingsItem from) {
+        if(from == this) return true;
+        if(from.getClass() != getClass() || from.isLightweight() != isLightweight()) return false;
+        onStateLoad = from.onStateLoad;
+        onStateSave = from.onStateSave;
+        pending.copyFrom(from.pending, getContentProperties());
+        if(!Objects.equals(from.settingNameSave, settingNameSave)) setSettingNameSave(from.settingNameSave);
+        applyPending();
+        return true;
+    }
+
+    /**
+     * The text the SearchIndex uses for this Item, read from the properties, so it does not need the views
+     * @return the searchable properties and keywords separated by line breaks
+     */
+    public String getSearchText() {
+        StringBuilder sb = new StringBuilder();
+        long properties = getSearchableProperties();
+        while(properties != 0) {
+            int property = Long.numberOfTrailingZeros(properties);
+            properties &= properties - 1;
+            Object value = pending.isWritten(property) ? pending.getObject(property) : null;
+            if(value == null || value.toString().isEmpty()) continue;
+            if(sb.length() > 0) sb.append('\n');
+            sb.append(value);
+        }
+        if(searchKeywords != null && !searchKeywords.isEmpty()) {
+            if(sb.length() > 0) sb.append('\n');
+            sb.append(searchKeywords);
         }
+        return sb.toString();
+    }
+
+    public String getSearchKeywords() {
+        return searchKeywords;
+    }
+
+    /**
+     * Additional words the Item can be found with, like synonyms or the content of CustomSettingsItems
+     * @param searchKeywords the keywords or null
+     */
+    public void setSearchKeywords(String searchKeywords) {
+        this.searchKeywords = searchKeywords;
+        SearchIndex index = searchIndex;
+        if(index != null) index.update(this);
+    }
+
+    public SearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * Called by the SearchIndex when the Item is added or removed
+     * @param searchIndex the index containing the Item or null
+     */
+    public void setSearchIndex(SearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
     }
 
     // Static Methods
@@ -180,11 +645,36 @@ public abstract class SettingsItem extends FrameLayout {
                 return new EditTextSettingsItem(c);
             case SLIDER:
                 return new SliderSettingsItem(c);
+            case CHOICE:
+                return new ChoiceSettingsItem(c);
             default:
                 return null;
         }
     }
 
+    /**
+     * Creates a new Item in the given render mode.
+     * Lightweight Items are single Views which draw their content themselves,
+     * only TEXT, SWITCH and CHECKBOX support it, all other types ignore the flag.
+     * @param type the Type of the Item
+     * @param c a Theme specific Context
+     * @param lightweight true for the lightweight render mode
+     * @return the new Item or null for an unknown Type
+     */
+    public static SettingsItem createSettingsItem(Type type, Context c, boolean lightweight) {
+        if(!lightweight) return createSettingsItem(type, c);
+        switch (type) {
+            case TEXT:
+                return new TextSettingsItem(c, true);
+            case SWITCH:
+                return new SwitchSettingsItem(c, true);
+            case CHECKBOX:
+                return new CheckBoxSettingsItem(c, true);
+            default:
+                return createSettingsItem(type, c);
+        }
+    }
+
     public static SettingsItem createSettingsItem(Type type, Context c, int layout) {
         if (type == Type.CUSTOM) {
             return new CustomSettingsItem(c, layout);
@@ -192,16 +682,66 @@ public abstract class SettingsItem extends FrameLayout {
         return createSettingsItem(type, c);
     }
 
+    /**
+     * Creates a new Item on a worker thread, so inflating its layout does not block the main thread.
+     * Finished Items are handed to the main thread in frame sized batches, in the order they were requested.
+     * @param type the Type of the Item
+     * @param c a Theme specific Context
+     * @param callback gets the new Item on the main thread
+     */
+    public static void createAsync(Type type, Context c, OnItemCreated callback) {
+        createAsync(type, c, false, callback);
+    }
+
+    /**
+     * Creates a new Item on a worker thread in the given render mode
+     * @param type the Type of the Item
+     * @param c a Theme specific Context
+     * @param lightweight true for the lightweight render mode
+     * @param callback gets the new Item on the main thread
+     */
+    public static void createAsync(Type type, Context c, boolean lightweight, OnItemCreated callback) {
+        AsyncItemFactory.create(type, c, lightweight, 0, callback);
+    }
+
+    /**
+     * Creates a new CustomSettingsItem on a worker thread
+     * @param type the Type of the Item (only CUSTOM uses the layout)
+     * @param c a Theme specific Context
+     * @param layout the layout resource for a CustomSettingsItem
+     * @param callback gets the new Item on the main thread
+     */
+    public static void createAsync(Type type, Context c, int layout, OnItemCreated callback) {
+        AsyncItemFactory.create(type, c, false, layout, callback);
+    }
+
     // Abstract Methods
 
     /**
      * Sets the Ripple color for All Components
      * Depending on the Settings Item it could also set any other empty color
      * (Must be handled separately for CustomSettingsItem)
+     * The color is applied once the Item is attached and visible
      * @param color the new Ripple Color
      */
     abstract public void setRippleColor(@ColorInt int color);
 
+    /**
+     * Sets the Alternative color (Switch, CheckBox, Stroke or Slider color)
+     * Does nothing for Items without an alternative color
+     * @param color the new Alternative Color
+     */
+    public void setAlternativeColor(@ColorInt int color) {
+    }
+
+    /**
+     * Sets the Text color of the Message
+     * Does nothing for Items without a Message (CustomSettingsItem)
+     * @param color the new Text Color
+     */
+    public void setTextColor(@ColorInt int color) {
+    }
+
     /**
      * Get the Important view of the SettingsItem
      * @return the View
@@ -214,16 +754,51 @@ public abstract class SettingsItem extends FrameLayout {
         return type;
     }
 
+    /**
+     * The Stable ID identifies the Item across SettingsPage.submit calls.
+     * Items without an explicit ID get a generated one, so they only match themselves.
+     * @return the Stable ID
+     */
+    public String getStableId() {
+        if(stableId != null) return stableId;
+        if(generatedId == null) generatedId = "#" + nextGeneratedId.incrementAndGet();
+        return generatedId;
+    }
+
+    /**
+     * @return false if the Stable ID is generated
+     */
+    public boolean hasStableId() {
+        return stableId != null;
+    }
+
+    /**
+     * @param stableId an ID which is unique within the Page and the same for the Item after reloading
+     */
+    public void setStableId(String stableId) {
+        this.stableId = stableId;
+        SearchIndex index = searchIndex;
+        if(index != null) index.update(this);
+    }
+
     /**
      * Set the Android Internal Setting name
      * (Required for CustomSettingsItem)
      * @param name Setting Name
      */
-    public void setSettingNameSave(String name) {
-        Log.d(TAG, "setSettingNameSave: " + name);
+    public void setSettingNameSave(final String name) {
+        if(mustDefer()) {
+            defer("settingNameSave", new Runnable() {
+                @Override
+                public void run() {
+                    setSettingNameSave(name);
+                }
+            });
+            return;
+        }
         if(name != null && !name.isEmpty() && !settingsNameSaveChanged) settingsNameSaveChanged = true;
         settingNameSave = name;
-        loadSavedState();
+        restoreState();
     }
 
     public String getSettingNameSave() {
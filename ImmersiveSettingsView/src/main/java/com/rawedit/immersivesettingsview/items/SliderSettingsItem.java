@@ -6,7 +6,6 @@ import android.util.AttributeSet;
 import android.view.View;
 import android.widget.TextView;
 
-import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -18,13 +17,44 @@ import com.rawedit.immersivesettingsview.SettingsView;
 
 public class SliderSettingsItem extends SettingsItem{
 
-    private boolean shouldMinimumBeUseForCurrentValue = true;
+    // Buffered properties, applied in this order
+    private static final int PROPERTY_STYLE = 0;
+    private static final int PROPERTY_MINIMUM = 1;
+    private static final int PROPERTY_MAXIMUM = 2;
+    private static final int PROPERTY_STEP_SIZE = 3;
+    private static final int PROPERTY_TICK_VISIBLE = 4;
+    private static final int PROPERTY_VALUE = 5;
+    // The int slot holds the number of decimals
+    private static final int PROPERTY_DECIMALS = 6;
+    // The int slot holds shouldMinimumBeUseForCurrentValue, the object slot the pattern of the current value
+    private static final int PROPERTY_CURRENT_VALUE_LABEL = 7;
+    // Refreshes the labels from the slots above, the minimum and maximum slots hold their pattern as object
+    private static final int PROPERTY_LABELS = 8;
+    private static final int PROPERTY_MESSAGE = 9;
+    private static final int PROPERTY_COLORS = 10;
+    private static final int PROPERTY_TEXT_COLOR = 11;
+    private static final int PROPERTY_COUNT = 12;
+
+    private static final long THEME_PROPERTIES = PendingProperties.bit(PROPERTY_COLORS) | PendingProperties.bit(PROPERTY_TEXT_COLOR);
+    private static final long USER_EDITABLE_PROPERTIES = PendingProperties.bit(PROPERTY_VALUE);
 
-    @ColorInt
-    private int rippleColor = 0;
+    /**
+     * Show values like String.valueOf(float), as the Slider always did
+     */
+    public static final int AUTO_DECIMALS = ValuePattern.PLAIN;
+
+    // Labels of the default LabelFormatter are cached for at most this many steps
+    private static final int MAX_CACHED_LABELS = 1024;
+
+    // Reused for every formatted value, so dragging the Slider does not allocate
+    private final StringBuilder formatBuilder = new StringBuilder(16);
+    private char[] minimumChars = new char[16];
+    private char[] maximumChars = new char[16];
 
-    private String minimumPattern = "%f";
-    private String currentValuePattern = "%f";
+    private String[] labelCache;
+    private float labelCacheFrom;
+    private float labelCacheStep;
+    private int labelCacheDecimals;
 
     private final View v;
     private TextView textView;
@@ -35,6 +65,9 @@ public class SliderSettingsItem extends SettingsItem{
     private Slider.OnChangeListener onChangeListener;
     private LabelFormatter labelFormatter;
 
+    // The value while nothing is saved yet
+    private float defaultValue = 0f;
+
     public SliderSettingsItem(Context context) {
         this(context, null);
     }
@@ -48,16 +81,16 @@ public class SliderSettingsItem extends SettingsItem{
     }
 
     public SliderSettingsItem(Context context, @Nullable AttributeSet attrs, int defStyleAttr, int defStyleRes) {
-        super(context, attrs, defStyleAttr, defStyleRes);
-        v = inflate(context, R.layout.setting_slider, this);
+        super(context, attrs, defStyleAttr, defStyleRes, PROPERTY_COUNT, USER_EDITABLE_PROPERTIES);
+        v = inflateLayout(R.layout.setting_slider);
         textView = v.findViewById(R.id.message);
         minimum = v.findViewById(R.id.minimum);
         slider = v.findViewById(R.id.slider);
         slider.addOnChangeListener(new Slider.OnChangeListener() {
             @Override
             public void onValueChange(@NonNull Slider slider, float value, boolean fromUser) {
-                saveCurrentState();
-                if(shouldMinimumBeUseForCurrentValue) minimum.setText(putFloatInPattern(currentValuePattern, value));
+                persistState();
+                if(isShouldMinimumBeUseForCurrentValue()) showValue(minimum, getCurrentValuePattern(), value);
                 if(onChangeListener != null) onChangeListener.onValueChange(slider, value, fromUser);
             }
         });
@@ -68,14 +101,16 @@ public class SliderSettingsItem extends SettingsItem{
                 if(labelFormatter != null) {
                     return labelFormatter.getFormattedValue(value);
                 }
-                return String.valueOf(value);
+                return getDefaultLabel(value);
             }
         });
         maximum = v.findViewById(R.id.maximum);
-        applyColors();
-        executeQueue();
+        pending.putInt(PROPERTY_DECIMALS, AUTO_DECIMALS);
+        pending.put(PROPERTY_CURRENT_VALUE_LABEL, 1, ValuePattern.DEFAULT);
+        pending.putInt(PROPERTY_COLORS, 0);
         initialized = true;
-        loadSavedState();
+        applyPending();
+        restoreState();
         settingNameSave = "";
     }
 
@@ -85,17 +120,23 @@ public class SliderSettingsItem extends SettingsItem{
      */
     @Override
     public void setRippleColor(int color) {
-        rippleColor = color;
-        if(initialized) {
-            applyColors();
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    applyColors();
-                }
-            });
-        }
+        pending.putInt(PROPERTY_COLORS, color);
+        applyPending();
+    }
+
+    @Override
+    public void setAlternativeColor(int color) {
+        setRippleColor(color);
+    }
+
+    /**
+     * Sets the Text Color for the Message and the Minimum and Maximum labels
+     * @param color a color in @ColorInt format
+     */
+    @Override
+    public void setTextColor(int color) {
+        pending.putInt(PROPERTY_TEXT_COLOR, color);
+        applyPending();
     }
 
     @Override
@@ -103,12 +144,71 @@ public class SliderSettingsItem extends SettingsItem{
         return v;
     }
 
+    @Override
+    protected long getThemeProperties() {
+        return THEME_PROPERTIES;
+    }
+
+    @Override
+    protected long getSearchableProperties() {
+        return PendingProperties.bit(PROPERTY_MESSAGE);
+    }
+
+    @Override
+    protected void applyProperty(int property) {
+        switch (property) {
+            case PROPERTY_STYLE:
+                Paris.style(slider).apply(pending.getInt(PROPERTY_STYLE));
+                break;
+            case PROPERTY_MINIMUM:
+                slider.setValueFrom(pending.getFloat(PROPERTY_MINIMUM));
+                break;
+            case PROPERTY_MAXIMUM:
+                slider.setValueTo(pending.getFloat(PROPERTY_MAXIMUM));
+                break;
+            case PROPERTY_STEP_SIZE:
+                slider.setStepSize(pending.getFloat(PROPERTY_STEP_SIZE));
+                break;
+            case PROPERTY_TICK_VISIBLE:
+                slider.setTickVisible(pending.getBoolean(PROPERTY_TICK_VISIBLE));
+                break;
+            case PROPERTY_VALUE:
+                slider.setValue(pending.getFloat(PROPERTY_VALUE));
+                break;
+            case PROPERTY_LABELS:
+                refreshLabels();
+                break;
+            case PROPERTY_MESSAGE:
+                PrecomputedMessages.setMessage(textView, pending.getObject(PROPERTY_MESSAGE));
+                break;
+            case PROPERTY_COLORS:
+                applyColors();
+                break;
+            case PROPERTY_TEXT_COLOR:
+                int textColor = pending.getInt(PROPERTY_TEXT_COLOR);
+                textView.setTextColor(textColor);
+                minimum.setTextColor(textColor);
+                maximum.setTextColor(textColor);
+                break;
+        }
+    }
+
+    @Override
+    public Object getStateValue() {
+        return getValue();
+    }
+
+    @Override
+    protected void setStateValue(Object value) {
+        if(value instanceof Float) setValue((Float) value);
+    }
+
     @Override
     public void loadSavedState() {
         super.loadSavedState();
         if(initialized) {
             try {
-                float f = sharedPreferences.getFloat(settingNameSave, 0f);
+                float f = sharedPreferences.getFloat(settingNameSave, defaultValue);
                 slider.setValue(f);
             }catch (Exception e) {
                 e.printStackTrace();
@@ -132,43 +232,98 @@ public class SliderSettingsItem extends SettingsItem{
     // Class Specific
 
     private void applyColors() {
-        if(initialized) {
-            slider.setThumbTintList(ColorStateList.valueOf(rippleColor));
-            slider.setTrackActiveTintList(ColorStateList.valueOf(rippleColor));
-            slider.setTrackInactiveTintList(ColorStateList.valueOf(SettingsView.adjustAlpha(rippleColor, 0.3f)));
-            slider.setBackground(SettingsView.getAdaptiveRippleDrawable(getContext().getColor(R.color.white), rippleColor, 0));
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    slider.setThumbTintList(ColorStateList.valueOf(rippleColor));
-                    slider.setTrackActiveTintList(ColorStateList.valueOf(rippleColor));
-                    slider.setTrackInactiveTintList(ColorStateList.valueOf(SettingsView.adjustAlpha(rippleColor, 0.3f)));
-                    slider.setBackground(SettingsView.getAdaptiveRippleDrawable(getContext().getColor(R.color.white), rippleColor, 0));
+        int rippleColor = pending.getInt(PROPERTY_COLORS);
+        slider.setThumbTintList(ColorStateList.valueOf(rippleColor));
+        slider.setTrackActiveTintList(ColorStateList.valueOf(rippleColor));
+        slider.setTrackInactiveTintList(ColorStateList.valueOf(SettingsView.adjustAlpha(rippleColor, 0.3f)));
+        slider.setBackground(SettingsView.getAdaptiveRippleDrawable(getContext().getColor(R.color.white), rippleColor, 0));
+    }
+
+    /**
+     * Formats the value into the reused buffer of the label, TextView.setText(char[], int, int) keeps no copy
+     */
+    private void showValue(TextView label, ValuePattern pattern, float value) {
+        pattern.format(value, getDecimals(), formatBuilder);
+        int length = formatBuilder.length();
+        char[] chars = label == maximum ? maximumChars : minimumChars;
+        if(chars.length < length) {
+            chars = new char[length * 2];
+            if(label == maximum) {
+                maximumChars = chars;
+            }else {
+                minimumChars = chars;
+            }
+        }
+        formatBuilder.getChars(0, length, chars, 0);
+        label.setText(chars, 0, length);
+    }
+
+    private String getDefaultLabel(float value) {
+        int decimals = getDecimals();
+        float step = slider.getStepSize();
+        float from = slider.getValueFrom();
+        if(step > 0) {
+            int steps = (int) Math.min(MAX_CACHED_LABELS, Math.floor((slider.getValueTo() - from) / step) + 1);
+            int index = Math.round((value - from) / step);
+            if(index >= 0 && index < steps) {
+                if(labelCache == null || labelCache.length != steps || labelCacheFrom != from || labelCacheStep != step || labelCacheDecimals != decimals) {
+                    labelCache = new String[steps];
+                    labelCacheFrom = from;
+                    labelCacheStep = step;
+                    labelCacheDecimals = decimals;
                 }
-            });
+                String label = labelCache[index];
+                if(label == null) {
+                    label = ValuePattern.DEFAULT.format(value, decimals, formatBuilder).toString();
+                    labelCache[index] = label;
+                }
+                return label;
+            }
         }
+        return ValuePattern.DEFAULT.format(value, decimals, formatBuilder).toString();
     }
 
-    private String putFloatInPattern(String pattern, float value) {
-        return pattern.replaceAll("%f", String.valueOf(value));
+    private void refreshLabels() {
+        if(isShouldMinimumBeUseForCurrentValue()) {
+            showValue(minimum, getCurrentValuePattern(), slider.getValue());
+        }else {
+            showValue(minimum, patternOf(PROPERTY_MINIMUM), slider.getValueFrom());
+        }
+        showValue(maximum, patternOf(PROPERTY_MAXIMUM), slider.getValueTo());
+    }
+
+    private ValuePattern patternOf(int property) {
+        ValuePattern pattern = pending.getObject(property);
+        return pattern == null ? ValuePattern.DEFAULT : pattern;
+    }
+
+    private ValuePattern getCurrentValuePattern() {
+        return patternOf(PROPERTY_CURRENT_VALUE_LABEL);
+    }
+
+    /**
+     * @return the number of decimals used for the labels or AUTO_DECIMALS
+     */
+    public int getDecimals() {
+        return pending.getInt(PROPERTY_DECIMALS);
+    }
+
+    /**
+     * Sets the number of decimals for the Minimum, Maximum and current value labels and the default LabelFormatter
+     * @param decimals 0 to 9 or AUTO_DECIMALS to show the values like String.valueOf(float) (the default)
+     */
+    public void setDecimals(int decimals) {
+        pending.putInt(PROPERTY_DECIMALS, decimals == AUTO_DECIMALS ? AUTO_DECIMALS : Math.max(0, Math.min(decimals, ValuePattern.MAX_DECIMALS)));
+        pending.mark(PROPERTY_LABELS);
+        applyPending();
     }
 
     // Getter and Setter
 
     public void setMessage(String msg) {
-        if(initialized) {
-            textView.setText(msg);
-            if(!settingsNameSaveChanged) setSettingNameSave(String.valueOf(msg.hashCode()));
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    textView.setText(msg);
-                    if(!settingsNameSaveChanged) setSettingNameSave(String.valueOf(msg.hashCode()));
-                }
-            });
-        }
+        pending.putObject(PROPERTY_MESSAGE, msg);
+        if(initialized && !settingsNameSaveChanged) setSettingNameSave(String.valueOf(msg.hashCode()));
+        applyPending();
     }
 
     public void setMinimum(float min) {
@@ -176,34 +331,16 @@ public class SliderSettingsItem extends SettingsItem{
     }
 
     public void setMinimum(float min, String pattern) {
-        minimumPattern = pattern;
-        if(initialized) {
-            slider.setValueFrom(min);
-            minimum.setText(putFloatInPattern(pattern, min));
-            setShouldMinimumBeUseForCurrentValue(shouldMinimumBeUseForCurrentValue, pattern);
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    slider.setValueFrom(min);
-                    minimum.setText(putFloatInPattern(pattern, min));
-                    setShouldMinimumBeUseForCurrentValue(shouldMinimumBeUseForCurrentValue, pattern);
-                }
-            });
-        }
+        ValuePattern minimumPattern = ValuePattern.of(pattern);
+        pending.put(PROPERTY_MINIMUM, Float.floatToRawIntBits(min), minimumPattern);
+        pending.put(PROPERTY_CURRENT_VALUE_LABEL, pending.getInt(PROPERTY_CURRENT_VALUE_LABEL), minimumPattern);
+        pending.mark(PROPERTY_LABELS);
+        applyPending();
     }
 
     public void setValue(float val) {
-        if(initialized) {
-            slider.setValue(val);
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    slider.setValue(val);
-                }
-            });
-        }
+        pending.putFloat(PROPERTY_VALUE, val);
+        applyPending();
     }
 
     public void setMaximum(float max) {
@@ -211,57 +348,24 @@ public class SliderSettingsItem extends SettingsItem{
     }
 
     public void setMaximum(float max, String pattern) {
-        if(initialized) {
-            slider.setValueTo(max);
-            maximum.setText(putFloatInPattern(pattern, max));
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    slider.setValueTo(max);
-                    maximum.setText(putFloatInPattern(pattern, max));
-                }
-            });
-        }
+        pending.put(PROPERTY_MAXIMUM, Float.floatToRawIntBits(max), ValuePattern.of(pattern));
+        pending.mark(PROPERTY_LABELS);
+        applyPending();
     }
 
     public void setSliderStyle(int style) {
-        if(initialized) {
-            Paris.style(slider).apply(style);
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    Paris.style(slider).apply(style);
-                }
-            });
-        }
+        pending.putInt(PROPERTY_STYLE, style);
+        applyPending();
     }
 
     public void setStepSize(float stepSize) {
-        if(initialized) {
-            slider.setStepSize(stepSize);
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    slider.setStepSize(stepSize);
-                }
-            });
-        }
+        pending.putFloat(PROPERTY_STEP_SIZE, stepSize);
+        applyPending();
     }
 
     public void setTickVisible(boolean visible) {
-        if(initialized) {
-            slider.setTickVisible(visible);
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    slider.setTickVisible(visible);
-                }
-            });
-        }
+        pending.putBoolean(PROPERTY_TICK_VISIBLE, visible);
+        applyPending();
     }
 
     public float getValue() {
@@ -272,6 +376,29 @@ public class SliderSettingsItem extends SettingsItem{
         }
     }
 
+    @Override
+    public boolean rebind(SettingsItem from) {
+        if(!super.rebind(from)) return false;
+        SliderSettingsItem item = (SliderSettingsItem) from;
+        onChangeListener = item.onChangeListener;
+        labelFormatter = item.labelFormatter;
+        defaultValue = item.defaultValue;
+        pending.mark(PROPERTY_LABELS);
+        applyPending();
+        return true;
+    }
+
+    public float getDefaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * @param defaultValue the value of the Slider while no value is saved for the Setting Name Save
+     */
+    public void setDefaultValue(float defaultValue) {
+        this.defaultValue = defaultValue;
+    }
+
     public Slider.OnChangeListener getOnChangeListener() {
         return onChangeListener;
     }
@@ -289,42 +416,28 @@ public class SliderSettingsItem extends SettingsItem{
     }
 
     public boolean isShouldMinimumBeUseForCurrentValue() {
-        return shouldMinimumBeUseForCurrentValue;
+        return pending.getBoolean(PROPERTY_CURRENT_VALUE_LABEL);
     }
 
     public void setShouldMinimumBeUseForCurrentValue(boolean shouldIt, String pattern) {
-        this.currentValuePattern = pattern;
-        setShouldMinimumBeUseForCurrentValue(shouldIt);
+        setShouldMinimumBeUseForCurrentValue(shouldIt, ValuePattern.of(pattern));
+    }
+
+    private void setShouldMinimumBeUseForCurrentValue(boolean shouldIt, ValuePattern pattern) {
+        pending.put(PROPERTY_CURRENT_VALUE_LABEL, shouldIt ? 1 : 0, pattern);
+        pending.mark(PROPERTY_LABELS);
+        applyPending();
     }
 
     public void setShouldMinimumBeUseForCurrentValue(boolean shouldMinimumBeUseForCurrentValue) {
-        this.shouldMinimumBeUseForCurrentValue = shouldMinimumBeUseForCurrentValue;
-        if(initialized) {
-            if(shouldMinimumBeUseForCurrentValue) {
-                minimum.setText(putFloatInPattern(currentValuePattern, slider.getValue()));
-            }else {
-                setMinimum(slider.getValueFrom(), minimumPattern);
-            }
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    if(shouldMinimumBeUseForCurrentValue) {
-                        minimum.setText(putFloatInPattern(currentValuePattern, slider.getValue()));
-                    }else {
-                        setMinimum(slider.getValueFrom(), minimumPattern);
-                    }
-                }
-            });
-        }
+        setShouldMinimumBeUseForCurrentValue(shouldMinimumBeUseForCurrentValue, getCurrentValuePattern());
     }
 
     public String getCurrentValueAsMinimumPattern() {
-        return currentValuePattern;
+        return getCurrentValuePattern().getPattern();
     }
 
     public void setCurrentValueAsMinimumPattern(String currentValuePattern) {
-        this.currentValuePattern = currentValuePattern;
-        setShouldMinimumBeUseForCurrentValue(shouldMinimumBeUseForCurrentValue);
+        setShouldMinimumBeUseForCurrentValue(isShouldMinimumBeUseForCurrentValue(), ValuePattern.of(currentValuePattern));
     }
 }
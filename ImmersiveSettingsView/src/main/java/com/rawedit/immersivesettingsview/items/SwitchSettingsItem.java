@@ -4,7 +4,6 @@ import android.content.Context;
 import android.content.res.ColorStateList;
 import android.graphics.Color;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.View;
 import android.widget.CompoundButton;
 
@@ -12,6 +11,7 @@ import androidx.annotation.ColorInt;
 import androidx.annotation.Nullable;
 
 import com.google.android.material.switchmaterial.SwitchMaterial;
+import com.rawedit.immersivesettingsview.ColorMath;
 import com.rawedit.immersivesettingsview.R;
 import com.rawedit.immersivesettingsview.SettingsView;
 
@@ -19,16 +19,28 @@ public class SwitchSettingsItem extends SettingsItem {
 
     public static final String TAG = SwitchSettingsItem.class.getSimpleName();
 
-    private boolean switchColorChanged = false;
+    // Buffered properties, applied in this order
+    private static final int PROPERTY_TEXT = 0;
+    private static final int PROPERTY_SWITCH_COLOR = 1;
+    private static final int PROPERTY_TEXT_COLOR = 2;
+    private static final int PROPERTY_RIPPLE_COLOR = 3;
+    private static final int PROPERTY_COUNT = 4;
 
+    private static final long THEME_PROPERTIES = PendingProperties.bit(PROPERTY_SWITCH_COLOR) | PendingProperties.bit(PROPERTY_TEXT_COLOR) | PendingProperties.bit(PROPERTY_RIPPLE_COLOR);
+
+    private volatile boolean switchColorChanged = false;
+
+    // Used until a ripple color is set
     @ColorInt
-    private int rippleColor = 0;
-    @ColorInt
-    private int switchColor = 0;
+    private final int defaultRippleColor;
 
     private SwitchMaterial mSwitch;
 
     private CompoundButton.OnCheckedChangeListener onCheckedChangeListener;
+    private OnItemCheckedChangeListener onItemCheckedChangeListener;
+
+    // The state while nothing is saved yet
+    private boolean defaultChecked = false;
 
     public SwitchSettingsItem(Context context) {
         this(context, null);
@@ -42,100 +54,178 @@ public class SwitchSettingsItem extends SettingsItem {
         this(context, attrs, defStyleAttr, 0);
     }
 
+    /**
+     * Creates a SwitchSettingsItem
+     * @param context a Theme specific Context
+     * @param lightweight if true the Item draws the message and the switch itself instead of inflating a SwitchMaterial
+     */
+    public SwitchSettingsItem(Context context, boolean lightweight) {
+        this(context, null, 0, 0, lightweight);
+    }
+
     public SwitchSettingsItem(Context context, @Nullable AttributeSet attrs, int defStyleAttr, int defStyleRes) {
-        super(context, attrs, defStyleAttr, defStyleRes);
+        this(context, attrs, defStyleAttr, defStyleRes, false);
+    }
+
+    public SwitchSettingsItem(Context context, @Nullable AttributeSet attrs, int defStyleAttr, int defStyleRes, boolean lightweight) {
+        super(context, attrs, defStyleAttr, defStyleRes, PROPERTY_COUNT, 0);
         type = Type.SWITCH;
-        rippleColor = context.getColor(R.color.defaultRipple);
-        View v = inflate(context, R.layout.setting_switch, this);
-        mSwitch = v.findViewById(R.id.switchMaterial);
-        mSwitch.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
-            @Override
-            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
-                saveCurrentState();
-                if(onCheckedChangeListener != null) onCheckedChangeListener.onCheckedChanged(buttonView, isChecked);
-            }
-        });
-        switchColor = Color.BLACK;
-        applyColorToSwitch();
-        executeQueue();
+        defaultRippleColor = context.getColor(R.color.defaultRipple);
+        if(lightweight) {
+            flatRenderer = new FlatItemRenderer(this, FlatItemRenderer.TOGGLE_SWITCH);
+            super.setOnClickListener(new OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    setChecked(!isChecked());
+                }
+            });
+        }else {
+            View v = inflateLayout(R.layout.setting_switch);
+            mSwitch = v.findViewById(R.id.switchMaterial);
+            mSwitch.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+                @Override
+                public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                    persistState();
+                    if(onCheckedChangeListener != null) onCheckedChangeListener.onCheckedChanged(buttonView, isChecked);
+                    if(onItemCheckedChangeListener != null) onItemCheckedChangeListener.onCheckedChanged(SwitchSettingsItem.this, isChecked);
+                }
+            });
+        }
+        pending.putInt(PROPERTY_SWITCH_COLOR, Color.BLACK);
         initialized = true;
-        loadSavedState();
+        applyPending();
+        restoreState();
         settingNameSave = "";
     }
 
-    private void applyColorToSwitch() {
-        if(initialized) {
-            int[][] states = new int[][] {
-                    new int[] {-android.R.attr.state_checked},
-                    new int[] {android.R.attr.state_checked},
-            };
-            int[] thumbColors = new int[] {
-                    Color.parseColor("#f1f1f1"),
-                    switchColor,
-            };
-            int[] trackColors = new int[] {
-                    SettingsView.adjustAlpha(Color.BLACK, 0.3f),
-                    SettingsView.adjustAlpha(switchColor, 0.3f),
-            };
-            mSwitch.setTrackTintList(new ColorStateList(states, trackColors));
-            mSwitch.setThumbTintList(new ColorStateList(states, thumbColors));
-        }else {
-            queue.add(new Runnable() {
+    /**
+     * Changes the state of the Switch, which saves the state and notifies the OnCheckedChangeListener
+     * (Lightweight Items only notify the OnItemCheckedChangeListener)
+     * @param checked the new state
+     */
+    public void setChecked(final boolean checked) {
+        if(mustDefer()) {
+            defer("checked", new Runnable() {
                 @Override
                 public void run() {
-                    int[][] states = new int[][] {
-                            new int[] {-android.R.attr.state_checked},
-                            new int[] {android.R.attr.state_checked},
-                    };
-                    int[] thumbColors = new int[] {
-                            Color.parseColor("#f1f1f1"),
-                            switchColor,
-                    };
-                    int[] trackColors = new int[] {
-                            SettingsView.adjustAlpha(Color.BLACK, 0.3f),
-                            SettingsView.adjustAlpha(switchColor, 0.3f),
-                    };
-                    mSwitch.setTrackTintList(new ColorStateList(states, trackColors));
-                    mSwitch.setThumbTintList(new ColorStateList(states, thumbColors));
+                    setChecked(checked);
                 }
             });
+            return;
+        }
+        if(flatRenderer != null) {
+            if(flatRenderer.setChecked(checked)) {
+                persistState();
+                if(onItemCheckedChangeListener != null) onItemCheckedChangeListener.onCheckedChanged(this, checked);
+            }
+        }else {
+            mSwitch.setChecked(checked);
+        }
+    }
+
+    public boolean isChecked() {
+        if(flatRenderer != null) {
+            return flatRenderer.isChecked();
         }
+        return mSwitch.isChecked();
     }
 
     @Override
-    public void setRippleColor(int color) {
-        rippleColor = color;
-        if(initialized) {
-            mSwitch.setBackground(SettingsView.getAdaptiveRippleDrawable(getContext().getColor(R.color.white), rippleColor, 0));
-            if(!switchColorChanged) {
-                setSwitchColor(color);
-            }
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
+    protected long getThemeProperties() {
+        return THEME_PROPERTIES;
+    }
+
+    @Override
+    protected long getSearchableProperties() {
+        return PendingProperties.bit(PROPERTY_TEXT);
+    }
+
+    @Override
+    protected void applyProperty(int property) {
+        switch (property) {
+            case PROPERTY_TEXT:
+                String text = pending.getObject(PROPERTY_TEXT);
+                if(flatRenderer != null) {
+                    flatRenderer.setText(text);
+                }else {
+                    PrecomputedMessages.setMessage(mSwitch, text);
+                }
+                break;
+            case PROPERTY_SWITCH_COLOR:
+                applyColorToSwitch();
+                break;
+            case PROPERTY_TEXT_COLOR:
+                int textColor = pending.getInt(PROPERTY_TEXT_COLOR);
+                if(flatRenderer != null) {
+                    flatRenderer.setTextColor(textColor);
+                }else {
+                    mSwitch.setTextColor(textColor);
+                }
+                break;
+            case PROPERTY_RIPPLE_COLOR:
+                int rippleColor = pending.getInt(PROPERTY_RIPPLE_COLOR);
+                if(flatRenderer != null) {
+                    flatRenderer.setRippleColor(rippleColor);
+                }else {
                     mSwitch.setBackground(SettingsView.getAdaptiveRippleDrawable(getContext().getColor(R.color.white), rippleColor, 0));
-                    if(!switchColorChanged) {
-                        setSwitchColor(color);
-                    }
                 }
-            });
+                break;
+        }
+    }
+
+    private void applyColorToSwitch() {
+        int switchColor = pending.getInt(PROPERTY_SWITCH_COLOR);
+        if(flatRenderer != null) {
+            flatRenderer.setToggleColor(switchColor);
+            return;
+        }
+        int[][] states = new int[][] {
+                new int[] {-android.R.attr.state_checked},
+                new int[] {android.R.attr.state_checked},
+        };
+        mSwitch.setTrackTintList(new ColorStateList(states, ColorMath.toggleTrackColors(switchColor)));
+        mSwitch.setThumbTintList(new ColorStateList(states, ColorMath.toggleThumbColors(switchColor)));
+    }
+
+    @Override
+    public void setRippleColor(int color) {
+        pending.putInt(PROPERTY_RIPPLE_COLOR, color);
+        if(!switchColorChanged) {
+            setSwitchColor(color);
         }
+        applyPending();
     }
 
+    @Override
+    public void setAlternativeColor(int color) {
+        setSwitchColor(color);
+    }
+
+    /**
+     * @return the SwitchMaterial or null for lightweight Items
+     */
     @Override
     public SwitchMaterial getView() {
         return mSwitch;
     }
 
+    @Override
+    public Object getStateValue() {
+        return isChecked();
+    }
+
+    @Override
+    protected void setStateValue(Object value) {
+        if(value instanceof Boolean) setChecked((Boolean) value);
+    }
+
     @Override
     public void loadSavedState() {
         super.loadSavedState();
         if(initialized) {
             try {
-                Log.d(TAG, "loadSavedState: " + settingNameSave);
-                boolean state = sharedPreferences.getBoolean(settingNameSave, false);
-                mSwitch.setChecked(state);
+                boolean state = sharedPreferences.getBoolean(settingNameSave, defaultChecked);
+                setChecked(state);
             }catch (Exception e) {
                 e.printStackTrace();
             }
@@ -147,7 +237,7 @@ public class SwitchSettingsItem extends SettingsItem {
         super.saveCurrentState();
         if(initialized) {
             try {
-                boolean state = mSwitch.isChecked();
+                boolean state = isChecked();
                 sharedPreferences.edit().putBoolean(settingNameSave, state).apply();
             }catch (Exception e) {
                 e.printStackTrace();
@@ -160,38 +250,19 @@ public class SwitchSettingsItem extends SettingsItem {
      * @param color the color in the @ColorInt format
      */
     public void setSwitchColor(int color) {
-        Log.d(TAG, "Set Switch color to " + color);
-        if(initialized) {
-            if(!switchColorChanged && color != 0) switchColorChanged = true;
-            switchColor = color;
-            applyColorToSwitch();
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    if(!switchColorChanged && color != 0) switchColorChanged = true;
-                    switchColor = color;
-                    applyColorToSwitch();
-                }
-            });
-        }
+        if(!switchColorChanged && color != 0) switchColorChanged = true;
+        pending.putInt(PROPERTY_SWITCH_COLOR, color);
+        applyPending();
     }
 
     /**
      * Sets the given color to the switch message
      * @param color a color in the @ColorInt format
      */
+    @Override
     public void setTextColor(int color) {
-        if(initialized) {
-            if(mSwitch != null) mSwitch.setTextColor(color);
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    if(mSwitch != null) mSwitch.setTextColor(color);
-                }
-            });
-        }
+        pending.putInt(PROPERTY_TEXT_COLOR, color);
+        applyPending();
     }
 
     /**
@@ -199,33 +270,58 @@ public class SwitchSettingsItem extends SettingsItem {
      * @param text the message to be set to the string
      */
     public void setText(String text) {
-        if(initialized) {
-            if(mSwitch != null) mSwitch.setText(text);
-            if(!settingsNameSaveChanged) setSettingNameSave(String.valueOf(text.hashCode()));
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    if(mSwitch != null) mSwitch.setText(text);
-                    if(!settingsNameSaveChanged) setSettingNameSave(String.valueOf(text.hashCode()));
-                }
-            });
-        }
+        pending.putObject(PROPERTY_TEXT, text);
+        if(initialized && !settingsNameSaveChanged) setSettingNameSave(String.valueOf(text.hashCode()));
+        applyPending();
     }
 
     public int getRippleColor() {
-        return rippleColor;
+        return pending.isWritten(PROPERTY_RIPPLE_COLOR) ? pending.getInt(PROPERTY_RIPPLE_COLOR) : defaultRippleColor;
     }
 
     public int getSwitchColor() {
-        return switchColor;
+        return pending.getInt(PROPERTY_SWITCH_COLOR);
+    }
+
+    @Override
+    public boolean rebind(SettingsItem from) {
+        if(!super.rebind(from)) return false;
+        onCheckedChangeListener = ((SwitchSettingsItem) from).onCheckedChangeListener;
+        onItemCheckedChangeListener = ((SwitchSettingsItem) from).onItemCheckedChangeListener;
+        defaultChecked = ((SwitchSettingsItem) from).defaultChecked;
+        return true;
+    }
+
+    public boolean isDefaultChecked() {
+        return defaultChecked;
+    }
+
+    /**
+     * @param defaultChecked the state of the Switch while no state is saved for the Setting Name Save
+     */
+    public void setDefaultChecked(boolean defaultChecked) {
+        this.defaultChecked = defaultChecked;
     }
 
     public CompoundButton.OnCheckedChangeListener getOnCheckedChangeListener() {
         return onCheckedChangeListener;
     }
 
+    /**
+     * Not called for lightweight Items, since they have no CompoundButton, see setOnItemCheckedChangeListener
+     */
     public void setOnCheckedChangeListener(CompoundButton.OnCheckedChangeListener onCheckedChangeListener) {
         this.onCheckedChangeListener = onCheckedChangeListener;
     }
+
+    public OnItemCheckedChangeListener getOnItemCheckedChangeListener() {
+        return onItemCheckedChangeListener;
+    }
+
+    /**
+     * @param onItemCheckedChangeListener notified of every change of the state, for full and lightweight Items
+     */
+    public void setOnItemCheckedChangeListener(OnItemCheckedChangeListener onItemCheckedChangeListener) {
+        this.onItemCheckedChangeListener = onItemCheckedChangeListener;
+    }
 }
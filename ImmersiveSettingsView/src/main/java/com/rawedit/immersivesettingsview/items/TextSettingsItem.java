@@ -4,7 +4,6 @@ import android.content.Context;
 import android.content.res.ColorStateList;
 import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.View;
 
 import androidx.annotation.ColorInt;
@@ -24,6 +23,15 @@ public class TextSettingsItem extends SettingsItem {
     public static final int TOP = 2;
     public static final int BOTTOM = 3;
 
+    // Buffered properties, applied in this order
+    private static final int PROPERTY_TEXT = 0;
+    private static final int PROPERTY_DRAWABLE = 1;
+    private static final int PROPERTY_TEXT_COLOR = 2;
+    private static final int PROPERTY_RIPPLE_COLOR = 3;
+    private static final int PROPERTY_COUNT = 4;
+
+    private static final long THEME_PROPERTIES = PendingProperties.bit(PROPERTY_TEXT_COLOR) | PendingProperties.bit(PROPERTY_RIPPLE_COLOR);
+
     private MaterialButton textView;
 
     private OnClickListener onClickListener;
@@ -40,159 +48,173 @@ public class TextSettingsItem extends SettingsItem {
         this(context, attrs, defStyleAttr, 0);
     }
 
+    /**
+     * Creates a TextSettingsItem
+     * @param context a Theme specific Context
+     * @param lightweight if true the Item draws the text itself instead of inflating a MaterialButton
+     */
+    public TextSettingsItem(Context context, boolean lightweight) {
+        this(context, null, 0, 0, lightweight);
+    }
+
     public TextSettingsItem(Context context, @Nullable AttributeSet attrs, int defStyleAttr, int defStyleRes) {
-        super(context, attrs, defStyleAttr, defStyleRes);
+        this(context, attrs, defStyleAttr, defStyleRes, false);
+    }
+
+    public TextSettingsItem(Context context, @Nullable AttributeSet attrs, int defStyleAttr, int defStyleRes, boolean lightweight) {
+        super(context, attrs, defStyleAttr, defStyleRes, PROPERTY_COUNT, 0);
         type = Type.TEXT;
-        // Inflating Layout
-        inflate(context, R.layout.setting_text, this);
-        // Finding Views
-        textView = findViewById(R.id.textview);
-        textView.setOnClickListener(new OnClickListener() {
+        OnClickListener clickListener = new OnClickListener() {
             @Override
             public void onClick(View v) {
-                saveCurrentState();
+                persistState();
                 if(onClickListener != null) onClickListener.onClick(v);
             }
-        });
-        executeQueue();
+        };
+        if(lightweight) {
+            flatRenderer = new FlatItemRenderer(this, FlatItemRenderer.TOGGLE_NONE);
+            super.setOnClickListener(clickListener);
+        }else {
+            // Inflating Layout
+            inflateLayout(R.layout.setting_text);
+            // Finding Views
+            textView = findViewById(R.id.textview);
+            textView.setOnClickListener(clickListener);
+        }
         initialized = true;
-        loadSavedState();
+        applyPending();
+        restoreState();
         settingNameSave = "";
     }
 
+    @Override
+    protected long getThemeProperties() {
+        return THEME_PROPERTIES;
+    }
+
+    @Override
+    protected long getSearchableProperties() {
+        return PendingProperties.bit(PROPERTY_TEXT);
+    }
+
+    @Override
+    protected void applyProperty(int property) {
+        switch (property) {
+            case PROPERTY_TEXT:
+                String text = pending.getObject(PROPERTY_TEXT);
+                if(flatRenderer != null) {
+                    flatRenderer.setText(text);
+                }else {
+                    PrecomputedMessages.setMessage(textView, text);
+                }
+                break;
+            case PROPERTY_DRAWABLE:
+                Object drawable = pending.getObject(PROPERTY_DRAWABLE);
+                // Resources are kept as their id, so equal Items have the same content hash
+                if(drawable instanceof Integer) drawable = AppCompatResources.getDrawable(getContext(), (Integer) drawable);
+                applyDrawable((Drawable) drawable, pending.getInt(PROPERTY_DRAWABLE));
+                break;
+            case PROPERTY_TEXT_COLOR:
+                int textColor = pending.getInt(PROPERTY_TEXT_COLOR);
+                if(flatRenderer != null) {
+                    flatRenderer.setTextColor(textColor);
+                }else {
+                    textView.setTextColor(textColor);
+                }
+                break;
+            case PROPERTY_RIPPLE_COLOR:
+                int rippleColor = pending.getInt(PROPERTY_RIPPLE_COLOR);
+                if(flatRenderer != null) {
+                    flatRenderer.setRippleColor(rippleColor);
+                }else {
+                    textView.setRippleColor(ColorStateList.valueOf(rippleColor));
+                }
+                break;
+        }
+    }
+
     /**
      * Set the Displayed Text
      * @param string text to be dispalyed
      */
     public void setText(String string) {
-        if(initialized) {
-            textView.setText(string);
-            if(!settingsNameSaveChanged) setSettingNameSave(String.valueOf(string.hashCode()));
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    textView.setText(string);
-                    if(!settingsNameSaveChanged) setSettingNameSave(String.valueOf(string.hashCode()));
-                }
-            });
-        }
+        pending.putObject(PROPERTY_TEXT, string);
+        if(initialized && !settingsNameSaveChanged) setSettingNameSave(String.valueOf(string.hashCode()));
+        applyPending();
     }
 
     /**
      * Change the text color
      * @param color the color in @ColorInt format
      */
+    @Override
     public void setTextColor(@ColorInt int color) {
-        if(initialized) {
-            textView.setTextColor(color);
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    textView.setTextColor(color);
-                }
-            });
-        }
+        pending.putInt(PROPERTY_TEXT_COLOR, color);
+        applyPending();
     }
 
     public void setRippleColor(@ColorInt int color) {
-        Log.d(TAG, "Setting RippleColor: " + color);
-        if(initialized) {
-            textView.setRippleColor(ColorStateList.valueOf(color));
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    textView.setRippleColor(ColorStateList.valueOf(color));
-                }
-            });
-        }
+        pending.putInt(PROPERTY_RIPPLE_COLOR, color);
+        applyPending();
     }
 
     public void setDrawable(Drawable d) {
-        if(initialized) {
-            setDrawable(d, LEFT);
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    setDrawable(d, LEFT);
-                }
-            });
-        }
+        setDrawable(d, LEFT);
     }
 
     public void setDrawable(@DrawableRes int res) {
-        if(initialized) {
-            setDrawable(res, LEFT);
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    setDrawable(res, LEFT);
-                }
-            });
-        }
+        setDrawable(res, LEFT);
     }
 
+    /**
+     * The drawable is loaded when it is applied
+     */
     public void setDrawable(@DrawableRes int res, int position) {
-        if(initialized) {
-            setDrawable(AppCompatResources.getDrawable(getContext(), res), position);
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    setDrawable(AppCompatResources.getDrawable(getContext(), res), position);
-                }
-            });
-        }
+        pending.put(PROPERTY_DRAWABLE, position, res);
+        applyPending();
     }
 
     public void setDrawable(Drawable d, int position) {
-        if(initialized) {
-            switch(position) {
-                case LEFT:
-                    textView.setCompoundDrawablesWithIntrinsicBounds(d, null, null, null);
-                    break;
-                case RIGHT:
-                    textView.setCompoundDrawablesWithIntrinsicBounds(null, null, d, null);
-                    break;
-                case TOP:
-                    textView.setCompoundDrawablesWithIntrinsicBounds(null, d, null, null);
-                    break;
-                case BOTTOM:
-                    textView.setCompoundDrawablesWithIntrinsicBounds(null, null, null, d);
-                    break;
-            }
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    switch(position) {
-                        case LEFT:
-                            textView.setCompoundDrawablesWithIntrinsicBounds(d, null, null, null);
-                            break;
-                        case RIGHT:
-                            textView.setCompoundDrawablesWithIntrinsicBounds(null, null, d, null);
-                            break;
-                        case TOP:
-                            textView.setCompoundDrawablesWithIntrinsicBounds(null, d, null, null);
-                            break;
-                        case BOTTOM:
-                            textView.setCompoundDrawablesWithIntrinsicBounds(null, null, null, d);
-                            break;
-                    }
-                }
-            });
+        pending.put(PROPERTY_DRAWABLE, position, d);
+        applyPending();
+    }
+
+    private void applyDrawable(Drawable d, int position) {
+        if(flatRenderer != null) {
+            flatRenderer.setDrawable(d, position);
+            return;
+        }
+        switch(position) {
+            case LEFT:
+                textView.setCompoundDrawablesWithIntrinsicBounds(d, null, null, null);
+                break;
+            case RIGHT:
+                textView.setCompoundDrawablesWithIntrinsicBounds(null, null, d, null);
+                break;
+            case TOP:
+                textView.setCompoundDrawablesWithIntrinsicBounds(null, d, null, null);
+                break;
+            case BOTTOM:
+                textView.setCompoundDrawablesWithIntrinsicBounds(null, null, null, d);
+                break;
         }
     }
 
+    /**
+     * @return the MaterialButton or null for lightweight Items
+     */
     @Override
     public MaterialButton getView() {
         return textView;
     }
 
+    @Override
+    public boolean rebind(SettingsItem from) {
+        if(!super.rebind(from)) return false;
+        onClickListener = ((TextSettingsItem) from).onClickListener;
+        return true;
+    }
+
     public OnClickListener getOnClickListener() {
         return onClickListener;
     }
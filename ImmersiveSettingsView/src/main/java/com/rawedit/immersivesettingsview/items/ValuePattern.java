@@ -0,0 +1,114 @@
+package com.rawedit.immersivesettingsview.items;
+
+import java.util.ArrayList;
+
+/**
+ * A value pattern like "%f%" parsed once into the literal segments around its "%f" placeholders.
+ * Values are formatted into a reusable StringBuilder, like String.valueOf(float) or with a fixed number of decimals,
+ * so formatting does not allocate a String.
+ */
+public final class ValuePattern {
+
+    public static final String PLACEHOLDER = "%f";
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L
+    };
+
+    public static final int MAX_DECIMALS = POWERS_OF_TEN.length - 1;
+
+    /**
+     * Formats values like String.valueOf(float)
+     */
+    public static final int PLAIN = -1;
+
+    public static final ValuePattern DEFAULT = new ValuePattern(PLACEHOLDER);
+
+    private final String pattern;
+    // One more literal than placeholders: literal[0] %f literal[1] %f ... literal[n]
+    private final String[] literals;
+
+    public ValuePattern(String pattern) {
+        this.pattern = pattern == null ? PLACEHOLDER : pattern;
+        ArrayList<String> segments = new ArrayList<>();
+        int start = 0;
+        int index;
+        while((index = this.pattern.indexOf(PLACEHOLDER, start)) >= 0) {
+            segments.add(this.pattern.substring(start, index));
+            start = index + PLACEHOLDER.length();
+        }
+        segments.add(this.pattern.substring(start));
+        literals = segments.toArray(new String[0]);
+    }
+
+    /**
+     * @param pattern the pattern, "%f" is replaced by the value
+     * @return the parsed pattern, the default pattern is shared
+     */
+    public static ValuePattern of(String pattern) {
+        if(pattern == null || PLACEHOLDER.equals(pattern)) return DEFAULT;
+        return new ValuePattern(pattern);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public int getPlaceholderCount() {
+        return literals.length - 1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ValuePattern && pattern.equals(((ValuePattern) o).pattern);
+    }
+
+    @Override
+    public int hashCode() {
+        return pattern.hashCode();
+    }
+
+    /**
+     * Replaces the content of the builder with the formatted value
+     * @param value the value to put in the pattern
+     * @param decimals the number of decimals (0 to MAX_DECIMALS) or PLAIN
+     * @param out the reusable builder
+     * @return the builder
+     */
+    public StringBuilder format(float value, int decimals, StringBuilder out) {
+        out.setLength(0);
+        out.append(literals[0]);
+        for(int i = 1; i < literals.length; i++) {
+            appendValue(value, decimals, out);
+            out.append(literals[i]);
+        }
+        return out;
+    }
+
+    /**
+     * Appends the value with a fixed number of decimals, without allocating
+     * @param value the value
+     * @param decimals the number of decimals (0 to MAX_DECIMALS) or PLAIN for the output of String.valueOf(float)
+     * @param out the builder
+     */
+    public static void appendValue(float value, int decimals, StringBuilder out) {
+        if(decimals == PLAIN || Float.isNaN(value) || Float.isInfinite(value)) {
+            out.append(value);
+            return;
+        }
+        decimals = Math.max(0, Math.min(decimals, MAX_DECIMALS));
+        long scale = POWERS_OF_TEN[decimals];
+        long scaled = Math.round(Math.abs((double) value) * scale);
+        if(value < 0 && scaled != 0) out.append('-');
+        out.append(scaled / scale);
+        if(decimals > 0) {
+            out.append('.');
+            long fraction = scaled % scale;
+            // Leading zeros of the fraction
+            for(long p = scale / 10; p > 1 && fraction < p; p /= 10) {
+                out.append('0');
+            }
+            out.append(fraction);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.rawedit.immersivesettingsview.pages;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Difference between two item lists which are identified by stable IDs.
+ * The items which keep their relative order (the longest increasing subsequence of their old positions)
+ * stay in place, all other kept items are moved, so the number of moved items is minimal.
+ * Pure Java, it is computed on a background thread.
+ */
+final class PageDiff {
+
+    // For every new position the old position of the item, -1 for inserted items
+    final int[] oldPositions;
+    // For every new position, true if the kept item has to be moved
+    final boolean[] moved;
+    // For every new position, true if the kept item has a different content hash
+    final boolean[] changed;
+    // For every old position, true if the item is not part of the new list
+    final boolean[] removed;
+
+    private PageDiff(int[] oldPositions, boolean[] moved, boolean[] changed, boolean[] removed) {
+        this.oldPositions = oldPositions;
+        this.moved = moved;
+        this.changed = changed;
+        this.removed = removed;
+    }
+
+    /**
+     * A repeated ID is matched with its first occurrence only, further old occurrences are removed
+     * and further new occurrences are inserted.
+     * @param oldIds the stable IDs of the current items in order
+     * @param oldHashes the content hashes of the current items
+     * @param newIds the stable IDs of the new items in order
+     * @param newHashes the content hashes of the new items
+     * @return the difference
+     */
+    static PageDiff compute(String[] oldIds, int[] oldHashes, String[] newIds, int[] newHashes) {
+        HashMap<String, Integer> oldIndex = new HashMap<>(oldIds.length * 2);
+        for(int i = 0; i < oldIds.length; i++) {
+            if(!oldIndex.containsKey(oldIds[i])) oldIndex.put(oldIds[i], i);
+        }
+        int[] oldPositions = new int[newIds.length];
+        boolean[] changed = new boolean[newIds.length];
+        boolean[] removed = new boolean[oldIds.length];
+        Arrays.fill(removed, true);
+        for(int i = 0; i < newIds.length; i++) {
+            Integer old = oldIndex.remove(newIds[i]);
+            if(old == null) {
+                oldPositions[i] = -1;
+            }else {
+                oldPositions[i] = old;
+                removed[old] = false;
+                changed[i] = oldHashes[old] != newHashes[i];
+            }
+        }
+        return new PageDiff(oldPositions, findMoved(oldPositions), changed, removed);
+    }
+
+    /**
+     * Marks all kept items which are not part of the longest increasing subsequence of old positions
+     */
+    private static boolean[] findMoved(int[] oldPositions) {
+        int n = oldPositions.length;
+        boolean[] moved = new boolean[n];
+        // tails[k] is the new position ending the best subsequence of length k + 1
+        int[] tails = new int[n];
+        int[] previous = new int[n];
+        int length = 0;
+        for(int i = 0; i < n; i++) {
+            int value = oldPositions[i];
+            if(value < 0) continue;
+            int lo = 0;
+            int hi = length;
+            while(lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if(oldPositions[tails[mid]] < value) {
+                    lo = mid + 1;
+                }else {
+                    hi = mid;
+                }
+            }
+            previous[i] = lo > 0 ? tails[lo - 1] : -1;
+            tails[lo] = i;
+            if(lo == length) length++;
+            moved[i] = true;
+        }
+        for(int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+            moved[i] = false;
+        }
+        return moved;
+    }
+}
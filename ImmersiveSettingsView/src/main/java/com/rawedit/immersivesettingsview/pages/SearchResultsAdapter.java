@@ -0,0 +1,73 @@
+package com.rawedit.immersivesettingsview.pages;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.TextView;
+
+import com.rawedit.immersivesettingsview.SearchIndex;
+import com.rawedit.immersivesettingsview.SettingsView;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rows of the SearchResultsPage, the matching text and the Page path below it.
+ * The rows are recycled by the ListView, so only the visible results have views.
+ */
+final class SearchResultsAdapter extends BaseAdapter {
+
+    private static final String PATH_SEPARATOR = " > ";
+
+    private final LayoutInflater inflater;
+    private List<SearchIndex.Result> results = Collections.emptyList();
+
+    SearchResultsAdapter(LayoutInflater inflater) {
+        this.inflater = inflater;
+    }
+
+    void setResults(List<SearchIndex.Result> results) {
+        this.results = results;
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public int getCount() {
+        return results.size();
+    }
+
+    @Override
+    public SearchIndex.Result getItem(int position) {
+        return results.get(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        View row = convertView != null ? convertView : inflater.inflate(android.R.layout.simple_list_item_2, parent, false);
+        SearchIndex.Result result = getItem(position);
+        TextView text = row.findViewById(android.R.id.text1);
+        TextView path = row.findViewById(android.R.id.text2);
+        String title = result.getText();
+        int lineBreak = title.indexOf('\n');
+        text.setText(lineBreak < 0 ? title : title.substring(0, lineBreak));
+        path.setText(formatPath(result.getPath()));
+        return row;
+    }
+
+    // The Main Page is left out, it is the start of every path
+    private static String formatPath(String[] path) {
+        StringBuilder sb = new StringBuilder();
+        for(String title : path) {
+            if(SettingsView.MAIN_PAGE_NAME.equals(title)) continue;
+            if(sb.length() > 0) sb.append(PATH_SEPARATOR);
+            sb.append(title);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package com.rawedit.immersivesettingsview.pages;
+
+import android.content.Context;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.util.AttributeSet;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.AdapterView;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.ListView;
+import android.widget.TextView;
+
+import androidx.annotation.Nullable;
+
+import com.rawedit.immersivesettingsview.R;
+import com.rawedit.immersivesettingsview.SearchIndex;
+import com.rawedit.immersivesettingsview.SearchSession;
+import com.rawedit.immersivesettingsview.SettingsView;
+
+import java.util.List;
+
+/**
+ * A search field with the results in a recycled list.
+ * Every keystroke starts a background search which cancels the one before, results are shown as they stream in.
+ * Bind it to a SettingsView, a click on a result opens its Page and highlights the Item.
+ */
+public class SearchResultsPage extends LinearLayout {
+
+    public static final int DEFAULT_LIMIT = 200;
+
+    public interface OnResultClick {
+        void resultClicked(SearchIndex.Result result);
+    }
+
+    private final EditText searchField;
+    private final TextView emptyView;
+    private final SearchResultsAdapter adapter;
+
+    private SearchSession session;
+    private SettingsView settingsView;
+    private OnResultClick onResultClick;
+    private int limit = DEFAULT_LIMIT;
+
+    public SearchResultsPage(Context context) {
+        this(context, null);
+    }
+
+    public SearchResultsPage(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public SearchResultsPage(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        this(context, attrs, defStyleAttr, 0);
+    }
+
+    public SearchResultsPage(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        super(context, attrs, defStyleAttr, defStyleRes);
+        setOrientation(VERTICAL);
+        LayoutInflater inflater = LayoutInflater.from(context);
+        inflater.inflate(R.layout.search_results_page, this, true);
+        searchField = findViewById(R.id.searchField);
+        emptyView = findViewById(R.id.searchEmpty);
+        ListView list = findViewById(R.id.searchResults);
+        adapter = new SearchResultsAdapter(inflater);
+        list.setAdapter(adapter);
+        list.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+            @Override
+            public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
+                SearchIndex.Result result = adapter.getItem(position);
+                if(onResultClick != null) {
+                    onResultClick.resultClicked(result);
+                }else if(settingsView != null) {
+                    settingsView.showSearchResult(result);
+                }
+            }
+        });
+        searchField.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                if(session != null) session.query(s.toString());
+            }
+        });
+    }
+
+    /**
+     * Searches the index of the SettingsView and shows clicked results in it
+     * @param settingsView the SettingsView
+     */
+    public void bind(SettingsView settingsView) {
+        this.settingsView = settingsView;
+        setSearchIndex(settingsView.getSearchIndex());
+    }
+
+    /**
+     * Searches the index without a SettingsView, set an OnResultClick Listener to handle clicks then
+     * @param index the SearchIndex
+     */
+    public void setSearchIndex(SearchIndex index) {
+        if(session != null) session.cancel();
+        session = new SearchSession(index, limit, new SearchSession.Listener() {
+            @Override
+            public void onResults(String query, List<SearchIndex.Result> results, boolean complete) {
+                adapter.setResults(results);
+                emptyView.setVisibility(complete && results.isEmpty() && !query.isEmpty() ? VISIBLE : GONE);
+            }
+        });
+        session.query(searchField.getText().toString());
+    }
+
+    public EditText getSearchField() {
+        return searchField;
+    }
+
+    public OnResultClick getOnResultClick() {
+        return onResultClick;
+    }
+
+    public void setOnResultClick(OnResultClick onResultClick) {
+        this.onResultClick = onResultClick;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @param limit the maximum number of shown results, applies to the next bind or setSearchIndex
+     */
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if(session != null) session.query(searchField.getText().toString());
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        if(session != null) session.cancel();
+        super.onDetachedFromWindow();
+    }
+}
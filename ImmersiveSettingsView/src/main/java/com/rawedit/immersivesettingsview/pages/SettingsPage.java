@@ -3,7 +3,7 @@ package com.rawedit.immersivesettingsview.pages;
 import android.content.Context;
 import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
-import android.util.Log;
+import android.view.View;
 import android.view.ViewGroup;
 import android.widget.LinearLayout;
 import android.widget.ScrollView;
@@ -13,24 +13,43 @@ import androidx.annotation.DrawableRes;
 import androidx.annotation.Nullable;
 import androidx.appcompat.content.res.AppCompatResources;
 
-import com.rawedit.immersivesettingsview.items.CheckBoxSettingsItem;
-import com.rawedit.immersivesettingsview.items.EditTextSettingsItem;
+import com.rawedit.immersivesettingsview.FrameBudgetExecutor;
+import com.rawedit.immersivesettingsview.SearchIndex;
+import com.rawedit.immersivesettingsview.SettingsExecutor;
+import com.rawedit.immersivesettingsview.SettingsMetrics;
 import com.rawedit.immersivesettingsview.items.SettingsItem;
-import com.rawedit.immersivesettingsview.items.SliderSettingsItem;
-import com.rawedit.immersivesettingsview.items.SwitchSettingsItem;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class SettingsPage extends ScrollView {
 
     public static final String TAG = SettingsPage.class.getSimpleName();
 
+    private static final long HIGHLIGHT_DURATION = 800;
+
     private boolean initialized = false;
     private boolean showDividers = true;
 
     @ColorInt
     private int rippleColor = 0;
+    @ColorInt
+    private int alternativeColor = 0;
+    @ColorInt
+    private int textColor = 0;
+
+    // Theme changes which are handed to the items once the page is attached
+    private static final int THEME_RIPPLE = 1;
+    private static final int THEME_ALTERNATIVE = 1 << 1;
+    private static final int THEME_TEXT = 1 << 2;
+
+    private int pendingTheme = 0;
+    private int assignedTheme = 0;
 
     // The title represents a short name for the page
     private String title = "";
@@ -41,10 +60,60 @@ public class SettingsPage extends ScrollView {
     private int itemDrawableResource = 0;
 
     private HashMap<String, SettingsItem> items = new HashMap<>();
+    // Items can be removed by submit, so the names of added Items are counted instead of derived from the size
+    private int nextItemName = 0;
 
     private LinearLayout layout;
 
-    private ArrayList<Runnable> queue = new ArrayList<>();
+    // Set while the Page is indexed, Items added later are indexed too
+    private SearchIndex searchIndex = null;
+
+    // Builds the Items the first time the Page is needed, null for Pages built up front
+    private ContentProvider contentProvider = null;
+    private boolean built = true;
+    // True while an IncrementalContentProvider adds the Items over several frames
+    private boolean building = false;
+    private ArrayList<Runnable> builtActions = null;
+
+    // Shared by all Pages, so building several Pages at once still leaves room for the frame itself
+    private static FrameBudgetExecutor buildExecutor;
+
+    // Incremented by every submit, only the diff of the newest one is applied
+    private int submitGeneration = 0;
+
+    public interface ContentProvider {
+        /**
+         * Adds the Items to the Page, called once on the main thread before the Page is shown
+         * @param page the Page to build
+         */
+        void buildContent(SettingsPage page);
+
+        /**
+         * The text the SearchIndex uses while the Page is not built
+         * @return the searchable text by Stable ID of the Items the Page will have
+         */
+        Map<String, String> getSearchText();
+    }
+
+    /**
+     * A ContentProvider which creates one Item at a time, so a large Page is built over several frames.
+     * The Items which fit into the first frame are shown right away, the others are appended in the next frames.
+     * buildContent is not used.
+     */
+    public interface IncrementalContentProvider extends ContentProvider {
+        /**
+         * @return the number of Items the Page will have
+         */
+        int getItemCount();
+
+        /**
+         * Creates and binds one Item, called on the main thread in the order of the indices
+         * @param page the Page to build
+         * @param index the position of the Item
+         * @return the Item or null to skip it
+         */
+        SettingsItem createItem(SettingsPage page, int index);
+    }
 
     public SettingsPage(Context context) {
         this(context, null);
@@ -71,110 +140,389 @@ public class SettingsPage extends ScrollView {
             layout.setShowDividers(LinearLayout.SHOW_DIVIDER_NONE);
         }
         initialized = true;
-        for(Runnable r : queue) {
-            r.run();
-        }
-        queue.clear();
     }
 
-    public void add(SettingsItem item) {
-        add(item, String.valueOf(items.size()));
+    /**
+     * Lets the Page create its Items on demand instead of up front.
+     * Until then the Page is empty, but its Items can already be found by the SearchIndex.
+     * @param contentProvider builds the Items, null if the Items are added by hand
+     */
+    public void setContentProvider(ContentProvider contentProvider) {
+        this.contentProvider = contentProvider;
+        built = contentProvider == null;
+        if(searchIndex != null) searchIndex.updatePage(this);
     }
 
-    public void add(SettingsItem item, String name) {
-        items.put(name, item);
-        if(initialized) {
-            LayoutParams layoutParams = new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
-            layout.addView(item, items.size() - 1, layoutParams);
-            Log.d(TAG, "Adding view " + items.size() + " to layout");
-            item.setRippleColor(rippleColor);
+    public ContentProvider getContentProvider() {
+        return contentProvider;
+    }
+
+    /**
+     * @return false while the ContentProvider did not build all Items yet
+     */
+    public boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * Builds the Items with the ContentProvider if that did not happen yet, measured as SettingsMetrics.PAGE_BUILD.
+     * An IncrementalContentProvider only builds the Items which fit into the frame budget here,
+     * the measurement covers this part, see whenBuilt for the rest.
+     */
+    public void ensureBuilt() {
+        if(built || building) return;
+        long start = SettingsMetrics.begin(SettingsMetrics.PAGE_BUILD);
+        // The Page is indexed once with all Items instead of Item by Item
+        building = true;
+        if(contentProvider instanceof IncrementalContentProvider) {
+            buildIncrementally((IncrementalContentProvider) contentProvider);
         }else {
-            queue.add(new Runnable() {
+            contentProvider.buildContent(this);
+            finishBuild();
+        }
+        SettingsMetrics.end(SettingsMetrics.PAGE_BUILD, title, start);
+    }
+
+    private void buildIncrementally(final IncrementalContentProvider provider) {
+        final int count = provider.getItemCount();
+        long deadline = System.nanoTime() + FrameBudgetExecutor.PAGE_BUILD_BUDGET_NANOS;
+        int index = 0;
+        while(index < count && System.nanoTime() < deadline) {
+            addCreatedItem(provider, index++);
+        }
+        if(index == count) {
+            finishBuild();
+            return;
+        }
+        FrameBudgetExecutor executor = getBuildExecutor();
+        for(; index < count; index++) {
+            final int position = index;
+            executor.execute(new Runnable() {
                 @Override
                 public void run() {
-                    LayoutParams layoutParams = new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
-                    layout.addView(item, items.size() - 1, layoutParams);
-                    Log.d(TAG, "Adding view " + items.size() + " to layout");
-                    item.setRippleColor(rippleColor);
+                    addCreatedItem(provider, position);
+                    if(position == count - 1) finishBuild();
                 }
             });
         }
     }
 
+    private void addCreatedItem(IncrementalContentProvider provider, int index) {
+        SettingsItem item = provider.createItem(this, index);
+        if(item != null) add(item);
+    }
+
+    private void finishBuild() {
+        building = false;
+        built = true;
+        if(searchIndex != null) searchIndex.updatePage(this);
+        ArrayList<Runnable> actions = builtActions;
+        builtActions = null;
+        if(actions == null) return;
+        for(Runnable action : actions) {
+            action.run();
+        }
+    }
+
+    private static synchronized FrameBudgetExecutor getBuildExecutor() {
+        if(buildExecutor == null) buildExecutor = new FrameBudgetExecutor(FrameBudgetExecutor.PAGE_BUILD_BUDGET_NANOS);
+        return buildExecutor;
+    }
+
+    /**
+     * Runs the action once all Items are built, right away if they are
+     * @param action runs on the main thread
+     */
+    public void whenBuilt(Runnable action) {
+        if(built) {
+            action.run();
+            return;
+        }
+        if(builtActions == null) builtActions = new ArrayList<>();
+        builtActions.add(action);
+    }
+
+    public void add(SettingsItem item) {
+        add(item, generateItemName());
+    }
+
     /**
-     * Sets the Ripple color of all descendant items
-     * @param color the ripple color in @ColorInt format
+     * Appends the Item to the Page
+     * @param item the Item
+     * @param name the name of the Item within the Page
+     * @throws IllegalArgumentException if the name is already used
      */
-    public void setRippleColor(@ColorInt int color) {
-        this.rippleColor = color;
-        if(initialized) {
-            for(SettingsItem item : items.values()) {
-                item.setRippleColor(color);
+    public void add(SettingsItem item, String name) {
+        if(items.containsKey(name)) throw new IllegalArgumentException("The Page " + title + " already contains an Item named " + name);
+        items.put(name, item);
+        LayoutParams layoutParams = new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+        layout.addView(item, layoutParams);
+        applyThemeToNewItem(item);
+        if(searchIndex != null && !building) searchIndex.addItem(this, item);
+    }
+
+    /**
+     * Replaces the Items of the Page with the passed ones.
+     * Items are matched by their Stable ID. The difference is computed on a background thread and
+     * only the moved, inserted and removed Items are touched on the main thread.
+     * Kept Items with a different content hash are rebound to the new content, so they keep their views.
+     * Kept Items with the same content hash stay as they are, the passed instance is not used then.
+     * @param newItems the new Items in order, their Stable IDs must be unique
+     */
+    public void submit(List<SettingsItem> newItems) {
+        submit(newItems, null);
+    }
+
+    /**
+     * Like submit(List), the callback runs on the main thread once the Items are in place
+     * @param newItems the new Items in order, their Stable IDs must be unique
+     * @param onApplied called after the difference was applied, not called if a later submit replaced this one
+     */
+    public void submit(List<SettingsItem> newItems, @Nullable final Runnable onApplied) {
+        final SettingsItem[] oldItems = getItemsInOrder();
+        final SettingsItem[] next = newItems.toArray(new SettingsItem[0]);
+        final String[] oldIds = new String[oldItems.length];
+        final int[] oldHashes = new int[oldItems.length];
+        for(int i = 0; i < oldItems.length; i++) {
+            oldIds[i] = oldItems[i].getStableId();
+            oldHashes[i] = oldItems[i].getContentHash();
+        }
+        final String[] newIds = new String[next.length];
+        final int[] newHashes = new int[next.length];
+        HashSet<String> seen = new HashSet<>();
+        for(int i = 0; i < next.length; i++) {
+            newIds[i] = next[i].getStableId();
+            newHashes[i] = next[i].getContentHash();
+            if(!seen.add(newIds[i])) throw new IllegalArgumentException("Duplicate Stable ID " + newIds[i]);
+        }
+        final int generation = ++submitGeneration;
+        SettingsExecutor.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                PageDiff diff = PageDiff.compute(oldIds, oldHashes, newIds, newHashes);
+                SettingsExecutor.mainHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if(generation != submitGeneration) return;
+                        PageDiff current = diff;
+                        // Items added in the meantime make the snapshot outdated, the diff is small enough to redo it here
+                        if(!isLayoutEqual(oldItems)) {
+                            SettingsItem[] items = getItemsInOrder();
+                            String[] ids = new String[items.length];
+                            int[] hashes = new int[items.length];
+                            for(int i = 0; i < items.length; i++) {
+                                ids[i] = items[i].getStableId();
+                                hashes[i] = items[i].getContentHash();
+                            }
+                            current = PageDiff.compute(ids, hashes, newIds, newHashes);
+                            applyDiff(items, next, current);
+                        }else {
+                            applyDiff(oldItems, next, current);
+                        }
+                        if(onApplied != null) onApplied.run();
+                    }
+                });
             }
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    for(SettingsItem item : items.values()) {
-                        item.setRippleColor(color);
+        });
+    }
+
+    /**
+     * @return the Items of the Page in the displayed order
+     */
+    public List<SettingsItem> getItems() {
+        return Arrays.asList(getItemsInOrder());
+    }
+
+    /**
+     * @param stableId the Stable ID of the Item
+     * @return the Item or null if the Page does not contain it
+     */
+    public SettingsItem findItem(String stableId) {
+        for(int i = 0; i < layout.getChildCount(); i++) {
+            View child = layout.getChildAt(i);
+            if(child instanceof SettingsItem && ((SettingsItem) child).getStableId().equals(stableId)) return (SettingsItem) child;
+        }
+        return null;
+    }
+
+    /**
+     * Scrolls to the Item and briefly shows it pressed, used for search results
+     * @param item an Item of the Page
+     */
+    public void highlightItem(final SettingsItem item) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                smoothScrollTo(0, item.getTop());
+                item.setPressed(true);
+                postDelayed(new Runnable() {
+                    @Override
+                    public void run() {
+                        item.setPressed(false);
                     }
-                }
-            });
+                }, HIGHLIGHT_DURATION);
+            }
+        });
+    }
+
+    private String generateItemName() {
+        String name;
+        do {
+            name = String.valueOf(nextItemName++);
+        }while(items.containsKey(name));
+        return name;
+    }
+
+    private SettingsItem[] getItemsInOrder() {
+        int count = 0;
+        for(int i = 0; i < layout.getChildCount(); i++) {
+            if(layout.getChildAt(i) instanceof SettingsItem) count++;
         }
+        SettingsItem[] result = new SettingsItem[count];
+        count = 0;
+        for(int i = 0; i < layout.getChildCount(); i++) {
+            View child = layout.getChildAt(i);
+            if(child instanceof SettingsItem) result[count++] = (SettingsItem) child;
+        }
+        return result;
     }
 
-    public void setAlternativeColor(@ColorInt int color) {
-        if(initialized) {
-            for(SettingsItem o : items.values()) {
-                if(o instanceof SwitchSettingsItem) {
-                    SwitchSettingsItem i = (SwitchSettingsItem) o;
-                    i.setSwitchColor(color);
-                }else if(o instanceof CheckBoxSettingsItem) {
-                    CheckBoxSettingsItem i = (CheckBoxSettingsItem) o;
-                    i.setCheckBoxColor(color);
-                }else if(o instanceof EditTextSettingsItem) {
-                    EditTextSettingsItem i = (EditTextSettingsItem) o;
-                    i.setStrokeColor(color);
-                }else if(o instanceof SliderSettingsItem) {
-                    SliderSettingsItem i = (SliderSettingsItem) o;
-                    i.setRippleColor(color);
-                }
+    private boolean isLayoutEqual(SettingsItem[] snapshot) {
+        if(layout.getChildCount() != snapshot.length) return false;
+        for(int i = 0; i < snapshot.length; i++) {
+            if(layout.getChildAt(i) != snapshot[i]) return false;
+        }
+        return true;
+    }
+
+    private void applyDiff(SettingsItem[] oldItems, SettingsItem[] newItems, PageDiff diff) {
+        long start = SettingsMetrics.begin(SettingsMetrics.PAGE_BUILD);
+        IdentityHashMap<SettingsItem, String> names = new IdentityHashMap<>();
+        for(String name : items.keySet()) {
+            names.put(items.get(name), name);
+        }
+        SettingsItem[] result = new SettingsItem[newItems.length];
+        boolean[] inserted = new boolean[newItems.length];
+        // Removed and moved Items leave the layout first, the Items which stay are already in the right order
+        for(int i = 0; i < oldItems.length; i++) {
+            if(diff.removed[i]) layout.removeView(oldItems[i]);
+        }
+        for(int i = 0; i < newItems.length; i++) {
+            int old = diff.oldPositions[i];
+            if(old < 0) {
+                result[i] = newItems[i];
+                inserted[i] = true;
+                continue;
             }
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    for(SettingsItem o : items.values()) {
-                        if(o instanceof SwitchSettingsItem) {
-                            SwitchSettingsItem i = (SwitchSettingsItem) o;
-                            i.setSwitchColor(color);
-                        }else if(o instanceof CheckBoxSettingsItem) {
-                            CheckBoxSettingsItem i = (CheckBoxSettingsItem) o;
-                            i.setCheckBoxColor(color);
-                        }else if(o instanceof EditTextSettingsItem) {
-                            EditTextSettingsItem i = (EditTextSettingsItem) o;
-                            i.setStrokeColor(color);
-                        }else if(o instanceof SliderSettingsItem) {
-                            SliderSettingsItem i = (SliderSettingsItem) o;
-                            i.setRippleColor(color);
-                        }
-                    }
+            SettingsItem kept = oldItems[old];
+            if(diff.changed[i] && kept != newItems[i]) {
+                if(!kept.rebind(newItems[i])) {
+                    // The Item is replaced instead
+                    layout.removeView(kept);
+                    result[i] = newItems[i];
+                    inserted[i] = true;
+                    continue;
                 }
-            });
+            }
+            result[i] = kept;
+            if(diff.moved[i]) layout.removeView(kept);
+        }
+        for(int i = 0; i < result.length; i++) {
+            SettingsItem item = result[i];
+            if(layout.getChildAt(i) == item) continue;
+            if(item.getParent() instanceof ViewGroup) ((ViewGroup) item.getParent()).removeView(item);
+            layout.addView(item, i, new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+            if(inserted[i]) applyThemeToNewItem(item);
+        }
+        items.clear();
+        for(SettingsItem item : result) {
+            String name = names.get(item);
+            if(name != null) items.put(name, item);
         }
+        // Inserted Items are named after the kept ones, so they can not take one of their names
+        for(SettingsItem item : result) {
+            if(names.containsKey(item)) continue;
+            String name = items.containsKey(item.getStableId()) ? generateItemName() : item.getStableId();
+            items.put(name, item);
+        }
+        if(searchIndex != null) searchIndex.updatePage(this);
+        SettingsMetrics.end(SettingsMetrics.PAGE_BUILD, title, start);
+    }
+
+    private void applyThemeToNewItem(SettingsItem item) {
+        item.setRippleColor(rippleColor);
+        if((assignedTheme & THEME_ALTERNATIVE) != 0) item.setAlternativeColor(alternativeColor);
+        if((assignedTheme & THEME_TEXT) != 0) item.setTextColor(textColor);
     }
 
+    /**
+     * Sets the Ripple color of all descendant items.
+     * If the Page is not attached the color is only recorded and handed to the items once the Page is shown.
+     * @param color the ripple color in @ColorInt format
+     */
+    public void setRippleColor(@ColorInt int color) {
+        this.rippleColor = color;
+        pendingTheme |= THEME_RIPPLE;
+        dispatchPendingTheme();
+    }
+
+    /**
+     * Sets the Alternative color (Switch, CheckBox, Stroke or Slider color) of all descendant items.
+     * If the Page is not attached the color is only recorded and handed to the items once the Page is shown.
+     * @param color the alternative color in @ColorInt format
+     */
+    public void setAlternativeColor(@ColorInt int color) {
+        this.alternativeColor = color;
+        assignedTheme |= THEME_ALTERNATIVE;
+        pendingTheme |= THEME_ALTERNATIVE;
+        dispatchPendingTheme();
+    }
+
+    /**
+     * Sets the Text color of all descendant items.
+     * If the Page is not attached the color is only recorded and handed to the items once the Page is shown.
+     * @param color the text color in @ColorInt format
+     */
+    public void setTextColor(@ColorInt int color) {
+        this.textColor = color;
+        assignedTheme |= THEME_TEXT;
+        pendingTheme |= THEME_TEXT;
+        dispatchPendingTheme();
+    }
+
+    private void dispatchPendingTheme() {
+        if(pendingTheme == 0 || !initialized || !isAttachedToWindow()) return;
+        int pending = pendingTheme;
+        pendingTheme = 0;
+        for(SettingsItem item : items.values()) {
+            if((pending & THEME_RIPPLE) != 0) item.setRippleColor(rippleColor);
+            if((pending & THEME_ALTERNATIVE) != 0) item.setAlternativeColor(alternativeColor);
+            if((pending & THEME_TEXT) != 0) item.setTextColor(textColor);
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        dispatchPendingTheme();
+    }
+
+    /**
+     * Requests a layout pass only for the Items whose size relevant properties changed.
+     * If nothing changed and the width is the same, the Page keeps its cached measurements.
+     */
     public void updateLayout() {
-        requestLayout();
         for(SettingsItem i : items.values()) {
             if(i != null) i.updateLayout();
         }
     }
 
     public void resetStates() {
+        long start = SettingsMetrics.begin(SettingsMetrics.LOAD_STATE);
         for(SettingsItem i : items.values()) {
             if(i != null) i.loadSavedState();
         }
+        SettingsMetrics.end(SettingsMetrics.LOAD_STATE, title, start);
     }
 
     public String getTitle() {
@@ -183,6 +531,7 @@ public class SettingsPage extends ScrollView {
 
     public void setTitle(String title) {
         this.title = title;
+        if(searchIndex != null) searchIndex.updatePage(this);
     }
 
     public String getItemName() {
@@ -191,6 +540,19 @@ public class SettingsPage extends ScrollView {
 
     public void setItemName(String itemName) {
         this.itemName = itemName;
+        if(searchIndex != null) searchIndex.updatePage(this);
+    }
+
+    public SearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * Called by SettingsView when the Page is indexed
+     * @param searchIndex the index containing the Page or null
+     */
+    public void setSearchIndex(SearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
     }
 
     public boolean isShowDividers() {
@@ -218,16 +580,7 @@ public class SettingsPage extends ScrollView {
     }
 
     public void setDrawable(@DrawableRes int res) {
-        if(initialized) {
-            this.itemDrawable = AppCompatResources.getDrawable(getContext(), res);
-        }else {
-            queue.add(new Runnable() {
-                @Override
-                public void run() {
-                    itemDrawable = AppCompatResources.getDrawable(getContext(), res);
-                }
-            });
-        }
+        this.itemDrawable = AppCompatResources.getDrawable(getContext(), res);
     }
 
 }
@@ -0,0 +1,239 @@
+package com.rawedit.immersivesettingsview.schema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Description of one Item in a SettingsSchema: its type, its attributes as Strings and the options of a choice.
+ * Pure Java and immutable, the Item itself is only created when its Page is built.
+ */
+public final class ItemNode {
+
+    public static final String TYPE_TEXT = "text";
+    public static final String TYPE_SWITCH = "switch";
+    public static final String TYPE_CHECKBOX = "checkbox";
+    public static final String TYPE_EDITTEXT = "edittext";
+    public static final String TYPE_SLIDER = "slider";
+    public static final String TYPE_CHOICE = "choice";
+    public static final String TYPE_CUSTOM = "custom";
+
+    public static final String ATTR_ID = "id";
+    public static final String ATTR_KEY = "key";
+    public static final String ATTR_TEXT = "text";
+    public static final String ATTR_MESSAGE = "message";
+    public static final String ATTR_HINT = "hint";
+    public static final String ATTR_BUTTON_TEXT = "buttonText";
+    public static final String ATTR_DEFAULT = "default";
+    public static final String ATTR_MIN = "min";
+    public static final String ATTR_MAX = "max";
+    public static final String ATTR_STEP = "step";
+    public static final String ATTR_MIN_PATTERN = "minPattern";
+    public static final String ATTR_MAX_PATTERN = "maxPattern";
+    public static final String ATTR_VALUE_PATTERN = "valuePattern";
+    public static final String ATTR_DECIMALS = "decimals";
+    public static final String ATTR_TICK_VISIBLE = "tickVisible";
+    public static final String ATTR_STYLE = "style";
+    public static final String ATTR_BUTTON_STYLE = "buttonStyle";
+    public static final String ATTR_SHOW_MESSAGE = "showMessage";
+    public static final String ATTR_SHOW_BUTTON = "showButton";
+    public static final String ATTR_MULTI_CHOICE = "multiChoice";
+    public static final String ATTR_KEYWORDS = "keywords";
+    public static final String ATTR_LAYOUT = "layout";
+    public static final String ATTR_ICON = "icon";
+    /**
+     * The key of a switch or checkbox, the Item is only enabled while it is checked
+     */
+    public static final String ATTR_DEPENDS_ON = "dependsOn";
+
+    // Attributes holding text the user can search for
+    private static final String[] SEARCHABLE = {ATTR_TEXT, ATTR_MESSAGE, ATTR_HINT, ATTR_BUTTON_TEXT, ATTR_KEYWORDS};
+    // Numeric attributes of all types, the default is only a number for sliders
+    private static final String[] FLOAT_ATTRIBUTES = {ATTR_MIN, ATTR_MAX, ATTR_STEP};
+    private static final String[] INT_ATTRIBUTES = {ATTR_DECIMALS};
+
+    public static final class Option {
+        private final String key;
+        private final String label;
+
+        public Option(String key, String label) {
+            this.key = key;
+            this.label = label;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * Creates ItemNodes in code, like from a feature module on a background thread
+     */
+    public static final class Builder {
+        private final String type;
+        private final LinkedHashMap<String, String> attributes = new LinkedHashMap<>();
+        private final ArrayList<Option> options = new ArrayList<>();
+
+        /**
+         * @param type one of the TYPE constants
+         */
+        public Builder(String type) {
+            this.type = type;
+        }
+
+        public Builder set(String name, String value) {
+            attributes.put(name, value);
+            return this;
+        }
+
+        public Builder set(String name, boolean value) {
+            return set(name, String.valueOf(value));
+        }
+
+        public Builder set(String name, float value) {
+            return set(name, String.valueOf(value));
+        }
+
+        public Builder addOption(String key, String label) {
+            options.add(new Option(key, label));
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the type is unknown
+         */
+        public ItemNode build() {
+            return new ItemNode(type, attributes, options);
+        }
+    }
+
+    private final String type;
+    private final Map<String, String> attributes;
+    private final List<Option> options;
+
+    /**
+     * @param type one of the TYPE constants
+     * @param attributes the attributes by name, copied
+     * @param options the options of a choice, copied
+     * @throws IllegalArgumentException for an unknown type or a numeric attribute which is no finite number
+     */
+    public ItemNode(String type, Map<String, String> attributes, List<Option> options) {
+        if(!isKnownType(type)) throw new IllegalArgumentException("Unknown Item type " + type);
+        this.type = type;
+        this.attributes = Collections.unmodifiableMap(new LinkedHashMap<>(attributes));
+        this.options = Collections.unmodifiableList(new ArrayList<>(options));
+        checkNumbers();
+    }
+
+    // Checked here, so a malformed schema fails when it is read and not when its Page is opened
+    private void checkNumbers() {
+        for(String name : FLOAT_ATTRIBUTES) {
+            checkFloat(name);
+        }
+        if(TYPE_SLIDER.equals(type)) checkFloat(ATTR_DEFAULT);
+        for(String name : INT_ATTRIBUTES) {
+            String value = attributes.get(name);
+            if(value == null) continue;
+            try {
+                Integer.parseInt(value);
+            }catch (NumberFormatException e) {
+                throw notANumber(name, value);
+            }
+        }
+    }
+
+    private void checkFloat(String name) {
+        String value = attributes.get(name);
+        if(value == null) return;
+        float number;
+        try {
+            number = Float.parseFloat(value);
+        }catch (NumberFormatException e) {
+            throw notANumber(name, value);
+        }
+        if(Float.isNaN(number) || Float.isInfinite(number)) throw notANumber(name, value);
+    }
+
+    private IllegalArgumentException notANumber(String name, String value) {
+        return new IllegalArgumentException("The attribute " + name + " of the " + type + " Item " + getStableId() + " is no valid number: " + value);
+    }
+
+    public static boolean isKnownType(String type) {
+        return TYPE_TEXT.equals(type) || TYPE_SWITCH.equals(type) || TYPE_CHECKBOX.equals(type) || TYPE_EDITTEXT.equals(type)
+                || TYPE_SLIDER.equals(type) || TYPE_CHOICE.equals(type) || TYPE_CUSTOM.equals(type);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    public List<Option> getOptions() {
+        return options;
+    }
+
+    public boolean has(String name) {
+        return attributes.containsKey(name);
+    }
+
+    public String getString(String name) {
+        return attributes.get(name);
+    }
+
+    public String getString(String name, String fallback) {
+        String value = attributes.get(name);
+        return value == null ? fallback : value;
+    }
+
+    public boolean getBoolean(String name, boolean fallback) {
+        String value = attributes.get(name);
+        return value == null ? fallback : Boolean.parseBoolean(value);
+    }
+
+    /**
+     * @throws NumberFormatException if the attribute is not a number
+     */
+    public float getFloat(String name, float fallback) {
+        String value = attributes.get(name);
+        return value == null ? fallback : Float.parseFloat(value);
+    }
+
+    /**
+     * @throws NumberFormatException if the attribute is not a number
+     */
+    public int getInt(String name, int fallback) {
+        String value = attributes.get(name);
+        return value == null ? fallback : Integer.parseInt(value);
+    }
+
+    /**
+     * @return the id attribute or the key if there is no id, null if there is neither
+     */
+    public String getStableId() {
+        String id = attributes.get(ATTR_ID);
+        return id != null ? id : attributes.get(ATTR_KEY);
+    }
+
+    /**
+     * @return the searchable attributes separated by line breaks, like SettingsItem.getSearchText of the built Item
+     */
+    public String getSearchText() {
+        StringBuilder sb = new StringBuilder();
+        for(String name : SEARCHABLE) {
+            String value = attributes.get(name);
+            if(value == null || value.isEmpty()) continue;
+            if(sb.length() > 0) sb.append('\n');
+            sb.append(value);
+        }
+        return sb.toString();
+    }
+}
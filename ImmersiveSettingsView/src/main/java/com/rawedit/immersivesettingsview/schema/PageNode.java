@@ -0,0 +1,46 @@
+package com.rawedit.immersivesettingsview.schema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Description of one Page in a SettingsSchema, pure Java and immutable
+ */
+public final class PageNode {
+
+    private final String title;
+    private final String itemName;
+    private final String icon;
+    private final List<ItemNode> items;
+
+    /**
+     * @param title the short name of the Page, unique within the schema
+     * @param itemName the text of the entry on the Main Page, the title if null
+     * @param icon the name of a drawable resource or null
+     * @param items the Items in order, copied
+     */
+    public PageNode(String title, String itemName, String icon, List<ItemNode> items) {
+        if(title == null || title.isEmpty()) throw new IllegalArgumentException("A Page needs a title");
+        this.title = title;
+        this.itemName = itemName == null ? title : itemName;
+        this.icon = icon;
+        this.items = Collections.unmodifiableList(new ArrayList<>(items));
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public String getIcon() {
+        return icon;
+    }
+
+    public List<ItemNode> getItems() {
+        return items;
+    }
+}
@@ -0,0 +1,106 @@
+package com.rawedit.immersivesettingsview.schema;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.util.Log;
+
+import com.rawedit.immersivesettingsview.SettingsExecutor;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Loads schema assets through a binary cache in the files dir.
+ * <p>
+ * The first launch parses the asset and writes its SchemaCodec encoding in the background,
+ * later launches memory map that file and decode it without parsing text.
+ * The cache is bound to the install time of the app, so an update with a changed asset writes a new one.
+ */
+public final class SchemaCache {
+
+    public static final String TAG = SchemaCache.class.getSimpleName();
+
+    private static final String DIRECTORY = "settings_schema";
+    private static final String SUFFIX = ".bin";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private SchemaCache() {
+    }
+
+    /**
+     * Reads the schema from the cache or, if there is no valid one, parses the asset and caches it
+     * @param context any Context
+     * @param assetName the path of the asset, like for SchemaParser.parseAsset
+     * @return the schema
+     * @throws IOException if the asset can not be read or is malformed
+     */
+    public static SettingsSchema load(Context context, String assetName) throws IOException {
+        long sourceVersion = getSourceVersion(context);
+        File file = getCacheFile(context, assetName);
+        SettingsSchema schema = read(file, sourceVersion);
+        if(schema != null) return schema;
+        schema = SchemaParser.parseAsset(context, assetName);
+        writeAsync(file, SchemaCodec.encode(schema, sourceVersion));
+        return schema;
+    }
+
+    /**
+     * Deletes the cached encoding of an asset, the next load parses it again
+     * @param context any Context
+     * @param assetName the path of the asset
+     */
+    public static void invalidate(Context context, String assetName) {
+        File file = getCacheFile(context, assetName);
+        if(file.exists() && !file.delete()) Log.w(TAG, "Could not delete " + file);
+    }
+
+    private static SettingsSchema read(File file, long sourceVersion) {
+        if(!file.isFile()) return null;
+        try(FileInputStream in = new FileInputStream(file); FileChannel channel = in.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return SchemaCodec.decode(buffer, sourceVersion);
+        }catch (IOException e) {
+            Log.w(TAG, "Dropping unreadable schema cache " + file, e);
+            file.delete();
+            return null;
+        }
+    }
+
+    private static void writeAsync(final File file, final byte[] data) {
+        SettingsExecutor.serial().execute(new Runnable() {
+            @Override
+            public void run() {
+                // Written to a temporary file first, so a crash never leaves a partial cache behind
+                File temp = new File(file.getPath() + TEMP_SUFFIX);
+                File directory = file.getParentFile();
+                if(directory != null && !directory.isDirectory() && !directory.mkdirs()) return;
+                try(FileOutputStream out = new FileOutputStream(temp)) {
+                    out.write(data);
+                    out.getFD().sync();
+                }catch (IOException e) {
+                    Log.w(TAG, "Could not write schema cache " + file, e);
+                    temp.delete();
+                    return;
+                }
+                if(!temp.renameTo(file)) temp.delete();
+            }
+        });
+    }
+
+    private static File getCacheFile(Context context, String assetName) {
+        return new File(new File(context.getFilesDir(), DIRECTORY), assetName.replace('/', '_') + SUFFIX);
+    }
+
+    private static long getSourceVersion(Context context) {
+        try {
+            return context.getPackageManager().getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
+        }catch (PackageManager.NameNotFoundException e) {
+            // Never cache stale data, an unknown version never matches a written one
+            return System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.rawedit.immersivesettingsview.schema;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of a SettingsSchema, so it can be read back without parsing text.
+ * <p>
+ * Layout (big endian): magic, format version, source version, the string table
+ * (count, blob length, count + 1 offsets into the UTF-8 blob, the blob), then the node arrays:
+ * the Pages (title, item name, icon, Items) and the Main Page Items.
+ * Every Item is its type, its attribute block (name and value pairs) and its options.
+ * All Strings are indices into the table, so every distinct String is stored once, -1 stands for null.
+ * Pure Java, it can also be used to write the file at build time.
+ */
+public final class SchemaCodec {
+
+    private static final int MAGIC = 0x49535653;
+    private static final int FORMAT_VERSION = 1;
+    private static final int NONE = -1;
+
+    private SchemaCodec() {
+    }
+
+    /**
+     * @param schema the schema
+     * @param sourceVersion identifies the source the schema was parsed from, decode only accepts the same version
+     * @return the encoded schema
+     */
+    public static byte[] encode(SettingsSchema schema, long sourceVersion) {
+        try {
+            StringTable strings = new StringTable();
+            ByteArrayOutputStream nodeBytes = new ByteArrayOutputStream();
+            DataOutputStream nodes = new DataOutputStream(nodeBytes);
+            nodes.writeInt(schema.getPages().size());
+            for(PageNode page : schema.getPages()) {
+                nodes.writeInt(strings.indexOf(page.getTitle()));
+                nodes.writeInt(strings.indexOf(page.getItemName()));
+                nodes.writeInt(strings.indexOf(page.getIcon()));
+                writeItems(nodes, strings, page.getItems());
+            }
+            writeItems(nodes, strings, schema.getItems());
+            nodes.flush();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(nodeBytes.size() + strings.size() * 16 + 64);
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(MAGIC);
+            data.writeInt(FORMAT_VERSION);
+            data.writeLong(sourceVersion);
+            strings.write(data);
+            nodeBytes.writeTo(data);
+            data.flush();
+            return out.toByteArray();
+        }catch (IOException e) {
+            // Only in memory streams are used
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeItems(DataOutputStream out, StringTable strings, List<ItemNode> items) throws IOException {
+        out.writeInt(items.size());
+        for(ItemNode item : items) {
+            out.writeInt(strings.indexOf(item.getType()));
+            Map<String, String> attributes = item.getAttributes();
+            out.writeInt(attributes.size());
+            for(Map.Entry<String, String> attribute : attributes.entrySet()) {
+                out.writeInt(strings.indexOf(attribute.getKey()));
+                out.writeInt(strings.indexOf(attribute.getValue()));
+            }
+            out.writeInt(item.getOptions().size());
+            for(ItemNode.Option option : item.getOptions()) {
+                out.writeInt(strings.indexOf(option.getKey()));
+                out.writeInt(strings.indexOf(option.getLabel()));
+            }
+        }
+    }
+
+    /**
+     * @param buffer the encoded schema, like a memory mapped file, read from its position
+     * @param sourceVersion the version of the current source
+     * @return the schema or null if the data belongs to another format or source version
+     * @throws IOException if the data is corrupt
+     */
+    public static SettingsSchema decode(ByteBuffer buffer, long sourceVersion) throws IOException {
+        try {
+            if(buffer.remaining() < 16 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) return null;
+            if(buffer.getLong() != sourceVersion) return null;
+            String[] strings = readStrings(buffer);
+            int pageCount = readCount(buffer);
+            ArrayList<PageNode> pages = new ArrayList<>(pageCount);
+            for(int i = 0; i < pageCount; i++) {
+                String title = readString(buffer, strings);
+                String itemName = readString(buffer, strings);
+                String icon = readString(buffer, strings);
+                pages.add(new PageNode(title, itemName, icon, readItems(buffer, strings)));
+            }
+            List<ItemNode> items = readItems(buffer, strings);
+            return new SettingsSchema(pages, items);
+        }catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Corrupt settings schema", e);
+        }
+    }
+
+    private static String[] readStrings(ByteBuffer buffer) throws IOException {
+        int count = readCount(buffer);
+        int blobLength = readCount(buffer);
+        int[] offsets = new int[count + 1];
+        for(int i = 0; i <= count; i++) {
+            offsets[i] = buffer.getInt();
+            if(offsets[i] < 0 || offsets[i] > blobLength || (i > 0 && offsets[i] < offsets[i - 1])) throw new IOException("Corrupt settings schema string table");
+        }
+        byte[] blob = new byte[blobLength];
+        buffer.get(blob);
+        String[] strings = new String[count];
+        for(int i = 0; i < count; i++) {
+            strings[i] = new String(blob, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    private static List<ItemNode> readItems(ByteBuffer buffer, String[] strings) throws IOException {
+        int count = readCount(buffer);
+        ArrayList<ItemNode> items = new ArrayList<>(count);
+        for(int i = 0; i < count; i++) {
+            String type = readString(buffer, strings);
+            int attributeCount = readCount(buffer);
+            LinkedHashMap<String, String> attributes = new LinkedHashMap<>(attributeCount * 2);
+            for(int a = 0; a < attributeCount; a++) {
+                String name = readString(buffer, strings);
+                attributes.put(name, readString(buffer, strings));
+            }
+            int optionCount = readCount(buffer);
+            ArrayList<ItemNode.Option> options = new ArrayList<>(optionCount);
+            for(int o = 0; o < optionCount; o++) {
+                String key = readString(buffer, strings);
+                options.add(new ItemNode.Option(key, readString(buffer, strings)));
+            }
+            items.add(new ItemNode(type, attributes, options));
+        }
+        return items;
+    }
+
+    // A count can not be larger than the remaining bytes, so corrupt data does not allocate huge arrays
+    private static int readCount(ByteBuffer buffer) throws IOException {
+        int count = buffer.getInt();
+        if(count < 0 || count > buffer.remaining()) throw new IOException("Corrupt settings schema count " + count);
+        return count;
+    }
+
+    private static String readString(ByteBuffer buffer, String[] strings) throws IOException {
+        int index = buffer.getInt();
+        if(index == NONE) return null;
+        if(index < 0 || index >= strings.length) throw new IOException("Corrupt settings schema string index " + index);
+        return strings[index];
+    }
+
+    private static final class StringTable {
+        private final HashMap<String, Integer> indices = new HashMap<>();
+        private final ArrayList<String> strings = new ArrayList<>();
+
+        int indexOf(String value) {
+            if(value == null) return NONE;
+            Integer index = indices.get(value);
+            if(index == null) {
+                index = strings.size();
+                strings.add(value);
+                indices.put(value, index);
+            }
+            return index;
+        }
+
+        int size() {
+            return strings.size();
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            ByteArrayOutputStream blob = new ByteArrayOutputStream();
+            int[] offsets = new int[strings.size() + 1];
+            for(int i = 0; i < strings.size(); i++) {
+                byte[] bytes = strings.get(i).getBytes(StandardCharsets.UTF_8);
+                blob.write(bytes, 0, bytes.length);
+                offsets[i + 1] = blob.size();
+            }
+            out.writeInt(strings.size());
+            out.writeInt(blob.size());
+            for(int offset : offsets) {
+                out.writeInt(offset);
+            }
+            blob.writeTo(out);
+        }
+    }
+}
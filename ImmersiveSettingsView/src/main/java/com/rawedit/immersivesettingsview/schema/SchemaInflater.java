@@ -0,0 +1,281 @@
+package com.rawedit.immersivesettingsview.schema;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+import android.view.View;
+
+import com.rawedit.immersivesettingsview.SettingsView;
+import com.rawedit.immersivesettingsview.items.CheckBoxSettingsItem;
+import com.rawedit.immersivesettingsview.items.ChoiceSettingsItem;
+import com.rawedit.immersivesettingsview.items.EditTextSettingsItem;
+import com.rawedit.immersivesettingsview.items.SettingsItem;
+import com.rawedit.immersivesettingsview.items.SliderSettingsItem;
+import com.rawedit.immersivesettingsview.items.SwitchSettingsItem;
+import com.rawedit.immersivesettingsview.items.TextSettingsItem;
+import com.rawedit.immersivesettingsview.pages.SettingsPage;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Turns a SettingsSchema into Pages and Items of a SettingsView.
+ * The Pages are added empty and build their Items from the model the first time they are shown,
+ * until then only their metadata is used (for the Main Page entries and the SearchIndex).
+ */
+public final class SchemaInflater {
+
+    public static final String TAG = SchemaInflater.class.getSimpleName();
+
+    public interface OnItemInflated {
+        /**
+         * Called on the main thread for every created Item, before it is added to its Page.
+         * Use it to set the listeners which can not be described in the schema.
+         * @param node the description of the Item
+         * @param item the new Item
+         */
+        void itemInflated(ItemNode node, SettingsItem item);
+    }
+
+    private final SettingsView settingsView;
+    private OnItemInflated onItemInflated;
+    // The defaults of the switches and checkboxes other Items depend on, by their key
+    private final HashMap<String, Boolean> dependencyDefaults = new HashMap<>();
+
+    public SchemaInflater(SettingsView settingsView) {
+        this.settingsView = settingsView;
+    }
+
+    /**
+     * Adds all Pages (not built yet) and the Main Page Items of the schema to the SettingsView
+     * @param schema the schema
+     */
+    public void inflate(SettingsSchema schema) {
+        for(ItemNode node : schema.getAllItems()) {
+            String dependency = node.getString(ItemNode.ATTR_DEPENDS_ON);
+            if(dependency == null) continue;
+            ItemNode target = schema.findItem(dependency);
+            if(target != null) dependencyDefaults.put(dependency, target.getBoolean(ItemNode.ATTR_DEFAULT, false));
+        }
+        for(PageNode node : schema.getPages()) {
+            settingsView.add(createPage(node));
+        }
+        for(ItemNode node : schema.getItems()) {
+            SettingsItem item = createItem(node);
+            if(item != null) settingsView.add(item);
+        }
+    }
+
+    /**
+     * @param node the description of the Page
+     * @return an empty Page which builds its Items on demand, large Pages over several frames
+     */
+    public SettingsPage createPage(final PageNode node) {
+        SettingsPage page = settingsView.createSettingsPage();
+        page.setTitle(node.getTitle());
+        page.setItemName(node.getItemName());
+        int icon = getResource(node.getIcon(), "drawable");
+        if(icon != 0) page.setItemDrawableResource(icon);
+        page.setContentProvider(new SettingsPage.IncrementalContentProvider() {
+            @Override
+            public int getItemCount() {
+                return node.getItems().size();
+            }
+
+            @Override
+            public SettingsItem createItem(SettingsPage page, int index) {
+                return SchemaInflater.this.createItem(node.getItems().get(index));
+            }
+
+            @Override
+            public void buildContent(SettingsPage page) {
+                for(ItemNode itemNode : node.getItems()) {
+                    SettingsItem item = SchemaInflater.this.createItem(itemNode);
+                    if(item != null) page.add(item);
+                }
+            }
+
+            @Override
+            public Map<String, String> getSearchText() {
+                LinkedHashMap<String, String> text = new LinkedHashMap<>();
+                for(ItemNode itemNode : node.getItems()) {
+                    String id = itemNode.getStableId();
+                    if(id != null) text.put(id, itemNode.getSearchText());
+                }
+                return text;
+            }
+        });
+        return page;
+    }
+
+    /**
+     * @param node the description of the Item
+     * @return the new Item or null if it could not be created (like a custom Item without a valid layout)
+     */
+    public SettingsItem createItem(ItemNode node) {
+        SettingsItem item;
+        if(ItemNode.TYPE_CUSTOM.equals(node.getType())) {
+            int layout = getResource(node.getString(ItemNode.ATTR_LAYOUT), "layout");
+            if(layout == 0) {
+                Log.w(TAG, "Custom Item " + node.getStableId() + " has no valid layout");
+                return null;
+            }
+            item = settingsView.createSettingsItem(SettingsItem.Type.CUSTOM, layout);
+        }else {
+            item = settingsView.createSettingsItem(SettingsItem.Type.valueOf(node.getType().toUpperCase(Locale.ROOT)));
+        }
+        if(item == null) return null;
+        switch (node.getType()) {
+            case ItemNode.TYPE_TEXT:
+                setupText((TextSettingsItem) item, node);
+                break;
+            case ItemNode.TYPE_SWITCH:
+                setupSwitch((SwitchSettingsItem) item, node);
+                break;
+            case ItemNode.TYPE_CHECKBOX:
+                setupCheckBox((CheckBoxSettingsItem) item, node);
+                break;
+            case ItemNode.TYPE_EDITTEXT:
+                setupEditText((EditTextSettingsItem) item, node);
+                break;
+            case ItemNode.TYPE_SLIDER:
+                setupSlider((SliderSettingsItem) item, node);
+                break;
+            case ItemNode.TYPE_CHOICE:
+                setupChoice((ChoiceSettingsItem) item, node);
+                break;
+        }
+        // The key is set after the text, since setting the text derives a key if there is none yet
+        String key = node.getString(ItemNode.ATTR_KEY);
+        if(key != null) item.setSettingNameSave(key);
+        String id = node.getStableId();
+        if(id != null) item.setStableId(id);
+        String keywords = node.getString(ItemNode.ATTR_KEYWORDS);
+        if(keywords != null) item.setSearchKeywords(keywords);
+        String dependency = node.getString(ItemNode.ATTR_DEPENDS_ON);
+        if(dependency != null) {
+            Boolean fallback = dependencyDefaults.get(dependency);
+            new DependencyBinding(item, dependency, fallback != null && fallback).bind();
+        }
+        if(onItemInflated != null) onItemInflated.itemInflated(node, item);
+        return item;
+    }
+
+    private void setupText(TextSettingsItem item, ItemNode node) {
+        if(node.has(ItemNode.ATTR_TEXT)) item.setText(node.getString(ItemNode.ATTR_TEXT));
+        int icon = getResource(node.getString(ItemNode.ATTR_ICON), "drawable");
+        if(icon != 0) item.setDrawable(icon);
+    }
+
+    private void setupSwitch(SwitchSettingsItem item, ItemNode node) {
+        if(node.has(ItemNode.ATTR_TEXT)) item.setText(node.getString(ItemNode.ATTR_TEXT));
+        item.setDefaultChecked(node.getBoolean(ItemNode.ATTR_DEFAULT, false));
+    }
+
+    private void setupCheckBox(CheckBoxSettingsItem item, ItemNode node) {
+        if(node.has(ItemNode.ATTR_TEXT)) item.setText(node.getString(ItemNode.ATTR_TEXT));
+        item.setDefaultChecked(node.getBoolean(ItemNode.ATTR_DEFAULT, false));
+    }
+
+    private void setupEditText(EditTextSettingsItem item, ItemNode node) {
+        int style = getResource(node.getString(ItemNode.ATTR_STYLE), "style");
+        if(style != 0) item.setEditTextStyle(style);
+        int buttonStyle = getResource(node.getString(ItemNode.ATTR_BUTTON_STYLE), "style");
+        if(buttonStyle != 0) item.setButtonStyle(buttonStyle);
+        if(node.has(ItemNode.ATTR_MESSAGE)) item.setMessage(node.getString(ItemNode.ATTR_MESSAGE));
+        if(node.has(ItemNode.ATTR_HINT)) item.setEditTextHint(node.getString(ItemNode.ATTR_HINT));
+        if(node.has(ItemNode.ATTR_BUTTON_TEXT)) item.setButtonText(node.getString(ItemNode.ATTR_BUTTON_TEXT));
+        item.setShowMessage(node.getBoolean(ItemNode.ATTR_SHOW_MESSAGE, true));
+        item.setShowButton(node.getBoolean(ItemNode.ATTR_SHOW_BUTTON, true));
+        item.setDefaultContent(node.getString(ItemNode.ATTR_DEFAULT, ""));
+    }
+
+    private void setupSlider(SliderSettingsItem item, ItemNode node) {
+        int style = getResource(node.getString(ItemNode.ATTR_STYLE), "style");
+        if(style != 0) item.setSliderStyle(style);
+        if(node.has(ItemNode.ATTR_MESSAGE)) item.setMessage(node.getString(ItemNode.ATTR_MESSAGE));
+        if(node.has(ItemNode.ATTR_MIN)) item.setMinimum(node.getFloat(ItemNode.ATTR_MIN, 0f), node.getString(ItemNode.ATTR_MIN_PATTERN, "%f"));
+        if(node.has(ItemNode.ATTR_MAX)) item.setMaximum(node.getFloat(ItemNode.ATTR_MAX, 0f), node.getString(ItemNode.ATTR_MAX_PATTERN, "%f"));
+        if(node.has(ItemNode.ATTR_STEP)) item.setStepSize(node.getFloat(ItemNode.ATTR_STEP, 0f));
+        if(node.has(ItemNode.ATTR_DECIMALS)) item.setDecimals(node.getInt(ItemNode.ATTR_DECIMALS, SliderSettingsItem.AUTO_DECIMALS));
+        if(node.has(ItemNode.ATTR_TICK_VISIBLE)) item.setTickVisible(node.getBoolean(ItemNode.ATTR_TICK_VISIBLE, true));
+        if(node.has(ItemNode.ATTR_VALUE_PATTERN)) item.setShouldMinimumBeUseForCurrentValue(true, node.getString(ItemNode.ATTR_VALUE_PATTERN));
+        item.setDefaultValue(node.getFloat(ItemNode.ATTR_DEFAULT, node.getFloat(ItemNode.ATTR_MIN, 0f)));
+    }
+
+    private void setupChoice(ChoiceSettingsItem item, ItemNode node) {
+        if(node.has(ItemNode.ATTR_MESSAGE)) item.setMessage(node.getString(ItemNode.ATTR_MESSAGE));
+        item.setMultiChoice(node.getBoolean(ItemNode.ATTR_MULTI_CHOICE, false));
+        List<ItemNode.Option> options = node.getOptions();
+        String[] labels = new String[options.size()];
+        String[] keys = new String[options.size()];
+        for(int i = 0; i < labels.length; i++) {
+            labels[i] = options.get(i).getLabel();
+            keys[i] = options.get(i).getKey();
+        }
+        item.setOptions(labels, keys);
+        item.setDefaultKey(node.getString(ItemNode.ATTR_DEFAULT));
+    }
+
+    /**
+     * Enables an Item while the switch or checkbox it depends on is checked.
+     * It only listens while the Item is attached, the Item keeps the binding alive.
+     */
+    private static final class DependencyBinding implements View.OnAttachStateChangeListener, SharedPreferences.OnSharedPreferenceChangeListener {
+        private final SettingsItem item;
+        private final String key;
+        private final boolean fallback;
+        private final SharedPreferences preferences;
+
+        DependencyBinding(SettingsItem item, String key, boolean fallback) {
+            this.item = item;
+            this.key = key;
+            this.fallback = fallback;
+            preferences = item.getContext().getSharedPreferences(SettingsView.settingsName, Context.MODE_PRIVATE);
+        }
+
+        void bind() {
+            update();
+            item.addOnAttachStateChangeListener(this);
+            if(item.isAttachedToWindow()) onViewAttachedToWindow(item);
+        }
+
+        private void update() {
+            item.setEnabled(preferences.getBoolean(key, fallback));
+        }
+
+        @Override
+        public void onViewAttachedToWindow(View v) {
+            preferences.registerOnSharedPreferenceChangeListener(this);
+            update();
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            preferences.unregisterOnSharedPreferenceChangeListener(this);
+        }
+
+        @Override
+        public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String changed) {
+            if(key.equals(changed)) update();
+        }
+    }
+
+    // Resources are referenced by name in the schema, 0 if the name is null or unknown
+    private int getResource(String name, String type) {
+        if(name == null || name.isEmpty()) return 0;
+        Context context = settingsView.getContext();
+        return context.getResources().getIdentifier(name, type, context.getPackageName());
+    }
+
+    public OnItemInflated getOnItemInflated() {
+        return onItemInflated;
+    }
+
+    public void setOnItemInflated(OnItemInflated onItemInflated) {
+        this.onItemInflated = onItemInflated;
+    }
+}
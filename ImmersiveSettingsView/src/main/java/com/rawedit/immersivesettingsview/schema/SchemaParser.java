@@ -0,0 +1,275 @@
+package com.rawedit.immersivesettingsview.schema;
+
+import android.content.Context;
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.Xml;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Reads a SettingsSchema from JSON or XML with a streaming parser, no document tree is built.
+ * <p>
+ * JSON: {"pages": [{"title": "...", "itemName": "...", "icon": "...", "items": [...]}], "items": [...]}
+ * where every Item is an object with a "type", its attributes and for choices "options": [{"key": "...", "label": "..."}].
+ * <p>
+ * XML: a &lt;settings&gt; root with &lt;page title=".." itemName=".." icon=".."&gt; elements,
+ * every Item is an element named by its type (&lt;switch key=".." text=".."/&gt;) with &lt;option key=".." label=".."/&gt; children for choices.
+ * Items directly below the root are shown on the Main Page.
+ */
+public final class SchemaParser {
+
+    private static final String PAGES = "pages";
+    private static final String ITEMS = "items";
+    private static final String OPTIONS = "options";
+    private static final String TYPE = "type";
+    private static final String TITLE = "title";
+    private static final String ITEM_NAME = "itemName";
+    private static final String ICON = "icon";
+    private static final String KEY = "key";
+    private static final String LABEL = "label";
+
+    private static final String TAG_SETTINGS = "settings";
+    private static final String TAG_PAGE = "page";
+    private static final String TAG_OPTION = "option";
+
+    private SchemaParser() {
+    }
+
+    /**
+     * Parses an asset, XML if the name ends with .xml, JSON otherwise
+     * @param context any Context
+     * @param assetName the path of the asset
+     * @return the schema
+     * @throws IOException if the asset can not be read or is malformed
+     */
+    public static SettingsSchema parseAsset(Context context, String assetName) throws IOException {
+        try(InputStream in = context.getAssets().open(assetName)) {
+            if(assetName.endsWith(".xml")) {
+                try {
+                    XmlPullParser parser = Xml.newPullParser();
+                    parser.setInput(in, StandardCharsets.UTF_8.name());
+                    return parseXml(parser);
+                }catch (XmlPullParserException e) {
+                    throw new IOException("Malformed settings schema " + assetName, e);
+                }
+            }
+            return parseJson(in);
+        }
+    }
+
+    // JSON
+
+    public static SettingsSchema parseJson(InputStream in) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        ArrayList<PageNode> pages = new ArrayList<>();
+        ArrayList<ItemNode> items = new ArrayList<>();
+        reader.beginObject();
+        while(reader.hasNext()) {
+            String name = reader.nextName();
+            if(PAGES.equals(name)) {
+                reader.beginArray();
+                while(reader.hasNext()) {
+                    pages.add(readJsonPage(reader, PAGES + "[" + pages.size() + "]"));
+                }
+                reader.endArray();
+            }else if(ITEMS.equals(name)) {
+                readJsonItems(reader, items, ITEMS);
+            }else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return build(pages, items);
+    }
+
+    private static PageNode readJsonPage(JsonReader reader, String path) throws IOException {
+        String title = null;
+        String itemName = null;
+        String icon = null;
+        ArrayList<ItemNode> items = new ArrayList<>();
+        reader.beginObject();
+        while(reader.hasNext()) {
+            String name = reader.nextName();
+            if(TITLE.equals(name)) {
+                title = readJsonValue(reader);
+            }else if(ITEM_NAME.equals(name)) {
+                itemName = readJsonValue(reader);
+            }else if(ICON.equals(name)) {
+                icon = readJsonValue(reader);
+            }else if(ITEMS.equals(name)) {
+                readJsonItems(reader, items, path + "." + ITEMS);
+            }else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return build(title, itemName, icon, items);
+    }
+
+    // The path (like pages[0].items) locates invalid Items in the error message
+    private static void readJsonItems(JsonReader reader, List<ItemNode> items, String path) throws IOException {
+        reader.beginArray();
+        int index = 0;
+        while(reader.hasNext()) {
+            String type = null;
+            LinkedHashMap<String, String> attributes = new LinkedHashMap<>();
+            ArrayList<ItemNode.Option> options = new ArrayList<>();
+            reader.beginObject();
+            while(reader.hasNext()) {
+                String name = reader.nextName();
+                if(TYPE.equals(name)) {
+                    type = readJsonValue(reader);
+                }else if(OPTIONS.equals(name)) {
+                    readJsonOptions(reader, options);
+                }else {
+                    String value = readJsonValue(reader);
+                    if(value != null) attributes.put(name, value);
+                }
+            }
+            reader.endObject();
+            items.add(build(type, attributes, options, path + "[" + index++ + "]"));
+        }
+        reader.endArray();
+    }
+
+    private static void readJsonOptions(JsonReader reader, List<ItemNode.Option> options) throws IOException {
+        reader.beginArray();
+        while(reader.hasNext()) {
+            String key = null;
+            String label = null;
+            reader.beginObject();
+            while(reader.hasNext()) {
+                String name = reader.nextName();
+                if(KEY.equals(name)) {
+                    key = readJsonValue(reader);
+                }else if(LABEL.equals(name)) {
+                    label = readJsonValue(reader);
+                }else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            options.add(new ItemNode.Option(key != null ? key : label, label != null ? label : key));
+        }
+        reader.endArray();
+    }
+
+    // Numbers and booleans are kept as Strings, ItemNode checks the numeric ones and converts them when they are used
+    private static String readJsonValue(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        switch (token) {
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            case NULL:
+                reader.nextNull();
+                return null;
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            default:
+                throw new IOException("Expected a value but was " + token);
+        }
+    }
+
+    // XML
+
+    public static SettingsSchema parseXml(XmlPullParser parser) throws IOException, XmlPullParserException {
+        ArrayList<PageNode> pages = new ArrayList<>();
+        ArrayList<ItemNode> items = new ArrayList<>();
+        int event = parser.getEventType();
+        while(event != XmlPullParser.START_TAG) {
+            if(event == XmlPullParser.END_DOCUMENT) throw new IOException("Empty settings schema");
+            event = parser.next();
+        }
+        if(!TAG_SETTINGS.equals(parser.getName())) throw new IOException("Expected <" + TAG_SETTINGS + "> but was <" + parser.getName() + ">");
+        while((event = parser.next()) != XmlPullParser.END_TAG) {
+            if(event == XmlPullParser.START_TAG) {
+                if(TAG_PAGE.equals(parser.getName())) {
+                    pages.add(readXmlPage(parser));
+                }else {
+                    items.add(readXmlItem(parser));
+                }
+            }else if(event == XmlPullParser.END_DOCUMENT) {
+                throw new IOException("Unexpected end of the settings schema");
+            }
+        }
+        return build(pages, items);
+    }
+
+    private static PageNode readXmlPage(XmlPullParser parser) throws IOException, XmlPullParserException {
+        String title = parser.getAttributeValue(null, TITLE);
+        String itemName = parser.getAttributeValue(null, ITEM_NAME);
+        String icon = parser.getAttributeValue(null, ICON);
+        ArrayList<ItemNode> items = new ArrayList<>();
+        int event;
+        while((event = parser.next()) != XmlPullParser.END_TAG) {
+            if(event == XmlPullParser.START_TAG) {
+                items.add(readXmlItem(parser));
+            }else if(event == XmlPullParser.END_DOCUMENT) {
+                throw new IOException("Unexpected end of the settings schema");
+            }
+        }
+        return build(title, itemName, icon, items);
+    }
+
+    private static ItemNode readXmlItem(XmlPullParser parser) throws IOException, XmlPullParserException {
+        String type = parser.getName();
+        String position = parser.getPositionDescription();
+        LinkedHashMap<String, String> attributes = new LinkedHashMap<>();
+        for(int i = 0; i < parser.getAttributeCount(); i++) {
+            attributes.put(parser.getAttributeName(i), parser.getAttributeValue(i));
+        }
+        ArrayList<ItemNode.Option> options = new ArrayList<>();
+        int event;
+        while((event = parser.next()) != XmlPullParser.END_TAG) {
+            if(event == XmlPullParser.START_TAG) {
+                if(!TAG_OPTION.equals(parser.getName())) throw new IOException("Unexpected <" + parser.getName() + "> in <" + type + ">");
+                String key = parser.getAttributeValue(null, KEY);
+                String label = parser.getAttributeValue(null, LABEL);
+                options.add(new ItemNode.Option(key != null ? key : label, label != null ? label : key));
+                while(parser.next() != XmlPullParser.END_TAG) {
+                    // Options have no content
+                }
+            }else if(event == XmlPullParser.END_DOCUMENT) {
+                throw new IOException("Unexpected end of the settings schema");
+            }
+        }
+        return build(type, attributes, options, position);
+    }
+
+    // The model validates itself, its errors are reported as malformed input
+
+    private static SettingsSchema build(List<PageNode> pages, List<ItemNode> items) throws IOException {
+        try {
+            return new SettingsSchema(pages, items);
+        }catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private static PageNode build(String title, String itemName, String icon, List<ItemNode> items) throws IOException {
+        try {
+            return new PageNode(title, itemName, icon, items);
+        }catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private static ItemNode build(String type, LinkedHashMap<String, String> attributes, List<ItemNode.Option> options, String position) throws IOException {
+        try {
+            return new ItemNode(type, attributes, options);
+        }catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage() + " at " + position, e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.rawedit.immersivesettingsview.schema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * A mutable settings tree which can be assembled and changed from any thread,
+ * like by several feature modules in parallel at startup.
+ * <p>
+ * Pure Java, no View is created. A snapshot is an immutable SettingsSchema
+ * which SchemaInflater turns into Pages, those only create their Items once they are opened.
+ * Pages are ordered by their order and then by the time they were added, Items by the time they were added.
+ */
+public final class SettingsModel {
+
+    private final Object lock = new Object();
+    private final LinkedHashMap<String, PageEntry> pages = new LinkedHashMap<>();
+    private final ArrayList<ItemNode> items = new ArrayList<>();
+    private long sequence = 0;
+    // Reset by every change, so repeated snapshots of an unchanged model are free
+    private volatile SettingsSchema snapshot;
+
+    private static final class PageEntry {
+        final String title;
+        final long sequence;
+        String itemName;
+        String icon;
+        int order;
+        final ArrayList<ItemNode> items = new ArrayList<>();
+
+        PageEntry(String title, long sequence) {
+            this.title = title;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final Comparator<PageEntry> PAGE_ORDER = new Comparator<PageEntry>() {
+        @Override
+        public int compare(PageEntry a, PageEntry b) {
+            if(a.order != b.order) return a.order < b.order ? -1 : 1;
+            return Long.compare(a.sequence, b.sequence);
+        }
+    };
+
+    /**
+     * Adds a Page or updates the item name, icon and order of an existing one
+     * @param title the title of the Page
+     * @param itemName the text of the entry on the Main Page, the title if null
+     * @param icon the name of a drawable resource or null
+     * @param order Pages with a lower order come first
+     */
+    public void addPage(String title, String itemName, String icon, int order) {
+        if(title == null || title.isEmpty()) throw new IllegalArgumentException("A Page needs a title");
+        synchronized(lock) {
+            PageEntry page = getOrCreatePage(title);
+            if(itemName != null) page.itemName = itemName;
+            if(icon != null) page.icon = icon;
+            page.order = order;
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Adds a Page with its Items, the Items are appended if the Page exists already.
+     * An item name set before by addPage(String, String, String, int) is kept.
+     * @param node the Page
+     */
+    public void addPage(PageNode node) {
+        synchronized(lock) {
+            PageEntry page = getOrCreatePage(node.getTitle());
+            if(page.itemName == null) page.itemName = node.getItemName();
+            if(node.getIcon() != null) page.icon = node.getIcon();
+            page.items.addAll(node.getItems());
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Adds an Item to a Page, a missing Page is created, so modules do not depend on the order they run in
+     * @param pageTitle the title of the Page or null for the Main Page
+     * @param item the Item
+     */
+    public void addItem(String pageTitle, ItemNode item) {
+        synchronized(lock) {
+            if(pageTitle == null) {
+                items.add(item);
+            }else {
+                getOrCreatePage(pageTitle).items.add(item);
+            }
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Adds all Pages and Main Page Items of a schema, like one parsed by a module
+     * @param schema the schema
+     */
+    public void addSchema(SettingsSchema schema) {
+        synchronized(lock) {
+            for(PageNode page : schema.getPages()) {
+                addPage(page);
+            }
+            items.addAll(schema.getItems());
+            snapshot = null;
+        }
+    }
+
+    /**
+     * @param title the title of the Page
+     * @return false if there was no such Page
+     */
+    public boolean removePage(String title) {
+        synchronized(lock) {
+            if(pages.remove(title) == null) return false;
+            snapshot = null;
+            return true;
+        }
+    }
+
+    /**
+     * Removes every Item with the Stable ID (id or key)
+     * @param stableId the Stable ID
+     * @return false if there was no such Item
+     */
+    public boolean removeItem(String stableId) {
+        synchronized(lock) {
+            boolean removed = removeItem(items, stableId);
+            for(PageEntry page : pages.values()) {
+                removed |= removeItem(page.items, stableId);
+            }
+            if(removed) snapshot = null;
+            return removed;
+        }
+    }
+
+    private static boolean removeItem(List<ItemNode> items, String stableId) {
+        boolean removed = false;
+        for(Iterator<ItemNode> it = items.iterator(); it.hasNext();) {
+            if(stableId.equals(it.next().getStableId())) {
+                it.remove();
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return an immutable copy of the current tree
+     * @throws IllegalArgumentException if a dependency is invalid, see SettingsSchema
+     */
+    public SettingsSchema snapshot() {
+        SettingsSchema current = snapshot;
+        if(current != null) return current;
+        synchronized(lock) {
+            if(snapshot != null) return snapshot;
+            ArrayList<PageEntry> entries = new ArrayList<>(pages.values());
+            Collections.sort(entries, PAGE_ORDER);
+            ArrayList<PageNode> nodes = new ArrayList<>(entries.size());
+            for(PageEntry page : entries) {
+                nodes.add(new PageNode(page.title, page.itemName, page.icon, page.items));
+            }
+            snapshot = new SettingsSchema(nodes, items);
+            return snapshot;
+        }
+    }
+
+    private PageEntry getOrCreatePage(String title) {
+        PageEntry page = pages.get(title);
+        if(page == null) {
+            page = new PageEntry(title, sequence++);
+            pages.put(title, page);
+        }
+        return page;
+    }
+}
@@ -0,0 +1,94 @@
+package com.rawedit.immersivesettingsview.schema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Declarative description of a whole settings tree: the Pages with their Items and the Items of the Main Page.
+ * Pure Java and immutable, created by SchemaParser and turned into views by SchemaInflater.
+ */
+public final class SettingsSchema {
+
+    private final List<PageNode> pages;
+    private final List<ItemNode> items;
+    // The first Item with each key
+    private final HashMap<String, ItemNode> byKey = new HashMap<>();
+
+    /**
+     * @param pages the Pages, their titles must be unique
+     * @param items the Items shown directly on the Main Page
+     * @throws IllegalArgumentException for duplicate titles and dependencies on missing keys, non toggles or in a cycle
+     */
+    public SettingsSchema(List<PageNode> pages, List<ItemNode> items) {
+        HashSet<String> titles = new HashSet<>();
+        for(PageNode page : pages) {
+            if(!titles.add(page.getTitle())) throw new IllegalArgumentException("Duplicate Page title " + page.getTitle());
+        }
+        this.pages = Collections.unmodifiableList(new ArrayList<>(pages));
+        this.items = Collections.unmodifiableList(new ArrayList<>(items));
+        for(ItemNode item : getAllItems()) {
+            String key = item.getString(ItemNode.ATTR_KEY);
+            if(key != null && !byKey.containsKey(key)) byKey.put(key, item);
+        }
+        checkDependencies();
+    }
+
+    private void checkDependencies() {
+        for(ItemNode item : getAllItems()) {
+            String dependency = item.getString(ItemNode.ATTR_DEPENDS_ON);
+            // Every Item depends on one key at most, so following the chain finds every cycle
+            HashSet<String> chain = new HashSet<>();
+            while(dependency != null) {
+                ItemNode target = byKey.get(dependency);
+                if(target == null) throw new IllegalArgumentException("Item " + item.getStableId() + " depends on the missing key " + dependency);
+                if(!ItemNode.TYPE_SWITCH.equals(target.getType()) && !ItemNode.TYPE_CHECKBOX.equals(target.getType())) {
+                    throw new IllegalArgumentException("Item " + item.getStableId() + " depends on " + dependency + " which is no switch or checkbox");
+                }
+                if(!chain.add(dependency)) throw new IllegalArgumentException("Dependency cycle through " + dependency);
+                dependency = target.getString(ItemNode.ATTR_DEPENDS_ON);
+            }
+        }
+    }
+
+    /**
+     * @return the Items of all Pages followed by the Main Page Items
+     */
+    public List<ItemNode> getAllItems() {
+        ArrayList<ItemNode> all = new ArrayList<>();
+        for(PageNode page : pages) {
+            all.addAll(page.getItems());
+        }
+        all.addAll(items);
+        return all;
+    }
+
+    /**
+     * @param key the key of an Item
+     * @return the first Item with the key or null
+     */
+    public ItemNode findItem(String key) {
+        return byKey.get(key);
+    }
+
+    public List<PageNode> getPages() {
+        return pages;
+    }
+
+    public List<ItemNode> getItems() {
+        return items;
+    }
+
+    /**
+     * @param title the title of the Page
+     * @return the Page or null if the schema does not contain it
+     */
+    public PageNode getPage(String title) {
+        for(PageNode page : pages) {
+            if(page.getTitle().equals(title)) return page;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,160 @@
+package com.rawedit.immersivesettingsview;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.SharedPreferences;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SharedPreferences which count how often an Editor is applied or committed
+ */
+class CountingPreferences implements SharedPreferences {
+
+    private final SharedPreferences preferences;
+    private int writes = 0;
+
+    CountingPreferences(SharedPreferences preferences) {
+        this.preferences = preferences;
+    }
+
+    int getWrites() {
+        return writes;
+    }
+
+    /**
+     * A Context which hands out the counting SharedPreferences, give it to the SettingsView
+     */
+    static class CountingContext extends ContextWrapper {
+
+        final CountingPreferences preferences;
+
+        CountingContext(Context base) {
+            super(base);
+            preferences = new CountingPreferences(base.getSharedPreferences(SettingsView.settingsName, Context.MODE_PRIVATE));
+        }
+
+        @Override
+        public SharedPreferences getSharedPreferences(String name, int mode) {
+            if(SettingsView.settingsName.equals(name)) return preferences;
+            return super.getSharedPreferences(name, mode);
+        }
+    }
+
+    @Override
+    public Map<String, ?> getAll() {
+        return preferences.getAll();
+    }
+
+    @Override
+    public String getString(String key, String defValue) {
+        return preferences.getString(key, defValue);
+    }
+
+    @Override
+    public Set<String> getStringSet(String key, Set<String> defValues) {
+        return preferences.getStringSet(key, defValues);
+    }
+
+    @Override
+    public int getInt(String key, int defValue) {
+        return preferences.getInt(key, defValue);
+    }
+
+    @Override
+    public long getLong(String key, long defValue) {
+        return preferences.getLong(key, defValue);
+    }
+
+    @Override
+    public float getFloat(String key, float defValue) {
+        return preferences.getFloat(key, defValue);
+    }
+
+    @Override
+    public boolean getBoolean(String key, boolean defValue) {
+        return preferences.getBoolean(key, defValue);
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return preferences.contains(key);
+    }
+
+    @Override
+    public Editor edit() {
+        final Editor editor = preferences.edit();
+        return new Editor() {
+            @Override
+            public Editor putString(String key, String value) {
+                editor.putString(key, value);
+                return this;
+            }
+
+            @Override
+            public Editor putStringSet(String key, Set<String> values) {
+                editor.putStringSet(key, values);
+                return this;
+            }
+
+            @Override
+            public Editor putInt(String key, int value) {
+                editor.putInt(key, value);
+                return this;
+            }
+
+            @Override
+            public Editor putLong(String key, long value) {
+                editor.putLong(key, value);
+                return this;
+            }
+
+            @Override
+            public Editor putFloat(String key, float value) {
+                editor.putFloat(key, value);
+                return this;
+            }
+
+            @Override
+            public Editor putBoolean(String key, boolean value) {
+                editor.putBoolean(key, value);
+                return this;
+            }
+
+            @Override
+            public Editor remove(String key) {
+                editor.remove(key);
+                return this;
+            }
+
+            @Override
+            public Editor clear() {
+                editor.clear();
+                return this;
+            }
+
+            @Override
+            public boolean commit() {
+                writes++;
+                return editor.commit();
+            }
+
+            @Override
+            public void apply() {
+                writes++;
+                editor.apply();
+            }
+        };
+    }
+
+    @Override
+    public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        preferences.registerOnSharedPreferenceChangeListener(listener);
+    }
+
+    @Override
+    public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        preferences.unregisterOnSharedPreferenceChangeListener(listener);
+    }
+}
@@ -0,0 +1,141 @@
+package com.rawedit.immersivesettingsview;
+
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+
+import com.google.monitoring.runtime.instrumentation.AllocationRecorder;
+import com.rawedit.immersivesettingsview.items.SettingsItem;
+import com.google.monitoring.runtime.instrumentation.Sampler;
+
+import org.robolectric.shadows.ShadowLooper;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Measures an operation on the main thread, including the frames and background work it causes:
+ * wall time, allocations of the main thread (needs the allocation instrumenter java agent, see build.gradle),
+ * requestLayout calls of the Items (counted on every Item, a parent which already requested a layout
+ * does not pass them on to the root) and SharedPreferences writes.
+ */
+class PerformanceProbe implements Sampler, SettingsItem.LayoutRequestListener {
+
+    private static final int MAX_SETTLE_ROUNDS = 100_000;
+
+    static final class Measurement {
+        final String name;
+        long millis;
+        long allocations;
+        long bytes;
+        long layoutRequests;
+        long preferenceWrites;
+
+        Measurement(String name) {
+            this.name = name;
+        }
+
+        long get(String metric) {
+            switch(metric) {
+                case "millis":
+                    return millis;
+                case "allocations":
+                    return allocations;
+                case "bytes":
+                    return bytes;
+                case "layoutRequests":
+                    return layoutRequests;
+                case "preferenceWrites":
+                    return preferenceWrites;
+                default:
+                    throw new IllegalArgumentException("Unknown metric " + metric);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-14s %8d ms %12d allocations %14d bytes %6d layout requests %4d preference writes",
+                    name, millis, allocations, bytes, layoutRequests, preferenceWrites);
+        }
+    }
+
+    static final String[] METRICS = {"millis", "allocations", "bytes", "layoutRequests", "preferenceWrites"};
+
+    private final CountingPreferences preferences;
+    private final Thread thread = Thread.currentThread();
+    private boolean recording = false;
+    private long allocations;
+    private long bytes;
+    private long layoutRequests;
+    private final boolean instrumented;
+
+    PerformanceProbe(CountingPreferences preferences) {
+        this.preferences = preferences;
+        AllocationRecorder.addSampler(this);
+        recording = true;
+        new Object();
+        recording = false;
+        instrumented = allocations > 0;
+        SettingsItem.setLayoutRequestListener(this);
+    }
+
+    /**
+     * @return false if the java agent is missing, the allocations are not counted then
+     */
+    boolean isInstrumented() {
+        return instrumented;
+    }
+
+    void release() {
+        AllocationRecorder.removeSampler(this);
+        SettingsItem.setLayoutRequestListener(null);
+    }
+
+    @Override
+    public void sampleAllocation(int count, String desc, Object newObj, long size) {
+        if(!recording || Thread.currentThread() != thread) return;
+        allocations++;
+        bytes += size;
+    }
+
+    @Override
+    public void onLayoutRequested(SettingsItem item) {
+        if(recording && Thread.currentThread() == thread) layoutRequests++;
+    }
+
+    Measurement measure(String name, Runnable operation) {
+        settle();
+        Measurement measurement = new Measurement(name);
+        allocations = 0;
+        bytes = 0;
+        layoutRequests = 0;
+        int writes = preferences.getWrites();
+        recording = true;
+        long start = System.nanoTime();
+        operation.run();
+        settle();
+        measurement.millis = (System.nanoTime() - start) / 1_000_000;
+        recording = false;
+        measurement.allocations = allocations;
+        measurement.bytes = bytes;
+        measurement.layoutRequests = layoutRequests;
+        measurement.preferenceWrites = preferences.getWrites() - writes;
+        return measurement;
+    }
+
+    /**
+     * Runs the main Looper, including future frames, until neither it nor the background threads have work left
+     */
+    void settle() {
+        ShadowLooper looper = shadowOf(Looper.getMainLooper());
+        ThreadPoolExecutor background = (ThreadPoolExecutor) SettingsExecutor.background();
+        for(int round = 0; round < MAX_SETTLE_ROUNDS; round++) {
+            while(background.getActiveCount() > 0 || !background.getQueue().isEmpty()) {
+                Thread.yield();
+            }
+            if(looper.getNextScheduledTaskTime().equals(Duration.ZERO)) return;
+            looper.runToEndOfTasks();
+        }
+        throw new IllegalStateException("The main Looper did not get idle");
+    }
+}
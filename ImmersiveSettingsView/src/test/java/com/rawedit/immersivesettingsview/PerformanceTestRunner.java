@@ -0,0 +1,26 @@
+package com.rawedit.immersivesettingsview;
+
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.internal.bytecode.InstrumentationConfiguration;
+
+/**
+ * Robolectric loads the test classes in its own class loader, the allocation recorder must stay
+ * the one the java agent reports to, so it is not loaded again.
+ */
+public class PerformanceTestRunner extends RobolectricTestRunner {
+
+    private static final String ALLOCATION_INSTRUMENTER = "com.google.monitoring.runtime.instrumentation";
+
+    public PerformanceTestRunner(Class<?> testClass) throws InitializationError {
+        super(testClass);
+    }
+
+    @Override
+    protected InstrumentationConfiguration createClassLoaderConfig(FrameworkMethod method) {
+        return new InstrumentationConfiguration.Builder(super.createClassLoaderConfig(method))
+                .doNotAcquirePackage(ALLOCATION_INSTRUMENTER)
+                .build();
+    }
+}
@@ -0,0 +1,166 @@
+package com.rawedit.immersivesettingsview;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.content.Context;
+
+import com.rawedit.immersivesettingsview.items.TextSettingsItem;
+import com.rawedit.immersivesettingsview.pages.SettingsPage;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests how the SearchIndex follows Pages and Items, see SearchIndexTest for the search itself
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SearchIndexPageTest {
+
+    private static final String[] MAIN = {SettingsView.MAIN_PAGE_NAME};
+
+    private Context context;
+    private SearchIndex index;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        activity.setTheme(R.style.Theme_ImmersiveSettingsView);
+        context = activity;
+        index = new SearchIndex();
+    }
+
+    private TextSettingsItem item(String stableId, String text) {
+        TextSettingsItem item = new TextSettingsItem(context);
+        item.setStableId(stableId);
+        item.setText(text);
+        return item;
+    }
+
+    private SettingsPage page(String title, TextSettingsItem... items) {
+        SettingsPage page = new SettingsPage(context);
+        page.setTitle(title);
+        for(TextSettingsItem item : items) {
+            page.add(item);
+        }
+        page.setSearchIndex(index);
+        index.addPage(MAIN, page);
+        return page;
+    }
+
+    private static SearchIndex.Result only(List<SearchIndex.Result> results) {
+        assertEquals(1, results.size());
+        return results.get(0);
+    }
+
+    @Test
+    public void addPage_indexesPageAndItems() {
+        SettingsPage page = page("Sound", item("ringtone", "Ringtone"));
+        page.setItemName("Sound and vibration");
+
+        SearchIndex.Result item = only(index.search("ring", 10));
+        assertEquals("ringtone", item.getItemId());
+        assertArrayEquals(new String[]{SettingsView.MAIN_PAGE_NAME, "Sound"}, item.getPath());
+        SearchIndex.Result pageResult = only(index.search("vibration", 10));
+        assertNull(pageResult.getItemId());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void changedItemText_isUpdated() {
+        TextSettingsItem ringtone = item("ringtone", "Ringtone");
+        page("Sound", ringtone);
+
+        ringtone.setText("Alarm");
+        assertTrue(index.search("ringtone", 10).isEmpty());
+        assertEquals("ringtone", only(index.search("alarm", 10)).getItemId());
+
+        ringtone.setSearchKeywords("bell");
+        assertEquals("ringtone", only(index.search("bell", 10)).getItemId());
+
+        ringtone.setStableId("alarm");
+        assertEquals("alarm", only(index.search("alarm", 10)).getItemId());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void addedItem_isIndexed() {
+        SettingsPage page = page("Sound");
+
+        page.add(item("volume", "Volume"));
+
+        assertEquals("volume", only(index.search("vol", 10)).getItemId());
+    }
+
+    @Test
+    public void changedTitle_updatesPaths() {
+        SettingsPage page = page("Sound", item("ringtone", "Ringtone"));
+
+        page.setTitle("Audio");
+
+        assertEquals("Audio", only(index.search("ringtone", 10)).getPage());
+        assertTrue(index.search("sound", 10).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void removePage_removesItsItems() {
+        TextSettingsItem ringtone = item("ringtone", "Ringtone");
+        SettingsPage sound = page("Sound", ringtone);
+        page("Display", item("brightness", "Brightness"));
+
+        index.removePage(sound);
+
+        assertEquals(2, index.size());
+        assertTrue(index.search("ringtone", 10).isEmpty());
+        assertNull(ringtone.getSearchIndex());
+        assertEquals("brightness", only(index.search("bright", 10)).getItemId());
+    }
+
+    @Test
+    public void movedItem_staysWithNewPage() {
+        TextSettingsItem ringtone = item("ringtone", "Ringtone");
+        SettingsPage sound = page("Sound", ringtone);
+        SettingsPage audio = page("Audio");
+
+        index.addItem(audio, ringtone);
+        index.removePage(sound);
+
+        assertEquals("Audio", only(index.search("ringtone", 10)).getPage());
+        assertSame(index, ringtone.getSearchIndex());
+    }
+
+    @Test
+    public void unbuiltPage_isIndexedFromContentProvider() {
+        SettingsPage page = new SettingsPage(context);
+        page.setTitle("Network");
+        page.setContentProvider(new SettingsPage.ContentProvider() {
+            @Override
+            public void buildContent(SettingsPage page) {
+            }
+
+            @Override
+            public Map<String, String> getSearchText() {
+                return Collections.singletonMap("wifi", "Wi-Fi networks");
+            }
+        });
+        page.setSearchIndex(index);
+        index.addPage(MAIN, page);
+
+        assertEquals("wifi", only(index.search("networks", 10)).getItemId());
+
+        index.removePage(page);
+        assertEquals(0, index.size());
+    }
+}
@@ -0,0 +1,272 @@
+package com.rawedit.immersivesettingsview;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the index with plain entries, the Page and Item integration is covered by SearchIndexPageTest
+ */
+public class SearchIndexTest {
+
+    private static final String[] PATH = {SettingsView.MAIN_PAGE_NAME, "Display"};
+
+    private static List<String> ids(List<SearchIndex.Result> results) {
+        List<String> ids = new ArrayList<>();
+        for(SearchIndex.Result result : results) {
+            ids.add(result.getItemId());
+        }
+        return ids;
+    }
+
+    private static SearchIndex.Result only(List<SearchIndex.Result> results) {
+        assertEquals(1, results.size());
+        return results.get(0);
+    }
+
+    @Test
+    public void shortQuery_matchesWordStartsOnly() {
+        SearchIndex index = new SearchIndex();
+        index.put(PATH, "brightness", "Display brightness", new Object());
+
+        assertEquals("brightness", only(index.search("br", 10)).getItemId());
+        assertEquals("brightness", only(index.search("d", 10)).getItemId());
+        assertTrue(index.search("ig", 10).isEmpty());
+        assertTrue(index.search("s", 10).isEmpty());
+    }
+
+    @Test
+    public void shortQuery_scoresOnlyWordStarts() {
+        SearchIndex index = new SearchIndex();
+        // "br" is the prefix of a word in both, but also inside "cobra" which must not count
+        index.put(PATH, "start", "cobra brown", new Object());
+        index.put(PATH, "whole", "br", new Object());
+
+        List<SearchIndex.Result> results = index.search("br", 10);
+
+        assertEquals(2, results.size());
+        assertEquals("whole", results.get(0).getItemId());
+        assertEquals(6, results.get(0).getScore());
+        assertEquals(4, results.get(1).getScore());
+    }
+
+    @Test
+    public void longQuery_matchesAnywhere() {
+        SearchIndex index = new SearchIndex();
+        index.put(PATH, "brightness", "Display brightness", new Object());
+
+        SearchIndex.Result inside = only(index.search("ghtn", 10));
+        assertEquals(1, inside.getScore());
+        assertEquals(4, only(index.search("brig", 10)).getScore());
+        assertEquals(6, only(index.search("brightness", 10)).getScore());
+    }
+
+    @Test
+    public void trigramCandidates_areVerified() {
+        SearchIndex index = new SearchIndex();
+        // Contains every trigram of "abcd", but not "abcd" itself
+        index.put(PATH, "split", "abc bcd", new Object());
+
+        assertTrue(index.search("abcd", 10).isEmpty());
+        assertTrue(index.search("xyz", 10).isEmpty());
+        assertEquals("split", only(index.search("bcd", 10)).getItemId());
+    }
+
+    @Test
+    public void allWords_mustMatch() {
+        SearchIndex index = new SearchIndex();
+        index.put(PATH, "dark", "Dark mode", new Object());
+        index.put(PATH, "font", "Font size", new Object());
+
+        assertEquals("dark", only(index.search("mode dark", 10)).getItemId());
+        assertTrue(index.search("dark size", 10).isEmpty());
+    }
+
+    @Test
+    public void query_isNormalized() {
+        SearchIndex index = new SearchIndex();
+        index.put(PATH, "cafe", "Caf\u00e9  Cre\u0300me", new Object());
+
+        assertEquals("cafe", only(index.search("CAFE creme", 10)).getItemId());
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    public void ranking_prefersPagesAndShortTexts() {
+        SearchIndex index = new SearchIndex();
+        index.put(PATH, "long", "Sound settings of the app", new Object());
+        index.put(PATH, "short", "Sound", new Object());
+        index.put(PATH, null, "Sound", new Object());
+        index.put(PATH, "inside", "Resounding", new Object());
+
+        List<SearchIndex.Result> results = index.search("sound", 10);
+
+        assertEquals(4, results.size());
+        // The Page itself, then the whole word in the shorter text, the longer one and the match inside a word
+        assertNull(results.get(0).getItemId());
+        assertEquals("short", results.get(1).getItemId());
+        assertEquals("long", results.get(2).getItemId());
+        assertEquals("inside", results.get(3).getItemId());
+        assertEquals("Display", results.get(0).getPage());
+    }
+
+    @Test
+    public void limit_keepsBestResults() {
+        SearchIndex index = new SearchIndex();
+        for(int i = 0; i < 20; i++) {
+            index.put(PATH, "other" + i, "Volume " + i + " reduced", new Object());
+        }
+        index.put(PATH, "best", "Volume", new Object());
+
+        List<SearchIndex.Result> results = index.search("volume", 3);
+
+        assertEquals(3, results.size());
+        assertEquals("best", results.get(0).getItemId());
+        assertTrue(index.search("volume", 0).isEmpty());
+    }
+
+    @Test
+    public void put_replacesEntryOfOwner() {
+        SearchIndex index = new SearchIndex();
+        Object owner = new Object();
+        index.put(PATH, "entry", "Old text", owner);
+        index.put(PATH, "entry", "New text", owner);
+
+        assertEquals(1, index.size());
+        assertTrue(index.search("old", 10).isEmpty());
+        assertEquals("entry", only(index.search("new", 10)).getItemId());
+    }
+
+    @Test
+    public void remove_removesFromAllPostings() {
+        SearchIndex index = new SearchIndex();
+        Object owner = new Object();
+        index.put(PATH, "entry", "Notifications", owner);
+        index.put(PATH, "kept", "Notes", new Object());
+
+        index.remove(owner);
+
+        assertEquals(1, index.size());
+        assertEquals("kept", only(index.search("no", 10)).getItemId());
+        assertTrue(index.search("notif", 10).isEmpty());
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.search("no", 10).isEmpty());
+    }
+
+    @Test
+    public void removedIds_areReused() {
+        SearchIndex index = new SearchIndex();
+        Object first = new Object();
+        index.put(PATH, "first", "Alpha", first);
+        index.put(PATH, "second", "Beta", new Object());
+        index.remove(first);
+
+        index.put(PATH, "third", "Gamma", new Object());
+
+        assertEquals(2, index.size());
+        assertEquals("third", only(index.search("gamma", 10)).getItemId());
+        assertTrue(index.search("alpha", 10).isEmpty());
+    }
+
+    @Test
+    public void streamedSearch_reportsBatchesThenComplete() {
+        SearchIndex index = new SearchIndex();
+        for(int i = 0; i < 10; i++) {
+            index.put(PATH, "item" + i, "Language " + i, new Object());
+        }
+        final List<Integer> partial = new ArrayList<>();
+        final List<List<SearchIndex.Result>> complete = new ArrayList<>();
+
+        index.search("language", 5, 3, new SearchIndex.ResultCallback() {
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+
+            @Override
+            public void onResults(List<SearchIndex.Result> results, boolean done) {
+                if(done) {
+                    complete.add(results);
+                }else {
+                    partial.add(results.size());
+                }
+            }
+        });
+
+        // Batches of 3, 3, 3 and 1, the last one is only reported as complete
+        assertEquals(3, partial.size());
+        assertEquals(Integer.valueOf(3), partial.get(0));
+        assertEquals(Integer.valueOf(5), partial.get(2));
+        assertEquals(1, complete.size());
+        assertEquals(5, complete.get(0).size());
+    }
+
+    @Test
+    public void cancelledSearch_stopsWithoutResults() {
+        SearchIndex index = new SearchIndex();
+        for(int i = 0; i < 10; i++) {
+            index.put(PATH, "item" + i, "Language " + i, new Object());
+        }
+        final int[] checks = {0};
+        final List<Boolean> calls = new ArrayList<>();
+
+        index.search("language", 10, 2, new SearchIndex.ResultCallback() {
+            @Override
+            public boolean isCancelled() {
+                return ++checks[0] > 2;
+            }
+
+            @Override
+            public void onResults(List<SearchIndex.Result> results, boolean done) {
+                calls.add(done);
+            }
+        });
+
+        assertEquals(3, checks[0]);
+        assertFalse(calls.contains(true));
+    }
+
+    @Test
+    public void streamedSearch_skipsEntriesChangedInBetween() {
+        final SearchIndex index = new SearchIndex();
+        final Object first = new Object();
+        final Object second = new Object();
+        index.put(PATH, "first", "Apple one", first);
+        index.put(PATH, "second", "Apple two", second);
+        index.put(PATH, "other", "Banana", new Object());
+        final int[] checks = {0};
+        final List<List<SearchIndex.Result>> complete = new ArrayList<>();
+
+        index.search("apple", 10, 1, new SearchIndex.ResultCallback() {
+            @Override
+            public boolean isCancelled() {
+                if(++checks[0] == 2) {
+                    // After the first batch the first entry is updated and takes over the id of the second one
+                    index.remove(first);
+                    index.remove(second);
+                    index.put(PATH, "first", "Apple one changed", first);
+                }
+                return false;
+            }
+
+            @Override
+            public void onResults(List<SearchIndex.Result> results, boolean done) {
+                if(done) complete.add(results);
+            }
+        });
+
+        List<String> ids = ids(complete.get(0));
+        assertEquals(new HashSet<>(ids).size(), ids.size());
+        assertEquals(1, ids.size());
+        assertEquals("first", ids.get(0));
+        assertEquals("Apple one", complete.get(0).get(0).getText());
+        // Searched again, the new entry is found
+        assertEquals("Apple one changed", only(index.search("apple", 10)).getText());
+    }
+}
@@ -0,0 +1,220 @@
+package com.rawedit.immersivesettingsview;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Color;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import com.rawedit.immersivesettingsview.pages.SettingsPage;
+import com.rawedit.immersivesettingsview.schema.ItemNode;
+import com.rawedit.immersivesettingsview.schema.PageNode;
+import com.rawedit.immersivesettingsview.schema.SchemaInflater;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.annotation.LooperMode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Performance regression suite for large settings trees, run with ./gradlew performanceTest.
+ * Every operation is measured with PerformanceProbe and compared with the budgets
+ * in performance-budgets.properties, a budget which is exceeded fails the build.
+ * The budgets are recorded on a reference machine with ./gradlew performanceTest -PrecordPerformance.
+ */
+@RunWith(PerformanceTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class SettingsViewPerformanceTest {
+
+    private static final int PAGES = 10;
+    private static final int ITEMS_PER_PAGE = 500;
+    private static final long SEED = 42;
+    private static final String BUDGETS = "performance-budgets.properties";
+    private static final String RECORD_PROPERTY = "performance.record";
+    // Time and allocations vary between runs, the recorded budgets are the measured values with this headroom
+    private static final double RECORD_HEADROOM = 1.5;
+    // Layout requests and preference writes are deterministic and recorded as measured
+    private static final String[] EXACT_METRICS = {"layoutRequests", "preferenceWrites"};
+
+    private Context context;
+    private FrameLayout root;
+    private PerformanceProbe probe;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        activity.setTheme(R.style.Theme_ImmersiveSettingsView);
+        CountingPreferences.CountingContext counting = new CountingPreferences.CountingContext(activity);
+        context = counting;
+        probe = new PerformanceProbe(counting.preferences);
+        root = new FrameLayout(context);
+        activity.setContentView(root);
+    }
+
+    @After
+    public void tearDown() {
+        probe.release();
+    }
+
+    @Test
+    public void largeTree() throws IOException {
+        // Loads and compiles the classes, so the measurements only cover the operations
+        run(1, 50, new ArrayList<PerformanceProbe.Measurement>());
+        List<PerformanceProbe.Measurement> measurements = new ArrayList<>();
+        run(PAGES, ITEMS_PER_PAGE, measurements);
+        for(PerformanceProbe.Measurement measurement : measurements) {
+            System.out.println(measurement);
+        }
+        if(System.getProperty(RECORD_PROPERTY) != null) {
+            record(measurements);
+            return;
+        }
+        checkBudgets(measurements);
+    }
+
+    private void run(int pageCount, int itemCount, List<PerformanceProbe.Measurement> measurements) {
+        root.removeAllViews();
+        final SettingsView view = new SettingsView(context);
+        root.addView(view, ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT);
+        SchemaInflater inflater = new SchemaInflater(view);
+        final List<SettingsPage> pages = new ArrayList<>();
+        Random random = new Random(SEED);
+        for(int p = 0; p < pageCount; p++) {
+            pages.add(inflater.createPage(createPageNode(random, p, itemCount)));
+        }
+        final SettingsPage page = pages.get(pageCount / 2);
+
+        measurements.add(probe.measure("add", new Runnable() {
+            @Override
+            public void run() {
+                for(SettingsPage settingsPage : pages) {
+                    view.add(settingsPage);
+                }
+            }
+        }));
+        measurements.add(probe.measure("initMainPage", new Runnable() {
+            @Override
+            public void run() {
+                view.initMainPage();
+            }
+        }));
+        measurements.add(probe.measure("setPage", new Runnable() {
+            @Override
+            public void run() {
+                view.setPage(page, true);
+            }
+        }));
+        assertTrue("The Page was not built", page.isBuilt());
+        measurements.add(probe.measure("setRippleColor", new Runnable() {
+            @Override
+            public void run() {
+                view.setRippleColor(Color.rgb(0x21, 0x96, 0xF3));
+            }
+        }));
+        measurements.add(probe.measure("resetStates", new Runnable() {
+            @Override
+            public void run() {
+                page.resetStates();
+            }
+        }));
+        measurements.add(probe.measure("back", new Runnable() {
+            @Override
+            public void run() {
+                view.back();
+            }
+        }));
+    }
+
+    // A Page with a mix of all Item types like a real settings screen
+    private static PageNode createPageNode(Random random, int index, int itemCount) {
+        ArrayList<ItemNode> items = new ArrayList<>(itemCount);
+        for(int i = 0; i < itemCount; i++) {
+            String key = "page" + index + "_item" + i;
+            ItemNode.Builder builder;
+            int kind = random.nextInt(100);
+            if(kind < 20) {
+                builder = new ItemNode.Builder(ItemNode.TYPE_TEXT).set(ItemNode.ATTR_TEXT, "Information " + i);
+            }else if(kind < 40) {
+                builder = new ItemNode.Builder(ItemNode.TYPE_SWITCH).set(ItemNode.ATTR_KEY, key)
+                        .set(ItemNode.ATTR_TEXT, "Enable feature " + i).set(ItemNode.ATTR_DEFAULT, random.nextBoolean());
+            }else if(kind < 55) {
+                builder = new ItemNode.Builder(ItemNode.TYPE_CHECKBOX).set(ItemNode.ATTR_KEY, key)
+                        .set(ItemNode.ATTR_TEXT, "Show option " + i).set(ItemNode.ATTR_DEFAULT, random.nextBoolean());
+            }else if(kind < 70) {
+                builder = new ItemNode.Builder(ItemNode.TYPE_SLIDER).set(ItemNode.ATTR_KEY, key).set(ItemNode.ATTR_MESSAGE, "Level " + i)
+                        .set(ItemNode.ATTR_MIN, 0f).set(ItemNode.ATTR_MAX, 100f).set(ItemNode.ATTR_STEP, 5f).set(ItemNode.ATTR_DEFAULT, 50f);
+            }else if(kind < 85) {
+                builder = new ItemNode.Builder(ItemNode.TYPE_CHOICE).set(ItemNode.ATTR_KEY, key).set(ItemNode.ATTR_MESSAGE, "Mode " + i)
+                        .set(ItemNode.ATTR_DEFAULT, "normal").addOption("low", "Low").addOption("normal", "Normal").addOption("high", "High");
+            }else {
+                builder = new ItemNode.Builder(ItemNode.TYPE_EDITTEXT).set(ItemNode.ATTR_KEY, key).set(ItemNode.ATTR_MESSAGE, "Name " + i)
+                        .set(ItemNode.ATTR_HINT, "Name").set(ItemNode.ATTR_BUTTON_TEXT, "Save");
+            }
+            items.add(builder.build());
+        }
+        return new PageNode("Page " + index, "Page " + index + " Settings", null, items);
+    }
+
+    private void checkBudgets(List<PerformanceProbe.Measurement> measurements) throws IOException {
+        Properties budgets = new Properties();
+        try(InputStream in = getClass().getClassLoader().getResourceAsStream(BUDGETS)) {
+            assertNotNull("Missing " + BUDGETS, in);
+            budgets.load(in);
+        }
+        StringBuilder failures = new StringBuilder();
+        StringBuilder missing = new StringBuilder();
+        for(PerformanceProbe.Measurement measurement : measurements) {
+            for(String metric : PerformanceProbe.METRICS) {
+                if(!probe.isInstrumented() && (metric.equals("allocations") || metric.equals("bytes"))) continue;
+                String key = measurement.name + "." + metric;
+                String budget = budgets.getProperty(key);
+                if(budget == null || budget.trim().isEmpty()) {
+                    missing.append(missing.length() == 0 ? "" : ", ").append(key);
+                }else if(measurement.get(metric) > Long.parseLong(budget.trim())) {
+                    failures.append("\n").append(key).append(" is ").append(measurement.get(metric)).append(", the budget is ").append(budget);
+                }
+            }
+        }
+        if(!probe.isInstrumented()) System.out.println("Allocations were not measured, the allocation agent is missing");
+        assertTrue("Performance budgets exceeded:" + failures, failures.length() == 0);
+        // Not recorded yet, the recorded budgets are still checked above
+        assumeTrue("No budget for " + missing + ", record them with ./gradlew performanceTest -PrecordPerformance", missing.length() == 0);
+    }
+
+    private void record(List<PerformanceProbe.Measurement> measurements) throws IOException {
+        if(!probe.isInstrumented()) throw new IllegalStateException("Budgets can only be recorded with the allocation agent, run ./gradlew performanceTest");
+        Properties budgets = new Properties();
+        for(PerformanceProbe.Measurement measurement : measurements) {
+            for(String metric : PerformanceProbe.METRICS) {
+                long value = measurement.get(metric);
+                if(!Arrays.asList(EXACT_METRICS).contains(metric)) value = (long) Math.ceil(value * RECORD_HEADROOM);
+                budgets.setProperty(measurement.name + "." + metric, String.valueOf(value));
+            }
+        }
+        File file = new File(System.getProperty(RECORD_PROPERTY));
+        File directory = file.getParentFile();
+        if(directory != null && !directory.isDirectory() && !directory.mkdirs()) throw new IOException("Could not create " + directory);
+        try(OutputStream out = new FileOutputStream(file)) {
+            budgets.store(out, "Recorded by SettingsViewPerformanceTest (" + PAGES + " Pages with " + ITEMS_PER_PAGE + " Items),"
+                    + " time and allocations with " + RECORD_HEADROOM + "x headroom");
+        }
+        System.out.println("Recorded budgets to " + file);
+    }
+}
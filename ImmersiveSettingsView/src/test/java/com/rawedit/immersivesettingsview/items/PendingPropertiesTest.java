@@ -0,0 +1,169 @@
+package com.rawedit.immersivesettingsview.items;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class PendingPropertiesTest {
+
+    @Test
+    public void take_returnsWrittenProperties() {
+        PendingProperties pending = new PendingProperties(4);
+        pending.putInt(0, 7);
+        pending.putObject(2, "text");
+
+        assertEquals(PendingProperties.bit(0) | PendingProperties.bit(2), pending.take(~0L));
+        assertEquals(7, pending.getInt(0));
+        assertEquals("text", pending.getObject(2));
+        assertEquals(0, pending.take(~0L));
+    }
+
+    @Test
+    public void secondWriteBeforeTake_overridesFirst() {
+        PendingProperties pending = new PendingProperties(1);
+        pending.putInt(0, 1);
+        pending.putInt(0, 2);
+
+        assertEquals(PendingProperties.bit(0), pending.take(~0L));
+        assertEquals(2, pending.getInt(0));
+    }
+
+    @Test
+    public void writeOfAppliedValue_isDropped() {
+        PendingProperties pending = new PendingProperties(2);
+        pending.putInt(0, 5);
+        pending.putObject(1, "a");
+        pending.take(~0L);
+
+        pending.putInt(0, 5);
+        pending.putObject(1, "a");
+        assertFalse(pending.hasPending(~0L));
+
+        pending.putInt(0, 6);
+        assertTrue(pending.isPending(0));
+        assertFalse(pending.isPending(1));
+    }
+
+    @Test
+    public void alwaysAppliedProperty_isNotDropped() {
+        PendingProperties pending = new PendingProperties(1, PendingProperties.bit(0));
+        pending.putFloat(0, 0.5f);
+        pending.take(~0L);
+
+        pending.putFloat(0, 0.5f);
+        assertTrue(pending.isPending(0));
+    }
+
+    @Test
+    public void take_onlyRemovesMaskedProperties() {
+        PendingProperties pending = new PendingProperties(3);
+        pending.putBoolean(0, true);
+        pending.putBoolean(1, true);
+
+        assertEquals(PendingProperties.bit(1), pending.take(PendingProperties.bit(1) | PendingProperties.bit(2)));
+        assertTrue(pending.isPending(0));
+        assertTrue(pending.isWritten(1));
+        assertFalse(pending.isWritten(2));
+    }
+
+    @Test
+    public void copyFrom_copiesWrittenValues() {
+        PendingProperties from = new PendingProperties(3);
+        from.put(0, 3, "x");
+        from.putInt(2, 9);
+        from.take(PendingProperties.bit(2));
+        PendingProperties to = new PendingProperties(3);
+
+        to.copyFrom(from, ~0L);
+
+        assertEquals(PendingProperties.bit(0) | PendingProperties.bit(2), to.take(~0L));
+        assertEquals(3, to.getInt(0));
+        assertEquals("x", to.getObject(0));
+        assertEquals(9, to.getInt(2));
+        assertEquals(from.contentHash(~0L), to.contentHash(~0L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyProperties_areRejected() {
+        new PendingProperties(PendingProperties.MAX_PROPERTIES + 1);
+    }
+
+    /**
+     * Every writer counts its own property up while one thread takes and reads them,
+     * the last taken value of every property has to be the last written one.
+     */
+    @Test
+    public void concurrentPutAndTake_lastWriteIsSeen() throws InterruptedException {
+        final int writers = 4;
+        final int writes = 200000;
+        final PendingProperties pending = new PendingProperties(writers * 2);
+        final int[] seenInt = new int[writers];
+        final Object[] seenObject = new Object[writers];
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean done = new AtomicBoolean(false);
+        final AtomicBoolean backwards = new AtomicBoolean(false);
+
+        Thread taker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    start.await();
+                }catch (InterruptedException e) {
+                    return;
+                }
+                boolean last;
+                do {
+                    last = done.get();
+                    long taken = pending.take(~0L);
+                    while(taken != 0) {
+                        int property = Long.numberOfTrailingZeros(taken);
+                        taken &= taken - 1;
+                        if(property < writers) {
+                            int value = pending.getInt(property);
+                            if(value < seenInt[property]) backwards.set(true);
+                            seenInt[property] = value;
+                        }else {
+                            seenObject[property - writers] = pending.getObject(property);
+                        }
+                    }
+                }while(!last);
+            }
+        });
+        Thread[] threads = new Thread[writers];
+        for(int i = 0; i < writers; i++) {
+            final int property = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    }catch (InterruptedException e) {
+                        return;
+                    }
+                    for(int value = 1; value <= writes; value++) {
+                        pending.putInt(property, value);
+                        pending.putObject(writers + property, value);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        taker.start();
+        start.countDown();
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        done.set(true);
+        taker.join();
+
+        assertFalse("a taken value was older than the one taken before", backwards.get());
+        for(int i = 0; i < writers; i++) {
+            assertEquals(writes, seenInt[i]);
+            assertEquals(writes, seenObject[i]);
+        }
+        assertFalse(pending.hasPending(~0L));
+    }
+}
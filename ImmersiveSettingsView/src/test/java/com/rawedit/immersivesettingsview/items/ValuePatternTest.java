@@ -0,0 +1,83 @@
+package com.rawedit.immersivesettingsview.items;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ValuePatternTest {
+
+    private static String format(String pattern, float value, int decimals) {
+        return ValuePattern.of(pattern).format(value, decimals, new StringBuilder()).toString();
+    }
+
+    @Test
+    public void plain_matchesStringValueOf() {
+        float[] values = {0f, 25f, -3f, 0.1f, 33.333332f, 1e-5f, 12345678f, -0.5f, Float.NaN, Float.POSITIVE_INFINITY};
+        for(float value : values) {
+            assertEquals(String.valueOf(value), format("%f", value, ValuePattern.PLAIN));
+            assertEquals(String.valueOf(value) + "%", format("%f%", value, ValuePattern.PLAIN));
+        }
+    }
+
+    @Test
+    public void fixedDecimals() {
+        assertEquals("25", format("%f", 25f, 0));
+        assertEquals("25.0", format("%f", 25f, 1));
+        assertEquals("25.00", format("%f", 25f, 2));
+    }
+
+    @Test
+    public void fraction_isPaddedWithZeros() {
+        assertEquals("1.05", format("%f", 1.05f, 2));
+        assertEquals("0.001", format("%f", 0.001f, 3));
+        assertEquals("7.000", format("%f", 7f, 3));
+        assertEquals("0.000100", format("%f", 0.0001f, 6));
+    }
+
+    @Test
+    public void negativeValues() {
+        assertEquals("-2.5", format("%f", -2.5f, 1));
+        assertEquals("-0.25", format("%f", -0.25f, 2));
+        assertEquals("-3", format("%f", -3f, 0));
+        // Rounded to zero, no "-0"
+        assertEquals("0.0", format("%f", -0.04f, 1));
+        assertEquals("0", format("%f", -0.4f, 0));
+    }
+
+    @Test
+    public void decimals_areRounded() {
+        assertEquals("2.35", format("%f", 2.345f, 2));
+        assertEquals("1.00", format("%f", 0.999f, 2));
+        assertEquals("10", format("%f", 9.5f, 0));
+        assertEquals("-1.0", format("%f", -0.96f, 1));
+    }
+
+    @Test
+    public void decimals_areClamped() {
+        assertEquals("0.500000000", format("%f", 0.5f, 20));
+        assertEquals("2", format("%f", 2.25f, -5));
+    }
+
+    @Test
+    public void literals_areKept() {
+        assertEquals("Volume: 50% (max 50)", format("Volume: %f% (max %f)", 50f, 0));
+        assertEquals("no value", format("no value", 3f, 0));
+        assertEquals(0, ValuePattern.of("no value").getPlaceholderCount());
+        assertEquals(2, ValuePattern.of("%f-%f").getPlaceholderCount());
+    }
+
+    @Test
+    public void builder_isReused() {
+        StringBuilder builder = new StringBuilder("old content");
+        ValuePattern.of("%f s").format(1.5f, 1, builder);
+        assertEquals("1.5 s", builder.toString());
+    }
+
+    @Test
+    public void defaultPattern_isShared() {
+        assertSame(ValuePattern.DEFAULT, ValuePattern.of(null));
+        assertSame(ValuePattern.DEFAULT, ValuePattern.of("%f"));
+        assertEquals(ValuePattern.of("%f%"), ValuePattern.of("%f%"));
+        assertEquals(ValuePattern.of("%f%").hashCode(), ValuePattern.of("%f%").hashCode());
+    }
+}
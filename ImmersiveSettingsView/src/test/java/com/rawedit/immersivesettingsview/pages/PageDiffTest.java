@@ -0,0 +1,104 @@
+package com.rawedit.immersivesettingsview.pages;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PageDiffTest {
+
+    private static PageDiff diff(String[] oldIds, String[] newIds) {
+        return PageDiff.compute(oldIds, new int[oldIds.length], newIds, new int[newIds.length]);
+    }
+
+    private static int count(boolean[] values) {
+        int count = 0;
+        for(boolean value : values) {
+            if(value) count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void sameList_keepsEverything() {
+        PageDiff diff = diff(new String[]{"a", "b", "c"}, new String[]{"a", "b", "c"});
+
+        assertArrayEquals(new int[]{0, 1, 2}, diff.oldPositions);
+        assertEquals(0, count(diff.moved));
+        assertEquals(0, count(diff.changed));
+        assertEquals(0, count(diff.removed));
+    }
+
+    @Test
+    public void insert_keepsOldPositions() {
+        PageDiff diff = diff(new String[]{"a", "c"}, new String[]{"x", "a", "b", "c"});
+
+        assertArrayEquals(new int[]{-1, 0, -1, 1}, diff.oldPositions);
+        assertEquals(0, count(diff.moved));
+        assertEquals(0, count(diff.removed));
+    }
+
+    @Test
+    public void remove_marksOldPosition() {
+        PageDiff diff = diff(new String[]{"a", "b", "c", "d"}, new String[]{"a", "c"});
+
+        assertArrayEquals(new int[]{0, 2}, diff.oldPositions);
+        assertArrayEquals(new boolean[]{false, true, false, true}, diff.removed);
+        assertEquals(0, count(diff.moved));
+    }
+
+    @Test
+    public void move_touchesMinimalItems() {
+        // Moving "e" to the front only moves "e"
+        PageDiff diff = diff(new String[]{"a", "b", "c", "d", "e"}, new String[]{"e", "a", "b", "c", "d"});
+
+        assertArrayEquals(new int[]{4, 0, 1, 2, 3}, diff.oldPositions);
+        assertArrayEquals(new boolean[]{true, false, false, false, false}, diff.moved);
+    }
+
+    @Test
+    public void reverse_keepsOneItem() {
+        PageDiff diff = diff(new String[]{"a", "b", "c", "d"}, new String[]{"d", "c", "b", "a"});
+
+        assertEquals(3, count(diff.moved));
+        assertEquals(0, count(diff.removed));
+    }
+
+    @Test
+    public void changedHash_isMarked() {
+        PageDiff diff = PageDiff.compute(new String[]{"a", "b"}, new int[]{1, 2}, new String[]{"b", "a"}, new int[]{2, 5});
+
+        assertArrayEquals(new boolean[]{false, true}, diff.changed);
+    }
+
+    @Test
+    public void duplicateNewId_isInsertedAgain() {
+        PageDiff diff = diff(new String[]{"a", "b"}, new String[]{"a", "a", "b"});
+
+        assertArrayEquals(new int[]{0, -1, 1}, diff.oldPositions);
+        assertEquals(0, count(diff.moved));
+        assertEquals(0, count(diff.removed));
+    }
+
+    @Test
+    public void duplicateOldId_matchesFirstOccurrence() {
+        PageDiff diff = diff(new String[]{"a", "b", "a"}, new String[]{"b", "a"});
+
+        assertArrayEquals(new int[]{1, 0}, diff.oldPositions);
+        assertArrayEquals(new boolean[]{false, false, true}, diff.removed);
+        assertEquals(1, count(diff.moved));
+    }
+
+    @Test
+    public void emptyLists() {
+        PageDiff empty = diff(new String[0], new String[0]);
+        assertEquals(0, empty.oldPositions.length);
+        assertEquals(0, empty.removed.length);
+
+        PageDiff cleared = diff(new String[]{"a", "b"}, new String[0]);
+        assertArrayEquals(new boolean[]{true, true}, cleared.removed);
+
+        PageDiff filled = diff(new String[0], new String[]{"a", "b"});
+        assertArrayEquals(new int[]{-1, -1}, filled.oldPositions);
+        assertEquals(0, count(filled.moved));
+    }
+}
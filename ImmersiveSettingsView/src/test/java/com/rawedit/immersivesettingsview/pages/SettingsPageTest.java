@@ -0,0 +1,111 @@
+package com.rawedit.immersivesettingsview.pages;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Looper;
+
+import com.rawedit.immersivesettingsview.R;
+import com.rawedit.immersivesettingsview.items.SettingsItem;
+import com.rawedit.immersivesettingsview.items.TextSettingsItem;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class SettingsPageTest {
+
+    private static final long SUBMIT_TIMEOUT_MILLIS = 5000;
+
+    private Context context;
+    private SettingsPage page;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        activity.setTheme(R.style.Theme_ImmersiveSettingsView);
+        context = activity;
+        page = new SettingsPage(context);
+        page.setTitle("Sound");
+    }
+
+    private TextSettingsItem item(String stableId) {
+        TextSettingsItem item = new TextSettingsItem(context);
+        item.setStableId(stableId);
+        item.setText(stableId);
+        return item;
+    }
+
+    // The diff is computed in the background and applied through the main Looper
+    private void submitAndWait(List<SettingsItem> items) throws InterruptedException {
+        final boolean[] applied = {false};
+        page.submit(items, new Runnable() {
+            @Override
+            public void run() {
+                applied[0] = true;
+            }
+        });
+        long deadline = System.currentTimeMillis() + SUBMIT_TIMEOUT_MILLIS;
+        while(!applied[0]) {
+            if(System.currentTimeMillis() > deadline) fail("submit was not applied");
+            Thread.sleep(1);
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+    }
+
+    @Test
+    public void add_afterSubmitWithRemovals_appends() throws InterruptedException {
+        TextSettingsItem a = item("a");
+        TextSettingsItem b = item("b");
+        TextSettingsItem c = item("c");
+        page.add(a);
+        page.add(b);
+        page.add(c);
+
+        submitAndWait(Arrays.<SettingsItem>asList(a, c));
+        TextSettingsItem d = item("d");
+        TextSettingsItem e = item("e");
+        page.add(d);
+        page.add(e);
+
+        assertEquals(Arrays.<SettingsItem>asList(a, c, d, e), page.getItems());
+    }
+
+    @Test
+    public void add_afterSubmitWithInsertions_appends() throws InterruptedException {
+        TextSettingsItem a = item("a");
+        page.add(a);
+        TextSettingsItem inserted = item("1");
+
+        // The inserted Item is named after its Stable ID, which is also the next generated name
+        submitAndWait(Arrays.<SettingsItem>asList(inserted, a));
+        TextSettingsItem b = item("b");
+        TextSettingsItem c = item("c");
+        page.add(b);
+        page.add(c);
+
+        assertEquals(Arrays.<SettingsItem>asList(inserted, a, b, c), page.getItems());
+    }
+
+    @Test
+    public void add_withUsedName_throws() {
+        page.add(item("a"), "volume");
+        try {
+            page.add(item("b"), "volume");
+            fail("The name was used twice");
+        }catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("volume"));
+        }
+        assertEquals(1, page.getItems().size());
+    }
+}
@@ -0,0 +1,166 @@
+package com.rawedit.immersivesettingsview.schema;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SchemaCodecTest {
+
+    private static final long VERSION = 1234567890123L;
+
+    private static SettingsSchema schema() {
+        ItemNode darkMode = new ItemNode.Builder(ItemNode.TYPE_SWITCH)
+                .set(ItemNode.ATTR_KEY, "dark_mode")
+                .set(ItemNode.ATTR_TEXT, "Dark mode")
+                .set(ItemNode.ATTR_DEFAULT, true)
+                .build();
+        ItemNode contrast = new ItemNode.Builder(ItemNode.TYPE_SLIDER)
+                .set(ItemNode.ATTR_KEY, "contrast")
+                .set(ItemNode.ATTR_MIN, 0f)
+                .set(ItemNode.ATTR_MAX, 1f)
+                .set(ItemNode.ATTR_STEP, 0.1f)
+                .set(ItemNode.ATTR_VALUE_PATTERN, "%f %")
+                .set(ItemNode.ATTR_DEPENDS_ON, "dark_mode")
+                .build();
+        ItemNode language = new ItemNode.Builder(ItemNode.TYPE_CHOICE)
+                .set(ItemNode.ATTR_KEY, "language")
+                .set(ItemNode.ATTR_TEXT, "Sprache \u2013 Gr\u00f6\u00dfe")
+                .set(ItemNode.ATTR_HINT, null)
+                .addOption("de", "Deutsch")
+                .addOption("en", "English")
+                .addOption("none", null)
+                .build();
+        ItemNode about = new ItemNode.Builder(ItemNode.TYPE_TEXT)
+                .set(ItemNode.ATTR_TEXT, "Dark mode")
+                .build();
+        return new SettingsSchema(Arrays.asList(
+                new PageNode("Display", "Display settings", "ic_display", Arrays.asList(darkMode, contrast)),
+                new PageNode("Language", null, null, Collections.singletonList(language)),
+                new PageNode("Empty", null, null, Collections.<ItemNode>emptyList())),
+                Collections.singletonList(about));
+    }
+
+    private static void assertItemsEqual(List<ItemNode> expected, List<ItemNode> actual) {
+        assertEquals(expected.size(), actual.size());
+        for(int i = 0; i < expected.size(); i++) {
+            ItemNode expectedItem = expected.get(i);
+            ItemNode actualItem = actual.get(i);
+            assertEquals(expectedItem.getType(), actualItem.getType());
+            // Compared as lists, so the order of the attributes is checked too
+            assertEquals(Arrays.asList(expectedItem.getAttributes().entrySet().toArray()), Arrays.asList(actualItem.getAttributes().entrySet().toArray()));
+            assertEquals(expectedItem.getOptions().size(), actualItem.getOptions().size());
+            for(int o = 0; o < expectedItem.getOptions().size(); o++) {
+                assertEquals(expectedItem.getOptions().get(o).getKey(), actualItem.getOptions().get(o).getKey());
+                assertEquals(expectedItem.getOptions().get(o).getLabel(), actualItem.getOptions().get(o).getLabel());
+            }
+        }
+    }
+
+    private static void assertSchemaEquals(SettingsSchema expected, SettingsSchema actual) {
+        assertEquals(expected.getPages().size(), actual.getPages().size());
+        for(int i = 0; i < expected.getPages().size(); i++) {
+            PageNode expectedPage = expected.getPages().get(i);
+            PageNode actualPage = actual.getPages().get(i);
+            assertEquals(expectedPage.getTitle(), actualPage.getTitle());
+            assertEquals(expectedPage.getItemName(), actualPage.getItemName());
+            assertEquals(expectedPage.getIcon(), actualPage.getIcon());
+            assertItemsEqual(expectedPage.getItems(), actualPage.getItems());
+        }
+        assertItemsEqual(expected.getItems(), actual.getItems());
+    }
+
+    @Test
+    public void roundTrip_keepsSchema() throws IOException {
+        SettingsSchema schema = schema();
+        byte[] data = SchemaCodec.encode(schema, VERSION);
+
+        SettingsSchema decoded = SchemaCodec.decode(ByteBuffer.wrap(data), VERSION);
+
+        assertNotNull(decoded);
+        assertSchemaEquals(schema, decoded);
+        assertArrayEquals(data, SchemaCodec.encode(decoded, VERSION));
+    }
+
+    @Test
+    public void roundTrip_emptySchema() throws IOException {
+        SettingsSchema schema = new SettingsSchema(Collections.<PageNode>emptyList(), Collections.<ItemNode>emptyList());
+
+        SettingsSchema decoded = SchemaCodec.decode(ByteBuffer.wrap(SchemaCodec.encode(schema, VERSION)), VERSION);
+
+        assertNotNull(decoded);
+        assertTrue(decoded.getPages().isEmpty());
+        assertTrue(decoded.getItems().isEmpty());
+    }
+
+    @Test
+    public void decode_readsFromBufferPosition() throws IOException {
+        byte[] data = SchemaCodec.encode(schema(), VERSION);
+        ByteBuffer buffer = ByteBuffer.allocate(data.length + 8);
+        buffer.putLong(42L).put(data).flip();
+        buffer.position(8);
+
+        SettingsSchema decoded = SchemaCodec.decode(buffer, VERSION);
+
+        assertNotNull(decoded);
+        assertSchemaEquals(schema(), decoded);
+    }
+
+    @Test
+    public void staleSourceVersion_isRejected() throws IOException {
+        byte[] data = SchemaCodec.encode(schema(), VERSION);
+
+        assertNull(SchemaCodec.decode(ByteBuffer.wrap(data), VERSION + 1));
+        assertNull(SchemaCodec.decode(ByteBuffer.wrap(data), VERSION - 1));
+        assertNotNull(SchemaCodec.decode(ByteBuffer.wrap(data), VERSION));
+    }
+
+    @Test
+    public void otherFormatVersion_isRejected() throws IOException {
+        byte[] data = SchemaCodec.encode(schema(), VERSION);
+        // The format version follows the magic
+        ByteBuffer.wrap(data).putInt(4, ByteBuffer.wrap(data).getInt(4) + 1);
+
+        assertNull(SchemaCodec.decode(ByteBuffer.wrap(data), VERSION));
+    }
+
+    @Test
+    public void otherData_isRejected() throws IOException {
+        byte[] data = SchemaCodec.encode(schema(), VERSION);
+        data[0] ^= 0xFF;
+
+        assertNull(SchemaCodec.decode(ByteBuffer.wrap(data), VERSION));
+        assertNull(SchemaCodec.decode(ByteBuffer.wrap(new byte[0]), VERSION));
+        assertNull(SchemaCodec.decode(ByteBuffer.wrap(new byte[15]), VERSION));
+    }
+
+    @Test
+    public void truncatedData_throws() {
+        byte[] data = SchemaCodec.encode(schema(), VERSION);
+        // Every cut behind the header is corrupt, none of them may decode or fail with anything but an IOException
+        for(int length = 16; length < data.length; length++) {
+            try {
+                SchemaCodec.decode(ByteBuffer.wrap(data, 0, length), VERSION);
+                fail("Decoded " + length + " of " + data.length + " bytes");
+            }catch (IOException expected) {
+                // Expected
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptStringIndex_throws() throws IOException {
+        SettingsSchema schema = new SettingsSchema(Collections.<PageNode>emptyList(),
+                Collections.singletonList(new ItemNode.Builder(ItemNode.TYPE_TEXT).build()));
+        byte[] data = SchemaCodec.encode(schema, VERSION);
+        // The last ints are the type index of the only Item, its attribute count and its option count
+        ByteBuffer.wrap(data).putInt(data.length - 12, 1000);
+
+        SchemaCodec.decode(ByteBuffer.wrap(data), VERSION);
+    }
+}
@@ -0,0 +1,78 @@
+package com.rawedit.immersivesettingsview.schema;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class SchemaParserTest {
+
+    private static SettingsSchema parse(String json) throws IOException {
+        return SchemaParser.parseJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String parseError(String json) {
+        try {
+            parse(json);
+        }catch (IOException e) {
+            return e.getMessage();
+        }
+        fail("Parsed " + json);
+        return null;
+    }
+
+    @Test
+    public void numbers_areKept() throws IOException {
+        SettingsSchema schema = parse("{\"pages\": [{\"title\": \"Display\", \"items\": ["
+                + "{\"type\": \"slider\", \"key\": \"size\", \"min\": 1, \"max\": \"10.5\", \"step\": 0.5, \"default\": 2, \"decimals\": 1}]}]}");
+
+        ItemNode slider = schema.findItem("size");
+        assertEquals(10.5f, slider.getFloat(ItemNode.ATTR_MAX, 0f), 0f);
+        assertEquals(1, slider.getInt(ItemNode.ATTR_DECIMALS, 0));
+    }
+
+    @Test
+    public void malformedNumber_isReportedWithPosition() {
+        String message = parseError("{\"pages\": [{\"title\": \"A\", \"items\": []}, {\"title\": \"B\", \"items\": ["
+                + "{\"type\": \"text\", \"text\": \"Info\"}, {\"type\": \"slider\", \"key\": \"size\", \"max\": \"ten\"}]}]}");
+
+        assertTrue(message, message.contains("max"));
+        assertTrue(message, message.contains("ten"));
+        assertTrue(message, message.contains("pages[1].items[1]"));
+    }
+
+    @Test
+    public void sliderDefault_mustBeNumber() {
+        String message = parseError("{\"items\": [{\"type\": \"slider\", \"key\": \"size\", \"default\": \"NaN\"}]}");
+
+        assertTrue(message, message.contains("default"));
+        assertTrue(message, message.contains("items[0]"));
+    }
+
+    @Test
+    public void decimals_mustBeInteger() {
+        String message = parseError("{\"items\": [{\"type\": \"slider\", \"key\": \"size\", \"decimals\": 1.5}]}");
+
+        assertTrue(message, message.contains("decimals"));
+    }
+
+    @Test
+    public void otherDefaults_areNoNumbers() throws IOException {
+        SettingsSchema schema = parse("{\"items\": [{\"type\": \"edittext\", \"key\": \"name\", \"default\": \"me\"}]}");
+
+        assertEquals("me", schema.findItem("name").getString(ItemNode.ATTR_DEFAULT));
+    }
+
+    @Test
+    public void findItem_returnsFirstItemWithKey() throws IOException {
+        SettingsSchema schema = parse("{\"pages\": [{\"title\": \"A\", \"items\": [{\"type\": \"switch\", \"key\": \"k\", \"text\": \"first\"}]}],"
+                + " \"items\": [{\"type\": \"switch\", \"key\": \"k\", \"text\": \"second\"}, {\"type\": \"checkbox\", \"key\": \"c\", \"dependsOn\": \"k\"}]}");
+
+        assertEquals("first", schema.findItem("k").getString(ItemNode.ATTR_TEXT));
+        assertEquals("c", schema.findItem("c").getString(ItemNode.ATTR_KEY));
+        assertNull(schema.findItem("missing"));
+    }
+}
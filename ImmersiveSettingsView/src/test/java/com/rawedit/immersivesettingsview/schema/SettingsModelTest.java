@@ -0,0 +1,41 @@
+package com.rawedit.immersivesettingsview.schema;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class SettingsModelTest {
+
+    private static ItemNode item(String key) {
+        return new ItemNode.Builder(ItemNode.TYPE_SWITCH)
+                .set(ItemNode.ATTR_KEY, key)
+                .build();
+    }
+
+    @Test
+    public void addPageNode_keepsItemNameSetBefore() {
+        SettingsModel model = new SettingsModel();
+        model.addPage("Display", "Display and brightness", null, 0);
+
+        model.addPage(new PageNode("Display", null, "ic_display", Collections.singletonList(item("dark_mode"))));
+
+        PageNode page = model.snapshot().getPages().get(0);
+        assertEquals("Display and brightness", page.getItemName());
+        assertEquals("ic_display", page.getIcon());
+        assertEquals(1, page.getItems().size());
+    }
+
+    @Test
+    public void addPageNode_setsItemNameOfNewPage() {
+        SettingsModel model = new SettingsModel();
+
+        model.addPage(new PageNode("Display", "Screen", null, Collections.singletonList(item("dark_mode"))));
+        model.addPage(new PageNode("Display", "Other", null, Collections.singletonList(item("contrast"))));
+
+        PageNode page = model.snapshot().getPages().get(0);
+        assertEquals("Screen", page.getItemName());
+        assertEquals(2, page.getItems().size());
+    }
+}
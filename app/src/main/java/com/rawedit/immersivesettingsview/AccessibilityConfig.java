@@ -0,0 +1,26 @@
+package com.rawedit.immersivesettingsview;
+
+import com.rawedit.immersivesettingsview.annotations.CheckBox;
+import com.rawedit.immersivesettingsview.annotations.EditText;
+import com.rawedit.immersivesettingsview.annotations.SettingsPage;
+import com.rawedit.immersivesettingsview.annotations.Slider;
+import com.rawedit.immersivesettingsview.annotations.Switch;
+
+/**
+ * Example of a Page declared with annotations, the processor generates AccessibilityConfigSettings from it
+ */
+@SettingsPage(title = "Accessibility", itemName = "Accessibility Settings")
+public class AccessibilityConfig {
+
+    @Switch(key = "reduce_motion", text = "Reduce animations", defaultValue = false)
+    boolean reduceMotion;
+
+    @CheckBox(key = "bold_text", text = "Use bold text")
+    boolean boldText;
+
+    @Slider(key = "text_contrast", message = "Text contrast", min = 0, max = 100, step = 10, defaultValue = 50, minPattern = "%f%", maxPattern = "%f%")
+    float textContrast;
+
+    @EditText(key = "screen_reader_name", message = "Name read by the screen reader", hint = "Name", buttonText = "Save")
+    String screenReaderName;
+}
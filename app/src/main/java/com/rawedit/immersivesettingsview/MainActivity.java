@@ -3,10 +3,13 @@ package com.rawedit.immersivesettingsview;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.ColorUtils;
+import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.ViewModelProvider;
 
 import android.app.AlertDialog;
 import android.content.res.ColorStateList;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.MenuItem;
 import android.view.View;
 
@@ -21,14 +24,31 @@ import com.rawedit.immersivesettingsview.items.SliderSettingsItem;
 import com.rawedit.immersivesettingsview.items.SwitchSettingsItem;
 import com.rawedit.immersivesettingsview.items.TextSettingsItem;
 import com.rawedit.immersivesettingsview.pages.SettingsPage;
+import com.rawedit.immersivesettingsview.schema.SchemaCache;
+import com.rawedit.immersivesettingsview.schema.SchemaInflater;
+import com.rawedit.immersivesettingsview.schema.SettingsSchema;
+import com.rawedit.immersivesettingsview.stress.StressConfig;
+import com.rawedit.immersivesettingsview.stress.StressMode;
+import com.rawedit.immersivesettingsview.stress.StressScript;
+
+import java.io.IOException;
 
 public class MainActivity extends AppCompatActivity {
 
     private SettingsView settingsView;
+    private RetainedSettings retained;
+    private StressScript stressScript;
+
+    // Survives configuration changes, so the recreated View is restored without reading the storage
+    public static class RetainedSettings extends ViewModel {
+        SettingsSchema schema;
+        SettingsState state;
+    }
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        retained = new ViewModelProvider(this).get(RetainedSettings.class);
         setContentView(R.layout.activity_main);
         // Initializing the SettingsView
         settingsView = findViewById(R.id.SettingsView);
@@ -51,6 +71,20 @@ public class MainActivity extends AppCompatActivity {
                 }
             }
         });
+        // A generated tree with a scripted workload instead of the examples, see StressConfig
+        StressConfig stressConfig = null;
+        try {
+            stressConfig = StressConfig.fromIntent(getIntent());
+        }catch (IllegalArgumentException e) {
+            Log.e(StressMode.TAG, "Invalid stress configuration, showing the examples", e);
+        }
+        if(stressConfig != null) {
+            // The script starts on the Main Page after a rotation, the View must not reopen the Page it showed before
+            settingsView.setSaveEnabled(false);
+            stressScript = StressMode.install(settingsView, stressConfig);
+            stressScript.start();
+            return;
+        }
         // Creating an Example Page
         SettingsPage importantSettings = settingsView.createSettingsPage();
         importantSettings.setItemName("Very Important Settings");
@@ -101,12 +135,15 @@ public class MainActivity extends AppCompatActivity {
             }
         });
         importantSettings.add(item5);
+        // A Page generated from AccessibilityConfig
+        settingsView.add(AccessibilityConfigSettings.createPage(settingsView));
         // Example Items for the Main Page
         CustomSettingsItem itemCustom = (CustomSettingsItem) settingsView.createSettingsItem(SettingsItem.Type.CUSTOM, R.layout.setting_text);
+        itemCustom.setViewIds(R.id.textview);
         itemCustom.setSetupViewsListener(new CustomSettingsItem.SetupViews() {
             @Override
             public void setupViews(View root) {
-                MaterialButton mb = root.findViewById(R.id.textview);
+                MaterialButton mb = itemCustom.getBoundView(0);
                 mb.setText("This is a custom View");
                 mb.setOnClickListener(new View.OnClickListener() {
                     @Override
@@ -118,17 +155,39 @@ public class MainActivity extends AppCompatActivity {
                                 .show();
                     }
                 });
-                itemCustom.saveViewReference("MaterialButton", mb);
             }
         });
         itemCustom.setChangeRippleColorListener(new CustomSettingsItem.ChangeRippleColor() {
             @Override
             public void changeRippleColor(int color) {
-                MaterialButton mb = (MaterialButton) itemCustom.getViewReference("MaterialButton");
+                MaterialButton mb = itemCustom.getBoundView(0);
                 mb.setRippleColor(ColorStateList.valueOf(color));
             }
         });
         settingsView.add(itemCustom);
+        // Pages described in an asset, their Items are only created when they are opened
+        try {
+            if(retained.schema == null) retained.schema = SchemaCache.load(this, "settings_schema.json");
+            new SchemaInflater(settingsView).inflate(retained.schema);
+        }catch (IOException e) {
+            e.printStackTrace();
+        }
+        // Navigation, scroll positions and unsaved edits from before the configuration change
+        if(retained.state != null) {
+            settingsView.restoreState(retained.state);
+            retained.state = null;
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        // A stress run starts over with the same seed, so its script and the shown Page stay in sync
+        if(stressScript != null) {
+            stressScript.stop();
+        }else if(isChangingConfigurations()) {
+            retained.state = settingsView.retainState();
+        }
+        super.onDestroy();
     }
 
     @Override
@@ -0,0 +1,130 @@
+package com.rawedit.immersivesettingsview.stress;
+
+import android.content.Intent;
+import android.text.TextUtils;
+
+import com.rawedit.immersivesettingsview.schema.ItemNode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parameters of the stress mode, read from the Intent extras, so a profiling run can be repeated exactly:
+ * <pre>
+ * adb shell am start -n com.rawedit.immersivesettingsview/.MainActivity --ez stress true \
+ *     --el seed 42 --ei depth 3 --ei fanOut 4 --ei items 200 --es mix "switch:3,slider:1,edittext:1" \
+ *     --ei minText 2 --ei maxText 30 --ei custom 20 --es script "navigate,drag,type,theme" --ei steps 50
+ * </pre>
+ * The same seed always generates the same tree and the same script.
+ */
+public final class StressConfig {
+
+    public static final String EXTRA_STRESS = "stress";
+    public static final String EXTRA_SEED = "seed";
+    public static final String EXTRA_DEPTH = "depth";
+    public static final String EXTRA_FAN_OUT = "fanOut";
+    public static final String EXTRA_ITEMS = "items";
+    public static final String EXTRA_MIX = "mix";
+    public static final String EXTRA_MIN_TEXT = "minText";
+    public static final String EXTRA_MAX_TEXT = "maxText";
+    public static final String EXTRA_CUSTOM = "custom";
+    public static final String EXTRA_SCRIPT = "script";
+    public static final String EXTRA_STEPS = "steps";
+    public static final String EXTRA_STEP_DELAY = "stepDelay";
+
+    public static final String ACTION_NAVIGATE = "navigate";
+    public static final String ACTION_DRAG = "drag";
+    public static final String ACTION_TYPE = "type";
+    public static final String ACTION_THEME = "theme";
+
+    private static final int MAX_PAGES = 2000;
+    private static final String DEFAULT_MIX = "text:2,switch:2,checkbox:2,slider:1,choice:1,edittext:1";
+    private static final String DEFAULT_SCRIPT = ACTION_NAVIGATE + "," + ACTION_DRAG + "," + ACTION_TYPE + "," + ACTION_THEME;
+
+    long seed = 1;
+    // Levels of Pages below the Main Page
+    int depth = 2;
+    // Pages on the Main Page and sub Pages of every Page above the last level
+    int fanOut = 4;
+    int itemsPerPage = 100;
+    // The weight of every Item type, by ItemNode type
+    final LinkedHashMap<String, Integer> mix = new LinkedHashMap<>();
+    // Length of the texts in words
+    int minTextLength = 2;
+    int maxTextLength = 12;
+    // Custom Items spread over all Pages
+    int customItems = 10;
+    String[] script = DEFAULT_SCRIPT.split(",");
+    int steps = 40;
+    // Milliseconds between the steps of the script
+    int stepDelay = 300;
+
+    StressConfig() {
+        parseMix(DEFAULT_MIX);
+    }
+
+    /**
+     * @param intent the Intent which started the Activity
+     * @return the configuration or null if the stress mode is not requested
+     * @throws IllegalArgumentException if a value is invalid
+     */
+    public static StressConfig fromIntent(Intent intent) {
+        if(intent == null || !intent.getBooleanExtra(EXTRA_STRESS, false)) return null;
+        StressConfig config = new StressConfig();
+        config.seed = intent.getLongExtra(EXTRA_SEED, config.seed);
+        config.depth = intent.getIntExtra(EXTRA_DEPTH, config.depth);
+        config.fanOut = intent.getIntExtra(EXTRA_FAN_OUT, config.fanOut);
+        config.itemsPerPage = intent.getIntExtra(EXTRA_ITEMS, config.itemsPerPage);
+        if(intent.hasExtra(EXTRA_MIX)) config.parseMix(intent.getStringExtra(EXTRA_MIX));
+        config.minTextLength = intent.getIntExtra(EXTRA_MIN_TEXT, config.minTextLength);
+        config.maxTextLength = intent.getIntExtra(EXTRA_MAX_TEXT, config.maxTextLength);
+        config.customItems = intent.getIntExtra(EXTRA_CUSTOM, config.customItems);
+        if(intent.hasExtra(EXTRA_SCRIPT)) config.script = intent.getStringExtra(EXTRA_SCRIPT).split(",");
+        config.steps = intent.getIntExtra(EXTRA_STEPS, config.steps);
+        config.stepDelay = intent.getIntExtra(EXTRA_STEP_DELAY, config.stepDelay);
+        config.validate();
+        return config;
+    }
+
+    private void parseMix(String value) {
+        mix.clear();
+        for(String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            String type = parts[0].trim();
+            if(!ItemNode.isKnownType(type) || ItemNode.TYPE_CUSTOM.equals(type)) {
+                throw new IllegalArgumentException("Unknown Item type " + type + " in the mix, use the custom extra for Custom Items");
+            }
+            mix.put(type, parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+        }
+    }
+
+    private void validate() {
+        if(depth < 1 || fanOut < 1) throw new IllegalArgumentException("depth and fanOut must be at least 1");
+        if(itemsPerPage < 0 || customItems < 0 || steps < 0 || stepDelay < 0) throw new IllegalArgumentException("Counts must not be negative");
+        long pages = 0;
+        for(long level = 1, count = 1; level <= depth; level++) {
+            count *= fanOut;
+            pages += count;
+            if(pages > MAX_PAGES) throw new IllegalArgumentException("More than " + MAX_PAGES + " Pages, lower depth or fanOut");
+        }
+        if(minTextLength < 1 || maxTextLength < minTextLength) throw new IllegalArgumentException("Invalid text lengths");
+        int weights = 0;
+        for(int weight : mix.values()) {
+            if(weight < 0) throw new IllegalArgumentException("Mix weights must not be negative");
+            weights += weight;
+        }
+        if(weights == 0 && itemsPerPage > 0) throw new IllegalArgumentException("The mix has no weights");
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder mixText = new StringBuilder();
+        for(Map.Entry<String, Integer> entry : mix.entrySet()) {
+            if(mixText.length() > 0) mixText.append(',');
+            mixText.append(entry.getKey()).append(':').append(entry.getValue());
+        }
+        return "seed=" + seed + " depth=" + depth + " fanOut=" + fanOut + " items=" + itemsPerPage + " mix=" + mixText
+                + " text=" + minTextLength + ".." + maxTextLength + " custom=" + customItems
+                + " script=" + TextUtils.join(",", script) + " steps=" + steps;
+    }
+}
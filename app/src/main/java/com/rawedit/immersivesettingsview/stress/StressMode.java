@@ -0,0 +1,76 @@
+package com.rawedit.immersivesettingsview.stress;
+
+import android.util.Log;
+import android.view.View;
+
+import com.google.android.material.button.MaterialButton;
+import com.rawedit.immersivesettingsview.R;
+import com.rawedit.immersivesettingsview.SettingsView;
+import com.rawedit.immersivesettingsview.items.CustomSettingsItem;
+import com.rawedit.immersivesettingsview.items.SettingsItem;
+import com.rawedit.immersivesettingsview.items.TextSettingsItem;
+import com.rawedit.immersivesettingsview.pages.SettingsPage;
+import com.rawedit.immersivesettingsview.schema.ItemNode;
+import com.rawedit.immersivesettingsview.schema.PageNode;
+import com.rawedit.immersivesettingsview.schema.SchemaInflater;
+import com.rawedit.immersivesettingsview.schema.SettingsSchema;
+
+import java.util.LinkedHashMap;
+
+/**
+ * Fills a SettingsView with a generated tree instead of the example Pages, for profiling under a repeatable load
+ */
+public final class StressMode {
+
+    public static final String TAG = StressMode.class.getSimpleName();
+
+    private StressMode() {
+    }
+
+    /**
+     * Adds the generated Pages to the SettingsView
+     * @param settingsView an empty SettingsView
+     * @param config the configuration
+     * @return the script for the tree, not started yet
+     */
+    public static StressScript install(final SettingsView settingsView, StressConfig config) {
+        long start = System.nanoTime();
+        SettingsSchema schema = new StressTreeGenerator(config).generate();
+        final LinkedHashMap<String, SettingsPage> pages = new LinkedHashMap<>();
+        SchemaInflater inflater = new SchemaInflater(settingsView);
+        inflater.setOnItemInflated(new SchemaInflater.OnItemInflated() {
+            @Override
+            public void itemInflated(ItemNode node, SettingsItem item) {
+                final String opens = node.getString(StressTreeGenerator.ATTR_OPENS);
+                if(opens != null && item instanceof TextSettingsItem) {
+                    ((TextSettingsItem) item).setOnClickListener(new View.OnClickListener() {
+                        @Override
+                        public void onClick(View v) {
+                            settingsView.setPage(pages.get(opens), true);
+                        }
+                    });
+                }else if(item instanceof CustomSettingsItem) {
+                    setupCustomItem((CustomSettingsItem) item, node.getString(ItemNode.ATTR_TEXT));
+                }
+            }
+        });
+        for(PageNode node : schema.getPages()) {
+            SettingsPage page = inflater.createPage(node);
+            pages.put(node.getTitle(), page);
+            settingsView.add(page);
+        }
+        Log.i(TAG, "Generated " + pages.size() + " Pages in " + (System.nanoTime() - start) / 1_000_000 + " ms, " + config);
+        return new StressScript(settingsView, pages, config);
+    }
+
+    private static void setupCustomItem(final CustomSettingsItem item, final String text) {
+        item.setViewIds(R.id.textview);
+        item.setSetupViewsListener(new CustomSettingsItem.SetupViews() {
+            @Override
+            public void setupViews(View root) {
+                MaterialButton button = item.getBoundView(0);
+                button.setText(text);
+            }
+        });
+    }
+}
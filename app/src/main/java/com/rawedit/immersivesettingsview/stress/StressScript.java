@@ -0,0 +1,246 @@
+package com.rawedit.immersivesettingsview.stress;
+
+import android.graphics.Color;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.EditText;
+
+import com.google.android.material.slider.Slider;
+import com.rawedit.immersivesettingsview.SettingsView;
+import com.rawedit.immersivesettingsview.items.EditTextSettingsItem;
+import com.rawedit.immersivesettingsview.items.SettingsItem;
+import com.rawedit.immersivesettingsview.items.SliderSettingsItem;
+import com.rawedit.immersivesettingsview.pages.SettingsPage;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A seeded sequence of user actions on a generated tree: opening and leaving Pages,
+ * dragging Sliders, typing into and saving EditTexts and changing the colors.
+ * Every step is a trace section named stress:action, so it can be found in a system trace.
+ */
+public final class StressScript {
+
+    private static final long FRAME_MILLIS = 16;
+    private static final long KEY_MILLIS = 80;
+    private static final int DRAG_MOVES = 24;
+    private static final int TYPED_LENGTH = 12;
+    // Other seed than the tree, so changing the script does not change the tree
+    private static final long SCRIPT_SEED = 0x5C41F7L;
+
+    private final SettingsView settingsView;
+    private final Map<String, SettingsPage> pages;
+    private final StressConfig config;
+    private final Random random;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ArrayList<String> path = new ArrayList<>();
+    private int step = 0;
+    private long startTime;
+    private boolean running = false;
+
+    StressScript(SettingsView settingsView, Map<String, SettingsPage> pages, StressConfig config) {
+        this.settingsView = settingsView;
+        this.pages = pages;
+        this.config = config;
+        this.random = new Random(config.seed ^ SCRIPT_SEED);
+    }
+
+    public void start() {
+        if(running) return;
+        running = true;
+        step = 0;
+        startTime = SystemClock.uptimeMillis();
+        handler.postDelayed(nextStep, config.stepDelay);
+    }
+
+    public void stop() {
+        running = false;
+        handler.removeCallbacksAndMessages(null);
+    }
+
+    private final Runnable nextStep = new Runnable() {
+        @Override
+        public void run() {
+            if(!running) return;
+            if(step >= config.steps) {
+                running = false;
+                Log.i(StressMode.TAG, "Script finished, " + step + " steps in " + (SystemClock.uptimeMillis() - startTime) + " ms");
+                return;
+            }
+            step++;
+            String action = config.script[random.nextInt(config.script.length)].trim();
+            long start = System.nanoTime();
+            Trace.beginSection("stress:" + action);
+            try {
+                perform(action);
+            }finally {
+                Trace.endSection();
+            }
+            Log.d(StressMode.TAG, "Step " + step + " " + action + " took " + (System.nanoTime() - start) / 1000 + " us");
+        }
+    };
+
+    private final Runnable scheduleNext = new Runnable() {
+        @Override
+        public void run() {
+            if(running) handler.postDelayed(nextStep, config.stepDelay);
+        }
+    };
+
+    private void perform(String action) {
+        switch(action) {
+            case StressConfig.ACTION_NAVIGATE:
+                navigate();
+                scheduleNext.run();
+                break;
+            case StressConfig.ACTION_DRAG:
+                drag();
+                break;
+            case StressConfig.ACTION_TYPE:
+                type();
+                break;
+            case StressConfig.ACTION_THEME:
+                settingsView.setRippleColor(randomColor());
+                settingsView.setAlternativeColor(randomColor());
+                scheduleNext.run();
+                break;
+            default:
+                Log.w(StressMode.TAG, "Unknown script action " + action);
+                scheduleNext.run();
+        }
+    }
+
+    // Opens a sub Page or goes back, deeper levels become less likely
+    private void navigate() {
+        ArrayList<String> children = new ArrayList<>();
+        String prefix = path.isEmpty() ? "" : path.get(path.size() - 1) + ".";
+        for(int i = 1; i <= config.fanOut; i++) {
+            if(pages.containsKey(StressTreeGenerator.getTitle(prefix + i))) children.add(prefix + i);
+        }
+        boolean open = !children.isEmpty() && (path.isEmpty() || random.nextInt(path.size() + 1) == 0);
+        if(open) {
+            String child = children.get(random.nextInt(children.size()));
+            path.add(child);
+            settingsView.setPage(pages.get(StressTreeGenerator.getTitle(child)), true);
+        }else if(!path.isEmpty()) {
+            path.remove(path.size() - 1);
+            settingsView.back();
+        }
+    }
+
+    private void drag() {
+        SliderSettingsItem item = randomItem(SliderSettingsItem.class);
+        final Slider slider = item == null ? null : findView(item, Slider.class);
+        if(slider == null || slider.getWidth() == 0) {
+            scheduleNext.run();
+            return;
+        }
+        scrollTo(item);
+        final long downTime = SystemClock.uptimeMillis();
+        final float y = slider.getHeight() / 2f;
+        final float from = slider.getWidth() * random.nextFloat();
+        final float to = slider.getWidth() * random.nextFloat();
+        touch(slider, MotionEvent.ACTION_DOWN, downTime, from, y);
+        // One move per frame, like a finger
+        for(int i = 1; i <= DRAG_MOVES; i++) {
+            final int move = i;
+            handler.postDelayed(new Runnable() {
+                @Override
+                public void run() {
+                    float x = from + (to - from) * move / DRAG_MOVES;
+                    touch(slider, MotionEvent.ACTION_MOVE, downTime, x, y);
+                    if(move == DRAG_MOVES) {
+                        touch(slider, MotionEvent.ACTION_UP, downTime, x, y);
+                        scheduleNext.run();
+                    }
+                }
+            }, move * FRAME_MILLIS);
+        }
+    }
+
+    private void type() {
+        EditTextSettingsItem item = randomItem(EditTextSettingsItem.class);
+        final EditText editText = item == null ? null : findView(item, EditText.class);
+        final Button button = item == null ? null : findView(item, Button.class);
+        if(editText == null) {
+            scheduleNext.run();
+            return;
+        }
+        scrollTo(item);
+        editText.requestFocus();
+        editText.setText("");
+        final String text = randomText();
+        for(int i = 0; i < text.length(); i++) {
+            final int index = i;
+            handler.postDelayed(new Runnable() {
+                @Override
+                public void run() {
+                    editText.append(text.substring(index, index + 1));
+                    if(index == text.length() - 1) {
+                        // Saves the value
+                        if(button != null) button.performClick();
+                        scheduleNext.run();
+                    }
+                }
+            }, (index + 1) * KEY_MILLIS);
+        }
+    }
+
+    private void scrollTo(SettingsItem item) {
+        SettingsPage page = currentPage();
+        if(page != null) page.scrollTo(0, item.getTop());
+    }
+
+    private SettingsPage currentPage() {
+        return path.isEmpty() ? null : pages.get(StressTreeGenerator.getTitle(path.get(path.size() - 1)));
+    }
+
+    private <T extends SettingsItem> T randomItem(Class<T> type) {
+        SettingsPage page = currentPage();
+        if(page == null) return null;
+        ArrayList<T> candidates = new ArrayList<>();
+        for(SettingsItem item : page.getItems()) {
+            if(type.isInstance(item)) candidates.add(type.cast(item));
+        }
+        return candidates.isEmpty() ? null : candidates.get(random.nextInt(candidates.size()));
+    }
+
+    private static <T extends View> T findView(View view, Class<T> type) {
+        if(type.isInstance(view)) return type.cast(view);
+        if(view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for(int i = 0; i < group.getChildCount(); i++) {
+                T found = findView(group.getChildAt(i), type);
+                if(found != null) return found;
+            }
+        }
+        return null;
+    }
+
+    private static void touch(View view, int action, long downTime, float x, float y) {
+        MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, x, y, 0);
+        view.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    private String randomText() {
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < TYPED_LENGTH; i++) {
+            text.append((char) ('a' + random.nextInt(26)));
+        }
+        return text.toString();
+    }
+
+    private int randomColor() {
+        return Color.rgb(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+    }
+}
@@ -0,0 +1,164 @@
+package com.rawedit.immersivesettingsview.stress;
+
+import com.rawedit.immersivesettingsview.schema.ItemNode;
+import com.rawedit.immersivesettingsview.schema.PageNode;
+import com.rawedit.immersivesettingsview.schema.SettingsSchema;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates a settings tree from a StressConfig, the same config always gives the same tree.
+ * <p>
+ * Every Page above the last level gets fanOut link Items which open its sub Pages.
+ * SettingsView only knows Pages it can list on its Main Page, so the Pages of all levels are part of the schema.
+ */
+public final class StressTreeGenerator {
+
+    // Attribute of a text Item with the title of the Page it opens
+    public static final String ATTR_OPENS = "opens";
+    public static final String CUSTOM_LAYOUT = "setting_text";
+
+    private static final String[] SYLLABLES = {
+            "an", "ro", "ta", "mel", "ki", "sto", "ver", "lu", "dra", "pen", "si", "cor", "ba", "ne", "qui", "tor"
+    };
+
+    private final StressConfig config;
+    private final Random random;
+    private int remainingCustomItems;
+    private int pageCount;
+
+    public StressTreeGenerator(StressConfig config) {
+        this.config = config;
+        this.random = new Random(config.seed);
+    }
+
+    /**
+     * @return the Pages of all levels, the first level first
+     */
+    public SettingsSchema generate() {
+        remainingCustomItems = config.customItems;
+        pageCount = countPages();
+        ArrayList<PageNode> pages = new ArrayList<>(pageCount);
+        ArrayList<String> level = new ArrayList<>();
+        for(int i = 0; i < config.fanOut; i++) {
+            level.add(String.valueOf(i + 1));
+        }
+        for(int depth = 1; depth <= config.depth; depth++) {
+            ArrayList<String> next = new ArrayList<>();
+            for(String path : level) {
+                ArrayList<String> children = new ArrayList<>();
+                if(depth < config.depth) {
+                    for(int i = 0; i < config.fanOut; i++) {
+                        children.add(path + "." + (i + 1));
+                    }
+                    next.addAll(children);
+                }
+                pages.add(createPage(path, children));
+            }
+            level = next;
+        }
+        return new SettingsSchema(pages, new ArrayList<ItemNode>());
+    }
+
+    /**
+     * @param path the position of the Page in the tree, like 2.1.3
+     * @return the title of the Page
+     */
+    public static String getTitle(String path) {
+        return "Page " + path;
+    }
+
+    private int countPages() {
+        int count = 0;
+        for(int depth = 1, level = 1; depth <= config.depth; depth++) {
+            level *= config.fanOut;
+            count += level;
+        }
+        return count;
+    }
+
+    private PageNode createPage(String path, List<String> children) {
+        ArrayList<ItemNode> items = new ArrayList<>();
+        for(String child : children) {
+            items.add(new ItemNode.Builder(ItemNode.TYPE_TEXT).set(ItemNode.ATTR_TEXT, "Open " + getTitle(child) + ": " + text())
+                    .set(ATTR_OPENS, getTitle(child)).build());
+        }
+        // The Custom Items are spread evenly, the remainder goes to the first Pages
+        int custom = Math.min(remainingCustomItems, (config.customItems + pageCount - 1) / pageCount);
+        remainingCustomItems -= custom;
+        for(int i = 0; i < config.itemsPerPage + custom; i++) {
+            String key = "stress_" + path + "_" + i;
+            if(i >= config.itemsPerPage) {
+                items.add(new ItemNode.Builder(ItemNode.TYPE_CUSTOM).set(ItemNode.ATTR_LAYOUT, CUSTOM_LAYOUT)
+                        .set(ItemNode.ATTR_ID, key).set(ItemNode.ATTR_TEXT, text()).build());
+            }else {
+                items.add(createItem(nextType(), key));
+            }
+        }
+        return new PageNode(getTitle(path), getTitle(path) + " " + text(), null, items);
+    }
+
+    private ItemNode createItem(String type, String key) {
+        ItemNode.Builder builder = new ItemNode.Builder(type);
+        switch(type) {
+            case ItemNode.TYPE_TEXT:
+                return builder.set(ItemNode.ATTR_TEXT, text()).build();
+            case ItemNode.TYPE_SWITCH:
+            case ItemNode.TYPE_CHECKBOX:
+                builder.set(ItemNode.ATTR_TEXT, text()).set(ItemNode.ATTR_DEFAULT, random.nextBoolean());
+                break;
+            case ItemNode.TYPE_SLIDER:
+                int max = 10 + random.nextInt(190);
+                builder.set(ItemNode.ATTR_MESSAGE, text()).set(ItemNode.ATTR_MIN, 0f).set(ItemNode.ATTR_MAX, (float) max)
+                        .set(ItemNode.ATTR_STEP, 1f).set(ItemNode.ATTR_DEFAULT, (float) random.nextInt(max + 1));
+                break;
+            case ItemNode.TYPE_CHOICE:
+                int options = 2 + random.nextInt(6);
+                builder.set(ItemNode.ATTR_MESSAGE, text()).set(ItemNode.ATTR_MULTI_CHOICE, random.nextInt(4) == 0);
+                for(int i = 0; i < options; i++) {
+                    builder.addOption("option" + i, text());
+                }
+                builder.set(ItemNode.ATTR_DEFAULT, "option0");
+                break;
+            case ItemNode.TYPE_EDITTEXT:
+                builder.set(ItemNode.ATTR_MESSAGE, text()).set(ItemNode.ATTR_HINT, word()).set(ItemNode.ATTR_BUTTON_TEXT, "Save");
+                break;
+        }
+        return builder.set(ItemNode.ATTR_KEY, key).build();
+    }
+
+    private String nextType() {
+        int total = 0;
+        for(int weight : config.mix.values()) {
+            total += weight;
+        }
+        int pick = random.nextInt(total);
+        for(Map.Entry<String, Integer> entry : config.mix.entrySet()) {
+            pick -= entry.getValue();
+            if(pick < 0) return entry.getKey();
+        }
+        throw new IllegalStateException("The mix has no weights");
+    }
+
+    private String text() {
+        int words = config.minTextLength + random.nextInt(config.maxTextLength - config.minTextLength + 1);
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < words; i++) {
+            if(i > 0) text.append(' ');
+            text.append(word());
+        }
+        return text.toString();
+    }
+
+    private String word() {
+        StringBuilder word = new StringBuilder();
+        int syllables = 1 + random.nextInt(3);
+        for(int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+}